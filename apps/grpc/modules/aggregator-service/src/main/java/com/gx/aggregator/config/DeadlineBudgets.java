@@ -0,0 +1,46 @@
+package com.gx.aggregator.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.Deadline;
+import io.grpc.MethodDescriptor;
+
+/**
+ * Latency budget of each outgoing unary gRPC method, from
+ * aggregator.deadline.*. A method without its own budget gets the default
+ * one; streaming calls get none, since they are meant to stay open.
+ */
+@Component
+public class DeadlineBudgets {
+    private final Map<String, Long> budgetNanos;
+    private final long defaultBudgetNanos;
+
+    public DeadlineBudgets(@Value("${aggregator.deadline.get-user-information:1s}") Duration getUserInformation,
+            @Value("${aggregator.deadline.get-users-information:2s}") Duration getUsersInformation,
+            @Value("${aggregator.deadline.trade-stock:3s}") Duration tradeStock,
+            @Value("${aggregator.deadline.default:5s}") Duration defaultBudget) {
+        this.budgetNanos = Map.of(
+                UserServiceGrpc.getGetUserInformationMethod().getFullMethodName(), getUserInformation.toNanos(),
+                UserServiceGrpc.getGetUsersInformationMethod().getFullMethodName(), getUsersInformation.toNanos(),
+                UserServiceGrpc.getTradeStockMethod().getFullMethodName(), tradeStock.toNanos());
+        this.defaultBudgetNanos = defaultBudget.toNanos();
+    }
+
+    /**
+     * @return a deadline one budget from now, or null for streaming methods
+     */
+    public Deadline deadlineFor(MethodDescriptor<?, ?> method) {
+        if (method.getType() != MethodDescriptor.MethodType.UNARY) {
+            return null;
+        }
+        var budget = this.budgetNanos.getOrDefault(method.getFullMethodName(), this.defaultBudgetNanos);
+        return Deadline.after(budget, TimeUnit.NANOSECONDS);
+    }
+}
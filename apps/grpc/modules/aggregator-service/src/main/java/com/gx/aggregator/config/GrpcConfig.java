@@ -4,16 +4,20 @@ import java.util.logging.Logger;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.grpc.client.GrpcChannelBuilderCustomizer;
 import org.springframework.grpc.client.GrpcChannelFactory;
 
 import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 import io.grpc.Metadata;
 import io.grpc.stub.MetadataUtils;
 import org.springframework.http.converter.protobuf.ProtobufJsonFormatHttpMessageConverter;
 
 import com.google.protobuf.util.JsonFormat;
+import com.gx.aggregator.converter.ProtobufFastJsonHttpMessageConverter;
 import com.gx.user.UserServiceGrpc;
 
 /**
@@ -107,6 +111,21 @@ public class GrpcConfig {
         };
     }
 
+    /**
+     * Writes UserInformation and StockTradeResponse JSON without going
+     * through JsonFormat's reflection. Ordered first so it wins over the
+     * JsonFormat converter below for those types.
+     */
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public ProtobufFastJsonHttpMessageConverter protobufFastJsonHttpMessageConverter() {
+        return new ProtobufFastJsonHttpMessageConverter();
+    }
+
+    /**
+     * Handles JSON request bodies, the remaining message types and
+     * application/x-protobuf in both directions.
+     */
     @Bean
     public ProtobufJsonFormatHttpMessageConverter protobufJsonFormatHttpMessageConverter() {
         return new ProtobufJsonFormatHttpMessageConverter(
@@ -116,12 +135,29 @@ public class GrpcConfig {
     }
 
     /**
-     * Create UserService gRPC stub bean.
+     * Shared channel to user-service.
      * The authority "user-service" must match the property prefix in
      * application.properties
      */
     @Bean
-    public UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub(GrpcChannelFactory channelFactory) {
-        return UserServiceGrpc.newBlockingStub(channelFactory.createChannel("user-service"));
+    public ManagedChannel userServiceChannel(GrpcChannelFactory channelFactory) {
+        return channelFactory.createChannel("user-service");
+    }
+
+    /**
+     * Create UserService gRPC blocking stub bean.
+     */
+    @Bean
+    public UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub(ManagedChannel userServiceChannel) {
+        return UserServiceGrpc.newBlockingStub(userServiceChannel);
+    }
+
+    /**
+     * Create UserService gRPC async stub bean, used when aggregator.grpc.async
+     * is enabled so REST requests do not hold a servlet thread for the RPC.
+     */
+    @Bean
+    public UserServiceGrpc.UserServiceStub userServiceStub(ManagedChannel userServiceChannel) {
+        return UserServiceGrpc.newStub(userServiceChannel);
     }
 }
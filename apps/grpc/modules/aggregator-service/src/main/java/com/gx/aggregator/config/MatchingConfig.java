@@ -0,0 +1,28 @@
+package com.gx.aggregator.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gx.aggregator.matching.MatchingEngine;
+import com.gx.aggregator.service.FillSettlementService;
+import com.gx.aggregator.service.TopOfBookPublisher;
+
+@Configuration
+public class MatchingConfig {
+
+    /**
+     * One order book and matching thread per ticker. Prices are integer ticks
+     * in [1, aggregator.matching.max-price]; each book preallocates level
+     * arrays of that size. GetOrder still answers for the last
+     * aggregator.matching.closed-orders filled or cancelled orders per ticker.
+     */
+    @Bean(destroyMethod = "close")
+    public MatchingEngine matchingEngine(FillSettlementService fillSettlementService,
+            TopOfBookPublisher topOfBookPublisher,
+            @Value("${aggregator.matching.max-price:100000}") int maxPrice,
+            @Value("${aggregator.matching.initial-orders:65536}") int initialOrders,
+            @Value("${aggregator.matching.closed-orders:65536}") int closedOrders) {
+        return new MatchingEngine(maxPrice, initialOrders, closedOrders, fillSettlementService, topOfBookPublisher);
+    }
+}
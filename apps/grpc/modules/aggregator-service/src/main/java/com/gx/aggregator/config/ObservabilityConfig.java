@@ -0,0 +1,52 @@
+package com.gx.aggregator.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gx.aggregator.jfr.PriceFanOutEvent;
+import com.gx.observability.interceptor.GrpcClientMetricsInterceptor;
+import com.gx.observability.interceptor.GrpcServerMetricsInterceptor;
+import com.gx.observability.jfr.JfrRecordingEndpoint;
+import com.gx.observability.tracing.TraceController;
+import com.gx.observability.tracing.Tracer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Beans from grpc-observability, which is shared with user-service and not
+ * component-scanned: the interceptors carry their own global registration
+ * and order.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public GrpcServerMetricsInterceptor grpcServerMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new GrpcServerMetricsInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public GrpcClientMetricsInterceptor grpcClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new GrpcClientMetricsInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public JfrRecordingEndpoint jfrRecordingEndpoint(@Value("${aggregator.jfr.max-age:30m}") Duration maxAge) {
+        return new JfrRecordingEndpoint("aggregator-service", maxAge, List.of(PriceFanOutEvent.class));
+    }
+
+    @Bean
+    public Tracer tracer(@Value("${aggregator.tracing.target-per-second:50}") double targetPerSecond,
+            @Value("${aggregator.tracing.ring-size:1024}") int ringSize) {
+        return new Tracer(targetPerSecond, ringSize);
+    }
+
+    @Bean
+    public TraceController traceController(Tracer tracer) {
+        return new TraceController(tracer);
+    }
+}
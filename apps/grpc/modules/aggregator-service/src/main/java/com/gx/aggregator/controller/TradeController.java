@@ -1,5 +1,7 @@
 package com.gx.aggregator.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -18,8 +20,9 @@ import lombok.RequiredArgsConstructor;
 public class TradeController {
     private final TradeService tradeService;
 
-    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public StockTradeResponse trade(@RequestBody StockTradeRequest request) {
-        return this.tradeService.trade(request);
+    @PostMapping(consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf" },
+            produces = { MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf" })
+    public CompletableFuture<StockTradeResponse> trade(@RequestBody StockTradeRequest request) {
+        return this.tradeService.tradeAsync(request);
     }
 }
@@ -1,5 +1,7 @@
 package com.gx.aggregator.controller;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -7,6 +9,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.gx.aggregator.service.UserService;
+import com.gx.user.UserInformation;
 
 import lombok.RequiredArgsConstructor;
 
@@ -16,8 +19,8 @@ import lombok.RequiredArgsConstructor;
 public class UserController {
     private final UserService userService;
 
-    @GetMapping(value = "/{userId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Object getUserInformation(@PathVariable Integer userId) {
-        return this.userService.getUserInformation(userId);
+    @GetMapping(value = "/{userId}", produces = { MediaType.APPLICATION_JSON_VALUE, "application/x-protobuf" })
+    public CompletableFuture<UserInformation> getUserInformation(@PathVariable Integer userId) {
+        return this.userService.getUserInformationAsync(userId);
     }
 }
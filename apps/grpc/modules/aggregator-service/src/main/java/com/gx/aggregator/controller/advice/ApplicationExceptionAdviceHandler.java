@@ -1,5 +1,6 @@
 package com.gx.aggregator.controller.advice;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -18,6 +19,10 @@ public class ApplicationExceptionAdviceHandler {
         return switch (status.getCode()) {
             case INVALID_ARGUMENT, FAILED_PRECONDITION -> ResponseEntity.badRequest().body(message);
             case NOT_FOUND -> ResponseEntity.notFound().build();
+            // user-service did not answer within the call's budget
+            case DEADLINE_EXCEEDED -> ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(message);
+            // the trade pipeline's ring stayed full
+            case RESOURCE_EXHAUSTED -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(message);
             case null, default -> ResponseEntity.internalServerError().body(ex.getMessage());
         };
     }
@@ -0,0 +1,238 @@
+package com.gx.aggregator.converter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal buffered UTF-8 JSON writer used by {@link ProtobufJsonWriters}.
+ *
+ * String escaping matches what {@code JsonFormat.printer()} produces (it
+ * delegates to Gson with HTML escaping on), so the fast path and the
+ * reflective path emit byte-identical documents.
+ */
+public final class JsonOutput {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_DEPTH = 64;
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+    // bit n set = the object/array at depth n already has a member
+    private long hasMember;
+    private int depth;
+    private boolean afterName;
+
+    public JsonOutput(OutputStream out) {
+        this(out, 512);
+    }
+
+    public JsonOutput(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, 16)];
+    }
+
+    /**
+     * Pre-encodes {@code "name":} so writers only copy bytes per field.
+     */
+    public static byte[] fieldName(String name) {
+        return ("\"" + name + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public JsonOutput beginObject() throws IOException {
+        this.beginValue();
+        this.writeByte('{');
+        this.push();
+        return this;
+    }
+
+    public JsonOutput endObject() throws IOException {
+        this.depth--;
+        this.writeByte('}');
+        return this;
+    }
+
+    public JsonOutput beginArray() throws IOException {
+        this.beginValue();
+        this.writeByte('[');
+        this.push();
+        return this;
+    }
+
+    public JsonOutput endArray() throws IOException {
+        this.depth--;
+        this.writeByte(']');
+        return this;
+    }
+
+    /**
+     * Writes a member name produced by {@link #fieldName(String)}; the next
+     * call must write its value.
+     */
+    public JsonOutput name(byte[] encodedName) throws IOException {
+        this.separate();
+        this.writeBytes(encodedName);
+        this.afterName = true;
+        return this;
+    }
+
+    public JsonOutput value(int value) throws IOException {
+        this.beginValue();
+        if (value == Integer.MIN_VALUE) {
+            this.writeBytes("-2147483648".getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+        this.ensure(11);
+        if (value < 0) {
+            this.buffer[this.position++] = '-';
+            value = -value;
+        }
+        var digits = stringSize(value);
+        var end = this.position + digits;
+        for (var i = end - 1; i >= this.position; i--) {
+            this.buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        this.position = end;
+        return this;
+    }
+
+    public JsonOutput value(String value) throws IOException {
+        this.beginValue();
+        this.writeByte('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                this.writeAsciiChar(c);
+            } else if (c < 0x800) {
+                this.ensure(2);
+                this.buffer[this.position++] = (byte) (0xc0 | (c >> 6));
+                this.buffer[this.position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (c == 0x2028 || c == 0x2029) {
+                this.writeUnicodeEscape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                this.ensure(4);
+                this.buffer[this.position++] = (byte) (0xf0 | (codePoint >> 18));
+                this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                this.buffer[this.position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                this.buffer[this.position++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate: same replacement as String.getBytes(UTF_8)
+                this.writeByte('?');
+            } else {
+                this.ensure(3);
+                this.buffer[this.position++] = (byte) (0xe0 | (c >> 12));
+                this.buffer[this.position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                this.buffer[this.position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        this.writeByte('"');
+        return this;
+    }
+
+    public void flush() throws IOException {
+        if (this.position > 0) {
+            this.out.write(this.buffer, 0, this.position);
+            this.position = 0;
+        }
+        this.out.flush();
+    }
+
+    private void writeAsciiChar(char c) throws IOException {
+        switch (c) {
+            case '"' -> this.writeEscape('"');
+            case '\\' -> this.writeEscape('\\');
+            case '\b' -> this.writeEscape('b');
+            case '\t' -> this.writeEscape('t');
+            case '\n' -> this.writeEscape('n');
+            case '\f' -> this.writeEscape('f');
+            case '\r' -> this.writeEscape('r');
+            case '<', '>', '&', '=', '\'' -> this.writeUnicodeEscape(c);
+            default -> {
+                if (c < 0x20) {
+                    this.writeUnicodeEscape(c);
+                } else {
+                    this.writeByte(c);
+                }
+            }
+        }
+    }
+
+    private void writeEscape(char c) throws IOException {
+        this.ensure(2);
+        this.buffer[this.position++] = '\\';
+        this.buffer[this.position++] = (byte) c;
+    }
+
+    private void writeUnicodeEscape(char c) throws IOException {
+        this.ensure(6);
+        this.buffer[this.position++] = '\\';
+        this.buffer[this.position++] = 'u';
+        this.buffer[this.position++] = HEX[(c >> 12) & 0xf];
+        this.buffer[this.position++] = HEX[(c >> 8) & 0xf];
+        this.buffer[this.position++] = HEX[(c >> 4) & 0xf];
+        this.buffer[this.position++] = HEX[c & 0xf];
+    }
+
+    private void push() {
+        if (++this.depth >= MAX_DEPTH) {
+            throw new IllegalStateException("JSON nesting deeper than " + MAX_DEPTH);
+        }
+        this.hasMember &= ~(1L << this.depth);
+    }
+
+    // Array elements need a separator; object values follow their name directly.
+    private void beginValue() throws IOException {
+        if (this.afterName) {
+            this.afterName = false;
+        } else if (this.depth > 0) {
+            this.separate();
+        }
+    }
+
+    private void separate() throws IOException {
+        var bit = 1L << this.depth;
+        if ((this.hasMember & bit) != 0) {
+            this.writeByte(',');
+        }
+        this.hasMember |= bit;
+    }
+
+    private void writeByte(int b) throws IOException {
+        this.ensure(1);
+        this.buffer[this.position++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > this.buffer.length) {
+            this.flushBuffer();
+            this.out.write(bytes);
+            return;
+        }
+        this.ensure(bytes.length);
+        System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+        this.position += bytes.length;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (this.position + bytes > this.buffer.length) {
+            this.flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        this.out.write(this.buffer, 0, this.position);
+        this.position = 0;
+    }
+
+    private static int stringSize(int value) {
+        int size = 1;
+        while (value >= 10) {
+            value /= 10;
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,47 @@
+package com.gx.aggregator.converter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import com.google.protobuf.Message;
+
+/**
+ * Write-only JSON converter for the message types that have a writer in
+ * {@link ProtobufJsonWriters}. It must be registered ahead of
+ * {@code ProtobufJsonFormatHttpMessageConverter}, which keeps handling every
+ * other message type, JSON request bodies and application/x-protobuf.
+ */
+public class ProtobufFastJsonHttpMessageConverter extends AbstractHttpMessageConverter<Message> {
+
+    public ProtobufFastJsonHttpMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ProtobufJsonWriters.supports(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Message readInternal(Class<? extends Message> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Write-only converter", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Message message, HttpOutputMessage outputMessage) throws IOException {
+        var out = new JsonOutput(outputMessage.getBody());
+        ProtobufJsonWriters.writerFor(message.getClass()).write(message, out);
+        out.flush();
+    }
+}
@@ -0,0 +1,121 @@
+package com.gx.aggregator.converter;
+
+import java.io.IOException;
+import java.util.Map;
+
+import com.google.protobuf.Message;
+import com.gx.user.Holding;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.UserInformation;
+
+/**
+ * Hand-written JSON writers for the aggregator's hot response types.
+ *
+ * Output follows proto3 JSON mapping exactly as
+ * {@code JsonFormat.printer().omittingInsignificantWhitespace()} prints it:
+ * lowerCamelCase names in field-number order, default values and empty
+ * repeated fields omitted, enums by name (by number when unrecognized).
+ * When a field is added to one of these messages, its writer here must be
+ * updated too.
+ */
+public final class ProtobufJsonWriters {
+
+    @FunctionalInterface
+    public interface Writer<T extends Message> {
+        void write(T message, JsonOutput out) throws IOException;
+    }
+
+    private static final byte[] USER_ID = JsonOutput.fieldName("userId");
+    private static final byte[] NAME = JsonOutput.fieldName("name");
+    private static final byte[] BALANCE = JsonOutput.fieldName("balance");
+    private static final byte[] HOLDINGS = JsonOutput.fieldName("holdings");
+    private static final byte[] TICKER = JsonOutput.fieldName("ticker");
+    private static final byte[] QUANTITY = JsonOutput.fieldName("quantity");
+    private static final byte[] PRICE = JsonOutput.fieldName("price");
+    private static final byte[] ACTION = JsonOutput.fieldName("action");
+    private static final byte[] TOTAL_PRICE = JsonOutput.fieldName("totalPrice");
+
+    private static final Map<Class<?>, Writer<?>> WRITERS = Map.of(
+            UserInformation.class, (Writer<UserInformation>) ProtobufJsonWriters::writeUserInformation,
+            StockTradeResponse.class, (Writer<StockTradeResponse>) ProtobufJsonWriters::writeStockTradeResponse,
+            Holding.class, (Writer<Holding>) ProtobufJsonWriters::writeHolding);
+
+    private ProtobufJsonWriters() {
+    }
+
+    public static boolean supports(Class<?> type) {
+        return WRITERS.containsKey(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends Message> Writer<T> writerFor(Class<?> type) {
+        return (Writer<T>) WRITERS.get(type);
+    }
+
+    public static void writeUserInformation(UserInformation message, JsonOutput out) throws IOException {
+        out.beginObject();
+        if (message.getUserId() != 0) {
+            out.name(USER_ID).value(message.getUserId());
+        }
+        if (!message.getName().isEmpty()) {
+            out.name(NAME).value(message.getName());
+        }
+        if (message.getBalance() != 0) {
+            out.name(BALANCE).value(message.getBalance());
+        }
+        if (message.getHoldingsCount() > 0) {
+            out.name(HOLDINGS).beginArray();
+            for (var holding : message.getHoldingsList()) {
+                writeHolding(holding, out);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    public static void writeHolding(Holding message, JsonOutput out) throws IOException {
+        out.beginObject();
+        if (message.getTickerValue() != 0) {
+            writeEnum(out.name(TICKER), message.getTicker(), message.getTickerValue());
+        }
+        if (message.getQuantity() != 0) {
+            out.name(QUANTITY).value(message.getQuantity());
+        }
+        out.endObject();
+    }
+
+    public static void writeStockTradeResponse(StockTradeResponse message, JsonOutput out) throws IOException {
+        out.beginObject();
+        if (message.getUserId() != 0) {
+            out.name(USER_ID).value(message.getUserId());
+        }
+        if (message.getTickerValue() != 0) {
+            writeEnum(out.name(TICKER), message.getTicker(), message.getTickerValue());
+        }
+        if (message.getPrice() != 0) {
+            out.name(PRICE).value(message.getPrice());
+        }
+        if (message.getQuantity() != 0) {
+            out.name(QUANTITY).value(message.getQuantity());
+        }
+        if (message.getActionValue() != 0) {
+            writeEnum(out.name(ACTION), message.getAction(), message.getActionValue());
+        }
+        if (message.getTotalPrice() != 0) {
+            out.name(TOTAL_PRICE).value(message.getTotalPrice());
+        }
+        if (message.getBalance() != 0) {
+            out.name(BALANCE).value(message.getBalance());
+        }
+        out.endObject();
+    }
+
+    private static void writeEnum(JsonOutput out, Enum<?> value, int number)
+            throws IOException {
+        if ("UNRECOGNIZED".equals(value.name())) {
+            out.value(number);
+        } else {
+            out.value(value.name());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.gx.aggregator.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.client.GlobalClientInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.gx.aggregator.config.DeadlineBudgets;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Gives every outgoing unary call a deadline from its method's budget in
+ * {@link DeadlineBudgets}, so a slow user-service fails calls with
+ * DEADLINE_EXCEEDED instead of holding requests and threads for as long as
+ * it is slow. An earlier deadline set by the caller wins. The deadline
+ * travels to the server as the grpc-timeout header, where it cancels the
+ * call's context.
+ *
+ * Calls that ran out of time are counted under
+ * aggregator.grpc.deadline.exceeded{method}.
+ */
+@Component
+@GlobalClientInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class GrpcDeadlineInterceptor implements ClientInterceptor {
+    private final DeadlineBudgets budgets;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> exceeded = new ConcurrentHashMap<>();
+
+    public GrpcDeadlineInterceptor(DeadlineBudgets budgets, MeterRegistry meterRegistry) {
+        this.budgets = budgets;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+            CallOptions callOptions, Channel next) {
+        var deadline = this.budgets.deadlineFor(method);
+        if (deadline == null) {
+            return next.newCall(method, callOptions);
+        }
+        if (callOptions.getDeadline() == null || deadline.isBefore(callOptions.getDeadline())) {
+            callOptions = callOptions.withDeadline(deadline);
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        if (status.getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                            GrpcDeadlineInterceptor.this.exceeded(method).increment();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private Counter exceeded(MethodDescriptor<?, ?> method) {
+        return this.exceeded.computeIfAbsent(method.getFullMethodName(),
+                name -> Counter.builder("aggregator.grpc.deadline.exceeded")
+                        .description("Outgoing gRPC calls that ran out of their deadline")
+                        .tag("method", name)
+                        .register(this.meterRegistry));
+    }
+}
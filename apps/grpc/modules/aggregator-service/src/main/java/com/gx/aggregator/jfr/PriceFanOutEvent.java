@@ -0,0 +1,40 @@
+package com.gx.aggregator.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gx.aggregator.PriceFanOut")
+@Label("Price Fan-Out")
+@Category({ "GX", "Aggregator", "Price" })
+@Description("Cache update and SSE delivery of one price update")
+@StackTrace(false)
+public class PriceFanOutEvent extends Event {
+    @Label("Ticker")
+    public String ticker;
+
+    @Label("Price")
+    public int price;
+
+    @Label("Subscribers")
+    @Description("SSE emitters the update was sent to")
+    public int subscribers;
+
+    @Label("Failed")
+    @Description("Emitters dropped because the send failed")
+    public int failed;
+
+    // fields are only filled in when a recording will keep the event
+    public void end(String ticker, int price, int subscribers, int remaining) {
+        if (this.shouldCommit()) {
+            this.ticker = ticker;
+            this.price = price;
+            this.subscribers = subscribers;
+            this.failed = subscribers - remaining;
+            this.commit();
+        }
+    }
+}
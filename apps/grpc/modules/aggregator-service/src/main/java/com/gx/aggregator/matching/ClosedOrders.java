@@ -0,0 +1,85 @@
+package com.gx.aggregator.matching;
+
+/**
+ * The final state of the last orders of one ticker to be filled or
+ * cancelled, so they can still be queried once they leave the book. A ring
+ * of fixed capacity, rounded up to a power of two, overwrites the oldest
+ * entry; an id index finds the others. Not thread-safe: owned by the
+ * ticker's matching thread, like its {@link OrderBook}.
+ */
+final class ClosedOrders {
+    private final long[] orderIds;
+    private final int[] userIds;
+    private final byte[] sides;
+    private final int[] prices;
+    private final int[] quantities;
+    private final int[] filledQuantities;
+    private final boolean[] cancelled;
+    private final int mask;
+    private final LongIntHashMap slotsById;
+    private long added;
+
+    ClosedOrders(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        var size = Math.max(Integer.highestOneBit(capacity - 1) << 1, 1);
+        this.orderIds = new long[size];
+        this.userIds = new int[size];
+        this.sides = new byte[size];
+        this.prices = new int[size];
+        this.quantities = new int[size];
+        this.filledQuantities = new int[size];
+        this.cancelled = new boolean[size];
+        this.mask = size - 1;
+        this.slotsById = new LongIntHashMap(size);
+    }
+
+    void add(long orderId, int userId, byte side, int price, int quantity, int filledQuantity,
+            boolean wasCancelled) {
+        var slot = (int) (this.added++ & this.mask);
+        if (this.orderIds[slot] != 0) {
+            this.slotsById.remove(this.orderIds[slot]);
+        }
+        this.orderIds[slot] = orderId;
+        this.userIds[slot] = userId;
+        this.sides[slot] = side;
+        this.prices[slot] = price;
+        this.quantities[slot] = quantity;
+        this.filledQuantities[slot] = filledQuantity;
+        this.cancelled[slot] = wasCancelled;
+        this.slotsById.put(orderId, slot);
+    }
+
+    /**
+     * @return the slot of a closed order, or -1 if it is unknown or has been
+     *         overwritten; valid until the next {@link #add}
+     */
+    int find(long orderId) {
+        return this.slotsById.get(orderId);
+    }
+
+    int userIdAt(int slot) {
+        return this.userIds[slot];
+    }
+
+    byte sideAt(int slot) {
+        return this.sides[slot];
+    }
+
+    int priceAt(int slot) {
+        return this.prices[slot];
+    }
+
+    int quantityAt(int slot) {
+        return this.quantities[slot];
+    }
+
+    int filledQuantityAt(int slot) {
+        return this.filledQuantities[slot];
+    }
+
+    boolean cancelledAt(int slot) {
+        return this.cancelled[slot];
+    }
+}
@@ -0,0 +1,97 @@
+package com.gx.aggregator.matching;
+
+/**
+ * The occupied price levels of one side of an {@link OrderBook}, one bit
+ * per price, with a summary bit per 64-price word so that finding the next
+ * occupied level reads at most a few words whatever the gap: 100,000 prices
+ * take 1,563 words and a 25-word summary.
+ */
+final class LevelBitmap {
+    private final long[] words;
+    // bit i is set when words[i] != 0
+    private final long[] summary;
+
+    LevelBitmap(int maxPrice) {
+        this.words = new long[(maxPrice >>> 6) + 1];
+        this.summary = new long[(this.words.length >>> 6) + 1];
+    }
+
+    void set(int price) {
+        var word = price >>> 6;
+        this.words[word] |= 1L << price;
+        this.summary[word >>> 6] |= 1L << word;
+    }
+
+    void clear(int price) {
+        var word = price >>> 6;
+        if ((this.words[word] &= ~(1L << price)) == 0) {
+            this.summary[word >>> 6] &= ~(1L << word);
+        }
+    }
+
+    /**
+     * @return the highest set price below {@code price}, or -1
+     */
+    int highestBelow(int price) {
+        if (price <= 0) {
+            return -1;
+        }
+        var below = price - 1;
+        var word = below >>> 6;
+        var bits = this.words[word] & (-1L >>> (63 - (below & 63)));
+        if (bits != 0) {
+            return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+        }
+        word = this.highestWordBelow(word);
+        return word < 0 ? -1 : (word << 6) + 63 - Long.numberOfLeadingZeros(this.words[word]);
+    }
+
+    /**
+     * @return the lowest set price above {@code price}, or -1
+     */
+    int lowestAbove(int price) {
+        var above = price + 1;
+        var word = above >>> 6;
+        if (word >= this.words.length) {
+            return -1;
+        }
+        var bits = this.words[word] & (-1L << above);
+        if (bits != 0) {
+            return (word << 6) + Long.numberOfTrailingZeros(bits);
+        }
+        word = this.lowestWordAbove(word);
+        return word < 0 ? -1 : (word << 6) + Long.numberOfTrailingZeros(this.words[word]);
+    }
+
+    private int highestWordBelow(int word) {
+        if (word == 0) {
+            return -1;
+        }
+        var below = word - 1;
+        var group = below >>> 6;
+        var bits = this.summary[group] & (-1L >>> (63 - (below & 63)));
+        while (bits == 0) {
+            if (--group < 0) {
+                return -1;
+            }
+            bits = this.summary[group];
+        }
+        return (group << 6) + 63 - Long.numberOfLeadingZeros(bits);
+    }
+
+    private int lowestWordAbove(int word) {
+        var above = word + 1;
+        var group = above >>> 6;
+        if (group >= this.summary.length) {
+            return -1;
+        }
+        var bits = this.summary[group] & (-1L << above);
+        while (bits == 0) {
+            if (++group == this.summary.length) {
+                return -1;
+            }
+            bits = this.summary[group];
+        }
+        return (group << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
@@ -0,0 +1,123 @@
+package com.gx.aggregator.matching;
+
+/**
+ * Open-addressing long to int map with linear probing and backward-shift
+ * deletion, so lookups never walk over tombstones. Not thread-safe; each
+ * {@link OrderBook} owns one.
+ */
+final class LongIntHashMap {
+    static final int MISSING = -1;
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    LongIntHashMap(int expectedSize) {
+        var capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 16)) << 1;
+        this.allocate(capacity);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @param key must not be 0, which marks an empty slot
+     */
+    void put(long key, int value) {
+        var slot = this.slot(key);
+        while (this.keys[slot] != EMPTY) {
+            if (this.keys[slot] == key) {
+                this.values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+        if (++this.size >= this.resizeAt) {
+            this.rehash(this.keys.length << 1);
+        }
+    }
+
+    int get(long key) {
+        var slot = this.slot(key);
+        long existing;
+        while ((existing = this.keys[slot]) != EMPTY) {
+            if (existing == key) {
+                return this.values[slot];
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return MISSING;
+    }
+
+    int remove(long key) {
+        var slot = this.slot(key);
+        long existing;
+        while ((existing = this.keys[slot]) != EMPTY) {
+            if (existing == key) {
+                var value = this.values[slot];
+                this.shiftBack(slot);
+                this.size--;
+                return value;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return MISSING;
+    }
+
+    // Moves later members of the probe chain into the freed slot.
+    private void shiftBack(int gap) {
+        var slot = gap;
+        while (true) {
+            slot = (slot + 1) & this.mask;
+            var key = this.keys[slot];
+            if (key == EMPTY) {
+                break;
+            }
+            var home = this.slot(key);
+            // the entry can move into the gap only if its home is not in (gap, slot]
+            if (((slot - home) & this.mask) >= ((slot - gap) & this.mask)) {
+                this.keys[gap] = key;
+                this.values[gap] = this.values[slot];
+                gap = slot;
+            }
+        }
+        this.keys[gap] = EMPTY;
+    }
+
+    // the home slot of key; package-private for tests
+    int slot(long key) {
+        var hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    private void rehash(int capacity) {
+        var oldKeys = this.keys;
+        var oldValues = this.values;
+        this.allocate(capacity);
+        for (var i = 0; i < oldKeys.length; i++) {
+            var key = oldKeys[i];
+            if (key != EMPTY) {
+                var slot = this.slot(key);
+                while (this.keys[slot] != EMPTY) {
+                    slot = (slot + 1) & this.mask;
+                }
+                this.keys[slot] = key;
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        this.resizeAt = capacity / 2;
+    }
+}
@@ -0,0 +1,385 @@
+package com.gx.aggregator.matching;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.gx.common.Ticker;
+import com.gx.order.OrderState;
+import com.gx.order.OrderStatus;
+import com.gx.order.PlaceOrderRequest;
+import com.gx.order.TopOfBook;
+import com.gx.user.TradeAction;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+
+/**
+ * Runs one {@link OrderBook} per ticker, each on its own thread.
+ *
+ * Callers enqueue commands on a lock-free queue and get a future back; the
+ * ticker's thread drains the queue and is the only code that touches the
+ * book, so matching needs no locks. Fills are reported as they happen and
+ * top of book is published once per drained burst of commands, so a busy
+ * book conflates its market data instead of queueing it.
+ *
+ * Order ids carry the ticker number in their top bits so cancel and query
+ * requests can be routed without a shared index.
+ *
+ * Once an order is filled or cancelled it leaves the book, but its final
+ * state is kept among the last {@code closedOrders} closed orders of its
+ * ticker, so {@link #get} can still tell a filled order from an unknown
+ * one. Only orders older than that are NOT_FOUND.
+ */
+public final class MatchingEngine implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(MatchingEngine.class.getName());
+    private static final int TICKER_SHIFT = 40;
+    private static final int IDLE_SPINS = 1_000;
+    private static final String NOT_OPEN_MESSAGE = "Order %d is not open.";
+    private static final String NOT_FOUND_MESSAGE = "Order %d not found.";
+
+    @FunctionalInterface
+    public interface FillListener {
+        /**
+         * Called on the ticker's matching thread; must not block. See
+         * {@link OrderBook.FillSink} for the arguments.
+         */
+        void onFill(Ticker ticker, long buyOrderId, int buyUserId, int buyLimitPrice, long sellOrderId,
+                int sellUserId, int price, int quantity);
+    }
+
+    private final Map<Ticker, Worker> workers = new EnumMap<>(Ticker.class);
+
+    /**
+     * @param closedOrders      how many filled or cancelled orders per ticker
+     *                          {@link #get} still answers for
+     * @param topOfBookListener called on the ticker's matching thread; must
+     *                          not block
+     */
+    public MatchingEngine(int maxPrice, int initialOrders, int closedOrders, FillListener fillListener,
+            Consumer<TopOfBook> topOfBookListener) {
+        for (var ticker : Ticker.values()) {
+            if (ticker != Ticker.UNKNOWN && ticker != Ticker.UNRECOGNIZED) {
+                this.workers.put(ticker, new Worker(ticker, maxPrice, initialOrders, closedOrders, fillListener,
+                        topOfBookListener));
+            }
+        }
+        this.workers.values().forEach(Worker::start);
+    }
+
+    public CompletableFuture<OrderState> place(PlaceOrderRequest request) {
+        var invalid = this.validate(request);
+        if (invalid != null) {
+            return CompletableFuture.failedFuture(invalid);
+        }
+        return this.workers.get(request.getTicker()).submit(new Place(request, new CompletableFuture<>()));
+    }
+
+    /**
+     * @return why {@link #place} would reject the request, or null if it
+     *         would not
+     */
+    public StatusRuntimeException validate(PlaceOrderRequest request) {
+        var worker = this.workers.get(request.getTicker());
+        if (worker == null) {
+            return invalid("Unknown ticker: " + request.getTicker());
+        }
+        if (request.getSide() == TradeAction.UNRECOGNIZED) {
+            return invalid("Unrecognized side: " + request.getSideValue());
+        }
+        if (request.getQuantity() <= 0) {
+            return invalid("Quantity must be positive: " + request.getQuantity());
+        }
+        if (request.getPrice() < 1 || request.getPrice() > worker.book.maxPrice()) {
+            return invalid("Price out of range [1, " + worker.book.maxPrice() + "]: " + request.getPrice());
+        }
+        return null;
+    }
+
+    public CompletableFuture<OrderState> cancel(long orderId) {
+        var worker = this.workerFor(orderId);
+        return worker == null
+                ? notOpen(orderId)
+                : worker.submit(new Cancel(orderId, new CompletableFuture<>()));
+    }
+
+    /**
+     * The state of an open order, or the final state of a recently filled or
+     * cancelled one; NOT_FOUND for an order id that was never issued or was
+     * closed too long ago.
+     */
+    public CompletableFuture<OrderState> get(long orderId) {
+        var worker = this.workerFor(orderId);
+        return worker == null
+                ? CompletableFuture.failedFuture(notFoundException(orderId))
+                : worker.submit(new Get(orderId, new CompletableFuture<>()));
+    }
+
+    @Override
+    public void close() {
+        this.workers.values().forEach(Worker::stop);
+    }
+
+    private Worker workerFor(long orderId) {
+        var ticker = orderId > 0 ? Ticker.forNumber((int) (orderId >>> TICKER_SHIFT)) : null;
+        return ticker == null ? null : this.workers.get(ticker);
+    }
+
+    private static StatusRuntimeException invalid(String message) {
+        return Status.INVALID_ARGUMENT.withDescription(message).asRuntimeException();
+    }
+
+    private static CompletableFuture<OrderState> notOpen(long orderId) {
+        return CompletableFuture.failedFuture(notOpenException(orderId));
+    }
+
+    private static StatusRuntimeException notOpenException(long orderId) {
+        return Status.NOT_FOUND
+                .withDescription(String.format(NOT_OPEN_MESSAGE, orderId))
+                .asRuntimeException();
+    }
+
+    private static StatusRuntimeException notFoundException(long orderId) {
+        return Status.NOT_FOUND
+                .withDescription(String.format(NOT_FOUND_MESSAGE, orderId))
+                .asRuntimeException();
+    }
+
+    private static StatusRuntimeException stopped() {
+        return Status.UNAVAILABLE.withDescription("Matching engine stopped").asRuntimeException();
+    }
+
+    private sealed interface Command permits Place, Cancel, Get {
+        CompletableFuture<OrderState> result();
+    }
+
+    private record Place(PlaceOrderRequest request, CompletableFuture<OrderState> result) implements Command {
+    }
+
+    private record Cancel(long orderId, CompletableFuture<OrderState> result) implements Command {
+    }
+
+    private record Get(long orderId, CompletableFuture<OrderState> result) implements Command {
+    }
+
+    private static final class Worker implements Runnable {
+        private final Ticker ticker;
+        private final OrderBook book;
+        private final ClosedOrders closedOrders;
+        private final Consumer<TopOfBook> topOfBookListener;
+        private final Queue<Command> commands = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean parked;
+
+        // owned by the matching thread
+        private long lastSequence;
+        private long topOfBookSequence;
+        private int publishedBidPrice;
+        private long publishedBidQuantity;
+        private int publishedAskPrice;
+        private long publishedAskQuantity;
+
+        Worker(Ticker ticker, int maxPrice, int initialOrders, int closedOrders, FillListener fillListener,
+                Consumer<TopOfBook> topOfBookListener) {
+            this.ticker = ticker;
+            this.topOfBookListener = topOfBookListener;
+            this.closedOrders = new ClosedOrders(closedOrders);
+            this.book = new OrderBook(maxPrice, initialOrders, new OrderBook.FillSink() {
+                @Override
+                public void onFill(long buyOrderId, int buyUserId, int buyLimitPrice, long sellOrderId,
+                        int sellUserId, int price, int quantity) {
+                    // a throwing listener must not leave the book half-matched
+                    try {
+                        fillListener.onFill(ticker, buyOrderId, buyUserId, buyLimitPrice, sellOrderId, sellUserId,
+                                price, quantity);
+                    } catch (RuntimeException ex) {
+                        logger.log(Level.WARNING, "Fill listener failed on " + ticker, ex);
+                    }
+                }
+
+                @Override
+                public void onRestingOrderFilled(int slot) {
+                    var book = Worker.this.book;
+                    Worker.this.closedOrders.add(book.orderIdAt(slot), book.userIdAt(slot), book.sideAt(slot),
+                            book.priceAt(slot), book.quantityAt(slot), book.quantityAt(slot), false);
+                }
+            });
+            this.thread = new Thread(this, "matching-" + ticker.name().toLowerCase());
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            this.thread.start();
+        }
+
+        void stop() {
+            this.running = false;
+            LockSupport.unpark(this.thread);
+        }
+
+        CompletableFuture<OrderState> submit(Command command) {
+            if (!this.running) {
+                command.result().completeExceptionally(stopped());
+                return command.result();
+            }
+            this.commands.offer(command);
+            if (this.parked) {
+                LockSupport.unpark(this.thread);
+            }
+            return command.result();
+        }
+
+        @Override
+        public void run() {
+            var idle = 0;
+            while (this.running) {
+                var command = this.commands.poll();
+                if (command != null) {
+                    idle = 0;
+                    this.execute(command);
+                    if (this.commands.isEmpty()) {
+                        this.publishTopOfBook();
+                    }
+                } else if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    // re-check after advertising so an offer racing with park is not missed
+                    this.parked = true;
+                    if (this.commands.isEmpty() && this.running) {
+                        LockSupport.park(this);
+                    }
+                    this.parked = false;
+                    idle = 0;
+                }
+            }
+            Command command;
+            while ((command = this.commands.poll()) != null) {
+                command.result().completeExceptionally(stopped());
+            }
+        }
+
+        private void execute(Command command) {
+            try {
+                switch (command) {
+                    case Place place -> place.result().complete(this.place(place.request()));
+                    case Cancel cancel -> this.cancel(cancel);
+                    case Get get -> this.get(get);
+                }
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Order command failed on " + this.ticker, ex);
+                command.result().completeExceptionally(ex);
+            }
+        }
+
+        private OrderState place(PlaceOrderRequest request) {
+            var orderId = ((long) this.ticker.getNumber() << TICKER_SHIFT) | ++this.lastSequence;
+            var side = request.getSide() == TradeAction.BUY ? OrderBook.BUY : OrderBook.SELL;
+            var open = this.book.place(orderId, request.getUserId(), side, request.getPrice(), request.getQuantity());
+            var filled = request.getQuantity() - open;
+            if (open == 0) {
+                this.closedOrders.add(orderId, request.getUserId(), side, request.getPrice(), request.getQuantity(),
+                        filled, false);
+            }
+            return OrderState.newBuilder()
+                    .setOrderId(orderId)
+                    .setUserId(request.getUserId())
+                    .setTicker(this.ticker)
+                    .setSide(request.getSide())
+                    .setPrice(request.getPrice())
+                    .setQuantity(request.getQuantity())
+                    .setFilledQuantity(filled)
+                    .setStatus(open == 0 ? OrderStatus.FILLED
+                            : filled > 0 ? OrderStatus.PARTIALLY_FILLED : OrderStatus.NEW)
+                    .build();
+        }
+
+        private void cancel(Cancel cancel) {
+            var slot = this.book.find(cancel.orderId());
+            if (slot < 0) {
+                cancel.result().completeExceptionally(notOpenException(cancel.orderId()));
+                return;
+            }
+            var state = this.snapshot(cancel.orderId(), slot).setStatus(OrderStatus.CANCELLED).build();
+            this.closedOrders.add(state.getOrderId(), state.getUserId(), this.book.sideAt(slot), state.getPrice(),
+                    state.getQuantity(), state.getFilledQuantity(), true);
+            this.book.cancel(cancel.orderId());
+            cancel.result().complete(state);
+        }
+
+        private void get(Get get) {
+            var slot = this.book.find(get.orderId());
+            if (slot < 0) {
+                this.getClosed(get);
+                return;
+            }
+            var builder = this.snapshot(get.orderId(), slot);
+            get.result().complete(builder
+                    .setStatus(builder.getFilledQuantity() > 0 ? OrderStatus.PARTIALLY_FILLED : OrderStatus.NEW)
+                    .build());
+        }
+
+        private void getClosed(Get get) {
+            var slot = this.closedOrders.find(get.orderId());
+            if (slot < 0) {
+                get.result().completeExceptionally(notFoundException(get.orderId()));
+                return;
+            }
+            get.result().complete(OrderState.newBuilder()
+                    .setOrderId(get.orderId())
+                    .setUserId(this.closedOrders.userIdAt(slot))
+                    .setTicker(this.ticker)
+                    .setSide(this.closedOrders.sideAt(slot) == OrderBook.BUY ? TradeAction.BUY : TradeAction.SELL)
+                    .setPrice(this.closedOrders.priceAt(slot))
+                    .setQuantity(this.closedOrders.quantityAt(slot))
+                    .setFilledQuantity(this.closedOrders.filledQuantityAt(slot))
+                    .setStatus(this.closedOrders.cancelledAt(slot) ? OrderStatus.CANCELLED : OrderStatus.FILLED)
+                    .build());
+        }
+
+        private OrderState.Builder snapshot(long orderId, int slot) {
+            return OrderState.newBuilder()
+                    .setOrderId(orderId)
+                    .setUserId(this.book.userIdAt(slot))
+                    .setTicker(this.ticker)
+                    .setSide(this.book.sideAt(slot) == OrderBook.BUY ? TradeAction.BUY : TradeAction.SELL)
+                    .setPrice(this.book.priceAt(slot))
+                    .setQuantity(this.book.quantityAt(slot))
+                    .setFilledQuantity(this.book.quantityAt(slot) - this.book.remainingAt(slot));
+        }
+
+        private void publishTopOfBook() {
+            var bidPrice = this.book.bestBidPrice();
+            var bidQuantity = this.book.bestBidQuantity();
+            var askPrice = this.book.bestAskPrice();
+            var askQuantity = this.book.bestAskQuantity();
+            if (bidPrice == this.publishedBidPrice && bidQuantity == this.publishedBidQuantity
+                    && askPrice == this.publishedAskPrice && askQuantity == this.publishedAskQuantity) {
+                return;
+            }
+            this.publishedBidPrice = bidPrice;
+            this.publishedBidQuantity = bidQuantity;
+            this.publishedAskPrice = askPrice;
+            this.publishedAskQuantity = askQuantity;
+            var topOfBook = TopOfBook.newBuilder()
+                    .setTicker(this.ticker)
+                    .setBidPrice(bidPrice)
+                    .setBidQuantity(bidQuantity)
+                    .setAskPrice(askPrice)
+                    .setAskQuantity(askQuantity)
+                    .setSequence(++this.topOfBookSequence)
+                    .build();
+            try {
+                this.topOfBookListener.accept(topOfBook);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Top of book listener failed on " + this.ticker, ex);
+            }
+        }
+    }
+}
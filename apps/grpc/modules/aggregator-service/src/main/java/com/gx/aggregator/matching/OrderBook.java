@@ -0,0 +1,368 @@
+package com.gx.aggregator.matching;
+
+import java.util.Arrays;
+
+/**
+ * Price-time priority limit order book for a single ticker.
+ *
+ * Prices are integer ticks in [1, maxPrice] and index arrays of price
+ * levels directly; each level is a FIFO doubly linked list of order slots.
+ * A bitmap of occupied levels per side finds the next best price when a
+ * level empties without walking the empty ones.
+ * Orders live in a struct-of-arrays pool recycled through a free list, so
+ * placing, matching and cancelling allocate nothing once the pool has grown
+ * to the working set.
+ *
+ * Not thread-safe: a book is owned by exactly one thread (see
+ * {@link MatchingEngine}).
+ */
+public final class OrderBook {
+    public static final byte BUY = 0;
+    public static final byte SELL = 1;
+
+    private static final int NONE = -1;
+
+    @FunctionalInterface
+    public interface FillSink {
+        /**
+         * Called for every match, in matching order, at the resting order's
+         * price. buyLimitPrice is the buy order's own limit, which is above
+         * price when the buy order is the one that crossed the spread.
+         */
+        void onFill(long buyOrderId, int buyUserId, int buyLimitPrice, long sellOrderId, int sellUserId, int price,
+                int quantity);
+
+        /**
+         * Called after the fill that leaves a resting order with nothing
+         * open, while its slot can still be read through the book's
+         * accessors.
+         */
+        default void onRestingOrderFilled(int slot) {
+        }
+    }
+
+    private final int maxPrice;
+    private final FillSink fills;
+
+    // price levels, indexed by price; head/tail are order slots or NONE
+    private final int[] bidHead;
+    private final int[] bidTail;
+    private final long[] bidDepth;
+    private final int[] askHead;
+    private final int[] askTail;
+    private final long[] askDepth;
+    private final LevelBitmap bidLevels;
+    private final LevelBitmap askLevels;
+    // 0 when there are no bids, maxPrice + 1 when there are no asks
+    private int bestBid;
+    private int bestAsk;
+
+    // order pool
+    private long[] orderIds;
+    private int[] userIds;
+    private int[] prices;
+    private int[] quantities;
+    private int[] remaining;
+    private byte[] sides;
+    private int[] next;
+    private int[] prev;
+    private int freeHead = NONE;
+    private int highWater;
+
+    private final LongIntHashMap slotsById;
+
+    public OrderBook(int maxPrice, int initialOrders, FillSink fills) {
+        if (maxPrice < 1) {
+            throw new IllegalArgumentException("maxPrice must be positive: " + maxPrice);
+        }
+        this.maxPrice = maxPrice;
+        this.fills = fills;
+        this.bidHead = newLevels(maxPrice);
+        this.bidTail = newLevels(maxPrice);
+        this.bidDepth = new long[maxPrice + 1];
+        this.askHead = newLevels(maxPrice);
+        this.askTail = newLevels(maxPrice);
+        this.askDepth = new long[maxPrice + 1];
+        this.bidLevels = new LevelBitmap(maxPrice);
+        this.askLevels = new LevelBitmap(maxPrice);
+        this.bestBid = 0;
+        this.bestAsk = maxPrice + 1;
+        this.allocatePool(Math.max(initialOrders, 16));
+        this.slotsById = new LongIntHashMap(Math.max(initialOrders, 16));
+    }
+
+    public int maxPrice() {
+        return this.maxPrice;
+    }
+
+    /**
+     * Matches an incoming limit order against the opposite side and rests
+     * whatever is left.
+     *
+     * @param orderId unique, non-zero
+     * @return the quantity left resting on the book (0 = fully filled)
+     */
+    public int place(long orderId, int userId, byte side, int price, int quantity) {
+        if (price < 1 || price > this.maxPrice) {
+            throw new IllegalArgumentException("Price out of range [1, " + this.maxPrice + "]: " + price);
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        var left = side == BUY
+                ? this.matchBuy(orderId, userId, price, quantity)
+                : this.matchSell(orderId, userId, price, quantity);
+        if (left > 0) {
+            this.rest(orderId, userId, side, price, quantity, left);
+        }
+        return left;
+    }
+
+    /**
+     * @return the quantity that was still open, or -1 if the order is not on
+     *         the book
+     */
+    public int cancel(long orderId) {
+        var slot = this.slotsById.remove(orderId);
+        if (slot == LongIntHashMap.MISSING) {
+            return -1;
+        }
+        var open = this.remaining[slot];
+        var price = this.prices[slot];
+        if (this.sides[slot] == BUY) {
+            this.unlink(slot, this.bidHead, this.bidTail);
+            this.bidDepth[price] -= open;
+            if (this.bidHead[price] == NONE) {
+                this.bidLevels.clear(price);
+                if (price == this.bestBid) {
+                    this.bestBid = this.nextBid(price);
+                }
+            }
+        } else {
+            this.unlink(slot, this.askHead, this.askTail);
+            this.askDepth[price] -= open;
+            if (this.askHead[price] == NONE) {
+                this.askLevels.clear(price);
+                if (price == this.bestAsk) {
+                    this.bestAsk = this.nextAsk(price);
+                }
+            }
+        }
+        this.release(slot);
+        return open;
+    }
+
+    /**
+     * @return the pool slot of a resting order, or -1; valid until the book
+     *         is next modified
+     */
+    public int find(long orderId) {
+        return this.slotsById.get(orderId);
+    }
+
+    public long orderIdAt(int slot) {
+        return this.orderIds[slot];
+    }
+
+    public int userIdAt(int slot) {
+        return this.userIds[slot];
+    }
+
+    public byte sideAt(int slot) {
+        return this.sides[slot];
+    }
+
+    public int priceAt(int slot) {
+        return this.prices[slot];
+    }
+
+    public int quantityAt(int slot) {
+        return this.quantities[slot];
+    }
+
+    public int remainingAt(int slot) {
+        return this.remaining[slot];
+    }
+
+    public int openOrders() {
+        return this.slotsById.size();
+    }
+
+    /** 0 when there are no bids. */
+    public int bestBidPrice() {
+        return this.bestBid;
+    }
+
+    public long bestBidQuantity() {
+        return this.bestBid == 0 ? 0 : this.bidDepth[this.bestBid];
+    }
+
+    /** 0 when there are no asks. */
+    public int bestAskPrice() {
+        return this.bestAsk > this.maxPrice ? 0 : this.bestAsk;
+    }
+
+    public long bestAskQuantity() {
+        return this.bestAsk > this.maxPrice ? 0 : this.askDepth[this.bestAsk];
+    }
+
+    private int matchBuy(long orderId, int userId, int limit, int quantity) {
+        while (quantity > 0 && this.bestAsk <= limit) {
+            var price = this.bestAsk;
+            var slot = this.askHead[price];
+            var fill = Math.min(quantity, this.remaining[slot]);
+            this.fills.onFill(orderId, userId, limit, this.orderIds[slot], this.userIds[slot], price, fill);
+            quantity -= fill;
+            this.askDepth[price] -= fill;
+            if ((this.remaining[slot] -= fill) == 0) {
+                this.fills.onRestingOrderFilled(slot);
+                this.askHead[price] = this.next[slot];
+                if (this.next[slot] == NONE) {
+                    this.askTail[price] = NONE;
+                    this.askLevels.clear(price);
+                    this.bestAsk = this.nextAsk(price);
+                } else {
+                    this.prev[this.next[slot]] = NONE;
+                }
+                this.slotsById.remove(this.orderIds[slot]);
+                this.release(slot);
+            }
+        }
+        return quantity;
+    }
+
+    private int matchSell(long orderId, int userId, int limit, int quantity) {
+        while (quantity > 0 && this.bestBid >= limit && this.bestBid > 0) {
+            var price = this.bestBid;
+            var slot = this.bidHead[price];
+            var fill = Math.min(quantity, this.remaining[slot]);
+            this.fills.onFill(this.orderIds[slot], this.userIds[slot], price, orderId, userId, price, fill);
+            quantity -= fill;
+            this.bidDepth[price] -= fill;
+            if ((this.remaining[slot] -= fill) == 0) {
+                this.fills.onRestingOrderFilled(slot);
+                this.bidHead[price] = this.next[slot];
+                if (this.next[slot] == NONE) {
+                    this.bidTail[price] = NONE;
+                    this.bidLevels.clear(price);
+                    this.bestBid = this.nextBid(price);
+                } else {
+                    this.prev[this.next[slot]] = NONE;
+                }
+                this.slotsById.remove(this.orderIds[slot]);
+                this.release(slot);
+            }
+        }
+        return quantity;
+    }
+
+    private void rest(long orderId, int userId, byte side, int price, int quantity, int left) {
+        var slot = this.acquire();
+        this.orderIds[slot] = orderId;
+        this.userIds[slot] = userId;
+        this.sides[slot] = side;
+        this.prices[slot] = price;
+        this.quantities[slot] = quantity;
+        this.remaining[slot] = left;
+        this.next[slot] = NONE;
+        if (side == BUY) {
+            if (this.bidHead[price] == NONE) {
+                this.bidLevels.set(price);
+            }
+            this.append(slot, price, this.bidHead, this.bidTail);
+            this.bidDepth[price] += left;
+            if (price > this.bestBid) {
+                this.bestBid = price;
+            }
+        } else {
+            if (this.askHead[price] == NONE) {
+                this.askLevels.set(price);
+            }
+            this.append(slot, price, this.askHead, this.askTail);
+            this.askDepth[price] += left;
+            if (price < this.bestAsk) {
+                this.bestAsk = price;
+            }
+        }
+        this.slotsById.put(orderId, slot);
+    }
+
+    private void append(int slot, int price, int[] heads, int[] tails) {
+        var tail = tails[price];
+        this.prev[slot] = tail;
+        if (tail == NONE) {
+            heads[price] = slot;
+        } else {
+            this.next[tail] = slot;
+        }
+        tails[price] = slot;
+    }
+
+    private void unlink(int slot, int[] heads, int[] tails) {
+        var price = this.prices[slot];
+        var before = this.prev[slot];
+        var after = this.next[slot];
+        if (before == NONE) {
+            heads[price] = after;
+        } else {
+            this.next[before] = after;
+        }
+        if (after == NONE) {
+            tails[price] = before;
+        } else {
+            this.prev[after] = before;
+        }
+    }
+
+    private int nextBid(int from) {
+        var price = this.bidLevels.highestBelow(from);
+        return price < 0 ? 0 : price;
+    }
+
+    private int nextAsk(int from) {
+        var price = this.askLevels.lowestAbove(from);
+        return price < 0 ? this.maxPrice + 1 : price;
+    }
+
+    private int acquire() {
+        if (this.freeHead != NONE) {
+            var slot = this.freeHead;
+            this.freeHead = this.next[slot];
+            return slot;
+        }
+        if (this.highWater == this.orderIds.length) {
+            this.allocatePool(this.orderIds.length << 1);
+        }
+        return this.highWater++;
+    }
+
+    private void release(int slot) {
+        this.next[slot] = this.freeHead;
+        this.freeHead = slot;
+    }
+
+    private void allocatePool(int capacity) {
+        this.orderIds = grow(this.orderIds, capacity);
+        this.userIds = grow(this.userIds, capacity);
+        this.prices = grow(this.prices, capacity);
+        this.quantities = grow(this.quantities, capacity);
+        this.remaining = grow(this.remaining, capacity);
+        this.next = grow(this.next, capacity);
+        this.prev = grow(this.prev, capacity);
+        this.sides = this.sides == null ? new byte[capacity] : Arrays.copyOf(this.sides, capacity);
+    }
+
+    private static int[] newLevels(int maxPrice) {
+        var levels = new int[maxPrice + 1];
+        Arrays.fill(levels, NONE);
+        return levels;
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static long[] grow(long[] array, int capacity) {
+        return array == null ? new long[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -0,0 +1,61 @@
+package com.gx.aggregator.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+class SequenceLhsPadding {
+    protected byte p10, p11, p12, p13, p14, p15, p16, p17;
+    protected byte p20, p21, p22, p23, p24, p25, p26, p27;
+    protected byte p30, p31, p32, p33, p34, p35, p36, p37;
+    protected byte p40, p41, p42, p43, p44, p45, p46, p47;
+    protected byte p50, p51, p52, p53, p54, p55, p56, p57;
+    protected byte p60, p61, p62, p63, p64, p65, p66, p67;
+    protected byte p70, p71, p72, p73, p74, p75, p76, p77;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+class SequenceRhsPadding extends SequenceValue {
+    protected byte p90, p91, p92, p93, p94, p95, p96, p97;
+    protected byte p100, p101, p102, p103, p104, p105, p106, p107;
+    protected byte p110, p111, p112, p113, p114, p115, p116, p117;
+    protected byte p120, p121, p122, p123, p124, p125, p126, p127;
+    protected byte p130, p131, p132, p133, p134, p135, p136, p137;
+    protected byte p140, p141, p142, p143, p144, p145, p146, p147;
+    protected byte p150, p151, p152, p153, p154, p155, p156, p157;
+}
+
+/**
+ * Cache-line padded sequence counter. Producers and each stage own one, and
+ * the padding keeps neighbouring counters from false sharing.
+ */
+public final class Sequence extends SequenceRhsPadding {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    public long get() {
+        return this.value;
+    }
+
+    /** Release store: everything written before is visible to a reader of the new value. */
+    public void set(long value) {
+        VALUE.setRelease(this, value);
+    }
+
+    public boolean compareAndSet(long expected, long value) {
+        return VALUE.compareAndSet(this, expected, value);
+    }
+}
@@ -0,0 +1,106 @@
+package com.gx.aggregator.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs one pipeline stage on its own thread: waits until the stage it
+ * depends on (or the producers, for the first stage) has moved past the next
+ * sequence, handles every available event up to {@code maxBatch} in order,
+ * then publishes its own sequence once for the whole batch.
+ */
+final class StageProcessor implements Runnable {
+    private static final Logger logger = Logger.getLogger(StageProcessor.class.getName());
+
+    @FunctionalInterface
+    interface Handler {
+        void onEvent(TradeEvent event, long sequence, boolean endOfBatch);
+    }
+
+    private final String name;
+    private final TradeRingBuffer ring;
+    // null for the first stage, which reads what producers have published
+    private final Sequence dependency;
+    private final Sequence sequence = new Sequence(-1);
+    private final WaitStrategy waitStrategy;
+    private final Handler handler;
+    private final int maxBatch;
+    private final Timer timer;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    StageProcessor(String name, TradeRingBuffer ring, Sequence dependency, WaitStrategy waitStrategy,
+            Handler handler, int maxBatch, Timer timer) {
+        this.name = name;
+        this.ring = ring;
+        this.dependency = dependency;
+        this.waitStrategy = waitStrategy;
+        this.handler = handler;
+        this.maxBatch = maxBatch;
+        this.timer = timer;
+        this.thread = new Thread(this, "trade-pipeline-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    Sequence sequence() {
+        return this.sequence;
+    }
+
+    void start() {
+        this.thread.start();
+    }
+
+    void stop() {
+        this.running = false;
+        this.waitStrategy.signalAll();
+    }
+
+    @Override
+    public void run() {
+        var next = 0L;
+        while (this.running) {
+            var available = this.waitFor(next);
+            if (available < next) {
+                continue;
+            }
+            var end = Math.min(available, next + this.maxBatch - 1);
+            for (var sequence = next; sequence <= end; sequence++) {
+                var event = this.ring.get(sequence);
+                try {
+                    this.handler.onEvent(event, sequence, sequence == end);
+                } catch (RuntimeException ex) {
+                    logger.log(Level.WARNING, "Trade pipeline stage " + this.name + " failed", ex);
+                    if (event.failure == null) {
+                        event.failure = ex;
+                    }
+                }
+                var now = System.nanoTime();
+                this.timer.record(now - event.lastStageAt, TimeUnit.NANOSECONDS);
+                event.lastStageAt = now;
+            }
+            this.sequence.set(end);
+            this.waitStrategy.signalAll();
+            next = end + 1;
+        }
+    }
+
+    private long waitFor(long next) {
+        long available;
+        var attempt = 0;
+        while ((available = this.available(next)) < next && this.running) {
+            this.waitStrategy.idle(attempt++, () -> !this.running || this.available(next) >= next);
+        }
+        return available;
+    }
+
+    private long available(long next) {
+        if (this.dependency != null) {
+            return this.dependency.get();
+        }
+        var claimed = this.ring.cursor().get();
+        return claimed < next ? claimed : this.ring.highestPublished(next, claimed);
+    }
+}
@@ -0,0 +1,51 @@
+package com.gx.aggregator.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.gx.observability.tracing.Trace;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+
+import io.grpc.Deadline;
+
+/**
+ * Preallocated ring slot. Plain fields are handed from stage to stage by
+ * the release/acquire of the stage sequences; only the response, written on
+ * a gRPC thread, needs its own volatile flag.
+ */
+final class TradeEvent {
+    StockTradeRequest request;
+    CompletableFuture<StockTradeResponse> result;
+    int price;
+    // set by any stage to short-circuit the rest of the pipeline
+    Throwable failure;
+    StockTradeResponse response;
+    long publishedAt;
+    long lastStageAt;
+    // the user-service call's budget starts when the trade enters the ring
+    Deadline deadline;
+    // the publisher's trace if sampled, re-attached by the send stage
+    Trace trace;
+    private volatile boolean responded;
+
+    boolean responded() {
+        return this.responded;
+    }
+
+    void respond(StockTradeResponse response, Throwable failure) {
+        this.response = response;
+        this.failure = failure;
+        this.responded = true;
+    }
+
+    void clear() {
+        this.request = null;
+        this.result = null;
+        this.price = 0;
+        this.failure = null;
+        this.response = null;
+        this.trace = null;
+        this.deadline = null;
+        this.responded = false;
+    }
+}
@@ -0,0 +1,286 @@
+package com.gx.aggregator.pipeline;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.gx.aggregator.config.DeadlineBudgets;
+import com.gx.aggregator.service.StockPriceCache;
+import com.gx.aggregator.service.UserInformationCache;
+import com.gx.common.Ticker;
+import com.gx.observability.tracing.Tracer;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Staged trade ingestion on a preallocated ring buffer, in the style of the
+ * LMAX Disruptor.
+ *
+ * REST threads publish trades into the ring and return at once. Five stage
+ * threads then process the ring in order, each trailing the previous one:
+ * validate, stamp the price from {@link StockPriceCache}, pre-trade checks
+ * against the cached user, send to user-service (pipelined async calls, up
+ * to aggregator.trade-pipeline.send-batch-size per drain) and complete the
+ * caller's future once the response is in. The time each trade spends
+ * reaching the end of every stage is recorded under
+ * aggregator.trade.pipeline.stage.
+ *
+ * A trade's TradeStock deadline is set when it is published, so time spent
+ * queued in the ring counts against it; trades whose deadline passed before
+ * the send stage reached them fail without being sent, counted under
+ * aggregator.trade.pipeline.expired.
+ *
+ * When the ring is full a publisher waits up to
+ * aggregator.trade-pipeline.claim-timeout for the complete stage to free a
+ * slot, then fails the trade with RESOURCE_EXHAUSTED (503 over REST),
+ * counted under aggregator.trade.pipeline.rejected, so a stalled user-service
+ * cannot pin every request thread.
+ */
+@Service
+@ConditionalOnProperty(name = "aggregator.trade-pipeline.enabled", havingValue = "true")
+public class TradePipeline implements DisposableBean {
+    private static final String INSUFFICIENT_BALANCE_MESSAGE = "Insufficient balance for user with ID: %d";
+
+    private final StockPriceCache priceCache;
+    private final UserInformationCache userInformationCache;
+    private final UserServiceGrpc.UserServiceStub userServiceStub;
+    private final DeadlineBudgets deadlineBudgets;
+    private final WaitStrategy waitStrategy;
+    private final TradeRingBuffer ring;
+    private final List<StageProcessor> stages;
+    private final DistributionSummary sendBatchSizes;
+    private final Timer latency;
+    private final Counter expired;
+    private final Counter rejected;
+    private final long claimTimeoutNanos;
+    private volatile boolean running = true;
+    // owned by the send stage thread
+    private int sendBatch;
+
+    public TradePipeline(StockPriceCache priceCache, UserInformationCache userInformationCache,
+            UserServiceGrpc.UserServiceStub userServiceStub, DeadlineBudgets deadlineBudgets,
+            MeterRegistry meterRegistry,
+            @Value("${aggregator.trade-pipeline.buffer-size:1024}") int bufferSize,
+            @Value("${aggregator.trade-pipeline.wait-strategy:sleeping}") String waitStrategy,
+            @Value("${aggregator.trade-pipeline.send-batch-size:64}") int sendBatchSize,
+            @Value("${aggregator.trade-pipeline.claim-timeout:50ms}") Duration claimTimeout) {
+        this.priceCache = priceCache;
+        this.userInformationCache = userInformationCache;
+        this.userServiceStub = userServiceStub;
+        this.deadlineBudgets = deadlineBudgets;
+        this.waitStrategy = WaitStrategy.named(waitStrategy);
+        this.ring = new TradeRingBuffer(bufferSize);
+        this.claimTimeoutNanos = claimTimeout.toNanos();
+
+        var validate = this.stage("validate", null, this::validate, bufferSize, meterRegistry);
+        var price = this.stage("price", validate.sequence(), this::stampPrice, bufferSize, meterRegistry);
+        var check = this.stage("check", price.sequence(), this::preTradeCheck, bufferSize, meterRegistry);
+        var send = this.stage("send", check.sequence(), this::send, sendBatchSize, meterRegistry);
+        var complete = this.stage("complete", send.sequence(), this::complete, bufferSize, meterRegistry);
+        this.ring.gateOn(complete.sequence());
+        this.stages = List.of(validate, price, check, send, complete);
+
+        this.sendBatchSizes = DistributionSummary.builder("aggregator.trade.pipeline.send.batch.size")
+                .description("Trades sent to user-service per send stage drain")
+                .register(meterRegistry);
+        this.latency = Timer.builder("aggregator.trade.pipeline.latency")
+                .description("Time from publishing a trade to completing its response")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        this.expired = Counter.builder("aggregator.trade.pipeline.expired")
+                .description("Trades whose deadline passed before they were sent")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("aggregator.trade.pipeline.rejected")
+                .description("Trades turned away because the ring stayed full for the claim timeout")
+                .register(meterRegistry);
+        Gauge.builder("aggregator.trade.pipeline.backlog", this,
+                pipeline -> pipeline.ring.cursor().get() - complete.sequence().get())
+                .description("Trades claimed but not yet completed")
+                .register(meterRegistry);
+        this.stages.forEach(StageProcessor::start);
+    }
+
+    public CompletableFuture<StockTradeResponse> submit(StockTradeRequest request) {
+        var result = new CompletableFuture<StockTradeResponse>();
+        if (!this.running) {
+            result.completeExceptionally(Status.UNAVAILABLE.withDescription("Trade pipeline stopped")
+                    .asRuntimeException());
+            return result;
+        }
+        // waits here while the ring is full, up to the claim timeout
+        var sequence = this.ring.next(this.claimTimeoutNanos);
+        if (sequence < 0) {
+            this.rejected.increment();
+            result.completeExceptionally(Status.RESOURCE_EXHAUSTED.withDescription("Trade pipeline is full")
+                    .asRuntimeException());
+            return result;
+        }
+        var event = this.ring.get(sequence);
+        event.request = request;
+        event.result = result;
+        event.publishedAt = System.nanoTime();
+        event.lastStageAt = event.publishedAt;
+        event.trace = Tracer.current();
+        event.deadline = this.deadlineBudgets.deadlineFor(UserServiceGrpc.getTradeStockMethod());
+        this.ring.publish(sequence);
+        this.waitStrategy.signalAll();
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        this.running = false;
+        this.stages.forEach(StageProcessor::stop);
+        for (var sequence = 0; sequence < this.ring.size(); sequence++) {
+            var result = this.ring.get(sequence).result;
+            if (result != null) {
+                result.completeExceptionally(Status.UNAVAILABLE.withDescription("Trade pipeline stopped")
+                        .asRuntimeException());
+            }
+        }
+    }
+
+    private StageProcessor stage(String name, Sequence dependency, StageProcessor.Handler handler, int maxBatch,
+            MeterRegistry meterRegistry) {
+        var timer = Timer.builder("aggregator.trade.pipeline.stage")
+                .description("Time from the previous stage (or publish) to the end of this stage")
+                .tag("stage", name)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+        return new StageProcessor(name, this.ring, dependency, this.waitStrategy, handler, maxBatch, timer);
+    }
+
+    private void validate(TradeEvent event, long sequence, boolean endOfBatch) {
+        var request = event.request;
+        if (request.getTicker() == Ticker.UNKNOWN || request.getTicker() == Ticker.UNRECOGNIZED) {
+            event.failure = invalid("Unknown ticker: " + request.getTicker());
+        } else if (request.getAction() == TradeAction.UNRECOGNIZED) {
+            event.failure = invalid("Unrecognized trade action: " + request.getActionValue());
+        } else if (request.getQuantity() <= 0) {
+            event.failure = invalid("Quantity must be positive: " + request.getQuantity());
+        }
+    }
+
+    private void stampPrice(TradeEvent event, long sequence, boolean endOfBatch) {
+        if (event.failure == null) {
+            event.price = this.priceCache.getPrice(event.request.getTicker());
+        }
+    }
+
+    // Only rejects what user-service would certainly reject; it stays the authority.
+    private void preTradeCheck(TradeEvent event, long sequence, boolean endOfBatch) {
+        if (event.failure != null) {
+            return;
+        }
+        var request = event.request;
+        var user = this.userInformationCache.peek(request.getUserId());
+        if (user == null) {
+            return;
+        }
+        var sufficient = switch (request.getAction()) {
+            case BUY -> (long) event.price * request.getQuantity() <= user.getBalance();
+            case SELL -> user.getHoldingsList().stream()
+                    .anyMatch(holding -> holding.getTicker() == request.getTicker()
+                            && holding.getQuantity() >= request.getQuantity());
+            case UNRECOGNIZED -> false;
+        };
+        if (!sufficient) {
+            event.failure = Status.FAILED_PRECONDITION
+                    .withDescription(String.format(INSUFFICIENT_BALANCE_MESSAGE, request.getUserId()))
+                    .asRuntimeException();
+        }
+    }
+
+    private void send(TradeEvent event, long sequence, boolean endOfBatch) {
+        if (event.failure == null && event.deadline.isExpired()) {
+            this.expired.increment();
+            event.failure = Status.DEADLINE_EXCEEDED.withDescription("Trade expired before it was sent")
+                    .asRuntimeException();
+        }
+        if (event.failure != null) {
+            event.respond(null, event.failure);
+        } else {
+            this.sendBatch++;
+            var request = event.request.toBuilder()
+                    .setPrice(event.price)
+                    .build();
+            if (event.trace != null) {
+                event.trace.addSpan("pipeline.queue", event.publishedAt, System.nanoTime() - event.publishedAt);
+            }
+            var previous = Tracer.attach(event.trace);
+            try {
+                this.userServiceStub.withDeadline(event.deadline).tradeStock(request, this.responseObserver(event));
+            } catch (RuntimeException ex) {
+                event.respond(null, ex);
+            } finally {
+                Tracer.restore(previous);
+            }
+        }
+        if (endOfBatch && this.sendBatch > 0) {
+            this.sendBatchSizes.record(this.sendBatch);
+            this.sendBatch = 0;
+        }
+    }
+
+    private StreamObserver<StockTradeResponse> responseObserver(TradeEvent event) {
+        return new StreamObserver<>() {
+            private StockTradeResponse response;
+
+            @Override
+            public void onNext(StockTradeResponse value) {
+                this.response = value;
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                event.respond(null, t);
+                TradePipeline.this.waitStrategy.signalAll();
+            }
+
+            @Override
+            public void onCompleted() {
+                event.respond(this.response, null);
+                TradePipeline.this.waitStrategy.signalAll();
+            }
+        };
+    }
+
+    // Completes in ring order, so a slow response holds back the ones behind it.
+    private void complete(TradeEvent event, long sequence, boolean endOfBatch) {
+        var attempt = 0;
+        while (!event.responded()) {
+            if (!this.running) {
+                return;
+            }
+            this.waitStrategy.idle(attempt++, () -> event.responded() || !this.running);
+        }
+        if (event.failure != null) {
+            event.result.completeExceptionally(event.failure);
+        } else {
+            this.userInformationCache.applyTrade(event.response);
+            event.result.complete(event.response);
+        }
+        this.latency.record(System.nanoTime() - event.publishedAt, TimeUnit.NANOSECONDS);
+        event.clear();
+    }
+
+    private static Throwable invalid(String message) {
+        return Status.INVALID_ARGUMENT.withDescription(message).asRuntimeException();
+    }
+}
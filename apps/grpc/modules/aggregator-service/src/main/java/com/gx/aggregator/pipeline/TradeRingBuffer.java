@@ -0,0 +1,113 @@
+package com.gx.aggregator.pipeline;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-producer ring of preallocated {@link TradeEvent}s.
+ *
+ * Producers claim a sequence with a CAS on the cursor, fill the slot and
+ * publish it by recording the slot's lap in {@code published}; the first
+ * stage only reads up to the highest contiguously published sequence. A
+ * claim waits while the slot is still held by the last stage (the gating
+ * sequence), which is the pipeline's back-pressure; a claim that waits
+ * longer than its timeout gives up rather than hold the caller's thread.
+ */
+final class TradeRingBuffer {
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final TradeEvent[] events;
+    private final int mask;
+    private final int indexShift;
+    private final int[] published;
+    private final Sequence cursor = new Sequence(-1);
+    private final Sequence gatingCache = new Sequence(-1);
+    private Sequence gating;
+
+    TradeRingBuffer(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring buffer size must be a power of two: " + size);
+        }
+        this.events = new TradeEvent[size];
+        for (var i = 0; i < size; i++) {
+            this.events[i] = new TradeEvent();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new int[size];
+        for (var i = 0; i < size; i++) {
+            PUBLISHED.setRelease(this.published, i, -1);
+        }
+    }
+
+    int size() {
+        return this.events.length;
+    }
+
+    Sequence cursor() {
+        return this.cursor;
+    }
+
+    /** The last stage's sequence; slots behind it can be reused. */
+    void gateOn(Sequence gating) {
+        this.gating = gating;
+    }
+
+    TradeEvent get(long sequence) {
+        return this.events[(int) sequence & this.mask];
+    }
+
+    /**
+     * Claims the next sequence, waiting up to {@code timeoutNanos} while the
+     * ring is full.
+     *
+     * @return the claimed sequence, or -1 if the last stage freed no slot in
+     *         time
+     */
+    long next(long timeoutNanos) {
+        var waiting = false;
+        var giveUpAt = 0L;
+        while (true) {
+            var current = this.cursor.get();
+            var next = current + 1;
+            var wrapPoint = next - this.events.length;
+            if (wrapPoint > this.gatingCache.get()) {
+                var gatingSequence = this.gating.get();
+                if (wrapPoint > gatingSequence) {
+                    var now = System.nanoTime();
+                    if (!waiting) {
+                        waiting = true;
+                        giveUpAt = now + timeoutNanos;
+                    } else if (now - giveUpAt >= 0) {
+                        return -1;
+                    }
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+                this.gatingCache.set(gatingSequence);
+            } else if (this.cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    void publish(long sequence) {
+        PUBLISHED.setRelease(this.published, (int) sequence & this.mask, (int) (sequence >>> this.indexShift));
+    }
+
+    boolean isPublished(long sequence) {
+        return (int) PUBLISHED.getAcquire(this.published, (int) sequence & this.mask)
+                == (int) (sequence >>> this.indexShift);
+    }
+
+    /** Highest sequence in [from, claimed] up to which every slot is published. */
+    long highestPublished(long from, long claimed) {
+        for (var sequence = from; sequence <= claimed; sequence++) {
+            if (!this.isPublished(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return claimed;
+    }
+}
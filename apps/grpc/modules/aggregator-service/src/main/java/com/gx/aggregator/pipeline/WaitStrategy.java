@@ -0,0 +1,86 @@
+package com.gx.aggregator.pipeline;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How a pipeline stage waits for work, trading CPU for latency:
+ * <ul>
+ * <li>busy-spin: lowest latency, burns a core per stage</li>
+ * <li>yielding: spins briefly, then yields the CPU</li>
+ * <li>sleeping: spins, yields, then parks for ~100ns at a time</li>
+ * <li>blocking: waits on a condition; producers pay a lock to signal</li>
+ * </ul>
+ */
+public interface WaitStrategy {
+
+    /**
+     * Called repeatedly while {@code ready} is false; returns when the caller
+     * should check again.
+     *
+     * @param attempt 0 on the first call of a wait, incremented by the caller
+     */
+    void idle(int attempt, BooleanSupplier ready);
+
+    /** Wakes stages blocked in {@link #idle}; called whenever progress is published. */
+    default void signalAll() {
+    }
+
+    static WaitStrategy named(String name) {
+        return switch (name) {
+            case "busy-spin" -> (attempt, ready) -> Thread.onSpinWait();
+            case "yielding" -> (attempt, ready) -> {
+                if (attempt < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            };
+            case "sleeping" -> (attempt, ready) -> {
+                if (attempt < 100) {
+                    Thread.onSpinWait();
+                } else if (attempt < 200) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(100);
+                }
+            };
+            case "blocking" -> new Blocking();
+            default -> throw new IllegalArgumentException("Unknown wait strategy: " + name
+                    + " (expected busy-spin, yielding, sleeping or blocking)");
+        };
+    }
+
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition progress = this.lock.newCondition();
+
+        @Override
+        public void idle(int attempt, BooleanSupplier ready) {
+            this.lock.lock();
+            try {
+                if (!ready.getAsBoolean()) {
+                    // bounded so a stage still notices shutdown without a signal
+                    this.progress.await(1, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            this.lock.lock();
+            try {
+                this.progress.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+}
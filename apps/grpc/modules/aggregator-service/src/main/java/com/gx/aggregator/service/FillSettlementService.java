@@ -0,0 +1,85 @@
+package com.gx.aggregator.service;
+
+import java.util.logging.Logger;
+
+import org.springframework.stereotype.Service;
+
+import com.gx.aggregator.matching.MatchingEngine;
+import com.gx.aggregator.util.StreamObserverFuture;
+import com.gx.common.Ticker;
+import com.gx.user.SettleTradeRequest;
+import com.gx.user.SettleTradeResponse;
+import com.gx.user.UserServiceGrpc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Settles matching-engine fills in user-service with one SettleTrade call
+ * per fill: the buyer's BUY and the seller's SELL at the fill price, in one
+ * transaction. If either leg fails, user-service rolls the other back, so a
+ * fill is settled completely or not at all. The calls are asynchronous so
+ * the matching thread never waits on the network.
+ *
+ * Both orders' reservations are given back once the call has completed. A
+ * fill that fails to settle (one side spent what the order held through
+ * POST /trade, or user-service is unreachable) is logged and counted; the
+ * orders stay filled in the book.
+ */
+@Service
+public class FillSettlementService implements MatchingEngine.FillListener {
+    private static final Logger logger = Logger.getLogger(FillSettlementService.class.getName());
+
+    private final UserServiceGrpc.UserServiceStub userServiceStub;
+    private final UserInformationCache userInformationCache;
+    private final OrderReservations orderReservations;
+    private final Counter settled;
+    private final Counter failed;
+
+    public FillSettlementService(UserServiceGrpc.UserServiceStub userServiceStub,
+            UserInformationCache userInformationCache, OrderReservations orderReservations,
+            MeterRegistry meterRegistry) {
+        this.userServiceStub = userServiceStub;
+        this.userInformationCache = userInformationCache;
+        this.orderReservations = orderReservations;
+        this.settled = Counter.builder("aggregator.order.settlements")
+                .description("Fills sent to user-service")
+                .tag("outcome", "settled")
+                .register(meterRegistry);
+        this.failed = Counter.builder("aggregator.order.settlements")
+                .description("Fills sent to user-service")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onFill(Ticker ticker, long buyOrderId, int buyUserId, int buyLimitPrice, long sellOrderId,
+            int sellUserId, int price, int quantity) {
+        var request = SettleTradeRequest.newBuilder()
+                .setTicker(ticker)
+                .setPrice(price)
+                .setQuantity(quantity)
+                .setBuyerUserId(buyUserId)
+                .setSellerUserId(sellUserId)
+                .build();
+        var response = new StreamObserverFuture<SettleTradeResponse>();
+        try {
+            this.userServiceStub.settleTrade(request, response);
+        } catch (RuntimeException ex) {
+            response.completeExceptionally(ex);
+        }
+        response.whenComplete((settlement, ex) -> {
+            this.orderReservations.releaseFill(ticker, buyUserId, buyLimitPrice, sellUserId, quantity);
+            if (ex != null) {
+                this.failed.increment();
+                logger.warning(() -> String.format(
+                        "Fill of orders %d (user %d) and %d (user %d), %d %s @ %d, was not settled: %s",
+                        buyOrderId, buyUserId, sellOrderId, sellUserId, quantity, ticker, price, ex.getMessage()));
+                return;
+            }
+            this.settled.increment();
+            this.userInformationCache.applyTrade(settlement.getBuy());
+            this.userInformationCache.applyTrade(settlement.getSell());
+        });
+    }
+}
@@ -0,0 +1,115 @@
+package com.gx.aggregator.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Service;
+
+import com.gx.aggregator.util.StreamObserverFuture;
+import com.gx.common.Ticker;
+import com.gx.order.OrderState;
+import com.gx.order.PlaceOrderRequest;
+import com.gx.user.Holding;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformation;
+import com.gx.user.UserInformationRequest;
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cash and shares held back for open limit orders, so nobody can have
+ * orders in the books for more than they own. A BUY reserves quantity *
+ * limit price of the balance and a SELL reserves the shares before the
+ * order enters its book; fills give the reservation back once they have
+ * settled, and cancelling gives back what is left.
+ *
+ * Balances and holdings are read from user-service when the order is
+ * placed. Trades through POST /trade don't reserve anything, so a fill can
+ * still fail to settle; user-service settles both sides of a fill in one
+ * transaction, so that leaves no half-settled trade behind.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderReservations {
+    private final UserServiceGrpc.UserServiceStub userServiceStub;
+
+    private final Map<Integer, Long> cash = new ConcurrentHashMap<>();
+    private final Map<Position, Long> shares = new ConcurrentHashMap<>();
+
+    private record Position(int userId, Ticker ticker) {
+    }
+
+    /**
+     * Fails with FAILED_PRECONDITION when the user's balance or shares, less
+     * what their open orders already hold, don't cover the order.
+     */
+    public CompletableFuture<Void> reserve(PlaceOrderRequest request) {
+        var user = new StreamObserverFuture<UserInformation>();
+        try {
+            this.userServiceStub.getUserInformation(UserInformationRequest.newBuilder()
+                    .setUserId(request.getUserId())
+                    .build(), user);
+        } catch (RuntimeException ex) {
+            user.completeExceptionally(ex);
+        }
+        return user.thenAccept(information -> {
+            if (request.getSide() == TradeAction.BUY) {
+                reserve(this.cash, request.getUserId(), information.getBalance(),
+                        (long) request.getPrice() * request.getQuantity(), "balance");
+            } else {
+                var held = information.getHoldingsList().stream()
+                        .filter(holding -> holding.getTicker() == request.getTicker())
+                        .mapToLong(Holding::getQuantity)
+                        .sum();
+                reserve(this.shares, new Position(request.getUserId(), request.getTicker()), held,
+                        request.getQuantity(), request.getTicker() + " shares");
+            }
+        });
+    }
+
+    /** Gives back a whole order that did not make it into its book. */
+    public void release(PlaceOrderRequest request) {
+        this.release(request.getUserId(), request.getTicker(), request.getSide(), request.getPrice(),
+                request.getQuantity());
+    }
+
+    /** Gives back the unfilled part of a cancelled order. */
+    public void release(OrderState cancelled) {
+        this.release(cancelled.getUserId(), cancelled.getTicker(), cancelled.getSide(), cancelled.getPrice(),
+                cancelled.getQuantity() - cancelled.getFilledQuantity());
+    }
+
+    /** Gives back both sides of a fill once it has settled, or failed to. */
+    public void releaseFill(Ticker ticker, int buyUserId, int buyLimitPrice, int sellUserId, int quantity) {
+        this.release(buyUserId, ticker, TradeAction.BUY, buyLimitPrice, quantity);
+        this.release(sellUserId, ticker, TradeAction.SELL, 0, quantity);
+    }
+
+    private void release(int userId, Ticker ticker, TradeAction side, int price, int quantity) {
+        if (side == TradeAction.BUY) {
+            release(this.cash, userId, (long) price * quantity);
+        } else {
+            release(this.shares, new Position(userId, ticker), quantity);
+        }
+    }
+
+    private static <K> void reserve(Map<K, Long> reserved, K key, long owned, long amount, String what) {
+        reserved.compute(key, (k, current) -> {
+            var total = (current == null ? 0 : current) + amount;
+            if (total > owned) {
+                throw Status.FAILED_PRECONDITION
+                        .withDescription(String.format("Not enough %s: %d owned, %d already held by open orders, "
+                                + "%d needed.", what, owned, current == null ? 0 : current, amount))
+                        .asRuntimeException();
+            }
+            return total;
+        });
+    }
+
+    private static <K> void release(Map<K, Long> reserved, K key, long amount) {
+        reserved.computeIfPresent(key, (k, current) -> current > amount ? current - amount : null);
+    }
+}
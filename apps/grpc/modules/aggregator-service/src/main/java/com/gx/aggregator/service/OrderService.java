@@ -0,0 +1,81 @@
+package com.gx.aggregator.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.grpc.server.service.GrpcService;
+
+import com.gx.aggregator.matching.MatchingEngine;
+import com.gx.order.CancelOrderRequest;
+import com.gx.order.GetOrderRequest;
+import com.gx.order.OrderServiceGrpc;
+import com.gx.order.OrderState;
+import com.gx.order.PlaceOrderRequest;
+import com.gx.order.TopOfBook;
+import com.gx.order.TopOfBookRequest;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+
+@GrpcService
+@RequiredArgsConstructor
+public class OrderService extends OrderServiceGrpc.OrderServiceImplBase {
+    private final MatchingEngine matchingEngine;
+    private final OrderReservations orderReservations;
+    private final TopOfBookPublisher topOfBookPublisher;
+
+    /**
+     * Reserves the order's cost or shares first (see
+     * {@link OrderReservations}); an order they don't cover never reaches
+     * the book.
+     */
+    @Override
+    public void placeOrder(PlaceOrderRequest request, StreamObserver<OrderState> responseObserver) {
+        var invalid = this.matchingEngine.validate(request);
+        if (invalid != null) {
+            responseObserver.onError(invalid);
+            return;
+        }
+        reply(this.orderReservations.reserve(request)
+                .thenCompose(reserved -> this.matchingEngine.place(request)
+                        .whenComplete((state, ex) -> {
+                            if (ex != null) {
+                                this.orderReservations.release(request);
+                            }
+                        })), responseObserver);
+    }
+
+    @Override
+    public void cancelOrder(CancelOrderRequest request, StreamObserver<OrderState> responseObserver) {
+        reply(this.matchingEngine.cancel(request.getOrderId())
+                .whenComplete((state, ex) -> {
+                    if (ex == null) {
+                        this.orderReservations.release(state);
+                    }
+                }), responseObserver);
+    }
+
+    @Override
+    public void getOrder(GetOrderRequest request, StreamObserver<OrderState> responseObserver) {
+        reply(this.matchingEngine.get(request.getOrderId()), responseObserver);
+    }
+
+    @Override
+    public void streamTopOfBook(TopOfBookRequest request, StreamObserver<TopOfBook> responseObserver) {
+        this.topOfBookPublisher.subscribe(request, (ServerCallStreamObserver<TopOfBook>) responseObserver);
+    }
+
+    private static void reply(CompletableFuture<OrderState> result, StreamObserver<OrderState> responseObserver) {
+        result.whenComplete((state, ex) -> {
+            if (ex == null) {
+                responseObserver.onNext(state);
+                responseObserver.onCompleted();
+            } else {
+                var cause = ex instanceof CompletionException ? ex.getCause() : ex;
+                responseObserver.onError(Status.fromThrowable(cause).asRuntimeException());
+            }
+        });
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.gx.aggregator.controller.dto.PriceUpdateDto;
+import com.gx.aggregator.jfr.PriceFanOutEvent;
 import com.gx.stock.PriceUpdate;
 
 import io.grpc.stub.StreamObserver;
@@ -43,9 +44,7 @@ public class PriceUpdateListener implements StreamObserver<PriceUpdate> {
                 .ticker(String.valueOf(value.getTicker()))
                 .price(value.getPrice())
                 .build();
-        // Update the price cache
-        this.priceCache.updatePrice(String.valueOf(value.getTicker()), value.getPrice());
-        this.emitters.removeIf(emitter -> !send(emitter, dto));
+        this.sendPriceUpdate(dto);
     }
 
     @Override
@@ -61,9 +60,13 @@ public class PriceUpdateListener implements StreamObserver<PriceUpdate> {
     }
 
     public void sendPriceUpdate(PriceUpdateDto dto) {
+        var event = new PriceFanOutEvent();
+        event.begin();
         // Update the price cache
         this.priceCache.updatePrice(dto.getTicker(), dto.getPrice());
+        var subscribers = this.emitters.size();
         this.emitters.removeIf(emitter -> !send(emitter, dto));
+        event.end(dto.getTicker(), dto.getPrice(), subscribers, this.emitters.size());
     }
 
     private boolean send(SseEmitter emitter, PriceUpdateDto dto) {
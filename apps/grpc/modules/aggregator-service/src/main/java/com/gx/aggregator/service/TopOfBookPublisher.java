@@ -0,0 +1,150 @@
+package com.gx.aggregator.service;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import com.gx.common.Ticker;
+import com.gx.order.TopOfBook;
+import com.gx.order.TopOfBookRequest;
+
+import io.grpc.stub.ServerCallStreamObserver;
+
+/**
+ * Fans top-of-book updates out to StreamTopOfBook subscribers.
+ *
+ * Each subscriber keeps only the latest unsent update per ticker and is
+ * drained while its transport is ready, so a slow client skips intermediate
+ * quotes instead of buffering them or stalling the matching threads. A
+ * matching thread only swaps the update in and schedules a drain; the
+ * drains, and the calls into gRPC, run on this publisher's own threads, at
+ * most one at a time per subscriber.
+ */
+@Service
+public class TopOfBookPublisher implements Consumer<TopOfBook>, DisposableBean {
+    private static final Logger logger = Logger.getLogger(TopOfBookPublisher.class.getName());
+
+    private final Map<Ticker, TopOfBook> latest = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "top-of-book");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public void accept(TopOfBook topOfBook) {
+        this.latest.put(topOfBook.getTicker(), topOfBook);
+        for (var subscriber : this.subscribers) {
+            if (subscriber.tickers.contains(topOfBook.getTicker())) {
+                subscriber.offer(topOfBook);
+            }
+        }
+    }
+
+    public void subscribe(TopOfBookRequest request, ServerCallStreamObserver<TopOfBook> observer) {
+        var tickers = EnumSet.noneOf(Ticker.class);
+        request.getTickersList().stream()
+                .filter(ticker -> ticker != Ticker.UNKNOWN && ticker != Ticker.UNRECOGNIZED)
+                .forEach(tickers::add);
+        if (tickers.isEmpty()) {
+            tickers = EnumSet.complementOf(EnumSet.of(Ticker.UNKNOWN, Ticker.UNRECOGNIZED));
+        }
+        var subscriber = new Subscriber(observer, tickers);
+        observer.setOnCancelHandler(() -> this.subscribers.remove(subscriber));
+        observer.setOnReadyHandler(subscriber::schedule);
+        this.subscribers.add(subscriber);
+        // current state first, so clients do not wait for the next change
+        tickers.forEach(ticker -> subscriber.offer(this.latest.getOrDefault(ticker,
+                TopOfBook.newBuilder().setTicker(ticker).build())));
+    }
+
+    @Override
+    public void destroy() {
+        this.executor.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final ServerCallStreamObserver<TopOfBook> observer;
+        private final Set<Ticker> tickers;
+        private final AtomicReferenceArray<TopOfBook> pending;
+        // true while a drain is scheduled or running; only that drain touches sentSequence
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // -1 so the initial sequence 0 snapshot is sent
+        private final long[] sentSequence;
+
+        Subscriber(ServerCallStreamObserver<TopOfBook> observer, Set<Ticker> tickers) {
+            this.observer = observer;
+            this.tickers = tickers;
+            this.pending = new AtomicReferenceArray<>(Ticker.values().length);
+            this.sentSequence = new long[Ticker.values().length];
+            Arrays.fill(this.sentSequence, -1);
+        }
+
+        void offer(TopOfBook topOfBook) {
+            var index = topOfBook.getTicker().ordinal();
+            var previous = this.pending.get(index);
+            // sequences only grow per ticker; keep the newest of concurrent offers
+            while (previous == null || previous.getSequence() <= topOfBook.getSequence()) {
+                if (this.pending.compareAndSet(index, previous, topOfBook)) {
+                    break;
+                }
+                previous = this.pending.get(index);
+            }
+            this.schedule();
+        }
+
+        void schedule() {
+            if (!this.draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                TopOfBookPublisher.this.executor.execute(this::drain);
+            } catch (RejectedExecutionException ex) {
+                // shutting down
+                this.draining.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    for (var index = 0; index < this.pending.length() && this.observer.isReady(); index++) {
+                        var topOfBook = this.pending.getAndSet(index, null);
+                        if (topOfBook != null && topOfBook.getSequence() > this.sentSequence[index]) {
+                            this.sentSequence[index] = topOfBook.getSequence();
+                            this.observer.onNext(topOfBook);
+                        }
+                    }
+                    this.draining.set(false);
+                    // an offer that found this drain running left its update to it; onReady restarts a
+                    // drain that stopped because the transport was full
+                } while (this.hasPending() && this.observer.isReady() && this.draining.compareAndSet(false, true));
+            } catch (RuntimeException ex) {
+                logger.fine(() -> "Dropping top of book subscriber: " + ex.getMessage());
+                TopOfBookPublisher.this.subscribers.remove(this);
+            }
+        }
+
+        private boolean hasPending() {
+            for (var index = 0; index < this.pending.length(); index++) {
+                if (this.pending.get(index) != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.gx.aggregator.service;
 
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.gx.aggregator.pipeline.TradePipeline;
+import com.gx.aggregator.util.StreamObserverFuture;
 import com.gx.user.StockTradeRequest;
 import com.gx.user.StockTradeResponse;
 import com.gx.user.UserServiceGrpc;
@@ -12,14 +18,43 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class TradeService {
     private final UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub;
+    private final UserServiceGrpc.UserServiceStub userServiceStub;
     private final StockPriceCache priceCache;
+    private final UserInformationCache userInformationCache;
+    private final ObjectProvider<TradePipeline> tradePipeline;
+
+    @Value("${aggregator.grpc.async:true}")
+    private boolean async;
 
     public StockTradeResponse trade(StockTradeRequest request) {
+        var response = this.userServiceBlockingStub.tradeStock(this.withCurrentPrice(request));
+        this.userInformationCache.applyTrade(response);
+        return response;
+    }
+
+    public CompletableFuture<StockTradeResponse> tradeAsync(StockTradeRequest request) {
+        var pipeline = this.tradePipeline.getIfAvailable();
+        if (pipeline != null) {
+            return pipeline.submit(request);
+        }
+        if (!this.async) {
+            return CompletableFuture.completedFuture(this.trade(request));
+        }
+        var response = new StreamObserverFuture<StockTradeResponse>();
+        this.userServiceStub.tradeStock(this.withCurrentPrice(request), response);
+        return response.thenApply(this::refreshUserCache);
+    }
+
+    private StockTradeResponse refreshUserCache(StockTradeResponse response) {
+        this.userInformationCache.applyTrade(response);
+        return response;
+    }
+
+    private StockTradeRequest withCurrentPrice(StockTradeRequest request) {
         // Get price from cache instead of calling stock-service
         var currentPrice = this.priceCache.getPrice(request.getTicker());
-        var tradeRequest = request.toBuilder()
+        return request.toBuilder()
                 .setPrice(currentPrice)
                 .build();
-        return this.userServiceBlockingStub.tradeStock(tradeRequest);
     }
 }
@@ -0,0 +1,139 @@
+package com.gx.aggregator.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.gx.aggregator.util.StreamObserverFuture;
+import com.gx.user.UserInformation;
+import com.gx.user.UserServiceGrpc;
+import com.gx.user.UsersInformationRequest;
+import com.gx.user.UsersInformationResponse;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Dataloader-style batching of user lookups.
+ *
+ * Individual {@link #load(int)} calls are collected for up to
+ * aggregator.user-batch.window or aggregator.user-batch.max-size distinct
+ * ids, whichever comes first, and sent as a single GetUsersInformation RPC.
+ * Each caller's future is completed from the batch response.
+ */
+@Service
+public class UserInformationBatchLoader implements DisposableBean {
+    private static final String NOT_FOUND_MESSAGE = "User with id %d not found.";
+
+    private final UserServiceGrpc.UserServiceStub userServiceStub;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "user-batch-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long windowNanos;
+    private final int maxSize;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private Map<Integer, CompletableFuture<UserInformation>> pending = new HashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public UserInformationBatchLoader(UserServiceGrpc.UserServiceStub userServiceStub,
+            MeterRegistry meterRegistry,
+            @Value("${aggregator.user-batch.window:1ms}") Duration window,
+            @Value("${aggregator.user-batch.max-size:128}") int maxSize) {
+        this.userServiceStub = userServiceStub;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        this.batchSizes = DistributionSummary.builder("aggregator.user.batch.size")
+                .description("Distinct user ids per GetUsersInformation call")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<UserInformation> load(int userId) {
+        CompletableFuture<UserInformation> future;
+        Map<Integer, CompletableFuture<UserInformation>> full = null;
+        synchronized (this.lock) {
+            future = this.pending.computeIfAbsent(userId, id -> new CompletableFuture<>());
+            if (this.pending.size() >= this.maxSize) {
+                full = this.takePending();
+            } else if (this.scheduledFlush == null) {
+                this.scheduledFlush = this.scheduler.schedule(this::flush, this.windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            this.dispatch(full);
+        }
+        return future;
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+    }
+
+    private void flush() {
+        Map<Integer, CompletableFuture<UserInformation>> batch;
+        synchronized (this.lock) {
+            batch = this.takePending();
+        }
+        if (!batch.isEmpty()) {
+            this.dispatch(batch);
+        }
+    }
+
+    // must hold lock
+    private Map<Integer, CompletableFuture<UserInformation>> takePending() {
+        var batch = this.pending;
+        this.pending = new HashMap<>();
+        if (this.scheduledFlush != null) {
+            this.scheduledFlush.cancel(false);
+            this.scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<Integer, CompletableFuture<UserInformation>> batch) {
+        this.batchSizes.record(batch.size());
+        var request = UsersInformationRequest.newBuilder()
+                .addAllUserIds(batch.keySet())
+                .build();
+        var response = new StreamObserverFuture<UsersInformationResponse>();
+        try {
+            this.userServiceStub.getUsersInformation(request, response);
+        } catch (RuntimeException ex) {
+            response.completeExceptionally(ex);
+        }
+        response.whenComplete((users, ex) -> {
+            if (ex != null) {
+                batch.values().forEach(future -> future.completeExceptionally(ex));
+                return;
+            }
+            users.getUsersList().forEach(user -> {
+                var future = batch.get(user.getUserId());
+                if (future != null) {
+                    future.complete(user);
+                }
+            });
+            // ids the response left out; the exception is only built for those
+            batch.forEach((userId, future) -> {
+                if (!future.isDone()) {
+                    future.completeExceptionally(Status.NOT_FOUND
+                            .withDescription(String.format(NOT_FOUND_MESSAGE, userId))
+                            .asRuntimeException());
+                }
+            });
+        });
+    }
+}
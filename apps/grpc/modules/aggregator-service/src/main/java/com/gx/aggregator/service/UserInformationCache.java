@@ -0,0 +1,188 @@
+package com.gx.aggregator.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.gx.user.Holding;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Micro-TTL cache with single-flight loading for user lookups.
+ *
+ * Concurrent lookups for the same user share one in-flight load instead of
+ * each issuing its own GetUserInformation RPC. Loaded values are kept for a
+ * short TTL and are patched in place from trade responses, so a user's own
+ * trades are visible immediately without another round trip.
+ */
+@Service
+public class UserInformationCache {
+
+    private record Entry(UserInformation value, long writtenAt, long expiresAt) {
+    }
+
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Integer, CompletableFuture<UserInformation>> inFlight = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter loads;
+    private final Counter coalesced;
+
+    public UserInformationCache(MeterRegistry meterRegistry,
+            @Value("${aggregator.user-cache.ttl:250ms}") Duration ttl,
+            @Value("${aggregator.user-cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("aggregator.user.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("aggregator.user.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.loads = Counter.builder("aggregator.user.lookups").tag("outcome", "loaded").register(meterRegistry);
+        this.coalesced = Counter.builder("aggregator.user.lookups").tag("outcome", "coalesced").register(meterRegistry);
+        Gauge.builder("aggregator.user.cache.hit.ratio", this, c -> ratio(c.hits, c.misses))
+                .register(meterRegistry);
+        Gauge.builder("aggregator.user.lookup.coalescing.ratio", this, c -> ratio(c.coalesced, c.loads))
+                .register(meterRegistry);
+        Gauge.builder("aggregator.user.cache.size", this.entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value when fresh, otherwise joins the in-flight load
+     * for the user or starts one through the given loader.
+     */
+    public CompletableFuture<UserInformation> get(int userId, IntFunction<CompletableFuture<UserInformation>> loader) {
+        var now = System.nanoTime();
+        var entry = this.entries.get(userId);
+        if (entry != null && entry.value() != null && now - entry.expiresAt() < 0) {
+            this.hits.increment();
+            return CompletableFuture.completedFuture(entry.value());
+        }
+        this.misses.increment();
+
+        var pending = new CompletableFuture<UserInformation>();
+        var existing = this.inFlight.putIfAbsent(userId, pending);
+        if (existing != null) {
+            this.coalesced.increment();
+            // copy() so one caller cancelling does not cancel the shared load
+            return existing.copy();
+        }
+        this.loads.increment();
+
+        try {
+            loader.apply(userId).whenComplete((value, ex) -> {
+                this.inFlight.remove(userId, pending);
+                if (ex != null) {
+                    pending.completeExceptionally(ex);
+                    return;
+                }
+                this.store(userId, value, now);
+                pending.complete(value);
+            });
+        } catch (RuntimeException ex) {
+            this.inFlight.remove(userId, pending);
+            pending.completeExceptionally(ex);
+        }
+        return pending.copy();
+    }
+
+    /**
+     * Returns the cached value if it is fresh, without loading or counting a
+     * lookup.
+     */
+    public UserInformation peek(int userId) {
+        var entry = this.entries.get(userId);
+        return entry != null && entry.value() != null && System.nanoTime() - entry.expiresAt() < 0
+                ? entry.value()
+                : null;
+    }
+
+    /**
+     * Applies the balance and holding change of a completed trade to the
+     * cached user, if present. Loads that started before the trade are not
+     * allowed to overwrite the result afterwards.
+     */
+    public void applyTrade(StockTradeResponse trade) {
+        var now = System.nanoTime();
+        this.entries.compute(trade.getUserId(), (userId, entry) -> {
+            if (entry == null || entry.value() == null) {
+                // Marker entry: remembers the write time so a stale in-flight
+                // load cannot be stored, but never serves as a hit.
+                return new Entry(null, now, now);
+            }
+            return new Entry(applyTrade(entry.value(), trade), now, now + this.ttlNanos);
+        });
+        this.evictIfFull();
+    }
+
+    /**
+     * Drops the cached user. Loads that started before the invalidation are
+     * not stored when they finish.
+     */
+    public void invalidate(int userId) {
+        var now = System.nanoTime();
+        this.entries.put(userId, new Entry(null, now, now));
+        this.evictIfFull();
+    }
+
+    private void store(int userId, UserInformation value, long loadStartedAt) {
+        if (this.ttlNanos <= 0) {
+            return;
+        }
+        var now = System.nanoTime();
+        this.entries.compute(userId, (id, entry) -> {
+            if (entry != null && entry.writtenAt() - loadStartedAt > 0) {
+                // A trade was applied after this load started; keep the newer data
+                return entry.value() != null ? entry : null;
+            }
+            return new Entry(value, now, now + this.ttlNanos);
+        });
+        this.evictIfFull();
+    }
+
+    private void evictIfFull() {
+        if (this.entries.size() <= this.maxSize) {
+            return;
+        }
+        var now = System.nanoTime();
+        this.entries.values().removeIf(entry -> now - entry.expiresAt() >= 0);
+        var keys = this.entries.keySet().iterator();
+        while (this.entries.size() > this.maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static UserInformation applyTrade(UserInformation user, StockTradeResponse trade) {
+        var delta = trade.getAction() == TradeAction.SELL ? -trade.getQuantity() : trade.getQuantity();
+        var builder = user.toBuilder().setBalance(trade.getBalance());
+        for (int i = 0; i < builder.getHoldingsCount(); i++) {
+            var holding = builder.getHoldings(i);
+            if (holding.getTicker() == trade.getTicker()) {
+                builder.setHoldings(i, holding.toBuilder().setQuantity(holding.getQuantity() + delta));
+                return builder.build();
+            }
+        }
+        return builder.addHoldings(Holding.newBuilder()
+                .setTicker(trade.getTicker())
+                .setQuantity(delta))
+                .build();
+    }
+
+    private static double ratio(Counter part, Counter rest) {
+        var total = part.count() + rest.count();
+        return total == 0 ? 0.0 : part.count() / total;
+    }
+}
@@ -1,22 +1,57 @@
 package com.gx.aggregator.service;
 
+import java.util.concurrent.CompletableFuture;
+
+import com.gx.aggregator.util.StreamObserverFuture;
 import com.gx.user.UserInformation;
 import com.gx.user.UserInformationRequest;
 import com.gx.user.UserServiceGrpc;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
     private final UserServiceGrpc.UserServiceBlockingStub userServiceBlockingStub;
+    private final UserServiceGrpc.UserServiceStub userServiceStub;
+    private final UserInformationCache userInformationCache;
+    private final UserInformationBatchLoader userInformationBatchLoader;
+
+    @Value("${aggregator.grpc.async:true}")
+    private boolean async;
+
+    @Value("${aggregator.user-batch.enabled:false}")
+    private boolean batchEnabled;
 
     public UserInformation getUserInformation(int userId) {
-        var request = UserInformationRequest.newBuilder()
+        return this.userServiceBlockingStub.getUserInformation(this.toRequest(userId));
+    }
+
+    /**
+     * Cached, single-flight lookup used by the REST layer.
+     */
+    public CompletableFuture<UserInformation> getUserInformationAsync(int userId) {
+        return this.userInformationCache.get(userId, this::fetchUserInformation);
+    }
+
+    private CompletableFuture<UserInformation> fetchUserInformation(int userId) {
+        if (this.batchEnabled) {
+            return this.userInformationBatchLoader.load(userId);
+        }
+        if (!this.async) {
+            return CompletableFuture.completedFuture(this.getUserInformation(userId));
+        }
+        var response = new StreamObserverFuture<UserInformation>();
+        this.userServiceStub.getUserInformation(this.toRequest(userId), response);
+        return response;
+    }
+
+    private UserInformationRequest toRequest(int userId) {
+        return UserInformationRequest.newBuilder()
                 .setUserId(userId)
                 .build();
-        return this.userServiceBlockingStub.getUserInformation(request);
     }
 }
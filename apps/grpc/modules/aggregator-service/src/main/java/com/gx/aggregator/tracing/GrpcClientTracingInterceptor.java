@@ -0,0 +1,59 @@
+package com.gx.aggregator.tracing;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.client.GlobalClientInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.gx.observability.tracing.Tracer;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Adds a span per outgoing call of a sampled request and sends the trace id
+ * in the trace-id header, next to client-id. user-service answers with its
+ * own spans in the trace-spans trailer, which are added under the call's
+ * span. Calls outside a sampled request pass straight through.
+ */
+@Component
+@GlobalClientInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class GrpcClientTracingInterceptor implements ClientInterceptor {
+    static final Metadata.Key<String> TRACE_ID = Metadata.Key.of("trace-id", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> TRACE_SPANS = Metadata.Key.of("trace-spans", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+            CallOptions callOptions, Channel next) {
+        var trace = Tracer.current();
+        if (trace == null) {
+            return next.newCall(method, callOptions);
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                var span = trace.startSpan("grpc.client " + method.getFullMethodName());
+                headers.put(TRACE_ID, trace.id());
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        span.end(status.getCode().name());
+                        var remote = trailers.get(TRACE_SPANS);
+                        if (remote != null) {
+                            trace.addRemoteSpans(remote, span);
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+}
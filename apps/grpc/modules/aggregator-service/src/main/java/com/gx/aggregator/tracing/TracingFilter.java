@@ -0,0 +1,78 @@
+package com.gx.aggregator.tracing;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.gx.observability.tracing.Tracer;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Root span of every sampled REST request. Handlers returning a
+ * CompletableFuture finish asynchronously, so the trace ends when the async
+ * request completes rather than when this filter returns.
+ */
+@Component
+@RequiredArgsConstructor
+public class TracingFilter extends OncePerRequestFilter {
+    // diagnostics, and the SSE stream, which stays open for minutes
+    private static final List<String> UNTRACED_PATHS = List.of("/debug/", "/actuator/", "/stock/updates");
+
+    private final Tracer tracer;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        var path = request.getRequestURI();
+        return UNTRACED_PATHS.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        var trace = this.tracer.startTrace(request.getMethod() + " " + request.getRequestURI());
+        if (trace == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        var previous = Tracer.attach(trace);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Tracer.restore(previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        TracingFilter.this.tracer.finish(trace, String.valueOf(response.getStatus()));
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                        TracingFilter.this.tracer.finish(trace, "timeout");
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                        TracingFilter.this.tracer.finish(trace, "error");
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                        // the listener stays registered for the whole request
+                    }
+                });
+            } else {
+                this.tracer.finish(trace, String.valueOf(response.getStatus()));
+            }
+        }
+    }
+}
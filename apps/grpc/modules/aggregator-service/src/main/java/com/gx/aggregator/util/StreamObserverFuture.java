@@ -0,0 +1,49 @@
+package com.gx.aggregator.util;
+
+import java.util.concurrent.CompletableFuture;
+
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+/**
+ * Bridges a unary async stub call to a {@link CompletableFuture}.
+ *
+ * Pass an instance as the response observer of an async stub method; the
+ * future completes on the gRPC executor once the response arrives, or fails
+ * with the {@link io.grpc.StatusRuntimeException} reported by the call.
+ * Cancelling the future cancels the underlying RPC.
+ */
+public class StreamObserverFuture<T> extends CompletableFuture<T> implements ClientResponseObserver<Object, T> {
+    private volatile ClientCallStreamObserver<Object> requestStream;
+    private T value;
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<Object> requestStream) {
+        this.requestStream = requestStream;
+    }
+
+    @Override
+    public void onNext(T value) {
+        this.value = value;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        this.completeExceptionally(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        this.complete(this.value);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        var cancelled = super.cancel(mayInterruptIfRunning);
+        var call = this.requestStream;
+        if (cancelled && call != null) {
+            call.cancel("Caller cancelled the request", null);
+        }
+        return cancelled;
+    }
+}
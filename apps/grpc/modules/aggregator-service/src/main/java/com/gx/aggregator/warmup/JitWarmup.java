@@ -0,0 +1,193 @@
+package com.gx.aggregator.warmup;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.gx.common.Ticker;
+import com.gx.observability.warmup.JitCompilation;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Warms the JIT up before the aggregator reports ready. Spring Boot only
+ * moves readiness to ACCEPTING_TRAFFIC once the application runners have
+ * returned, so /actuator/health/readiness stays down while this runs.
+ *
+ * Each round calls the aggregator's own HTTP endpoints, so the MVC stack,
+ * the protobuf JSON and binary converters, the gRPC client and the trade
+ * path all get compiled. Lookups, in JSON and in protobuf, cycle through
+ * aggregator.warmup.user-count ids from aggregator.warmup.user-id, so they
+ * keep missing the user cache and reach user-service; ids no customer has
+ * answer 404, which is never cached. Trades are for
+ * aggregator.warmup.trade-user-id, a scratch account id that no customer
+ * has: {@link WarmupTradeInterceptor} answers its buys in-process with a
+ * fill, so the successful trade path runs without reaching user-service,
+ * and its sells go to user-service, which answers NOT_FOUND before touching
+ * any row. No real account takes part in a trade before the aggregator is
+ * ready. Warm-up stops once the JIT spent less than settle-ratio of a
+ * round compiling, two rounds in a row, or after max-duration.
+ *
+ * The outcome is logged and kept as aggregator.warmup.duration and
+ * aggregator.warmup.compiled.methods{tier}.
+ */
+@Component
+public class JitWarmup implements ApplicationRunner {
+    private static final Logger logger = Logger.getLogger(JitWarmup.class.getName());
+    private static final int SETTLED_ROUNDS = 2;
+    private static final String PROTOBUF = "application/x-protobuf";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final Ticker[] TICKERS = { Ticker.APPLE, Ticker.GOOGLE, Ticker.AMAZON, Ticker.MICROSOFT };
+    private static final IntPredicate OK = status -> status == 200;
+    private static final IntPredicate FOUND_OR_NOT = status -> status == 200 || status == 404;
+    private static final IntPredicate NOT_FOUND = status -> status == 404;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final WarmupTradeInterceptor tradeInterceptor;
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final int roundRequests;
+    private final double settleRatio;
+    private final int userId;
+    private final int userCount;
+    private final int tradeUserId;
+    // lookups so far, carried across rounds so the ids keep changing
+    private long lookups;
+
+    public JitWarmup(Environment environment, MeterRegistry meterRegistry, WarmupTradeInterceptor tradeInterceptor,
+            @Value("${aggregator.warmup.enabled:true}") boolean enabled,
+            @Value("${aggregator.warmup.max-duration:60s}") Duration maxDuration,
+            @Value("${aggregator.warmup.round-requests:200}") int roundRequests,
+            @Value("${aggregator.warmup.settle-ratio:0.05}") double settleRatio,
+            @Value("${aggregator.warmup.user-id:1}") int userId,
+            @Value("${aggregator.warmup.user-count:1000}") int userCount,
+            @Value("${aggregator.warmup.trade-user-id:-1}") int tradeUserId) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.tradeInterceptor = tradeInterceptor;
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.roundRequests = roundRequests;
+        this.settleRatio = settleRatio;
+        this.userId = userId;
+        this.userCount = userCount;
+        this.tradeUserId = tradeUserId;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var port = this.environment.getProperty("local.server.port", Integer.class);
+        if (!this.enabled || port == null) {
+            return;
+        }
+        var baseUri = URI.create("http://localhost:" + port);
+        this.tradeInterceptor.start(this.tradeUserId);
+        try (var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build()) {
+            this.warmUp(client, baseUri);
+        } finally {
+            this.tradeInterceptor.stop();
+        }
+    }
+
+    private void warmUp(HttpClient client, URI baseUri) {
+        var startedAt = System.nanoTime();
+        var deadline = startedAt + this.maxDuration.toNanos();
+        var start = JitCompilation.snapshot();
+        var previous = start;
+        var rounds = 0;
+        var settled = 0;
+        var failures = 0L;
+        while (settled < SETTLED_ROUNDS && System.nanoTime() < deadline) {
+            var roundStartedAt = System.nanoTime();
+            failures += this.round(client, baseUri);
+            rounds++;
+            var current = JitCompilation.snapshot();
+            var roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStartedAt);
+            var compileMillis = current.compileMillis() - previous.compileMillis();
+            settled = compileMillis < this.settleRatio * roundMillis ? settled + 1 : 0;
+            var round = rounds;
+            logger.fine(() -> String.format("JIT warm-up round %d: %d ms, %d ms compiling", round, roundMillis,
+                    compileMillis));
+            previous = current;
+        }
+        var duration = Duration.ofNanos(System.nanoTime() - startedAt);
+        var compiled = previous.since(start);
+        logger.info(String.format(
+                "JIT warm-up %s after %d rounds in %d ms (%d failed calls): %d ms compiling, %+d C1 / %+d C2 methods,"
+                        + " %d C1 / %d C2 in the code cache",
+                settled >= SETTLED_ROUNDS ? "settled" : "hit max-duration", rounds, duration.toMillis(), failures,
+                compiled.compileMillis(), compiled.c1Methods(), compiled.c2Methods(), previous.c1Methods(),
+                previous.c2Methods()));
+        this.register(duration, previous);
+    }
+
+    /**
+     * @return calls that failed: a lookup other than 200 or 404, a buy other
+     *         than 200 or a sell other than 404
+     */
+    private long round(HttpClient client, URI baseUri) {
+        var failures = 0L;
+        var trade = baseUri.resolve("/trade");
+        for (var i = 0; i < this.roundRequests; i++) {
+            var user = baseUri.resolve("/user/" + (this.userId + this.lookups++ % this.userCount));
+            failures += this.send(client, HttpRequest.newBuilder(user).header("Accept", "application/json").GET(),
+                    FOUND_OR_NOT);
+            failures += this.send(client, HttpRequest.newBuilder(user).header("Accept", PROTOBUF).GET(),
+                    FOUND_OR_NOT);
+            var ticker = TICKERS[i % TICKERS.length];
+            failures += this.send(client, this.trade(trade, ticker, "BUY"), OK);
+            failures += this.send(client, this.trade(trade, ticker, "SELL"), NOT_FOUND);
+        }
+        return failures;
+    }
+
+    private HttpRequest.Builder trade(URI trade, Ticker ticker, String action) {
+        var body = "{\"userId\":" + this.tradeUserId + ",\"ticker\":\"" + ticker
+                + "\",\"quantity\":1,\"action\":\"" + action + "\"}";
+        return HttpRequest.newBuilder(trade)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private int send(HttpClient client, HttpRequest.Builder request, IntPredicate expectedStatus) {
+        try {
+            var response = client.send(request.timeout(REQUEST_TIMEOUT).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return expectedStatus.test(response.statusCode()) ? 0 : 1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } catch (Exception ex) {
+            return 1;
+        }
+    }
+
+    private void register(Duration duration, JitCompilation compilation) {
+        TimeGauge.builder("aggregator.warmup.duration", () -> duration.toMillis(), TimeUnit.MILLISECONDS)
+                .description("Time the JIT warm-up ran before the aggregator reported ready")
+                .register(this.meterRegistry);
+        Gauge.builder("aggregator.warmup.compiled.methods", compilation, JitCompilation::c1Methods)
+                .description("Compiled methods in the code cache when the warm-up finished")
+                .tag("tier", "c1")
+                .register(this.meterRegistry);
+        Gauge.builder("aggregator.warmup.compiled.methods", compilation, JitCompilation::c2Methods)
+                .description("Compiled methods in the code cache when the warm-up finished")
+                .tag("tier", "c2")
+                .register(this.meterRegistry);
+    }
+}
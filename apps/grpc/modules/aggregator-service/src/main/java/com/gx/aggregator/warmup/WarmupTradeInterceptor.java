@@ -0,0 +1,159 @@
+package com.gx.aggregator.warmup;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.client.GlobalClientInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+/**
+ * Answers the JIT warm-up's buys in-process, so the aggregator's successful
+ * trade path gets compiled without a trade reaching user-service.
+ *
+ * While {@link JitWarmup} runs, a TradeStock BUY for its scratch
+ * trade-user-id is answered here with a fill at the requested price, after
+ * a round trip through the method's marshallers. Innermost of the global
+ * interceptors, so the deadline, tracing and metrics interceptors see the
+ * call as usual. Every other call, and every call once the warm-up is over,
+ * goes to user-service untouched.
+ */
+@Component
+@GlobalClientInterceptor
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class WarmupTradeInterceptor implements ClientInterceptor {
+    private static final String TRADE_STOCK = UserServiceGrpc.getTradeStockMethod().getFullMethodName();
+
+    private volatile boolean active;
+    private volatile int tradeUserId;
+
+    void start(int tradeUserId) {
+        this.tradeUserId = tradeUserId;
+        this.active = true;
+    }
+
+    void stop() {
+        this.active = false;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+            CallOptions callOptions, Channel next) {
+        if (!this.active || !TRADE_STOCK.equals(method.getFullMethodName())) {
+            return next.newCall(method, callOptions);
+        }
+        return new WarmupTradeCall<>(method, callOptions, next);
+    }
+
+    private boolean answers(StockTradeRequest request) {
+        return this.active && request.getUserId() == this.tradeUserId && request.getAction() == TradeAction.BUY;
+    }
+
+    /**
+     * Holds the call back until its request is known: answers it if it is a
+     * warm-up buy, otherwise starts the real call and replays onto it.
+     */
+    private final class WarmupTradeCall<ReqT, RespT> extends ClientCall<ReqT, RespT> {
+        private final MethodDescriptor<ReqT, RespT> method;
+        private final CallOptions callOptions;
+        private final Channel next;
+        private Listener<RespT> listener;
+        private Metadata headers;
+        private int requested;
+        private ClientCall<ReqT, RespT> delegate;
+        private RespT answer;
+        private boolean closed;
+
+        WarmupTradeCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+            this.method = method;
+            this.callOptions = callOptions;
+            this.next = next;
+        }
+
+        @Override
+        public void start(Listener<RespT> listener, Metadata headers) {
+            this.listener = listener;
+            this.headers = headers;
+        }
+
+        @Override
+        public void request(int numMessages) {
+            if (this.delegate != null) {
+                this.delegate.request(numMessages);
+            } else {
+                this.requested += numMessages;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void sendMessage(ReqT message) {
+            // through the marshallers, as the transport would
+            var request = (StockTradeRequest) this.method.parseRequest(this.method.streamRequest(message));
+            if (WarmupTradeInterceptor.this.answers(request)) {
+                var fill = StockTradeResponse.newBuilder()
+                        .setUserId(request.getUserId())
+                        .setTicker(request.getTicker())
+                        .setPrice(request.getPrice())
+                        .setQuantity(request.getQuantity())
+                        .setAction(request.getAction())
+                        .setTotalPrice(request.getPrice() * request.getQuantity())
+                        .build();
+                this.answer = this.method.parseResponse(this.method.streamResponse((RespT) fill));
+                return;
+            }
+            this.delegate = this.next.newCall(this.method, this.callOptions);
+            this.delegate.start(this.listener, this.headers);
+            if (this.requested > 0) {
+                this.delegate.request(this.requested);
+            }
+            this.delegate.sendMessage(message);
+        }
+
+        @Override
+        public void halfClose() {
+            if (this.delegate != null) {
+                this.delegate.halfClose();
+            } else if (this.answer != null) {
+                this.close(Status.OK);
+            }
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            if (this.delegate != null) {
+                this.delegate.cancel(message, cause);
+            } else {
+                this.close(Status.CANCELLED.withDescription(message).withCause(cause));
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return this.delegate == null || this.delegate.isReady();
+        }
+
+        private void close(Status status) {
+            if (this.closed || this.listener == null) {
+                return;
+            }
+            this.closed = true;
+            if (status.isOk()) {
+                this.listener.onHeaders(new Metadata());
+                this.listener.onMessage(this.answer);
+            }
+            this.listener.onClose(status, new Metadata());
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.gx.aggregator.converter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.google.protobuf.Message;
+import com.google.protobuf.util.JsonFormat;
+import com.gx.common.Ticker;
+import com.gx.user.Holding;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformation;
+
+/**
+ * The hand-written writers against the JsonFormat printer the aggregator
+ * otherwise uses, compared as UTF-8 bytes as they go on the wire.
+ */
+class ProtobufJsonWritersTest {
+    private static final JsonFormat.Printer PRINTER = JsonFormat.printer().omittingInsignificantWhitespace();
+    private static final List<Message> PROTOTYPES = List.of(UserInformation.getDefaultInstance(),
+            StockTradeResponse.getDefaultInstance(), Holding.getDefaultInstance());
+    // quotes, escapes, control and HTML characters, 2- and 3-byte UTF-8, the
+    // JS line separators, a surrogate pair and a lone surrogate
+    private static final String[] PIECES = { "a", "Z", "0", " ", "\"", "\\", "/", "\b", "\f", "\n", "\r", "\t",
+            "\u0000", "\u001f", "\u007f", "<", ">", "&", "=", "'", "\u00e9", "\u00df", "\u0800", "\u20ac",
+            "\u65e5\u672c", "\u2028", "\u2029", "\uffff", "\ud83d\ude00", "\ud800" };
+
+    @Test
+    void everyTypeHasAWriter() {
+        for (var prototype : PROTOTYPES) {
+            assertThat(ProtobufJsonWriters.supports(prototype.getClass())).as(prototype.getClass().getName())
+                    .isTrue();
+        }
+    }
+
+    @Test
+    void defaultMessagesAreEmptyObjects() throws Exception {
+        for (var prototype : PROTOTYPES) {
+            assertThat(fast(prototype)).isEqualTo("{}").isEqualTo(reference(prototype));
+        }
+        var emptyHoldings = UserInformation.newBuilder().addHoldings(Holding.getDefaultInstance()).build();
+        assertThat(fast(emptyHoldings)).isEqualTo(reference(emptyHoldings));
+    }
+
+    /**
+     * Sets each field of each type alone, so a field added to the .proto
+     * but not to its writer shows up here as a missing member.
+     */
+    @Test
+    void writesEveryFieldOfTheDescriptor() throws Exception {
+        for (var prototype : PROTOTYPES) {
+            for (var field : prototype.getDescriptorForType().getFields()) {
+                var builder = prototype.newBuilderForType();
+                if (field.isRepeated()) {
+                    builder.addRepeatedField(field, sample(builder, field));
+                    builder.addRepeatedField(field, sample(builder, field));
+                } else {
+                    builder.setField(field, sample(builder, field));
+                }
+                var message = builder.build();
+                assertThat(fast(message)).as(field.getFullName()).isEqualTo(reference(message));
+            }
+        }
+    }
+
+    @Test
+    void escapesStringsLikeJsonFormat() throws Exception {
+        for (var piece : PIECES) {
+            var message = UserInformation.newBuilder().setName("x" + piece + "y").build();
+            assertThat(fast(message)).as("%04x", (int) piece.charAt(0)).isEqualTo(reference(message));
+        }
+        var allAscii = new StringBuilder();
+        for (char c = 0; c < 0x80; c++) {
+            allAscii.append(c);
+        }
+        var message = UserInformation.newBuilder().setName(allAscii.toString()).build();
+        assertThat(fast(message)).isEqualTo(reference(message));
+    }
+
+    @Test
+    void unrecognizedEnumsAreWrittenAsNumbers() throws Exception {
+        var trade = StockTradeResponse.newBuilder().setTickerValue(999).setActionValue(7).setUserId(1).build();
+        var holding = Holding.newBuilder().setTickerValue(-3).setQuantity(2).build();
+
+        assertThat(fast(trade)).isEqualTo(reference(trade)).contains("\"ticker\":999");
+        assertThat(fast(holding)).isEqualTo(reference(holding));
+    }
+
+    @Test
+    void writesIntegerExtremes() throws Exception {
+        for (var value : new int[] { 1, -1, 9, 10, -10, 99_999, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Integer.MIN_VALUE + 1 }) {
+            var message = StockTradeResponse.newBuilder().setPrice(value).setTotalPrice(value).setBalance(-value)
+                    .build();
+            assertThat(fast(message)).as("%d", value).isEqualTo(reference(message));
+        }
+    }
+
+    @Test
+    void matchesJsonFormatOnRandomMessages() throws Exception {
+        var random = new SplittableRandom(29);
+        for (var i = 0; i < 20_000; i++) {
+            var user = UserInformation.newBuilder()
+                    .setUserId(randomInt(random))
+                    .setName(randomString(random))
+                    .setBalance(randomInt(random));
+            for (var h = random.nextInt(4); h > 0; h--) {
+                user.addHoldings(Holding.newBuilder()
+                        .setTickerValue(random.nextInt(-1, Ticker.values().length + 1))
+                        .setQuantity(randomInt(random)));
+            }
+            var trade = StockTradeResponse.newBuilder()
+                    .setUserId(randomInt(random))
+                    .setTickerValue(random.nextInt(-1, Ticker.values().length + 1))
+                    .setPrice(randomInt(random))
+                    .setQuantity(randomInt(random))
+                    .setAction(random.nextBoolean() ? TradeAction.BUY : TradeAction.SELL)
+                    .setTotalPrice(randomInt(random))
+                    .setBalance(randomInt(random))
+                    .build();
+            // a small buffer, so values straddle flushes
+            assertThat(fast(user.build(), 16)).isEqualTo(reference(user.build()));
+            assertThat(fast(trade, 16)).isEqualTo(reference(trade));
+        }
+    }
+
+    // a value other than the default for the field
+    private static Object sample(Message.Builder builder, FieldDescriptor field) {
+        return switch (field.getJavaType()) {
+            case INT -> 42;
+            case LONG -> 42L;
+            case FLOAT -> 1.5f;
+            case DOUBLE -> 1.5;
+            case BOOLEAN -> true;
+            case STRING -> "sample \"value\"";
+            case BYTE_STRING -> ByteString.copyFromUtf8("sample");
+            case ENUM -> field.getEnumType().getValues().getLast();
+            case MESSAGE -> {
+                var nested = builder.newBuilderForField(field);
+                for (var nestedField : field.getMessageType().getFields()) {
+                    if (!nestedField.isRepeated()) {
+                        nested.setField(nestedField, sample(nested, nestedField));
+                    }
+                }
+                yield nested.build();
+            }
+        };
+    }
+
+    private static int randomInt(SplittableRandom random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> 0;
+            case 1 -> random.nextInt(-100, 100);
+            default -> random.nextInt();
+        };
+    }
+
+    private static String randomString(SplittableRandom random) {
+        var text = new StringBuilder();
+        for (var i = random.nextInt(6); i > 0; i--) {
+            text.append(PIECES[random.nextInt(PIECES.length)]);
+        }
+        return text.toString();
+    }
+
+    private static String fast(Message message) throws Exception {
+        return fast(message, 512);
+    }
+
+    private static String fast(Message message, int bufferSize) throws Exception {
+        var bytes = new ByteArrayOutputStream();
+        var out = new JsonOutput(bytes, bufferSize);
+        ProtobufJsonWriters.writerFor(message.getClass()).write(message, out);
+        out.flush();
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    // through UTF-8 like the response body, which turns a lone surrogate into '?'
+    private static String reference(Message message) throws Exception {
+        return new String(PRINTER.print(message).getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,158 @@
+package com.gx.aggregator.interceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.gx.aggregator.config.DeadlineBudgets;
+import com.gx.aggregator.controller.TradeController;
+import com.gx.aggregator.controller.advice.ApplicationExceptionAdviceHandler;
+import com.gx.aggregator.pipeline.TradePipeline;
+import com.gx.aggregator.service.StockPriceCache;
+import com.gx.aggregator.service.TradeService;
+import com.gx.aggregator.service.UserInformationCache;
+import com.gx.common.Ticker;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the interceptor against an in-process user-service whose TradeStock
+ * never answers, so every call ends on its deadline.
+ */
+class GrpcDeadlineInterceptorTest {
+    private static final String TRADE_STOCK = UserServiceGrpc.getTradeStockMethod().getFullMethodName();
+    private static final StockTradeRequest REQUEST = StockTradeRequest.newBuilder()
+            .setUserId(2)
+            .setTicker(Ticker.APPLE)
+            .setPrice(10)
+            .setQuantity(1)
+            .setAction(TradeAction.BUY)
+            .build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // deadline the server saw on the last call
+    private final AtomicReference<Deadline> serverDeadline = new AtomicReference<>();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void tradeStock(StockTradeRequest request, StreamObserver<StockTradeResponse> observer) {
+                        GrpcDeadlineInterceptorTest.this.serverDeadline.set(Context.current().getDeadline());
+                    }
+                })
+                .build()
+                .start();
+        var budgets = new DeadlineBudgets(Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(1),
+                Duration.ofSeconds(5));
+        this.channel = InProcessChannelBuilder.forName(name)
+                .directExecutor()
+                .intercept(new GrpcDeadlineInterceptor(budgets, this.meterRegistry))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void callEndsOnItsMethodBudget() {
+        var stub = UserServiceGrpc.newBlockingStub(this.channel);
+        var started = System.nanoTime();
+
+        assertThatThrownBy(() -> stub.tradeStock(REQUEST))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(this.serverDeadline.get().timeRemaining(TimeUnit.MILLISECONDS)).isLessThanOrEqualTo(1_000);
+        assertThat(this.exceeded()).isEqualTo(1);
+    }
+
+    @Test
+    void earlierCallerDeadlineWins() {
+        var stub = UserServiceGrpc.newBlockingStub(this.channel).withDeadlineAfter(500, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> stub.tradeStock(REQUEST)).isInstanceOf(StatusRuntimeException.class);
+
+        assertThat(this.serverDeadline.get().timeRemaining(TimeUnit.MILLISECONDS)).isLessThanOrEqualTo(500);
+        assertThat(this.exceeded()).isEqualTo(1);
+    }
+
+    @Test
+    void laterCallerDeadlineIsShortenedToTheBudget() {
+        var stub = UserServiceGrpc.newBlockingStub(this.channel).withDeadlineAfter(30, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> stub.tradeStock(REQUEST)).isInstanceOf(StatusRuntimeException.class);
+
+        assertThat(this.serverDeadline.get().timeRemaining(TimeUnit.MILLISECONDS)).isLessThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void expiredTradeIsAGatewayTimeout() throws Exception {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<TradePipeline> noPipeline = mock(ObjectProvider.class);
+        var tradeService = new TradeService(UserServiceGrpc.newBlockingStub(this.channel),
+                UserServiceGrpc.newStub(this.channel), new StockPriceCache(),
+                new UserInformationCache(this.meterRegistry, Duration.ofMillis(250), 100), noPipeline);
+        ReflectionTestUtils.setField(tradeService, "async", true);
+        var mockMvc = MockMvcBuilders.standaloneSetup(new TradeController(tradeService))
+                .setControllerAdvice(new ApplicationExceptionAdviceHandler())
+                .setMessageConverters(new ProtobufHttpMessageConverter(), new StringHttpMessageConverter())
+                .build();
+
+        var result = mockMvc.perform(post("/trade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":2,\"ticker\":\"APPLE\",\"price\":10,\"quantity\":1,\"action\":\"BUY\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isGatewayTimeout());
+        assertThat(this.exceeded()).isEqualTo(1);
+    }
+
+    private double exceeded() {
+        var counter = this.meterRegistry.find("aggregator.grpc.deadline.exceeded").tag("method", TRADE_STOCK).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
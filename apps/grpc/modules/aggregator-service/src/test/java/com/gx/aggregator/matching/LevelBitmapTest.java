@@ -0,0 +1,82 @@
+package com.gx.aggregator.matching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class LevelBitmapTest {
+    private static final int MAX_PRICE = 100_000;
+
+    private final LevelBitmap levels = new LevelBitmap(MAX_PRICE);
+
+    @Test
+    void emptyBitmapHasNothingEitherWay() {
+        assertThat(this.levels.highestBelow(MAX_PRICE + 1)).isEqualTo(-1);
+        assertThat(this.levels.lowestAbove(0)).isEqualTo(-1);
+    }
+
+    @Test
+    void findsLevelsAcrossWordsAndSummaryGroups() {
+        this.levels.set(1);
+        this.levels.set(63);
+        this.levels.set(64);
+        this.levels.set(4_097);
+        this.levels.set(MAX_PRICE);
+
+        assertThat(this.levels.lowestAbove(0)).isEqualTo(1);
+        assertThat(this.levels.lowestAbove(1)).isEqualTo(63);
+        assertThat(this.levels.lowestAbove(63)).isEqualTo(64);
+        assertThat(this.levels.lowestAbove(64)).isEqualTo(4_097);
+        assertThat(this.levels.lowestAbove(4_097)).isEqualTo(MAX_PRICE);
+        assertThat(this.levels.lowestAbove(MAX_PRICE)).isEqualTo(-1);
+
+        assertThat(this.levels.highestBelow(MAX_PRICE + 1)).isEqualTo(MAX_PRICE);
+        assertThat(this.levels.highestBelow(MAX_PRICE)).isEqualTo(4_097);
+        assertThat(this.levels.highestBelow(4_097)).isEqualTo(64);
+        assertThat(this.levels.highestBelow(64)).isEqualTo(63);
+        assertThat(this.levels.highestBelow(63)).isEqualTo(1);
+        assertThat(this.levels.highestBelow(1)).isEqualTo(-1);
+    }
+
+    @Test
+    void clearingTheLastLevelOfAWordSkipsTheWord() {
+        this.levels.set(10);
+        this.levels.set(70);
+        this.levels.set(71);
+        this.levels.set(5_000);
+
+        this.levels.clear(70);
+        assertThat(this.levels.lowestAbove(10)).isEqualTo(71);
+        this.levels.clear(71);
+        assertThat(this.levels.lowestAbove(10)).isEqualTo(5_000);
+        assertThat(this.levels.highestBelow(5_000)).isEqualTo(10);
+    }
+
+    @Test
+    void matchesASortedSetOverRandomSetsAndClears() {
+        var random = new SplittableRandom(3);
+        var reference = new TreeSet<Integer>();
+        for (var op = 0; op < 200_000; op++) {
+            // sparse, so gaps span whole words and summary groups
+            var price = random.nextInt(1, MAX_PRICE + 1);
+            if (random.nextBoolean() && reference.size() < 200) {
+                this.levels.set(price);
+                reference.add(price);
+            } else if (!reference.isEmpty()) {
+                var existing = reference.ceiling(price) != null ? reference.ceiling(price) : reference.first();
+                this.levels.clear(existing);
+                reference.remove(existing);
+            }
+            var probe = random.nextInt(0, MAX_PRICE + 2);
+            assertThat(this.levels.lowestAbove(probe)).isEqualTo(orMissing(reference.higher(probe)));
+            assertThat(this.levels.highestBelow(probe)).isEqualTo(orMissing(reference.lower(probe)));
+        }
+    }
+
+    private static int orMissing(Integer price) {
+        return price == null ? -1 : price;
+    }
+}
@@ -0,0 +1,108 @@
+package com.gx.aggregator.matching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetAndRemove() {
+        var map = new LongIntHashMap(8);
+
+        map.put(7, 70);
+        map.put(8, 80);
+        map.put(7, 71);
+
+        assertThat(map.size()).isEqualTo(2);
+        assertThat(map.get(7)).isEqualTo(71);
+        assertThat(map.remove(7)).isEqualTo(71);
+        assertThat(map.remove(7)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.get(7)).isEqualTo(LongIntHashMap.MISSING);
+        assertThat(map.get(8)).isEqualTo(80);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    /**
+     * Three keys whose home is the last slot wrap around to the first ones,
+     * followed by a key whose home is slot 0. Removing each in turn must
+     * shift the rest of the chain back across the end of the table.
+     */
+    @Test
+    void removeShiftsProbeChainBackAcrossTheEnd() {
+        var map = new LongIntHashMap(8);
+        // 32 slots, resized at 16 entries, so the four keys stay where they were put
+        var last = keysWithHome(map, 31, 3);
+        var first = keysWithHome(map, 0, 1).getFirst();
+        for (var i = 0; i < last.size(); i++) {
+            map.put(last.get(i), i);
+        }
+        map.put(first, 100);
+
+        assertThat(map.remove(last.get(0))).isZero();
+        assertThat(map.get(last.get(1))).isEqualTo(1);
+        assertThat(map.get(last.get(2))).isEqualTo(2);
+        assertThat(map.get(first)).isEqualTo(100);
+
+        assertThat(map.remove(last.get(2))).isEqualTo(2);
+        assertThat(map.get(last.get(1))).isEqualTo(1);
+        assertThat(map.get(first)).isEqualTo(100);
+
+        assertThat(map.remove(last.get(1))).isEqualTo(1);
+        assertThat(map.get(first)).isEqualTo(100);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removingTheKeyAtItsHomeKeepsAWrappedKeyReachable() {
+        var map = new LongIntHashMap(8);
+        var last = keysWithHome(map, 31, 2);
+        var atZero = keysWithHome(map, 0, 1).getFirst();
+        // atZero takes slot 0, so the second key of slot 31 lands on slot 1
+        map.put(atZero, 0);
+        map.put(last.get(0), 1);
+        map.put(last.get(1), 2);
+
+        map.remove(atZero);
+
+        assertThat(map.get(last.get(0))).isEqualTo(1);
+        assertThat(map.get(last.get(1))).isEqualTo(2);
+    }
+
+    @Test
+    void matchesHashMapThroughResizesAndRemovals() {
+        var random = new SplittableRandom(7);
+        var map = new LongIntHashMap(16);
+        var reference = new HashMap<Long, Integer>();
+        for (var op = 0; op < 500_000; op++) {
+            // a small key space, so puts overwrite and removes hit
+            var key = random.nextLong(1, 20_000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    var value = random.nextInt(1_000_000);
+                    map.put(key, value);
+                    reference.put(key, value);
+                }
+                case 1 -> assertThat(map.remove(key))
+                        .isEqualTo(reference.containsKey(key) ? reference.remove(key) : LongIntHashMap.MISSING);
+                default -> assertThat(map.get(key)).isEqualTo(reference.getOrDefault(key, LongIntHashMap.MISSING));
+            }
+        }
+        assertThat(map.size()).isEqualTo(reference.size());
+        reference.forEach((key, value) -> assertThat(map.get(key)).isEqualTo(value));
+    }
+
+    private static ArrayList<Long> keysWithHome(LongIntHashMap map, int home, int count) {
+        var keys = new ArrayList<Long>();
+        for (var key = 1L; keys.size() < count; key++) {
+            if (map.slot(key) == home) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,136 @@
+package com.gx.aggregator.matching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.gx.common.Ticker;
+import com.gx.order.OrderState;
+import com.gx.order.OrderStatus;
+import com.gx.order.PlaceOrderRequest;
+import com.gx.user.TradeAction;
+
+import io.grpc.Status;
+
+class MatchingEngineTest {
+    private static final int CLOSED_ORDERS = 4;
+
+    private final List<String> fills = new CopyOnWriteArrayList<>();
+    private final MatchingEngine engine = new MatchingEngine(1_000, 16, CLOSED_ORDERS,
+            (ticker, buyId, buyUser, buyLimit, sellId, sellUser, price, quantity) -> this.fills
+                    .add(ticker + " " + buyUser + "<-" + sellUser + " " + quantity + "@" + price),
+            topOfBook -> {
+            });
+
+    @AfterEach
+    void tearDown() {
+        this.engine.close();
+    }
+
+    @Test
+    void placeReportsFillsAndStatus() throws Exception {
+        var sell = await(this.engine.place(order(1, TradeAction.SELL, 100, 10)));
+        var buy = await(this.engine.place(order(2, TradeAction.BUY, 101, 4)));
+
+        assertThat(sell.getStatus()).isEqualTo(OrderStatus.NEW);
+        assertThat(buy.getStatus()).isEqualTo(OrderStatus.FILLED);
+        assertThat(buy.getFilledQuantity()).isEqualTo(4);
+        assertThat(this.fills).containsExactly("APPLE 2<-1 4@100");
+        var resting = await(this.engine.get(sell.getOrderId()));
+        assertThat(resting.getStatus()).isEqualTo(OrderStatus.PARTIALLY_FILLED);
+        assertThat(resting.getFilledQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    void filledOrdersKeepTheirFinalState() throws Exception {
+        var sell = await(this.engine.place(order(1, TradeAction.SELL, 100, 5)));
+        var buy = await(this.engine.place(order(2, TradeAction.BUY, 100, 5)));
+
+        var restingFilled = await(this.engine.get(sell.getOrderId()));
+        assertThat(restingFilled.getStatus()).isEqualTo(OrderStatus.FILLED);
+        assertThat(restingFilled.getFilledQuantity()).isEqualTo(5);
+        assertThat(restingFilled.getSide()).isEqualTo(TradeAction.SELL);
+        assertThat(restingFilled.getUserId()).isEqualTo(1);
+        assertThat(restingFilled.getPrice()).isEqualTo(100);
+        var incomingFilled = await(this.engine.get(buy.getOrderId()));
+        assertThat(incomingFilled).isEqualTo(buy);
+    }
+
+    @Test
+    void cancelledOrdersKeepTheirFinalState() throws Exception {
+        var sell = await(this.engine.place(order(1, TradeAction.SELL, 100, 10)));
+        await(this.engine.place(order(2, TradeAction.BUY, 100, 3)));
+
+        var cancelled = await(this.engine.cancel(sell.getOrderId()));
+
+        assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(cancelled.getFilledQuantity()).isEqualTo(3);
+        assertThat(await(this.engine.get(sell.getOrderId()))).isEqualTo(cancelled);
+        assertThat(status(this.engine.cancel(sell.getOrderId())).getCode()).isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void unknownOrdersAreNotFound() throws Exception {
+        var placed = await(this.engine.place(order(1, TradeAction.BUY, 100, 1)));
+
+        assertThat(status(this.engine.get(placed.getOrderId() + 1)).getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        assertThat(status(this.engine.get(0)).getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        assertThat(status(this.engine.cancel(-5)).getCode()).isEqualTo(Status.Code.NOT_FOUND);
+    }
+
+    @Test
+    void onlyTheLastClosedOrdersAreKept() throws Exception {
+        var ids = new long[CLOSED_ORDERS + 1];
+        for (var i = 0; i < ids.length; i++) {
+            ids[i] = await(this.engine.place(order(1, TradeAction.BUY, 10 + i, 1))).getOrderId();
+        }
+        for (var id : ids) {
+            await(this.engine.cancel(id));
+        }
+
+        var oldest = status(this.engine.get(ids[0]));
+        assertThat(oldest.getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        assertThat(oldest.getDescription()).contains("not found");
+        for (var i = 1; i < ids.length; i++) {
+            assertThat(await(this.engine.get(ids[i])).getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        }
+    }
+
+    @Test
+    void invalidOrdersNeverReachTheBook() {
+        assertThat(status(this.engine.place(order(1, TradeAction.BUY, 1_001, 1))).getCode())
+                .isEqualTo(Status.Code.INVALID_ARGUMENT);
+        assertThat(status(this.engine.place(order(1, TradeAction.BUY, 100, 0))).getCode())
+                .isEqualTo(Status.Code.INVALID_ARGUMENT);
+        assertThat(status(this.engine.place(order(1, TradeAction.BUY, 100, 1).toBuilder()
+                .setTicker(Ticker.UNKNOWN).build())).getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+    }
+
+    private static PlaceOrderRequest order(int userId, TradeAction side, int price, int quantity) {
+        return PlaceOrderRequest.newBuilder()
+                .setUserId(userId)
+                .setTicker(Ticker.APPLE)
+                .setSide(side)
+                .setPrice(price)
+                .setQuantity(quantity)
+                .build();
+    }
+
+    private static OrderState await(CompletableFuture<OrderState> result) throws Exception {
+        return result.get(5, TimeUnit.SECONDS);
+    }
+
+    private static Status status(CompletableFuture<OrderState> result) {
+        var thrown = catchThrowable(() -> result.get(5, TimeUnit.SECONDS));
+        assertThat(thrown).isInstanceOf(ExecutionException.class);
+        return Status.fromThrowable(thrown.getCause());
+    }
+}
@@ -0,0 +1,324 @@
+package com.gx.aggregator.matching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class OrderBookTest {
+    private static final int MAX_PRICE = 200;
+
+    private final List<Fill> fills = new ArrayList<>();
+    private final OrderBook book = new OrderBook(MAX_PRICE, 4, this::record);
+
+    @Test
+    void fillsBestPriceFirstThenOldestOrder() {
+        this.book.place(1, 11, OrderBook.SELL, 101, 5);
+        this.book.place(2, 12, OrderBook.SELL, 101, 5);
+        this.book.place(3, 13, OrderBook.SELL, 100, 5);
+
+        var left = this.book.place(4, 14, OrderBook.BUY, 101, 12);
+
+        assertThat(left).isZero();
+        assertThat(this.fills).containsExactly(
+                new Fill(4, 14, 101, 3, 13, 100, 5),
+                new Fill(4, 14, 101, 1, 11, 101, 5),
+                new Fill(4, 14, 101, 2, 12, 101, 2));
+        assertThat(this.book.bestAskPrice()).isEqualTo(101);
+        assertThat(this.book.bestAskQuantity()).isEqualTo(3);
+        assertThat(this.book.remainingAt(this.book.find(2))).isEqualTo(3);
+        assertThat(this.book.openOrders()).isEqualTo(1);
+    }
+
+    @Test
+    void sellFillsHighestBidAtTheBidsPrice() {
+        this.book.place(1, 11, OrderBook.BUY, 98, 5);
+        this.book.place(2, 12, OrderBook.BUY, 99, 5);
+
+        var left = this.book.place(3, 13, OrderBook.SELL, 97, 7);
+
+        assertThat(left).isZero();
+        assertThat(this.fills).containsExactly(
+                new Fill(2, 12, 99, 3, 13, 99, 5),
+                new Fill(1, 11, 98, 3, 13, 98, 2));
+        assertThat(this.book.bestBidPrice()).isEqualTo(98);
+        assertThat(this.book.bestBidQuantity()).isEqualTo(3);
+    }
+
+    @Test
+    void partlyFilledIncomingOrderRestsTheRest() {
+        this.book.place(1, 11, OrderBook.SELL, 100, 4);
+
+        var left = this.book.place(2, 12, OrderBook.BUY, 102, 10);
+
+        assertThat(left).isEqualTo(6);
+        assertThat(this.fills).containsExactly(new Fill(2, 12, 102, 1, 11, 100, 4));
+        assertThat(this.book.bestAskPrice()).isZero();
+        assertThat(this.book.bestBidPrice()).isEqualTo(102);
+        assertThat(this.book.bestBidQuantity()).isEqualTo(6);
+        var slot = this.book.find(2);
+        assertThat(this.book.quantityAt(slot)).isEqualTo(10);
+        assertThat(this.book.remainingAt(slot)).isEqualTo(6);
+        assertThat(this.book.find(1)).isNegative();
+    }
+
+    @Test
+    void ordersThatDoNotCrossRest() {
+        this.book.place(1, 11, OrderBook.BUY, 99, 5);
+
+        assertThat(this.book.place(2, 12, OrderBook.SELL, 100, 5)).isEqualTo(5);
+        assertThat(this.fills).isEmpty();
+        assertThat(this.book.bestBidPrice()).isEqualTo(99);
+        assertThat(this.book.bestAskPrice()).isEqualTo(100);
+    }
+
+    @Test
+    void cancelRemovesARestingOrderAndKeepsTheQueueOrder() {
+        this.book.place(1, 11, OrderBook.SELL, 100, 5);
+        this.book.place(2, 12, OrderBook.SELL, 100, 6);
+        this.book.place(3, 13, OrderBook.SELL, 100, 7);
+
+        assertThat(this.book.cancel(2)).isEqualTo(6);
+        assertThat(this.book.bestAskQuantity()).isEqualTo(12);
+        this.book.place(4, 14, OrderBook.BUY, 100, 12);
+
+        assertThat(this.fills).extracting(Fill::sellOrderId).containsExactly(1L, 3L);
+        assertThat(this.book.openOrders()).isZero();
+    }
+
+    @Test
+    void cancelOfAMissingOrFinishedOrderIsNegative() {
+        this.book.place(1, 11, OrderBook.SELL, 100, 5);
+        this.book.place(2, 12, OrderBook.BUY, 100, 5);
+
+        assertThat(this.book.cancel(1)).isEqualTo(-1);
+        assertThat(this.book.cancel(2)).isEqualTo(-1);
+        assertThat(this.book.cancel(42)).isEqualTo(-1);
+
+        this.book.place(3, 13, OrderBook.BUY, 90, 5);
+        assertThat(this.book.cancel(3)).isEqualTo(5);
+        assertThat(this.book.cancel(3)).isEqualTo(-1);
+    }
+
+    @Test
+    void cancellingPartlyFilledOrderReturnsWhatIsStillOpen() {
+        this.book.place(1, 11, OrderBook.BUY, 100, 10);
+        this.book.place(2, 12, OrderBook.SELL, 100, 3);
+
+        assertThat(this.book.cancel(1)).isEqualTo(7);
+        assertThat(this.book.bestBidPrice()).isZero();
+        assertThat(this.book.bestBidQuantity()).isZero();
+    }
+
+    @Test
+    void bestBidMovesDownWhenItsLevelEmpties() {
+        this.book.place(1, 11, OrderBook.BUY, 100, 1);
+        this.book.place(2, 12, OrderBook.BUY, 98, 2);
+        this.book.place(3, 13, OrderBook.BUY, 3, 3);
+
+        this.book.cancel(1);
+        assertThat(this.book.bestBidPrice()).isEqualTo(98);
+        assertThat(this.book.bestBidQuantity()).isEqualTo(2);
+
+        this.book.place(4, 14, OrderBook.SELL, 98, 2);
+        assertThat(this.book.bestBidPrice()).isEqualTo(3);
+
+        this.book.place(5, 15, OrderBook.SELL, 1, 3);
+        assertThat(this.book.bestBidPrice()).isZero();
+        assertThat(this.book.bestBidQuantity()).isZero();
+    }
+
+    @Test
+    void bestAskMovesUpWhenItsLevelEmpties() {
+        this.book.place(1, 11, OrderBook.SELL, 100, 1);
+        this.book.place(2, 12, OrderBook.SELL, 130, 2);
+        this.book.place(3, 13, OrderBook.SELL, MAX_PRICE, 3);
+
+        this.book.place(4, 14, OrderBook.BUY, 100, 1);
+        assertThat(this.book.bestAskPrice()).isEqualTo(130);
+
+        this.book.cancel(2);
+        assertThat(this.book.bestAskPrice()).isEqualTo(MAX_PRICE);
+        assertThat(this.book.bestAskQuantity()).isEqualTo(3);
+
+        this.book.cancel(3);
+        assertThat(this.book.bestAskPrice()).isZero();
+        assertThat(this.book.bestAskQuantity()).isZero();
+    }
+
+    @Test
+    void emptyingALevelBelowTheBestKeepsTheBest() {
+        this.book.place(1, 11, OrderBook.BUY, 100, 1);
+        this.book.place(2, 12, OrderBook.BUY, 90, 1);
+
+        this.book.cancel(2);
+
+        assertThat(this.book.bestBidPrice()).isEqualTo(100);
+    }
+
+    @Test
+    void rejectsPricesOutOfRangeAndEmptyQuantities() {
+        assertThatThrownBy(() -> this.book.place(1, 11, OrderBook.BUY, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> this.book.place(1, 11, OrderBook.BUY, MAX_PRICE + 1, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> this.book.place(1, 11, OrderBook.BUY, 100, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(this.book.openOrders()).isZero();
+    }
+
+    /**
+     * Random places and cancels against a TreeMap book that is slow but
+     * plainly right: the same fills in the same order, and the same top of
+     * book, open orders and cancel results after every operation.
+     */
+    @Test
+    void matchesAReferenceBookOverRandomOperations() {
+        var random = new SplittableRandom(42);
+        var reference = new ReferenceBook();
+        var expected = new ArrayList<Fill>();
+        var placed = new ArrayList<Long>();
+        for (var op = 0; op < 2_000_000; op++) {
+            if (!placed.isEmpty() && random.nextInt(3) == 0) {
+                var orderId = placed.get(random.nextInt(placed.size()));
+                assertThat(this.book.cancel(orderId)).isEqualTo(reference.cancel(orderId));
+            } else {
+                var orderId = (long) op + 1;
+                var userId = random.nextInt(1, 50);
+                var side = random.nextBoolean() ? OrderBook.BUY : OrderBook.SELL;
+                // mostly near the middle, sometimes at the edges, so sides empty and refill
+                var price = random.nextInt(20) == 0
+                        ? random.nextInt(1, MAX_PRICE + 1)
+                        : random.nextInt(MAX_PRICE / 2 - 10, MAX_PRICE / 2 + 11);
+                var quantity = random.nextInt(1, 30);
+                expected.clear();
+                var left = reference.place(orderId, userId, side, price, quantity, expected);
+                this.fills.clear();
+                assertThat(this.book.place(orderId, userId, side, price, quantity)).isEqualTo(left);
+                assertThat(this.fills).isEqualTo(expected);
+                if (left > 0) {
+                    placed.add(orderId);
+                }
+            }
+            if (placed.size() > 4_096) {
+                placed.subList(0, 2_048).clear();
+            }
+            assertThat(this.book.bestBidPrice()).isEqualTo(reference.bestBidPrice());
+            assertThat(this.book.bestBidQuantity()).isEqualTo(reference.bestBidQuantity());
+            assertThat(this.book.bestAskPrice()).isEqualTo(reference.bestAskPrice());
+            assertThat(this.book.bestAskQuantity()).isEqualTo(reference.bestAskQuantity());
+            assertThat(this.book.openOrders()).isEqualTo(reference.open.size());
+        }
+        for (var order : reference.open.values()) {
+            var slot = this.book.find(order.id);
+            assertThat(this.book.remainingAt(slot)).isEqualTo(order.remaining);
+            assertThat(this.book.priceAt(slot)).isEqualTo(order.price);
+        }
+    }
+
+    private void record(long buyOrderId, int buyUserId, int buyLimitPrice, long sellOrderId, int sellUserId,
+            int price, int quantity) {
+        this.fills.add(new Fill(buyOrderId, buyUserId, buyLimitPrice, sellOrderId, sellUserId, price, quantity));
+    }
+
+    record Fill(long buyOrderId, int buyUserId, int buyLimitPrice, long sellOrderId, int sellUserId, int price,
+            int quantity) {
+    }
+
+    private static final class Order {
+        final long id;
+        final int userId;
+        final byte side;
+        final int price;
+        int remaining;
+
+        Order(long id, int userId, byte side, int price, int remaining) {
+            this.id = id;
+            this.userId = userId;
+            this.side = side;
+            this.price = price;
+            this.remaining = remaining;
+        }
+    }
+
+    private static final class ReferenceBook {
+        final TreeMap<Integer, ArrayDeque<Order>> bids = new TreeMap<>(Comparator.reverseOrder());
+        final TreeMap<Integer, ArrayDeque<Order>> asks = new TreeMap<>();
+        final Map<Long, Order> open = new HashMap<>();
+
+        int place(long orderId, int userId, byte side, int price, int quantity, List<Fill> fills) {
+            var opposite = side == OrderBook.BUY ? this.asks : this.bids;
+            while (quantity > 0 && !opposite.isEmpty()) {
+                var level = opposite.firstEntry();
+                if (side == OrderBook.BUY ? level.getKey() > price : level.getKey() < price) {
+                    break;
+                }
+                var resting = level.getValue().peekFirst();
+                var fill = Math.min(quantity, resting.remaining);
+                fills.add(side == OrderBook.BUY
+                        ? new Fill(orderId, userId, price, resting.id, resting.userId, level.getKey(), fill)
+                        : new Fill(resting.id, resting.userId, level.getKey(), orderId, userId, level.getKey(),
+                                fill));
+                quantity -= fill;
+                if ((resting.remaining -= fill) == 0) {
+                    level.getValue().pollFirst();
+                    this.open.remove(resting.id);
+                    if (level.getValue().isEmpty()) {
+                        opposite.remove(level.getKey());
+                    }
+                }
+            }
+            if (quantity > 0) {
+                var order = new Order(orderId, userId, side, price, quantity);
+                (side == OrderBook.BUY ? this.bids : this.asks)
+                        .computeIfAbsent(price, p -> new ArrayDeque<>())
+                        .addLast(order);
+                this.open.put(orderId, order);
+            }
+            return quantity;
+        }
+
+        int cancel(long orderId) {
+            var order = this.open.remove(orderId);
+            if (order == null) {
+                return -1;
+            }
+            var levels = order.side == OrderBook.BUY ? this.bids : this.asks;
+            var level = levels.get(order.price);
+            level.remove(order);
+            if (level.isEmpty()) {
+                levels.remove(order.price);
+            }
+            return order.remaining;
+        }
+
+        int bestBidPrice() {
+            return this.bids.isEmpty() ? 0 : this.bids.firstKey();
+        }
+
+        long bestBidQuantity() {
+            return this.bids.isEmpty() ? 0 : depth(this.bids.firstEntry().getValue());
+        }
+
+        int bestAskPrice() {
+            return this.asks.isEmpty() ? 0 : this.asks.firstKey();
+        }
+
+        long bestAskQuantity() {
+            return this.asks.isEmpty() ? 0 : depth(this.asks.firstEntry().getValue());
+        }
+
+        private static long depth(ArrayDeque<Order> level) {
+            return level.stream().mapToLong(order -> order.remaining).sum();
+        }
+    }
+}
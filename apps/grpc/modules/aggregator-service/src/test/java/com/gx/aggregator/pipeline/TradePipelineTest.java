@@ -0,0 +1,239 @@
+package com.gx.aggregator.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.gx.aggregator.config.DeadlineBudgets;
+import com.gx.aggregator.controller.TradeController;
+import com.gx.aggregator.controller.advice.ApplicationExceptionAdviceHandler;
+import com.gx.aggregator.service.StockPriceCache;
+import com.gx.aggregator.service.TradeService;
+import com.gx.aggregator.service.UserInformationCache;
+import com.gx.common.Ticker;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the pipeline on a 4-slot ring against an in-process user-service
+ * that either answers at once or holds every call until released.
+ */
+class TradePipelineTest {
+    private static final int BUFFER_SIZE = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // user ids in the order user-service received them
+    private final List<Integer> received = new CopyOnWriteArrayList<>();
+    private final List<Runnable> held = new CopyOnWriteArrayList<>();
+    private volatile boolean holding;
+    private Server server;
+    private ManagedChannel channel;
+    private TradePipeline pipeline;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.pipeline.destroy();
+        this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tradesPassEveryStageAndCompleteInOrderOverManyLaps() throws Exception {
+        this.start();
+        var completed = new CopyOnWriteArrayList<Integer>();
+        var results = new ArrayList<CompletableFuture<StockTradeResponse>>();
+        for (var userId = 1; userId <= 1_000; userId++) {
+            var result = this.pipeline.submit(trade(userId, 1));
+            result.thenAccept(response -> completed.add(response.getUserId()));
+            results.add(result);
+        }
+
+        for (var i = 0; i < results.size(); i++) {
+            var response = results.get(i).get(5, TimeUnit.SECONDS);
+            assertThat(response.getUserId()).isEqualTo(i + 1);
+            // stamped by the price stage from the default cache price
+            assertThat(response.getPrice()).isEqualTo(100);
+        }
+        var inOrder = results.stream().map(result -> result.join().getUserId()).toList();
+        assertThat(this.received).isEqualTo(inOrder);
+        assertThat(completed).isEqualTo(inOrder);
+    }
+
+    @Test
+    void concurrentPublishersEachGetTheirOwnResponse() throws Exception {
+        this.start();
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            var publishers = new ArrayList<Future<?>>();
+            for (var p = 0; p < 4; p++) {
+                var first = p * 10_000;
+                publishers.add(executor.submit(() -> {
+                    for (var userId = first + 1; userId <= first + 500; userId++) {
+                        var response = this.pipeline.submit(trade(userId, 1)).get(5, TimeUnit.SECONDS);
+                        assertThat(response.getUserId()).isEqualTo(userId);
+                    }
+                    return null;
+                }));
+            }
+            for (var publisher : publishers) {
+                publisher.get(30, TimeUnit.SECONDS);
+            }
+        }
+        assertThat(this.received).hasSize(2_000).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void failedValidationSkipsTheSendStageButKeepsItsPlace() throws Exception {
+        this.start();
+        var first = this.pipeline.submit(trade(1, 1));
+        var invalid = this.pipeline.submit(trade(2, 0));
+        var last = this.pipeline.submit(trade(3, 1));
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getUserId()).isEqualTo(1);
+        assertThat(code(invalid)).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        assertThat(last.get(5, TimeUnit.SECONDS).getUserId()).isEqualTo(3);
+        assertThat(this.received).containsExactly(1, 3);
+    }
+
+    @Test
+    void fullRingFailsFastAndRecoversOnceSlotsFree() throws Exception {
+        this.start();
+        this.holding = true;
+        var accepted = new ArrayList<CompletableFuture<StockTradeResponse>>();
+        for (var userId = 1; userId <= BUFFER_SIZE; userId++) {
+            accepted.add(this.pipeline.submit(trade(userId, 1)));
+        }
+
+        var started = System.nanoTime();
+        var rejected = this.pipeline.submit(trade(99, 1));
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+        assertThat(code(rejected)).isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        assertThat(this.meterRegistry.get("aggregator.trade.pipeline.rejected").counter().count()).isEqualTo(1);
+        assertThat(accepted).noneMatch(CompletableFuture::isDone);
+
+        this.holding = false;
+        this.held.forEach(Runnable::run);
+        for (var result : accepted) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(this.pipeline.submit(trade(5, 1)).get(5, TimeUnit.SECONDS).getUserId()).isEqualTo(5);
+    }
+
+    @Test
+    void fullRingIsServiceUnavailable() throws Exception {
+        this.start();
+        @SuppressWarnings("unchecked")
+        ObjectProvider<TradePipeline> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(this.pipeline);
+        var tradeService = new TradeService(UserServiceGrpc.newBlockingStub(this.channel),
+                UserServiceGrpc.newStub(this.channel), new StockPriceCache(),
+                new UserInformationCache(this.meterRegistry, Duration.ofMillis(250), 100), provider);
+        ReflectionTestUtils.setField(tradeService, "async", true);
+        var mockMvc = MockMvcBuilders.standaloneSetup(new TradeController(tradeService))
+                .setControllerAdvice(new ApplicationExceptionAdviceHandler())
+                .setMessageConverters(new ProtobufHttpMessageConverter(), new StringHttpMessageConverter())
+                .build();
+        this.holding = true;
+        for (var userId = 1; userId <= BUFFER_SIZE; userId++) {
+            this.pipeline.submit(trade(userId, 1));
+        }
+
+        var result = mockMvc.perform(post("/trade")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+                        .content("{\"userId\":9,\"ticker\":\"APPLE\",\"price\":10,\"quantity\":1,\"action\":\"BUY\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult(5_000);
+
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isServiceUnavailable());
+        this.held.forEach(Runnable::run);
+    }
+
+    private void start() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void tradeStock(StockTradeRequest request, StreamObserver<StockTradeResponse> observer) {
+                        TradePipelineTest.this.received.add(request.getUserId());
+                        Runnable answer = () -> {
+                            observer.onNext(StockTradeResponse.newBuilder()
+                                    .setUserId(request.getUserId())
+                                    .setTicker(request.getTicker())
+                                    .setPrice(request.getPrice())
+                                    .setQuantity(request.getQuantity())
+                                    .setAction(request.getAction())
+                                    .setTotalPrice(request.getPrice() * request.getQuantity())
+                                    .build());
+                            observer.onCompleted();
+                        };
+                        if (TradePipelineTest.this.holding) {
+                            TradePipelineTest.this.held.add(answer);
+                        } else {
+                            answer.run();
+                        }
+                    }
+                })
+                .build()
+                .start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        var budgets = new DeadlineBudgets(Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(10),
+                Duration.ofSeconds(5));
+        this.pipeline = new TradePipeline(new StockPriceCache(),
+                new UserInformationCache(this.meterRegistry, Duration.ofMillis(250), 100),
+                UserServiceGrpc.newStub(this.channel), budgets, this.meterRegistry, BUFFER_SIZE, "sleeping", 2,
+                Duration.ofMillis(50));
+    }
+
+    private static StockTradeRequest trade(int userId, int quantity) {
+        return StockTradeRequest.newBuilder()
+                .setUserId(userId)
+                .setTicker(Ticker.APPLE)
+                .setQuantity(quantity)
+                .setAction(TradeAction.BUY)
+                .build();
+    }
+
+    private static Status.Code code(CompletableFuture<StockTradeResponse> result) {
+        var thrown = catchThrowable(() -> result.get(5, TimeUnit.SECONDS));
+        assertThat(thrown).isInstanceOf(ExecutionException.class);
+        return Status.fromThrowable(thrown.getCause()).getCode();
+    }
+}
@@ -0,0 +1,144 @@
+package com.gx.aggregator.pipeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TradeRingBufferTest {
+    private static final long TIMEOUT = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final TradeRingBuffer ring = new TradeRingBuffer(4);
+    private final Sequence gating = new Sequence(-1);
+
+    TradeRingBufferTest() {
+        this.ring.gateOn(this.gating);
+    }
+
+    @Test
+    void sizeMustBeAPowerOfTwo() {
+        assertThatThrownBy(() -> new TradeRingBuffer(6)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void slotsAreReusedEveryLap() {
+        for (var sequence = 0L; sequence < 4; sequence++) {
+            assertThat(this.ring.next(TIMEOUT)).isEqualTo(sequence);
+        }
+        assertThat(this.ring.get(4)).isSameAs(this.ring.get(0));
+        assertThat(this.ring.get(7)).isSameAs(this.ring.get(3));
+        assertThat(this.ring.get(1)).isNotSameAs(this.ring.get(0));
+    }
+
+    @Test
+    void publishingMarksOnlyTheCurrentLap() {
+        this.claim(4);
+        this.ring.publish(0);
+        this.ring.publish(1);
+        this.gating.set(1);
+
+        assertThat(this.ring.next(TIMEOUT)).isEqualTo(4);
+        assertThat(this.ring.isPublished(0)).isTrue();
+        // slot 0 still holds lap 0's mark
+        assertThat(this.ring.isPublished(4)).isFalse();
+        this.ring.publish(4);
+        assertThat(this.ring.isPublished(4)).isTrue();
+        assertThat(this.ring.isPublished(0)).isFalse();
+    }
+
+    @Test
+    void highestPublishedStopsAtTheFirstGap() {
+        this.claim(4);
+        this.ring.publish(0);
+        this.ring.publish(2);
+        this.ring.publish(3);
+
+        assertThat(this.ring.highestPublished(0, 3)).isEqualTo(0);
+        assertThat(this.ring.highestPublished(1, 3)).isEqualTo(0);
+        this.ring.publish(1);
+        assertThat(this.ring.highestPublished(1, 3)).isEqualTo(3);
+    }
+
+    @Test
+    void claimGivesUpWhileTheRingStaysFull() {
+        this.claim(4);
+
+        var started = System.nanoTime();
+        assertThat(this.ring.next(TIMEOUT)).isEqualTo(-1);
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TIMEOUT);
+        assertThat(this.ring.cursor().get()).isEqualTo(3);
+
+        this.gating.set(0);
+        assertThat(this.ring.next(TIMEOUT)).isEqualTo(4);
+        assertThat(this.ring.next(TIMEOUT)).isEqualTo(-1);
+    }
+
+    @Test
+    void claimWaitsForTheLastStageToFreeASlot() throws Exception {
+        this.claim(4);
+        try (var executor = Executors.newSingleThreadExecutor()) {
+            var claimed = executor.submit(() -> this.ring.next(TimeUnit.SECONDS.toNanos(5)));
+            Thread.sleep(20);
+            assertThat(claimed).isNotDone();
+
+            this.gating.set(0);
+            assertThat(claimed.get(5, TimeUnit.SECONDS)).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void concurrentProducersClaimEverySequenceOnceAndNeverOvertakeTheGate() throws Exception {
+        var producers = 4;
+        var perProducer = 20_000;
+        var total = (long) producers * perProducer;
+        var claimed = ConcurrentHashMap.<Long>newKeySet();
+        try (var executor = Executors.newFixedThreadPool(producers + 1)) {
+            // stands in for the stages: frees every contiguously published slot
+            var consumer = executor.submit(() -> {
+                var next = 0L;
+                while (next < total) {
+                    var available = this.ring.highestPublished(next, this.ring.cursor().get());
+                    if (available >= next) {
+                        this.gating.set(available);
+                        next = available + 1;
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                }
+                return null;
+            });
+            var results = new ArrayList<Future<?>>();
+            for (var p = 0; p < producers; p++) {
+                results.add(executor.submit(() -> {
+                    for (var i = 0; i < perProducer; i++) {
+                        var sequence = this.ring.next(TimeUnit.SECONDS.toNanos(5));
+                        assertThat(sequence).isNotNegative();
+                        assertThat(sequence - this.gating.get()).isLessThanOrEqualTo(this.ring.size());
+                        assertThat(claimed.add(sequence)).isTrue();
+                        this.ring.publish(sequence);
+                    }
+                    return null;
+                }));
+            }
+            for (var result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+            consumer.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(claimed).hasSize((int) total);
+        assertThat(this.ring.cursor().get()).isEqualTo(total - 1);
+    }
+
+    private void claim(int count) {
+        for (var i = 0; i < count; i++) {
+            assertThat(this.ring.next(TIMEOUT)).isNotNegative();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.gx.aggregator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gx.user.UserInformation;
+import com.gx.user.UserServiceGrpc;
+import com.gx.user.UsersInformationRequest;
+import com.gx.user.UsersInformationResponse;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the loader against an in-process user-service that knows every
+ * positive id and records each GetUsersInformation call it receives.
+ */
+class UserInformationBatchLoaderTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Integer>> calls = new CopyOnWriteArrayList<>();
+    private volatile Status failure;
+    private Server server;
+    private ManagedChannel channel;
+    private UserInformationBatchLoader loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void getUsersInformation(UsersInformationRequest request,
+                            StreamObserver<UsersInformationResponse> observer) {
+                        UserInformationBatchLoaderTest.this.calls.add(request.getUserIdsList());
+                        var failure = UserInformationBatchLoaderTest.this.failure;
+                        if (failure != null) {
+                            observer.onError(failure.asRuntimeException());
+                            return;
+                        }
+                        var response = UsersInformationResponse.newBuilder();
+                        request.getUserIdsList().stream()
+                                .filter(userId -> userId > 0)
+                                .forEach(userId -> response.addUsers(user(userId)));
+                        observer.onNext(response.build());
+                        observer.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (this.loader != null) {
+            this.loader.destroy();
+        }
+        this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void concurrentLookupsMergeIntoOneCall() throws Exception {
+        this.start(Duration.ofMillis(200), 128);
+        var callers = 32;
+        var ready = new CountDownLatch(callers);
+        var results = new ArrayList<CompletableFuture<CompletableFuture<UserInformation>>>();
+        try (var executor = Executors.newFixedThreadPool(callers)) {
+            for (var userId = 1; userId <= callers; userId++) {
+                var id = userId;
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    ready.countDown();
+                    await(ready);
+                    return this.loader.load(id);
+                }, executor));
+            }
+            for (var i = 0; i < callers; i++) {
+                assertThat(results.get(i).get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isEqualTo(user(i + 1));
+            }
+        }
+
+        assertThat(this.calls).hasSize(1);
+        assertThat(this.calls.getFirst()).containsExactlyInAnyOrderElementsOf(
+                IntStream.rangeClosed(1, callers).boxed().toList());
+        assertThat(this.meterRegistry.get("aggregator.user.batch.size").summary().max()).isEqualTo(callers);
+    }
+
+    @Test
+    void repeatedIdsAreRequestedOnce() throws Exception {
+        this.start(Duration.ofMillis(50), 128);
+
+        var first = this.loader.load(7);
+        var second = this.loader.load(7);
+        var other = this.loader.load(8);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(user(7));
+        assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo(user(8));
+        assertThat(this.calls).containsExactly(List.of(7, 8));
+    }
+
+    @Test
+    void onlyIdsMissingFromTheResponseAreNotFound() throws Exception {
+        this.start(Duration.ofMillis(50), 128);
+
+        var found = this.loader.load(3);
+        var missing = this.loader.load(-3);
+        var alsoFound = this.loader.load(4);
+
+        assertThat(found.get(5, TimeUnit.SECONDS)).isEqualTo(user(3));
+        assertThat(alsoFound.get(5, TimeUnit.SECONDS)).isEqualTo(user(4));
+        var status = status(missing);
+        assertThat(status.getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        assertThat(status.getDescription()).isEqualTo("User with id -3 not found.");
+        assertThat(this.calls).hasSize(1);
+    }
+
+    @Test
+    void failedCallFailsEveryLookupInTheBatch() throws Exception {
+        this.start(Duration.ofMillis(50), 128);
+        this.failure = Status.UNAVAILABLE.withDescription("user-service down");
+
+        var first = this.loader.load(1);
+        var second = this.loader.load(2);
+
+        assertThat(status(first).getCode()).isEqualTo(Status.Code.UNAVAILABLE);
+        assertThat(status(second).getCode()).isEqualTo(Status.Code.UNAVAILABLE);
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheWindow() throws Exception {
+        this.start(Duration.ofMinutes(10), 4);
+
+        var results = new ArrayList<CompletableFuture<UserInformation>>();
+        for (var userId = 1; userId <= 9; userId++) {
+            results.add(this.loader.load(userId));
+        }
+
+        for (var i = 0; i < 8; i++) {
+            assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(user(i + 1));
+        }
+        assertThat(this.calls).containsExactly(List.of(1, 2, 3, 4), List.of(5, 6, 7, 8));
+        // the ninth waits for more ids or the window
+        assertThat(results.get(8)).isNotDone();
+    }
+
+    @Test
+    void partialBatchIsSentWhenTheWindowCloses() throws Exception {
+        var window = Duration.ofMillis(100);
+        this.start(window, 128);
+
+        var started = System.nanoTime();
+        var result = this.loader.load(1);
+        Thread.sleep(20);
+        this.loader.load(2);
+
+        assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(user(1));
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isGreaterThanOrEqualTo(window);
+        assertThat(this.calls).containsExactly(List.of(1, 2));
+
+        // a later lookup opens a new window
+        assertThat(this.loader.load(3).get(5, TimeUnit.SECONDS)).isEqualTo(user(3));
+        assertThat(this.calls).hasSize(2);
+    }
+
+    @Test
+    void batchesNeverExceedTheMaxSize() throws Exception {
+        this.start(Duration.ofMillis(5), 16);
+        var results = new ArrayList<CompletableFuture<UserInformation>>();
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var submitted = new ArrayList<CompletableFuture<Void>>();
+            for (var t = 0; t < 8; t++) {
+                var first = t * 1_000;
+                submitted.add(CompletableFuture.runAsync(() -> {
+                    for (var userId = first + 1; userId <= first + 500; userId++) {
+                        synchronized (results) {
+                            results.add(this.loader.load(userId));
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(submitted.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertThat(this.calls).allSatisfy(call -> assertThat(call).hasSizeLessThanOrEqualTo(16));
+        var requested = this.calls.stream().flatMap(List::stream).toList();
+        assertThat(requested).hasSize(4_000);
+        assertThat(Set.copyOf(requested)).hasSize(4_000);
+    }
+
+    private void start(Duration window, int maxSize) {
+        this.loader = new UserInformationBatchLoader(UserServiceGrpc.newStub(this.channel), this.meterRegistry,
+                window, maxSize);
+    }
+
+    private static UserInformation user(int userId) {
+        return UserInformation.newBuilder().setUserId(userId).setName("user " + userId).setBalance(userId).build();
+    }
+
+    private static Status status(CompletableFuture<UserInformation> result) {
+        var thrown = catchThrowable(() -> result.get(5, TimeUnit.SECONDS));
+        assertThat(thrown).isInstanceOf(ExecutionException.class);
+        return Status.fromThrowable(thrown.getCause());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
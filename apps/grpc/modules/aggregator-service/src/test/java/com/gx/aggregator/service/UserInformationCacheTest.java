@@ -0,0 +1,234 @@
+package com.gx.aggregator.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.Test;
+
+import com.gx.common.Ticker;
+import com.gx.user.Holding;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserInformationCacheTest {
+    private static final Duration TTL = Duration.ofMillis(250);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserInformationCache cache = new UserInformationCache(this.meterRegistry, TTL, 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        var load = new CompletableFuture<UserInformation>();
+        IntFunction<CompletableFuture<UserInformation>> loader = userId -> {
+            this.loads.incrementAndGet();
+            return load;
+        };
+        var callers = 16;
+        var ready = new CountDownLatch(callers);
+        var results = new ArrayList<CompletableFuture<CompletableFuture<UserInformation>>>();
+        try (var executor = Executors.newFixedThreadPool(callers)) {
+            for (var i = 0; i < callers; i++) {
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    ready.countDown();
+                    await(ready);
+                    return this.cache.get(1, loader);
+                }, executor));
+            }
+            for (var result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isNotDone();
+            }
+        }
+
+        load.complete(user(1, 500));
+
+        for (var result : results) {
+            assertThat(result.join().get(5, TimeUnit.SECONDS)).isEqualTo(user(1, 500));
+        }
+        assertThat(this.loads).hasValue(1);
+        assertThat(this.counter("aggregator.user.lookups", "outcome", "loaded")).isEqualTo(1);
+        assertThat(this.counter("aggregator.user.lookups", "outcome", "coalesced")).isEqualTo(callers - 1);
+    }
+
+    @Test
+    void cancellingOneCallerDoesNotCancelTheSharedLoad() throws Exception {
+        var load = new CompletableFuture<UserInformation>();
+        var first = this.cache.get(1, userId -> load);
+        var second = this.cache.get(1, userId -> load);
+
+        first.cancel(true);
+        load.complete(user(1, 500));
+
+        assertThat(load).isNotCancelled();
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(user(1, 500));
+    }
+
+    @Test
+    void freshEntriesAreServedWithoutLoading() throws Exception {
+        assertThat(this.cache.get(1, this::loadUser).get()).isEqualTo(user(1, 100));
+        assertThat(this.cache.get(1, this::loadUser).get()).isEqualTo(user(1, 100));
+        assertThat(this.cache.peek(1)).isEqualTo(user(1, 100));
+
+        assertThat(this.loads).hasValue(1);
+        assertThat(this.counter("aggregator.user.cache.requests", "result", "hit")).isEqualTo(1);
+        assertThat(this.counter("aggregator.user.cache.requests", "result", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws Exception {
+        this.cache.get(1, this::loadUser).get();
+
+        Thread.sleep(TTL.toMillis() + 50);
+
+        assertThat(this.cache.peek(1)).isNull();
+        this.cache.get(1, this::loadUser).get();
+        assertThat(this.loads).hasValue(2);
+    }
+
+    @Test
+    void zeroTtlNeverStores() throws Exception {
+        var uncached = new UserInformationCache(new SimpleMeterRegistry(), Duration.ZERO, 100);
+
+        uncached.get(1, this::loadUser).get();
+        uncached.get(1, this::loadUser).get();
+
+        assertThat(this.loads).hasValue(2);
+        assertThat(uncached.peek(1)).isNull();
+    }
+
+    @Test
+    void failedLoadsAreNotCached() throws Exception {
+        var failed = this.cache.get(1, userId -> {
+            this.loads.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("user-service down"));
+        });
+
+        assertThatThrownBy(failed::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(this.cache.peek(1)).isNull();
+        assertThat(this.cache.get(1, this::loadUser).get()).isEqualTo(user(1, 100));
+        assertThat(this.loads).hasValue(2);
+    }
+
+    @Test
+    void loaderThatThrowsReleasesTheInFlightSlot() throws Exception {
+        var failed = this.cache.get(1, userId -> {
+            throw new IllegalStateException("no channel");
+        });
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(this.cache.get(1, this::loadUser).get()).isEqualTo(user(1, 100));
+    }
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotStored() throws Exception {
+        this.cache.get(1, this::loadUser).get();
+        var load = new CompletableFuture<UserInformation>();
+        this.cache.invalidate(1);
+        // starts after the invalidation: stored
+        var fresh = this.cache.get(1, userId -> load);
+        load.complete(user(1, 200));
+        assertThat(fresh.get()).isEqualTo(user(1, 200));
+        assertThat(this.cache.peek(1)).isEqualTo(user(1, 200));
+
+        this.cache.invalidate(1);
+        var stale = new CompletableFuture<UserInformation>();
+        var staleResult = this.cache.get(1, userId -> stale);
+        this.cache.invalidate(1);
+        stale.complete(user(1, 300));
+
+        // the caller still gets its answer, but it is not kept
+        assertThat(staleResult.get()).isEqualTo(user(1, 300));
+        assertThat(this.cache.peek(1)).isNull();
+        assertThat(this.cache.get(1, this::loadUser).get()).isEqualTo(user(1, 100));
+    }
+
+    @Test
+    void loadStartedBeforeATradeIsNotStored() throws Exception {
+        var stale = new CompletableFuture<UserInformation>();
+        var result = this.cache.get(1, userId -> stale);
+
+        this.cache.applyTrade(trade(1, TradeAction.BUY, 5, 900));
+        stale.complete(user(1, 1_000));
+
+        assertThat(result.get()).isEqualTo(user(1, 1_000));
+        // the marker left by the trade is never a hit
+        assertThat(this.cache.peek(1)).isNull();
+        this.cache.get(1, this::loadUser).get();
+        assertThat(this.loads).hasValue(1);
+    }
+
+    @Test
+    void tradesPatchTheCachedUser() throws Exception {
+        this.cache.get(1, userId -> CompletableFuture.completedFuture(UserInformation.newBuilder()
+                .setUserId(1)
+                .setBalance(1_000)
+                .addHoldings(Holding.newBuilder().setTicker(Ticker.APPLE).setQuantity(10))
+                .build())).get();
+
+        this.cache.applyTrade(trade(1, TradeAction.SELL, 4, 1_400));
+        this.cache.applyTrade(trade(1, TradeAction.BUY, 2, 1_200).toBuilder().setTicker(Ticker.GOOGLE).build());
+
+        var patched = this.cache.peek(1);
+        assertThat(patched.getBalance()).isEqualTo(1_200);
+        assertThat(patched.getHoldingsList()).containsExactly(
+                Holding.newBuilder().setTicker(Ticker.APPLE).setQuantity(6).build(),
+                Holding.newBuilder().setTicker(Ticker.GOOGLE).setQuantity(2).build());
+    }
+
+    @Test
+    void sizeStaysWithinTheLimit() throws Exception {
+        var meterRegistry = new SimpleMeterRegistry();
+        var small = new UserInformationCache(meterRegistry, TTL, 10);
+        for (var userId = 1; userId <= 50; userId++) {
+            small.get(userId, this::loadUser).get();
+            small.invalidate(userId + 1_000);
+        }
+
+        assertThat(meterRegistry.get("aggregator.user.cache.size").gauge().value()).isLessThanOrEqualTo(10);
+    }
+
+    private CompletableFuture<UserInformation> loadUser(int userId) {
+        this.loads.incrementAndGet();
+        return CompletableFuture.completedFuture(user(userId, 100));
+    }
+
+    private double counter(String name, String tag, String value) {
+        return this.meterRegistry.get(name).tag(tag, value).counter().count();
+    }
+
+    private static UserInformation user(int userId, int balance) {
+        return UserInformation.newBuilder().setUserId(userId).setBalance(balance).build();
+    }
+
+    private static StockTradeResponse trade(int userId, TradeAction action, int quantity, int balance) {
+        return StockTradeResponse.newBuilder()
+                .setUserId(userId)
+                .setTicker(Ticker.APPLE)
+                .setAction(action)
+                .setQuantity(quantity)
+                .setBalance(balance)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
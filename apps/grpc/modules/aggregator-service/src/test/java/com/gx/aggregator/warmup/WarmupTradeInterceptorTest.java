@@ -0,0 +1,120 @@
+package com.gx.aggregator.warmup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gx.aggregator.util.StreamObserverFuture;
+import com.gx.common.Ticker;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserServiceGrpc;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Runs the interceptor in front of an in-process user-service that records
+ * the trades reaching it and answers each with a balance of 7.
+ */
+class WarmupTradeInterceptorTest {
+    private static final int SCRATCH_USER_ID = -1;
+
+    private final WarmupTradeInterceptor interceptor = new WarmupTradeInterceptor();
+    private final List<StockTradeRequest> received = new CopyOnWriteArrayList<>();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new UserServiceGrpc.UserServiceImplBase() {
+                    @Override
+                    public void tradeStock(StockTradeRequest request, StreamObserver<StockTradeResponse> observer) {
+                        WarmupTradeInterceptorTest.this.received.add(request);
+                        observer.onNext(StockTradeResponse.newBuilder()
+                                .setUserId(request.getUserId())
+                                .setBalance(7)
+                                .build());
+                        observer.onCompleted();
+                    }
+                })
+                .build()
+                .start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().intercept(this.interceptor).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void answersScratchBuysInProcessWhileActive() throws Exception {
+        this.interceptor.start(SCRATCH_USER_ID);
+
+        var blocking = UserServiceGrpc.newBlockingStub(this.channel)
+                .tradeStock(trade(SCRATCH_USER_ID, TradeAction.BUY));
+        var async = new StreamObserverFuture<StockTradeResponse>();
+        UserServiceGrpc.newStub(this.channel).tradeStock(trade(SCRATCH_USER_ID, TradeAction.BUY), async);
+
+        for (var response : List.of(blocking, async.get(5, TimeUnit.SECONDS))) {
+            assertThat(response).isEqualTo(StockTradeResponse.newBuilder()
+                    .setUserId(SCRATCH_USER_ID)
+                    .setTicker(Ticker.AMAZON)
+                    .setPrice(120)
+                    .setQuantity(3)
+                    .setAction(TradeAction.BUY)
+                    .setTotalPrice(360)
+                    .build());
+        }
+        assertThat(this.received).isEmpty();
+    }
+
+    @Test
+    void sendsEverythingElseToUserService() {
+        this.interceptor.start(SCRATCH_USER_ID);
+        var stub = UserServiceGrpc.newBlockingStub(this.channel);
+
+        assertThat(stub.tradeStock(trade(SCRATCH_USER_ID, TradeAction.SELL)).getBalance()).isEqualTo(7);
+        assertThat(stub.tradeStock(trade(2, TradeAction.BUY)).getBalance()).isEqualTo(7);
+
+        assertThat(this.received).containsExactly(trade(SCRATCH_USER_ID, TradeAction.SELL),
+                trade(2, TradeAction.BUY));
+    }
+
+    @Test
+    void sendsScratchBuysToUserServiceOnceStopped() {
+        this.interceptor.start(SCRATCH_USER_ID);
+        this.interceptor.stop();
+
+        var response = UserServiceGrpc.newBlockingStub(this.channel)
+                .tradeStock(trade(SCRATCH_USER_ID, TradeAction.BUY));
+
+        assertThat(response.getBalance()).isEqualTo(7);
+        assertThat(this.received).hasSize(1);
+    }
+
+    private static StockTradeRequest trade(int userId, TradeAction action) {
+        return StockTradeRequest.newBuilder()
+                .setUserId(userId)
+                .setTicker(Ticker.AMAZON)
+                .setPrice(120)
+                .setQuantity(3)
+                .setAction(action)
+                .build();
+    }
+}
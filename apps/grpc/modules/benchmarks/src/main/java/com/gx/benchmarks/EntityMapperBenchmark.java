@@ -0,0 +1,82 @@
+package com.gx.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gx.common.Ticker;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformation;
+import com.gx.user.entity.PortfolioItem;
+import com.gx.user.entity.User;
+import com.gx.user.util.EntityMapper;
+
+/**
+ * Entity to protobuf conversion in user-service, run for every
+ * GetUserInformation and TradeStock call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityMapperBenchmark {
+    // the seed data keeps at most four holdings per user
+    @Param({ "0", "4", "16" })
+    int holdings;
+
+    private final EntityMapper mapper = new EntityMapper();
+    private User user;
+    private List<PortfolioItem> items;
+    private StockTradeRequest request;
+
+    @Setup
+    public void setUp() {
+        this.user = new User();
+        this.user.setId(1);
+        this.user.setName("Sam");
+        this.user.setBalance(10_000);
+        var tickers = new Ticker[] { Ticker.APPLE, Ticker.GOOGLE, Ticker.AMAZON, Ticker.MICROSOFT };
+        this.items = new ArrayList<>(this.holdings);
+        for (var i = 0; i < this.holdings; i++) {
+            this.items.add(PortfolioItem.builder()
+                    .id(i + 1)
+                    .userId(1)
+                    .ticker(tickers[i % tickers.length].name())
+                    .quantity(i + 1)
+                    .build());
+        }
+        this.request = StockTradeRequest.newBuilder()
+                .setUserId(1)
+                .setTicker(Ticker.APPLE)
+                .setPrice(150)
+                .setQuantity(3)
+                .setAction(TradeAction.BUY)
+                .build();
+    }
+
+    @Benchmark
+    public UserInformation toUserInformation() {
+        return this.mapper.toUserInformation(this.user, this.items);
+    }
+
+    @Benchmark
+    public StockTradeResponse toStockTradeResponse() {
+        return this.mapper.toStockTradeResponse(this.request, 9_550);
+    }
+}
@@ -0,0 +1,116 @@
+package com.gx.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gx.aggregator.matching.MatchingEngine;
+import com.gx.common.Ticker;
+import com.gx.order.OrderState;
+import com.gx.order.PlaceOrderRequest;
+import com.gx.user.TradeAction;
+
+/**
+ * The OrderBookBenchmark flow through the whole MatchingEngine: validation,
+ * the ticker's command queue, the hand-off to its matching thread, the
+ * OrderState built per order, top-of-book publication and completing the
+ * caller's future.
+ *
+ * {@link #placeAndExpire()} submits {@link #BURST} orders, plus the cancel
+ * of each order placed {@link #EXPIRY} earlier, before waiting, as many
+ * concurrent clients would; the queue is FIFO, so once the last future is
+ * done so are the others. {@link #placeRoundTrip()} waits for every order,
+ * so it pays the thread hand-off each time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchingEngineBenchmark {
+    private static final int FLOW = 1 << 16;
+    private static final int EXPIRY = 4096;
+    private static final int BURST = 256;
+    private static final int MID = 10_000;
+
+    private final PlaceOrderRequest[] flow = new PlaceOrderRequest[FLOW];
+    // ids of the last EXPIRY orders, by sequence
+    private final long[] placed = new long[EXPIRY];
+    @SuppressWarnings("unchecked")
+    private final CompletableFuture<OrderState>[] burst = new CompletableFuture[BURST];
+    private MatchingEngine engine;
+    private long fills;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        var random = new SplittableRandom(42);
+        for (var i = 0; i < FLOW; i++) {
+            this.flow[i] = PlaceOrderRequest.newBuilder()
+                    .setUserId(1)
+                    .setTicker(Ticker.APPLE)
+                    .setSide(random.nextBoolean() ? TradeAction.BUY : TradeAction.SELL)
+                    .setPrice(MID + random.nextInt(-25, 26))
+                    .setQuantity(random.nextInt(1, 100))
+                    .build();
+        }
+        this.engine = new MatchingEngine(2 * MID, 2 * EXPIRY, EXPIRY,
+                (ticker, buyId, buyUser, buyLimit, sellId, sellUser, price, qty) -> this.fills++,
+                topOfBook -> {
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.engine.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public long placeAndExpire() {
+        var first = this.sequence;
+        for (var i = 0; i < BURST; i++) {
+            this.burst[i] = this.engine.place(this.flow[(int) (this.sequence & (FLOW - 1))]);
+            this.expire();
+        }
+        var last = this.burst[BURST - 1].join().getOrderId();
+        for (var i = 0; i < BURST; i++) {
+            this.placed[(int) ((first + i) & (EXPIRY - 1))] = this.burst[i].join().getOrderId();
+        }
+        return last;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long placeRoundTrip() {
+        var slot = (int) (this.sequence & (EXPIRY - 1));
+        var request = this.flow[(int) (this.sequence & (FLOW - 1))];
+        this.expire();
+        var orderId = this.engine.place(request).join().getOrderId();
+        this.placed[slot] = orderId;
+        return orderId;
+    }
+
+    // cancels the order placed EXPIRY orders ago (usually filled already) and advances the sequence
+    private void expire() {
+        if (this.sequence >= EXPIRY) {
+            this.engine.cancel(this.placed[(int) (this.sequence & (EXPIRY - 1))]);
+        }
+        this.sequence++;
+    }
+}
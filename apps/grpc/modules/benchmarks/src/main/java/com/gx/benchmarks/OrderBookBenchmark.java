@@ -0,0 +1,67 @@
+package com.gx.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gx.aggregator.matching.OrderBook;
+
+/**
+ * One ticker's OrderBook on a replayed order flow: limit orders scattered
+ * around a mid price, so some cross and the rest rest. Each invocation
+ * places one order and cancels the one placed {@link #EXPIRY} orders
+ * earlier (usually already filled), which keeps the book at a realistic
+ * depth. The matching engine's target is over a million orders a second
+ * per ticker.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OrderBookBenchmark {
+    private static final int FLOW = 1 << 16;
+    private static final int EXPIRY = 4096;
+    private static final int MID = 10_000;
+
+    private final byte[] sides = new byte[FLOW];
+    private final int[] prices = new int[FLOW];
+    private final int[] quantities = new int[FLOW];
+    private OrderBook book;
+    private long fills;
+    private long orderId;
+
+    @Setup
+    public void setUp() {
+        var random = new SplittableRandom(42);
+        for (var i = 0; i < FLOW; i++) {
+            this.sides[i] = random.nextBoolean() ? OrderBook.BUY : OrderBook.SELL;
+            this.prices[i] = MID + random.nextInt(-25, 26);
+            this.quantities[i] = random.nextInt(1, 100);
+        }
+        this.book = new OrderBook(2 * MID, 2 * EXPIRY,
+                (buyId, buyUser, buyLimit, sellId, sellUser, price, qty) -> this.fills++);
+    }
+
+    @Benchmark
+    public int placeAndExpire() {
+        var id = ++this.orderId;
+        var i = (int) (id & (FLOW - 1));
+        var remaining = this.book.place(id, 1, this.sides[i], this.prices[i], this.quantities[i]);
+        if (id > EXPIRY) {
+            this.book.cancel(id - EXPIRY);
+        }
+        return remaining;
+    }
+}
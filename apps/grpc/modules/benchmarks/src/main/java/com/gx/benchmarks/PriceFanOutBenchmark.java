@@ -0,0 +1,77 @@
+package com.gx.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.gx.aggregator.service.PriceUpdateListener;
+import com.gx.aggregator.service.StockPriceCache;
+import com.gx.common.Ticker;
+import com.gx.stock.PriceUpdate;
+
+/**
+ * PriceUpdateListener.onNext delivering one update to N SSE subscribers.
+ * The emitters only build the event, so this measures the listener and
+ * SseEmitter's event assembly, not the servlet write.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceFanOutBenchmark {
+    @Param({ "1", "16", "256" })
+    int subscribers;
+
+    private PriceUpdateListener listener;
+    private PriceUpdate update;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws ReflectiveOperationException {
+        this.listener = new PriceUpdateListener(new StockPriceCache());
+        // the listener only creates real emitters, which need a servlet response
+        var field = PriceUpdateListener.class.getDeclaredField("emitters");
+        field.setAccessible(true);
+        @SuppressWarnings("unchecked")
+        var emitters = (Set<SseEmitter>) field.get(this.listener);
+        for (var i = 0; i < this.subscribers; i++) {
+            emitters.add(new BlackholeEmitter(blackhole));
+        }
+        this.update = PriceUpdate.newBuilder()
+                .setTicker(Ticker.APPLE)
+                .setPrice(150)
+                .build();
+    }
+
+    @Benchmark
+    public void onNext() {
+        this.listener.onNext(this.update);
+    }
+
+    private static final class BlackholeEmitter extends SseEmitter {
+        private final Blackhole blackhole;
+
+        BlackholeEmitter(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            this.blackhole.consume(builder.build());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.gx.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.protobuf.ProtobufJsonFormatHttpMessageConverter;
+
+import com.google.protobuf.Message;
+import com.gx.aggregator.config.GrpcConfig;
+import com.gx.aggregator.converter.ProtobufFastJsonHttpMessageConverter;
+import com.gx.common.Ticker;
+import com.gx.user.Holding;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformation;
+
+/**
+ * The aggregator's REST bodies: JsonFormat-based
+ * ProtobufJsonFormatHttpMessageConverter (as configured in GrpcConfig)
+ * against the hand-written writers behind
+ * ProtobufFastJsonHttpMessageConverter, plus reading a trade request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ProtobufJsonBenchmark {
+    private final GrpcConfig config = new GrpcConfig();
+    private ProtobufJsonFormatHttpMessageConverter jsonFormat;
+    private ProtobufFastJsonHttpMessageConverter fastJson;
+    private UserInformation userInformation;
+    private StockTradeResponse tradeResponse;
+    private byte[] tradeRequestJson;
+    private final OutputMessage output = new OutputMessage();
+
+    @Setup
+    public void setUp() {
+        this.jsonFormat = this.config.protobufJsonFormatHttpMessageConverter();
+        this.fastJson = this.config.protobufFastJsonHttpMessageConverter();
+        this.userInformation = UserInformation.newBuilder()
+                .setUserId(1)
+                .setName("Sam")
+                .setBalance(10_000)
+                .addHoldings(Holding.newBuilder().setTicker(Ticker.APPLE).setQuantity(5))
+                .addHoldings(Holding.newBuilder().setTicker(Ticker.GOOGLE).setQuantity(10))
+                .addHoldings(Holding.newBuilder().setTicker(Ticker.AMAZON).setQuantity(8))
+                .addHoldings(Holding.newBuilder().setTicker(Ticker.MICROSOFT).setQuantity(3))
+                .build();
+        this.tradeResponse = StockTradeResponse.newBuilder()
+                .setUserId(1)
+                .setTicker(Ticker.APPLE)
+                .setPrice(150)
+                .setQuantity(3)
+                .setTotalPrice(450)
+                .setBalance(9_550)
+                .setAction(TradeAction.BUY)
+                .build();
+        this.tradeRequestJson = "{\"userId\":1,\"ticker\":\"APPLE\",\"quantity\":3,\"action\":\"BUY\"}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int writeUserInformationJsonFormat() throws IOException {
+        return this.write(this.jsonFormat, this.userInformation);
+    }
+
+    @Benchmark
+    public int writeUserInformationFast() throws IOException {
+        return this.write(this.fastJson, this.userInformation);
+    }
+
+    @Benchmark
+    public int writeTradeResponseJsonFormat() throws IOException {
+        return this.write(this.jsonFormat, this.tradeResponse);
+    }
+
+    @Benchmark
+    public int writeTradeResponseFast() throws IOException {
+        return this.write(this.fastJson, this.tradeResponse);
+    }
+
+    @Benchmark
+    public Message readTradeRequest() throws IOException {
+        return this.jsonFormat.read(StockTradeRequest.class, new InputMessage(this.tradeRequestJson));
+    }
+
+    private int write(HttpMessageConverter<Message> converter, Message message) throws IOException {
+        this.output.reset();
+        converter.write(message, MediaType.APPLICATION_JSON, this.output);
+        return this.output.body.size();
+    }
+
+    private static final class OutputMessage implements HttpOutputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+        void reset() {
+            this.headers.clear();
+            this.body.reset();
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this.body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+    }
+
+    private static final class InputMessage implements HttpInputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final byte[] body;
+
+        InputMessage(byte[] body) {
+            this.body = body;
+            this.headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(this.body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.headers;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.gx.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gx.aggregator.service.StockPriceCache;
+import com.gx.common.Ticker;
+
+/**
+ * StockPriceCache reads (every trade) racing with writes (every price
+ * update), plus an uncontended read as reference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class StockPriceCacheBenchmark {
+    private static final Ticker[] TICKERS = { Ticker.APPLE, Ticker.GOOGLE, Ticker.AMAZON, Ticker.MICROSOFT };
+
+    private final StockPriceCache cache = new StockPriceCache();
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(3)
+    public Integer getPrice() {
+        return this.cache.getPrice(TICKERS[ThreadLocalRandom.current().nextInt(TICKERS.length)]);
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(1)
+    public void updatePrice() {
+        var random = ThreadLocalRandom.current();
+        this.cache.updatePrice(TICKERS[random.nextInt(TICKERS.length)].name(), 100 + random.nextInt(100));
+    }
+
+    @Benchmark
+    @Group("uncontended")
+    public Integer getPriceAlone() {
+        return this.cache.getPrice(TICKERS[ThreadLocalRandom.current().nextInt(TICKERS.length)]);
+    }
+}
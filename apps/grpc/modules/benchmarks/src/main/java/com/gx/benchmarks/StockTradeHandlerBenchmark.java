@@ -0,0 +1,86 @@
+package com.gx.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.gx.common.Ticker;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.TradeAction;
+import com.gx.user.UserServiceApplication;
+import com.gx.user.service.StockTradeRequestHandler;
+
+/**
+ * StockTradeRequestHandler against user-service's in-memory H2 database:
+ * lookups, validation, JPA dirty checking, flush and commit. Each
+ * invocation buys one share and sells it back, so the data never drifts;
+ * the score is per trade. Hibernate's query and flush paths take a long
+ * time to get compiled, hence the long warmup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockTradeHandlerBenchmark {
+    private ConfigurableApplicationContext context;
+    private StockTradeRequestHandler handler;
+    private StockTradeRequest buy;
+    private StockTradeRequest sell;
+
+    @Setup
+    public void setUp() {
+        // spring.config.name keeps both services' application.properties on the classpath out of it
+        this.context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.config.name=benchmark",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.sql.init.mode=always",
+                        "spring.jpa.defer-datasource-initialization=true",
+                        "spring.grpc.server.port=0",
+                        "user.tracing.target-per-second=0",
+                        // JMH warms the measured code up itself
+                        "user.warmup.enabled=false")
+                .run();
+        this.handler = this.context.getBean(StockTradeRequestHandler.class);
+        var request = StockTradeRequest.newBuilder()
+                .setUserId(1)
+                .setTicker(Ticker.APPLE)
+                .setPrice(1)
+                .setQuantity(1);
+        this.buy = request.setAction(TradeAction.BUY).build();
+        this.sell = request.setAction(TradeAction.SELL).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void buyThenSell(Blackhole blackhole) {
+        blackhole.consume(this.handler.buyStock(this.buy));
+        blackhole.consume(this.handler.sellStock(this.sell));
+    }
+}
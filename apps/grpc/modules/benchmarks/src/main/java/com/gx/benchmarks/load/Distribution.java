@@ -0,0 +1,81 @@
+package com.gx.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Picks an index in [0, size). "uniform" or "zipf" (exponent 1) /
+ * "zipf:1.2"; under Zipf index 0 is the hottest.
+ */
+abstract class Distribution {
+    final int size;
+
+    private Distribution(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        this.size = size;
+    }
+
+    abstract int next(SplittableRandom random);
+
+    static Distribution parse(String spec, int size) {
+        if (spec.equals("uniform")) {
+            return new Uniform(size);
+        }
+        if (spec.equals("zipf")) {
+            return new Zipf(size, 1);
+        }
+        if (spec.startsWith("zipf:")) {
+            return new Zipf(size, Double.parseDouble(spec.substring("zipf:".length())));
+        }
+        throw new IllegalArgumentException("Unknown distribution: " + spec + " (uniform | zipf | zipf:<exponent>)");
+    }
+
+    private static final class Uniform extends Distribution {
+        Uniform(int size) {
+            super(size);
+        }
+
+        @Override
+        int next(SplittableRandom random) {
+            return random.nextInt(this.size);
+        }
+
+        @Override
+        public String toString() {
+            return "uniform";
+        }
+    }
+
+    // inverse CDF by binary search; the table costs 8 bytes per element
+    private static final class Zipf extends Distribution {
+        private final double exponent;
+        private final double[] cumulative;
+
+        Zipf(int size, double exponent) {
+            super(size);
+            this.exponent = exponent;
+            this.cumulative = new double[size];
+            var sum = 0.0;
+            for (var rank = 1; rank <= size; rank++) {
+                sum += 1 / Math.pow(rank, exponent);
+                this.cumulative[rank - 1] = sum;
+            }
+            for (var i = 0; i < size; i++) {
+                this.cumulative[i] /= sum;
+            }
+        }
+
+        @Override
+        int next(SplittableRandom random) {
+            var index = Arrays.binarySearch(this.cumulative, random.nextDouble());
+            return Math.min(index < 0 ? -index - 1 : index, this.size - 1);
+        }
+
+        @Override
+        public String toString() {
+            return "zipf:" + this.exponent;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.gx.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latencies and counts of one endpoint. Response threads record into an
+ * HdrHistogram {@link Recorder}; the reporter drains it once a second into
+ * a timeline row and, once past the warmup, into the run's total histogram.
+ */
+final class EndpointStats {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    final String name;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // reporter thread only
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final List<Row> timeline = new ArrayList<>();
+    private Histogram interval;
+    private long totalErrors;
+    private long totalDropped;
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void sent() {
+        this.sent.increment();
+    }
+
+    /**
+     * @param latencyNanos from the request's intended start, not from when
+     *                     it was actually sent
+     */
+    void completed(long latencyNanos, boolean ok) {
+        this.recorder.recordValue(Math.max(latencyNanos, 0));
+        if (!ok) {
+            this.errors.increment();
+        }
+    }
+
+    void failed() {
+        this.errors.increment();
+    }
+
+    void dropped() {
+        this.dropped.increment();
+    }
+
+    void tick(long second, boolean measured) {
+        this.interval = this.recorder.getIntervalHistogram(this.interval);
+        var row = new Row(second, measured, this.sent.sumThenReset(), this.interval.getTotalCount(),
+                this.errors.sumThenReset(), this.dropped.sumThenReset(), millis(this.interval, 50),
+                millis(this.interval, 99), this.interval.getTotalCount() == 0 ? 0 : this.interval.getMaxValue() / 1e6);
+        this.timeline.add(row);
+        if (measured) {
+            this.total.add(this.interval);
+            this.totalErrors += row.errors;
+            this.totalDropped += row.dropped;
+        }
+    }
+
+    Histogram total() {
+        return this.total;
+    }
+
+    long totalErrors() {
+        return this.totalErrors;
+    }
+
+    long totalDropped() {
+        return this.totalDropped;
+    }
+
+    List<Row> timeline() {
+        return this.timeline;
+    }
+
+    static double millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    record Row(long second, boolean measured, long sent, long completed, long errors, long dropped, double p50Millis,
+            double p99Millis, double maxMillis) {
+    }
+}
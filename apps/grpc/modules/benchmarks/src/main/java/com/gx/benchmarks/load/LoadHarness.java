@@ -0,0 +1,391 @@
+package com.gx.benchmarks.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.grpc.client.GrpcChannelFactory;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.grpc.server.lifecycle.GrpcServerStartedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.gx.aggregator.AggregatorServiceApplication;
+import com.gx.common.Ticker;
+import com.gx.user.UserServiceApplication;
+import com.gx.user.data.BulkLoader;
+import com.gx.user.data.UserDataGenerator;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+/**
+ * Open-loop load against the whole stack in one JVM: user-service on an
+ * in-memory H2 database, the aggregator in front of it on a random HTTP
+ * port, and a JDK HttpClient driving POST /trade and GET /user/{id} at a
+ * fixed rate while subscribers hold /stock/updates open.
+ *
+ * Request i is due at start + i / rate whether or not earlier ones have
+ * answered, and its latency counts from that due time. A stalled service
+ * therefore shows up as the queueing delay real clients would see, instead
+ * of silently lowering the offered rate (coordinated omission). With
+ * --concurrency the load is closed-loop instead, to find the throughput a
+ * fixed number of outstanding requests sustains.
+ *
+ * Writes summary.json (HDR percentiles per endpoint), timeline.csv (one row
+ * per endpoint and second) and {endpoint}.hgrm to the report directory. See
+ * {@link LoadOptions} for the command line.
+ */
+public final class LoadHarness {
+    private static final String IN_PROCESS_NAME = "user-service-load";
+    private static final Ticker[] TICKERS = { Ticker.APPLE, Ticker.GOOGLE, Ticker.AMAZON, Ticker.MICROSOFT };
+
+    private final LoadOptions options;
+    private final EndpointStats trades = new EndpointStats("trade");
+    private final EndpointStats users = new EndpointStats("user");
+    private final EndpointStats priceUpdates = new EndpointStats("stock-updates");
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final GrpcPort userServicePort = new GrpcPort();
+
+    private LoadHarness(LoadOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadHarness(LoadOptions.parse(args)).run();
+        // the aggregator's mock price feed runs on a non-daemon pool nobody shuts down
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        // shutdownNow: close() would wait for the endless /stock/updates exchanges
+        var client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try (var userService = this.startUserService();
+                var aggregator = this.startAggregator();
+                var subscribers = new PriceStreamSubscribers(this.priceUpdates)) {
+            var firstUserId = this.seedUsers(userService);
+            var baseUri = URI.create("http://localhost:" + aggregator.getEnvironment().getProperty("local.server.port"));
+            subscribers.open(client, baseUri.resolve("/stock/updates"), this.options.subscribers());
+            System.out.printf("%s for %ss after %ss warmup (%s transport)%n", this.options.concurrency() > 0
+                    ? this.options.concurrency() + " closed-loop clients"
+                    : String.format("Offering %.0f req/s", this.options.rate()),
+                    this.options.duration().toSeconds(), this.options.warmup().toSeconds(), this.options.transport());
+            this.drive(client, baseUri, firstUserId);
+            new LoadReport(this.options, List.of(this.trades, this.users, this.priceUpdates)).write();
+        } finally {
+            client.shutdownNow();
+        }
+    }
+
+    private ConfigurableApplicationContext startUserService() {
+        var properties = new ArrayList<>(List.of(
+                // spring.config.name keeps both services' application.properties on the classpath out of it
+                "spring.config.name=load",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "spring.datasource.url=jdbc:h2:mem:load",
+                "spring.jpa.hibernate.ddl-auto=none",
+                "spring.sql.init.mode=always",
+                "spring.jpa.defer-datasource-initialization=true",
+                "spring.grpc.server.port=0",
+                // the run's own --warmup phase does this; --user-service:user.warmup.enabled=true adds it back
+                "user.warmup.enabled=false"));
+        if (this.options.transport().equals("in-process")) {
+            properties.add("spring.grpc.server.inprocess.name=" + IN_PROCESS_NAME);
+        }
+        properties.addAll(this.options.userServiceProperties());
+        var userService = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .listeners(this.userServicePort)
+                .properties(properties.toArray(String[]::new));
+        if (this.options.userServiceDelay().isPositive()) {
+            var delayNanos = this.options.userServiceDelay().toNanos();
+            userService.initializers(context -> ((GenericApplicationContext) context)
+                    .registerBean(ResponseDelay.class, () -> new ResponseDelay(delayNanos)));
+        }
+        return userService.run();
+    }
+
+    private ConfigurableApplicationContext startAggregator() {
+        var inProcess = this.options.transport().equals("in-process");
+        // in-process: the channel configured here is replaced before anything connects it
+        var address = "static://localhost:" + (inProcess ? 1 : this.userServicePort.port);
+        var properties = new ArrayList<>(List.of(
+                "spring.config.name=load",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                // user-service brings JPA and H2 onto the classpath; the aggregator has no database
+                "spring.autoconfigure.exclude="
+                        + "org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration,"
+                        + "org.springframework.boot.hibernate.autoconfigure.HibernateJpaAutoConfiguration,"
+                        + "org.springframework.boot.data.jpa.autoconfigure.DataJpaRepositoriesAutoConfiguration",
+                "server.port=0",
+                "spring.grpc.server.port=0",
+                "spring.grpc.client.channels.user-service.address=" + address,
+                "spring.grpc.client.channels.user-service.negotiation-type=plaintext",
+                "spring.grpc.client.observation.enabled=false",
+                "spring.grpc.server.observation.enabled=false",
+                "aggregator.warmup.enabled=false"));
+        if (inProcess) {
+            // an in-process channel has a fixed address; a load-balancing policy is rejected
+            properties.add("spring.grpc.client.default-channel.default-load-balancing-policy=");
+        }
+        properties.addAll(this.options.aggregatorProperties());
+        var aggregator = new SpringApplicationBuilder(AggregatorServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(properties.toArray(String[]::new));
+        if (inProcess) {
+            aggregator.initializers(context -> context.getBeanFactory()
+                    .addBeanPostProcessor(new InProcessUserServiceChannel(context)));
+        }
+        return aggregator.run();
+    }
+
+    /**
+     * Replaces the seed data with the generated customers, each holding every
+     * ticker, then makes them rich enough and their positions large enough
+     * that no trade of the run fails validation.
+     *
+     * @return id of the first generated customer; the rest follow it
+     */
+    private int seedUsers(ConfigurableApplicationContext userService) throws SQLException {
+        var dataSource = userService.getBean(DataSource.class);
+        var generator = new UserDataGenerator(this.options.users(), TICKERS.length, this.options.seed());
+        var result = BulkLoader.load(dataSource, generator);
+        System.out.printf("Loaded %d users and %d holdings in %d ms%n", result.customers(), result.portfolioItems(),
+                result.generateMillis() + result.loadMillis());
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("update customer set balance = 1000000000");
+        jdbc.update("update portfolio_item set quantity = 1000000");
+        return 1;
+    }
+
+    private void drive(HttpClient client, URI baseUri, int firstUserId) throws InterruptedException {
+        var requests = new RequestSource(baseUri, firstUserId);
+        var random = new SplittableRandom(this.options.seed());
+        var warmupSeconds = this.options.warmup().toSeconds();
+        var totalNanos = this.options.warmup().plus(this.options.duration()).toNanos();
+
+        var startedAt = System.nanoTime();
+        var reporter = Executors.newSingleThreadScheduledExecutor();
+        var second = new AtomicInteger();
+        reporter.scheduleAtFixedRate(() -> this.tick(second.getAndIncrement(), warmupSeconds), 1, 1,
+                TimeUnit.SECONDS);
+        if (this.options.concurrency() > 0) {
+            // each client's requests come from its own split of the seeded sequence
+            for (var i = 0; i < this.options.concurrency(); i++) {
+                this.sendClosedLoop(client, requests, random.split(), startedAt + totalNanos);
+            }
+            while (System.nanoTime() - startedAt < totalNanos) {
+                Thread.sleep(10);
+            }
+        } else {
+            var intervalNanos = TimeUnit.SECONDS.toNanos(1) / this.options.rate();
+            for (long i = 0;; i++) {
+                var dueAt = startedAt + (long) (i * intervalNanos);
+                if (dueAt - startedAt >= totalNanos) {
+                    break;
+                }
+                for (var now = System.nanoTime(); now < dueAt; now = System.nanoTime()) {
+                    LockSupport.parkNanos(dueAt - now);
+                }
+                var request = requests.next(random);
+                this.send(client, request.request(), request.stats(), dueAt);
+            }
+        }
+        // let the stragglers finish so the last second is complete
+        var drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (this.inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        reporter.shutdown();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+        this.tick(second.getAndIncrement(), warmupSeconds);
+    }
+
+    /**
+     * One closed-loop client: sends its next request when the previous one
+     * has answered, until the run ends. Latency counts from the send.
+     */
+    private void sendClosedLoop(HttpClient client, RequestSource requests, SplittableRandom random, long endsAt) {
+        var sentAt = System.nanoTime();
+        if (sentAt - endsAt >= 0) {
+            return;
+        }
+        var request = requests.next(random);
+        this.inFlight.incrementAndGet();
+        request.stats().sent();
+        client.sendAsync(request.request(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            this.inFlight.decrementAndGet();
+            if (ex != null) {
+                request.stats().failed();
+            } else {
+                request.stats().completed(System.nanoTime() - sentAt, response.statusCode() == 200);
+            }
+            this.sendClosedLoop(client, requests, random, endsAt);
+        });
+    }
+
+    private void send(HttpClient client, HttpRequest request, EndpointStats stats, long dueAt) {
+        if (this.inFlight.get() >= this.options.maxInFlight()) {
+            stats.dropped();
+            return;
+        }
+        this.inFlight.incrementAndGet();
+        stats.sent();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, ex) -> {
+            this.inFlight.decrementAndGet();
+            if (ex != null) {
+                stats.failed();
+            } else {
+                stats.completed(System.nanoTime() - dueAt, response.statusCode() == 200);
+            }
+        });
+    }
+
+    private void tick(int second, long warmupSeconds) {
+        var measured = second >= warmupSeconds;
+        this.trades.tick(second, measured);
+        this.users.tick(second, measured);
+        this.priceUpdates.tick(second, measured);
+        var trade = this.trades.timeline().getLast();
+        var user = this.users.timeline().getLast();
+        System.out.printf("%4ds %s trade %5d/s p99 %8.2fms | user %5d/s p99 %8.2fms | in flight %d%n", second + 1,
+                measured ? " " : "w", trade.completed(), trade.p99Millis(), user.completed(), user.p99Millis(),
+                this.inFlight.get());
+    }
+
+    /**
+     * The request mix: POST /trade or GET /user/{id}, for users and tickers
+     * drawn from the configured distributions.
+     */
+    private final class RequestSource {
+        private final URI baseUri;
+        private final int firstUserId;
+        private final Distribution userIds;
+        private final Distribution tickers;
+        private final double tradeShare;
+
+        RequestSource(URI baseUri, int firstUserId) {
+            this.baseUri = baseUri;
+            this.firstUserId = firstUserId;
+            this.userIds = Distribution.parse(LoadHarness.this.options.userDistribution(),
+                    LoadHarness.this.options.users());
+            this.tickers = Distribution.parse(LoadHarness.this.options.tickerDistribution(), TICKERS.length);
+            var mix = LoadHarness.this.options.mix();
+            this.tradeShare = (double) mix.getOrDefault("trade", 0)
+                    / mix.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        Request next(SplittableRandom random) {
+            var userId = this.firstUserId + this.userIds.next(random);
+            if (random.nextDouble() < this.tradeShare) {
+                var action = random.nextDouble() < LoadHarness.this.options.sellRatio() ? "SELL" : "BUY";
+                var body = "{\"userId\":" + userId + ",\"ticker\":\"" + TICKERS[this.tickers.next(random)].name()
+                        + "\",\"action\":\"" + action + "\",\"quantity\":1}";
+                return new Request(HttpRequest.newBuilder(this.baseUri.resolve("/trade"))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(), LoadHarness.this.trades);
+            }
+            return new Request(HttpRequest.newBuilder(this.baseUri.resolve("/user/" + userId))
+                    .header("Accept", "application/json")
+                    .build(), LoadHarness.this.users);
+        }
+    }
+
+    private record Request(HttpRequest request, EndpointStats stats) {
+    }
+
+    /**
+     * Swaps the aggregator's user-service channel for one to user-service's
+     * in-process server. Spring gRPC resolves in-process targets from the
+     * channel name rather than its configured address, so the name the
+     * aggregator asks for cannot be pointed there by properties alone. The
+     * channel still comes from the aggregator's factory, with its
+     * interceptors.
+     */
+    private record InProcessUserServiceChannel(ConfigurableApplicationContext context) implements BeanPostProcessor {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!beanName.equals("userServiceChannel") || !(bean instanceof ManagedChannel configured)) {
+                return bean;
+            }
+            configured.shutdownNow();
+            return this.context.getBean(GrpcChannelFactory.class).createChannel("in-process:" + IN_PROCESS_NAME);
+        }
+    }
+
+    /**
+     * Holds every user-service call's close back by a fixed delay, on a
+     * scheduler rather than the handler's thread, so user-service looks slow
+     * to the aggregator without running out of threads itself. A unary
+     * client sees its response only once the call closes.
+     */
+    @GlobalServerInterceptor
+    private static final class ResponseDelay implements ServerInterceptor {
+        private final long delayNanos;
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "user-service-delay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ResponseDelay(long delayNanos) {
+            this.delayNanos = delayNanos;
+        }
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                ServerCallHandler<ReqT, RespT> next) {
+            var startedAt = System.nanoTime();
+            return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+                @Override
+                public void close(Status status, Metadata trailers) {
+                    var remaining = startedAt + ResponseDelay.this.delayNanos - System.nanoTime();
+                    ResponseDelay.this.scheduler.schedule(() -> super.close(status, trailers), remaining,
+                            TimeUnit.NANOSECONDS);
+                }
+            }, headers);
+        }
+    }
+
+    /**
+     * The port user-service's gRPC server ended up on, for the aggregator's
+     * channel.
+     */
+    private static final class GrpcPort implements ApplicationListener<ApplicationEvent> {
+        volatile int port;
+
+        @Override
+        public void onApplicationEvent(ApplicationEvent event) {
+            if (event instanceof GrpcServerStartedEvent started) {
+                this.port = started.getPort();
+            }
+        }
+    }
+}
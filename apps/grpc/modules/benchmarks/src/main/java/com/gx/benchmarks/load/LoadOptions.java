@@ -0,0 +1,128 @@
+package com.gx.benchmarks.load;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of {@link LoadHarness}, all "--name=value":
+ *
+ * <ul>
+ * <li>rate: requests per second offered to the aggregator (200)</li>
+ * <li>concurrency: when set, the load is closed-loop instead: this many
+ * clients, each sending its next request once the last one answered, and
+ * rate is ignored (0)</li>
+ * <li>duration / warmup: measured run and discarded lead-in (30s / 10s)</li>
+ * <li>mix: relative weights of POST /trade and GET /user/{id}
+ * (trade:1,user:1)</li>
+ * <li>users: generated customers, each holding every ticker (1000)</li>
+ * <li>user-distribution / ticker-distribution: uniform | zipf |
+ * zipf:&lt;exponent&gt; (uniform)</li>
+ * <li>sell-ratio: share of trades that sell (0.5)</li>
+ * <li>subscribers: open /stock/updates streams (8)</li>
+ * <li>transport: loopback | in-process, how the aggregator reaches
+ * user-service (loopback)</li>
+ * <li>max-in-flight: requests still outstanding beyond this are not sent
+ * and count as dropped (10000)</li>
+ * <li>user-service-delay: extra time user-service holds every response,
+ * without holding a thread, to stand in for a slow backend (0ms)</li>
+ * <li>seed: random seed of the request sequence (42)</li>
+ * <li>out: report directory (target/load)</li>
+ * </ul>
+ *
+ * --aggregator:{property}=value and --user-service:{property}=value set a
+ * property of that service, e.g.
+ * --aggregator:aggregator.trade-pipeline.enabled=true or
+ * --user-service:user.tracing.target-per-second=0.
+ */
+record LoadOptions(double rate, int concurrency, Duration duration, Duration warmup, Map<String, Integer> mix,
+        int users, String userDistribution, String tickerDistribution, double sellRatio, int subscribers,
+        String transport, int maxInFlight, Duration userServiceDelay, long seed, Path out,
+        List<String> aggregatorProperties, List<String> userServiceProperties) {
+
+    private static final String AGGREGATOR_PREFIX = "--aggregator:";
+    private static final String USER_SERVICE_PREFIX = "--user-service:";
+
+    static LoadOptions parse(String... args) {
+        var values = new LinkedHashMap<String, String>();
+        var aggregatorProperties = new ArrayList<String>();
+        var userServiceProperties = new ArrayList<String>();
+        for (var arg : args) {
+            if (arg.startsWith(AGGREGATOR_PREFIX)) {
+                aggregatorProperties.add(arg.substring(AGGREGATOR_PREFIX.length()));
+            } else if (arg.startsWith(USER_SERVICE_PREFIX)) {
+                userServiceProperties.add(arg.substring(USER_SERVICE_PREFIX.length()));
+            } else if (arg.startsWith("--") && arg.indexOf('=') > 2) {
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Expected --name=value: " + arg);
+            }
+        }
+        var options = new LoadOptions(
+                Double.parseDouble(take(values, "rate", "200")),
+                Integer.parseInt(take(values, "concurrency", "0")),
+                duration(take(values, "duration", "30s")),
+                duration(take(values, "warmup", "10s")),
+                mix(take(values, "mix", "trade:1,user:1")),
+                Integer.parseInt(take(values, "users", "1000")),
+                take(values, "user-distribution", "uniform"),
+                take(values, "ticker-distribution", "uniform"),
+                Double.parseDouble(take(values, "sell-ratio", "0.5")),
+                Integer.parseInt(take(values, "subscribers", "8")),
+                transport(take(values, "transport", "loopback")),
+                Integer.parseInt(take(values, "max-in-flight", "10000")),
+                duration(take(values, "user-service-delay", "0ms")),
+                Long.parseLong(take(values, "seed", "42")),
+                Path.of(take(values, "out", "target/load")),
+                List.copyOf(aggregatorProperties),
+                List.copyOf(userServiceProperties));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        if (options.concurrency < 0) {
+            throw new IllegalArgumentException("concurrency must not be negative");
+        }
+        return options;
+    }
+
+    private static String take(Map<String, String> values, String name, String defaultValue) {
+        var value = values.remove(name);
+        return value == null ? defaultValue : value;
+    }
+
+    // "30s", "2m", "500ms"
+    private static Duration duration(String text) {
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        return Duration.parse("PT" + text.toUpperCase());
+    }
+
+    private static Map<String, Integer> mix(String value) {
+        var mix = new LinkedHashMap<String, Integer>();
+        for (var entry : value.split(",")) {
+            var parts = entry.split(":");
+            if (parts.length != 2 || !(parts[0].equals("trade") || parts[0].equals("user"))) {
+                throw new IllegalArgumentException("Expected mix like trade:3,user:1: " + value);
+            }
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix needs a positive weight: " + value);
+        }
+        return mix;
+    }
+
+    private static String transport(String value) {
+        if (!value.equals("loopback") && !value.equals("in-process")) {
+            throw new IllegalArgumentException("transport is loopback or in-process: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,99 @@
+package com.gx.benchmarks.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * summary.json, timeline.csv and one HdrHistogram percentile distribution
+ * ({endpoint}.hgrm, in milliseconds) per endpoint, covering the measured
+ * seconds only; the timeline also lists the warmup, with measured=false.
+ */
+final class LoadReport {
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99 };
+
+    private final LoadOptions options;
+    private final List<EndpointStats> endpoints;
+
+    LoadReport(LoadOptions options, List<EndpointStats> endpoints) {
+        this.options = options;
+        this.endpoints = endpoints;
+    }
+
+    void write() throws IOException {
+        var directory = this.options.out();
+        Files.createDirectories(directory);
+        JsonMapper.builder()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .build()
+                .writeValue(directory.resolve("summary.json").toFile(), this.summary());
+        try (var csv = new PrintStream(Files.newOutputStream(directory.resolve("timeline.csv")))) {
+            csv.println("second,endpoint,measured,sent,completed,errors,dropped,p50_ms,p99_ms,max_ms");
+            for (var endpoint : this.endpoints) {
+                for (var row : endpoint.timeline()) {
+                    csv.printf(Locale.ROOT, "%d,%s,%b,%d,%d,%d,%d,%.3f,%.3f,%.3f%n", row.second(), endpoint.name,
+                            row.measured(), row.sent(), row.completed(), row.errors(), row.dropped(), row.p50Millis(),
+                            row.p99Millis(), row.maxMillis());
+                }
+            }
+        }
+        for (var endpoint : this.endpoints) {
+            try (var hgrm = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.name + ".hgrm")))) {
+                endpoint.total().outputPercentileDistribution(hgrm, 1e6);
+            }
+        }
+        System.out.println("Report written to " + directory.toAbsolutePath());
+    }
+
+    private Map<String, Object> summary() {
+        var run = new LinkedHashMap<String, Object>();
+        if (this.options.concurrency() > 0) {
+            run.put("concurrency", this.options.concurrency());
+        } else {
+            run.put("rateOffered", this.options.rate());
+        }
+        run.put("durationSeconds", this.options.duration().toSeconds());
+        run.put("warmupSeconds", this.options.warmup().toSeconds());
+        run.put("mix", this.options.mix());
+        run.put("users", this.options.users());
+        run.put("userDistribution", this.options.userDistribution());
+        run.put("tickerDistribution", this.options.tickerDistribution());
+        run.put("sellRatio", this.options.sellRatio());
+        run.put("subscribers", this.options.subscribers());
+        run.put("transport", this.options.transport());
+        run.put("userServiceDelayMillis", this.options.userServiceDelay().toMillis());
+        run.put("seed", this.options.seed());
+        run.put("aggregatorProperties", this.options.aggregatorProperties());
+        run.put("userServiceProperties", this.options.userServiceProperties());
+
+        var endpoints = new LinkedHashMap<String, Object>();
+        for (var endpoint : this.endpoints) {
+            var histogram = endpoint.total();
+            var latency = new LinkedHashMap<String, Object>();
+            for (var percentile : PERCENTILES) {
+                latency.put("p" + (percentile == (long) percentile ? Long.toString((long) percentile) : percentile),
+                        EndpointStats.millis(histogram, percentile));
+            }
+            latency.put("max", histogram.getTotalCount() == 0 ? 0 : histogram.getMaxValue() / 1e6);
+            latency.put("mean", histogram.getTotalCount() == 0 ? 0 : histogram.getMean() / 1e6);
+            var summary = new LinkedHashMap<String, Object>();
+            summary.put("completed", histogram.getTotalCount());
+            summary.put("errors", endpoint.totalErrors());
+            summary.put("dropped", endpoint.totalDropped());
+            summary.put("throughputPerSecond", histogram.getTotalCount() * 1000.0 / this.options.duration().toMillis());
+            summary.put("latencyMillis", latency);
+            endpoints.put(endpoint.name, summary);
+        }
+        var summary = new LinkedHashMap<String, Object>();
+        summary.put("run", run);
+        summary.put("endpoints", endpoints);
+        return summary;
+    }
+}
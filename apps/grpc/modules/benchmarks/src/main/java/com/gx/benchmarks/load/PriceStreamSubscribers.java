@@ -0,0 +1,79 @@
+package com.gx.benchmarks.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds subscribers open on GET /stock/updates. The events carry no publish
+ * time, so the recorded latency is the delivery skew: how long after the
+ * first subscriber each other subscriber received the same update. It grows
+ * with the fan-out cost and with slow or blocked emitters.
+ */
+final class PriceStreamSubscribers implements AutoCloseable {
+    // the mock feed publishes every 2s, so one update's payload cannot repeat within this
+    private static final long SAME_UPDATE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final EndpointStats stats;
+    private final Map<String, Long> firstSeen = new ConcurrentHashMap<>();
+    private final List<Flow.Subscription> subscriptions = new ArrayList<>();
+
+    PriceStreamSubscribers(EndpointStats stats) {
+        this.stats = stats;
+    }
+
+    void open(HttpClient client, URI uri, int count) {
+        var request = HttpRequest.newBuilder(uri).header("Accept", "text/event-stream").build();
+        for (var i = 0; i < count; i++) {
+            client.sendAsync(request, HttpResponse.BodyHandlers.fromLineSubscriber(new Subscriber()));
+        }
+    }
+
+    private void received(String line) {
+        if (!line.startsWith("data:")) {
+            return;
+        }
+        var now = System.nanoTime();
+        var first = this.firstSeen.compute(line,
+                (update, seen) -> seen == null || now - seen > SAME_UPDATE_NANOS ? now : seen);
+        this.stats.completed(now - first, true);
+    }
+
+    @Override
+    public synchronized void close() {
+        this.subscriptions.forEach(Flow.Subscription::cancel);
+        this.subscriptions.clear();
+    }
+
+    private final class Subscriber implements Flow.Subscriber<String> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (PriceStreamSubscribers.this) {
+                PriceStreamSubscribers.this.subscriptions.add(subscription);
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            PriceStreamSubscribers.this.received(line);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            PriceStreamSubscribers.this.stats.failed();
+        }
+
+        @Override
+        public void onComplete() {
+            // the aggregator ended the stream (emitter timeout or shutdown)
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.gx.observability.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.client.GlobalClientInterceptor;
+
+import com.gx.observability.jfr.GrpcCallEvent;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records latency, status and message sizes of every outgoing call under
+ * grpc.client.call.*, plus a {@link GrpcCallEvent} while a JFR recording
+ * has it enabled. Outermost client interceptor, so the latency covers the
+ * other interceptors and retries.
+ */
+@GlobalClientInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GrpcClientMetricsInterceptor implements ClientInterceptor {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GrpcMethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcClientMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+            CallOptions callOptions, Channel next) {
+        var methodMeters = this.meters(method);
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            private long startedAt;
+            private GrpcCallEvent event;
+
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                this.startedAt = System.nanoTime();
+                this.event = GrpcCallEvent.startIfEnabled(method.getFullMethodName(), "client");
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onMessage(RespT message) {
+                        methodMeters.recordReceived(message);
+                        super.onMessage(message);
+                    }
+
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        methodMeters.recordCall(status.getCode(), System.nanoTime() - startedAt);
+                        if (event != null) {
+                            event.status = status.getCode().name();
+                            event.commit();
+                        }
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+
+            @Override
+            public void sendMessage(ReqT message) {
+                methodMeters.recordSent(message);
+                super.sendMessage(message);
+            }
+        };
+    }
+
+    private GrpcMethodMeters meters(MethodDescriptor<?, ?> method) {
+        var existing = this.meters.get(method.getFullMethodName());
+        return existing != null
+                ? existing
+                : this.meters.computeIfAbsent(method.getFullMethodName(),
+                        name -> new GrpcMethodMeters(this.meterRegistry, "grpc.client.call", method));
+    }
+}
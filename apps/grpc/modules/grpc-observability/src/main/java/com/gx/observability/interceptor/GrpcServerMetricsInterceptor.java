@@ -0,0 +1,121 @@
+package com.gx.observability.interceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+
+import com.gx.observability.jfr.GrpcCallEvent;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records latency, status and message sizes of every incoming call under
+ * grpc.server.call.*, plus a {@link GrpcCallEvent} while a JFR recording
+ * has it enabled. Outermost server interceptor, so it sees the status other
+ * interceptors close the call with. Per call it allocates the two wrappers
+ * below; recording into the meters allocates nothing (see
+ * GrpcServerMetricsBenchmark).
+ */
+@GlobalServerInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class GrpcServerMetricsInterceptor implements ServerInterceptor {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, GrpcMethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcServerMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        var methodMeters = this.meters(call.getMethodDescriptor());
+        var monitoredCall = new MonitoredCall<>(call, methodMeters);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(
+                next.startCall(monitoredCall, headers)) {
+            @Override
+            public void onMessage(ReqT message) {
+                methodMeters.recordReceived(message);
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onHalfClose() {
+                try {
+                    super.onHalfClose();
+                } catch (RuntimeException ex) {
+                    // gRPC closes the stream itself for an escaped exception, bypassing MonitoredCall.close
+                    monitoredCall.finish(Status.fromThrowable(ex).getCode());
+                    throw ex;
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                monitoredCall.finish(Status.Code.CANCELLED);
+                super.onCancel();
+            }
+        };
+    }
+
+    private GrpcMethodMeters meters(MethodDescriptor<?, ?> method) {
+        var existing = this.meters.get(method.getFullMethodName());
+        return existing != null
+                ? existing
+                : this.meters.computeIfAbsent(method.getFullMethodName(),
+                        name -> new GrpcMethodMeters(this.meterRegistry, "grpc.server.call", method));
+    }
+
+    private static final class MonitoredCall<ReqT, RespT>
+            extends ForwardingServerCall.SimpleForwardingServerCall<ReqT, RespT> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicIntegerFieldUpdater<MonitoredCall> FINISHED =
+                AtomicIntegerFieldUpdater.newUpdater(MonitoredCall.class, "finished");
+
+        private final GrpcMethodMeters methodMeters;
+        private final long startedAt = System.nanoTime();
+        private final GrpcCallEvent event;
+        private volatile int finished;
+
+        MonitoredCall(ServerCall<ReqT, RespT> delegate, GrpcMethodMeters methodMeters) {
+            super(delegate);
+            this.methodMeters = methodMeters;
+            this.event = GrpcCallEvent.startIfEnabled(delegate.getMethodDescriptor().getFullMethodName(), "server");
+        }
+
+        @Override
+        public void sendMessage(RespT message) {
+            this.methodMeters.recordSent(message);
+            super.sendMessage(message);
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            this.finish(status.getCode());
+            super.close(status, trailers);
+        }
+
+        // close and cancellation can race; count the call once
+        void finish(Status.Code code) {
+            if (FINISHED.compareAndSet(this, 0, 1)) {
+                this.methodMeters.recordCall(code, System.nanoTime() - this.startedAt);
+                if (this.event != null) {
+                    this.event.status = code.name();
+                    this.event.commit();
+                }
+            }
+        }
+    }
+}
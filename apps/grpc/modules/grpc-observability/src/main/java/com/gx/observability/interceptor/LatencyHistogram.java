@@ -0,0 +1,78 @@
+package com.gx.observability.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency histogram with a wait-free, allocation-free record path.
+ *
+ * Calls record into an HdrHistogram {@link Recorder}; readers (metric
+ * scrapes) drain it into a ring of interval histograms rotated every
+ * {@link #ROTATION_NANOS}, so percentiles cover roughly the last minute.
+ * All reading and rotation happens under the reader lock, off the hot path.
+ */
+final class LatencyHistogram {
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final int WINDOWS = 3;
+    private static final long ROTATION_NANOS = TimeUnit.SECONDS.toNanos(20);
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    // guarded by this
+    private final Histogram[] windows = new Histogram[WINDOWS];
+    private final Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+    private int current;
+    private long rotatedAt = System.nanoTime();
+
+    LatencyHistogram() {
+        for (var i = 0; i < WINDOWS; i++) {
+            this.windows[i] = new Histogram(SIGNIFICANT_DIGITS);
+        }
+    }
+
+    void record(long nanos) {
+        this.recorder.recordValue(Math.max(nanos, 0));
+        this.count.increment();
+        this.totalNanos.add(nanos);
+    }
+
+    long count() {
+        return this.count.sum();
+    }
+
+    double totalNanos() {
+        return this.totalNanos.sum();
+    }
+
+    /**
+     * @param percentile in [0, 1]
+     */
+    synchronized double percentileNanos(double percentile) {
+        this.drain();
+        if (this.merged.getTotalCount() == 0) {
+            return 0;
+        }
+        return this.merged.getValueAtPercentile(percentile * 100);
+    }
+
+    private void drain() {
+        var now = System.nanoTime();
+        this.interval = this.recorder.getIntervalHistogram(this.interval);
+        this.windows[this.current].add(this.interval);
+        if (now - this.rotatedAt >= ROTATION_NANOS) {
+            this.current = (this.current + 1) % WINDOWS;
+            this.windows[this.current].reset();
+            this.rotatedAt = now;
+        }
+        this.merged.reset();
+        for (var window : this.windows) {
+            this.merged.add(window);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gx.observability.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gx.GrpcCall")
+@Label("gRPC Call")
+@Category({ "GX", "gRPC" })
+@Description("A gRPC call made or handled by this service, from start to close")
+@StackTrace(false)
+public class GrpcCallEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(GrpcCallEvent.class);
+
+    @Label("Method")
+    public String method;
+
+    @Label("Side")
+    @Description("client or server")
+    public String side;
+
+    @Label("Status")
+    public String status;
+
+    public GrpcCallEvent(String method, String side) {
+        this.method = method;
+        this.side = side;
+    }
+
+    /**
+     * A begun event, or null when no recording has it enabled, so idle calls
+     * allocate nothing.
+     */
+    public static GrpcCallEvent startIfEnabled(String method, String side) {
+        if (!TYPE.isEnabled()) {
+            return null;
+        }
+        var event = new GrpcCallEvent(method, side);
+        event.begin();
+        return event;
+    }
+}
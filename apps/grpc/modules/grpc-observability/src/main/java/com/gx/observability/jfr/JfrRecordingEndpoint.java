@@ -0,0 +1,152 @@
+package com.gx.observability.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+/**
+ * On-demand JFR recording of a service's custom events; the service
+ * registering the endpoint passes its events and recording name.
+ *
+ * <ul>
+ * <li>POST /actuator/jfr starts a recording; {"settings": "default"} or
+ * "profile" adds the JDK's own events at that configuration</li>
+ * <li>DELETE /actuator/jfr stops it and dumps it to a temporary file</li>
+ * <li>GET /actuator/jfr shows the state, GET /actuator/jfr/{file} downloads
+ * the last dump</li>
+ * </ul>
+ *
+ * With no recording running the events are disabled, and emitting one costs
+ * a flag check.
+ */
+@Endpoint(id = "jfr")
+public class JfrRecordingEndpoint implements DisposableBean {
+    private final String name;
+    private final Duration maxAge;
+    private final List<Class<? extends Event>> events;
+    private Recording recording;
+    private Path dump;
+
+    /**
+     * @param name   recording name and dump file prefix
+     * @param events enabled while recording, next to {@link GrpcCallEvent}
+     */
+    public JfrRecordingEndpoint(String name, Duration maxAge, List<Class<? extends Event>> events) {
+        this.name = name;
+        this.maxAge = maxAge;
+        this.events = new ArrayList<>(events.size() + 1);
+        this.events.add(GrpcCallEvent.class);
+        this.events.addAll(events);
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        var status = new LinkedHashMap<String, Object>();
+        status.put("state", this.recording == null ? RecordingState.NEW : this.recording.getState());
+        if (this.recording != null) {
+            status.put("startedAt", this.recording.getStartTime());
+            status.put("bytes", this.recording.getSize());
+        }
+        status.put("events", this.events.stream().map(Class::getName).toList());
+        if (this.dump != null) {
+            status.put("file", this.dump.getFileName().toString());
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable String settings) {
+        if (this.recording != null && this.recording.getState() == RecordingState.RUNNING) {
+            return this.status();
+        }
+        this.close();
+        this.recording = settings == null ? new Recording() : new Recording(configuration(settings));
+        this.recording.setName(this.name);
+        this.recording.setToDisk(true);
+        this.recording.setMaxAge(this.maxAge);
+        this.events.forEach(event -> this.recording.enable(event));
+        this.recording.start();
+        return this.status();
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        if (this.recording != null && this.recording.getState() == RecordingState.RUNNING) {
+            this.recording.stop();
+            try {
+                this.deleteDump();
+                this.dump = Files.createTempFile(this.name + "-" + Instant.now().getEpochSecond() + "-", ".jfr");
+                this.recording.dump(this.dump);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return this.status();
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> download(@Selector String file) {
+        // only the last dump is served, never an arbitrary path
+        if (this.dump == null || !this.dump.getFileName().toString().equals(file)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(new FileSystemResource(this.dump), WebEndpointResponse.STATUS_OK);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        this.close();
+        this.deleteDump();
+    }
+
+    private void close() {
+        if (this.recording != null) {
+            this.recording.close();
+            this.recording = null;
+        }
+    }
+
+    private void deleteDump() {
+        if (this.dump != null) {
+            try {
+                Files.deleteIfExists(this.dump);
+            } catch (IOException ex) {
+                // a leftover temp file is harmless
+            }
+            this.dump = null;
+        }
+    }
+
+    private static Configuration configuration(String name) {
+        try {
+            return Configuration.getConfiguration(name);
+        } catch (IOException | ParseException ex) {
+            throw new InvalidEndpointRequestException("Unknown JFR settings: " + name, "Unknown JFR settings");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.gx.observability.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples about {@code targetPerSecond} requests per second whatever the
+ * load: every request is traced while traffic is below the target, and
+ * the probability drops as the (smoothed) request rate rises above it.
+ * The rate is recomputed once a second by whichever request crosses the
+ * window, without locking.
+ */
+final class AdaptiveSampler {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double targetPerSecond;
+    private final LongAdder requests = new LongAdder();
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile double rate;
+    private volatile double probability = 1;
+
+    AdaptiveSampler(double targetPerSecond) {
+        this.targetPerSecond = targetPerSecond;
+    }
+
+    boolean sample() {
+        if (this.targetPerSecond <= 0) {
+            return false;
+        }
+        this.requests.increment();
+        var now = System.nanoTime();
+        var start = this.windowStart.get();
+        if (now - start >= WINDOW_NANOS && this.windowStart.compareAndSet(start, now)) {
+            var observed = this.requests.sumThenReset() * (double) WINDOW_NANOS / (now - start);
+            this.rate = this.rate == 0 ? observed : (this.rate + observed) / 2;
+            this.probability = this.rate <= this.targetPerSecond ? 1 : this.targetPerSecond / this.rate;
+        }
+        var p = this.probability;
+        return p >= 1 || ThreadLocalRandom.current().nextDouble() < p;
+    }
+
+    double probability() {
+        return this.probability;
+    }
+}
@@ -0,0 +1,56 @@
+package com.gx.observability.tracing;
+
+/**
+ * One timed hop of a {@link Trace}. Times are {@link System#nanoTime()}
+ * values; a span may end on a different thread than it started on.
+ */
+public final class Span {
+    private final int index;
+    private final int parent;
+    private final String name;
+    private final long startNanos;
+    private volatile long durationNanos = -1;
+    private volatile String outcome;
+
+    Span(int index, int parent, String name, long startNanos) {
+        this.index = index;
+        this.parent = parent;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    public void end(String outcome) {
+        this.outcome = outcome;
+        this.durationNanos = System.nanoTime() - this.startNanos;
+    }
+
+    void end(long durationNanos, String outcome) {
+        this.outcome = outcome;
+        this.durationNanos = durationNanos;
+    }
+
+    int index() {
+        return this.index;
+    }
+
+    int parent() {
+        return this.parent;
+    }
+
+    String name() {
+        return this.name;
+    }
+
+    long startNanos() {
+        return this.startNanos;
+    }
+
+    // -1 while the span is still open
+    long durationNanos() {
+        return this.durationNanos;
+    }
+
+    String outcome() {
+        return this.outcome;
+    }
+}
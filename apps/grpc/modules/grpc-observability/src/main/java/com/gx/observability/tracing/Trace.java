@@ -0,0 +1,170 @@
+package com.gx.observability.tracing;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A sampled request and its spans. Span 0 is the root (the REST handler or
+ * gRPC server call that started the trace); the others hang off it. Spans
+ * are appended without locking into a fixed array, and ones past
+ * {@link #MAX_SPANS} are dropped.
+ */
+public final class Trace {
+    static final int MAX_SPANS = 32;
+
+    private final long id;
+    private final long startEpochMillis = System.currentTimeMillis();
+    private final AtomicReferenceArray<Span> spans = new AtomicReferenceArray<>(MAX_SPANS);
+    private final AtomicInteger spanCount = new AtomicInteger();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private final Span root;
+    // only touched by the thread handling the call
+    private boolean commitTracked;
+
+    Trace(long id, String name) {
+        this.id = id;
+        this.root = this.add(-1, name, System.nanoTime());
+    }
+
+    public String id() {
+        return Long.toHexString(this.id);
+    }
+
+    /**
+     * Starts a child of the root span.
+     */
+    public Span startSpan(String name) {
+        return this.add(this.root.index(), name, System.nanoTime());
+    }
+
+    /**
+     * Adds an already finished child of the root span.
+     */
+    public void addSpan(String name, long startNanos, long durationNanos) {
+        this.add(this.root.index(), name, startNanos).end(durationNanos, null);
+    }
+
+    /**
+     * Adds the spans a downstream service reported in its trailers under
+     * {@code parent}. Remote clocks are not comparable with ours, so the
+     * remote root is centred in the parent span: whatever is left on either
+     * side is network and (de)serialization.
+     *
+     * @param encoded name|parent|offsetNanos|durationNanos|outcome entries,
+     *                separated by ';', offsets relative to the remote root
+     */
+    public void addRemoteSpans(String encoded, Span parent) {
+        var entries = encoded.split(";");
+        var indices = new int[entries.length];
+        long rootStart = 0;
+        for (var i = 0; i < entries.length; i++) {
+            // the trailer comes from our own services; a malformed one only loses its spans
+            var fields = entries[i].split("\\|", -1);
+            if (fields.length != 5) {
+                return;
+            }
+            int remoteParent;
+            long offset;
+            long duration;
+            try {
+                remoteParent = Integer.parseInt(fields[1]);
+                offset = Long.parseLong(fields[2]);
+                duration = Long.parseLong(fields[3]);
+            } catch (NumberFormatException ex) {
+                return;
+            }
+            if (remoteParent < 0) {
+                rootStart = parent.startNanos() + Math.max(0, (parent.durationNanos() - duration) / 2);
+            }
+            var localParent = remoteParent < 0 || remoteParent >= i ? parent.index() : indices[remoteParent];
+            var span = this.add(localParent, fields[0], rootStart + offset);
+            span.end(duration, fields[4].isEmpty() ? null : fields[4]);
+            indices[i] = span.index();
+        }
+    }
+
+    /**
+     * The spans of this trace for the trace-spans trailer, so the caller can
+     * put them under its own call span with {@link #addRemoteSpans}.
+     *
+     * @return name|parent|offsetNanos|durationNanos|outcome entries,
+     *         separated by ';', offsets relative to the root
+     */
+    public String encode() {
+        var encoded = new StringBuilder(64 * this.spanCount());
+        var rootStart = this.root.startNanos();
+        for (var i = 0; i < this.spanCount(); i++) {
+            var span = this.spans.get(i);
+            if (span == null) {
+                continue;
+            }
+            if (!encoded.isEmpty()) {
+                encoded.append(';');
+            }
+            encoded.append(span.name()).append('|')
+                    .append(span.parent()).append('|')
+                    .append(span.startNanos() - rootStart).append('|')
+                    .append(Math.max(span.durationNanos(), 0)).append('|')
+                    .append(span.outcome() == null ? "" : span.outcome());
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Ends the root span; only the first call counts.
+     */
+    boolean end(String outcome) {
+        if (!this.finished.compareAndSet(false, true)) {
+            return false;
+        }
+        this.root.end(outcome);
+        return true;
+    }
+
+    /**
+     * @return true if the caller should time the current transaction's
+     *         commit, false if an earlier repository call already does
+     */
+    public boolean trackCommit() {
+        if (this.commitTracked) {
+            return false;
+        }
+        this.commitTracked = true;
+        return true;
+    }
+
+    public void commitTracked() {
+        this.commitTracked = false;
+    }
+
+    long durationNanos() {
+        return this.root.durationNanos();
+    }
+
+    long startEpochMillis() {
+        return this.startEpochMillis;
+    }
+
+    Span root() {
+        return this.root;
+    }
+
+    int spanCount() {
+        return Math.min(this.spanCount.get(), MAX_SPANS);
+    }
+
+    // null if the slot is claimed but not yet written
+    Span span(int index) {
+        return this.spans.get(index);
+    }
+
+    private Span add(int parent, String name, long startNanos) {
+        var index = this.spanCount.getAndIncrement();
+        var span = new Span(index, parent, name, startNanos);
+        if (index < MAX_SPANS) {
+            this.spans.set(index, span);
+        }
+        return span;
+    }
+}
@@ -0,0 +1,81 @@
+package com.gx.observability.tracing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * GET /debug/traces?slowest=N: the N slowest traces still in the ring, with
+ * every span and the self time (duration minus children) per hop. The self
+ * time of a gRPC client span is the network and serialization cost between
+ * the services.
+ */
+@RestController
+@RequestMapping("/debug/traces")
+@RequiredArgsConstructor
+public class TraceController {
+    private final Tracer tracer;
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public TracesView traces(@RequestParam(defaultValue = "10") int slowest) {
+        var traces = this.tracer.slowest(slowest).stream()
+                .map(TraceView::of)
+                .toList();
+        return new TracesView(this.tracer.samplingProbability(), traces);
+    }
+
+    public record TracesView(double samplingProbability, List<TraceView> traces) {
+    }
+
+    public record TraceView(String traceId, String name, String outcome, Instant startedAt, long durationMicros,
+            Map<String, Long> selfMicros, List<SpanView> spans) {
+
+        static TraceView of(Trace trace) {
+            var count = trace.spanCount();
+            var durations = new long[count];
+            var selfNanos = new long[count];
+            var spans = new ArrayList<SpanView>(count);
+            for (var i = 0; i < count; i++) {
+                var span = trace.span(i);
+                if (span != null) {
+                    durations[i] = Math.max(span.durationNanos(), 0);
+                    selfNanos[i] += durations[i];
+                    if (span.parent() >= 0 && span.parent() < count) {
+                        selfNanos[span.parent()] -= durations[i];
+                    }
+                }
+            }
+            var selfMicros = new LinkedHashMap<String, Long>();
+            var rootStart = trace.root().startNanos();
+            for (var i = 0; i < count; i++) {
+                var span = trace.span(i);
+                if (span != null) {
+                    selfMicros.merge(span.name(), micros(Math.max(selfNanos[i], 0)), Long::sum);
+                    spans.add(new SpanView(i, span.parent(), span.name(), span.outcome(),
+                            micros(span.startNanos() - rootStart), micros(durations[i])));
+                }
+            }
+            return new TraceView(trace.id(), trace.root().name(), trace.root().outcome(),
+                    Instant.ofEpochMilli(trace.startEpochMillis()), micros(trace.durationNanos()), selfMicros, spans);
+        }
+    }
+
+    public record SpanView(int index, int parent, String name, String outcome, long offsetMicros,
+            long durationMicros) {
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,39 @@
+package com.gx.observability.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of finished traces. Writers claim a slot with one atomic
+ * increment and overwrite whatever was there, so recording never blocks.
+ */
+final class TraceRing {
+    private final AtomicReferenceArray<Trace> slots;
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+
+    TraceRing(int size) {
+        if (Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Trace ring size must be a power of two: " + size);
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    void add(Trace trace) {
+        this.slots.set((int) (this.cursor.getAndIncrement() & this.mask), trace);
+    }
+
+    List<Trace> snapshot() {
+        var traces = new ArrayList<Trace>(this.slots.length());
+        for (var i = 0; i < this.slots.length(); i++) {
+            var trace = this.slots.get(i);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gx.observability.tracing;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Starts sampled traces and keeps the finished ones in a {@link TraceRing}.
+ * Calls arriving with a trace-id were sampled by the caller and are always
+ * traced; others go through the sampler. The trace of the request being
+ * handled is bound to the thread, so interceptors and repository calls can
+ * add their spans; code that hands a request to another thread carries the
+ * trace along and {@link #attach(Trace)}es it there.
+ */
+public class Tracer {
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    private final AdaptiveSampler sampler;
+    private final TraceRing ring;
+
+    public Tracer(double targetPerSecond, int ringSize) {
+        this.sampler = new AdaptiveSampler(targetPerSecond);
+        this.ring = new TraceRing(ringSize);
+    }
+
+    /**
+     * @return a new trace, or null when this request is not sampled
+     */
+    public Trace startTrace(String name) {
+        if (!this.sampler.sample()) {
+            return null;
+        }
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        return new Trace(id, name);
+    }
+
+    /**
+     * Continues a trace the caller sampled, under the caller's id.
+     */
+    public Trace continueTrace(String id, String name) {
+        try {
+            return new Trace(Long.parseUnsignedLong(id, 16), name);
+        } catch (NumberFormatException ex) {
+            return this.startTrace(name);
+        }
+    }
+
+    /**
+     * @return false if the trace was already finished
+     */
+    public boolean finish(Trace trace, String outcome) {
+        if (!trace.end(outcome)) {
+            return false;
+        }
+        this.ring.add(trace);
+        return true;
+    }
+
+    public List<Trace> slowest(int limit) {
+        return this.ring.snapshot().stream()
+                .sorted(Comparator.comparingLong(Trace::durationNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    double samplingProbability() {
+        return this.sampler.probability();
+    }
+
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds {@code trace} (may be null) to this thread.
+     *
+     * @return the previous binding, to pass to {@link #restore(Trace)}
+     */
+    public static Trace attach(Trace trace) {
+        var previous = CURRENT.get();
+        CURRENT.set(trace);
+        return previous;
+    }
+
+    public static void restore(Trace previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.gx.observability.warmup;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+/**
+ * What the JIT has done so far: total compile time from the
+ * CompilationMXBean, and the compiled methods currently in the code cache
+ * by tier from HotSpot's Compiler.codelist diagnostic command. A JVM
+ * without either reports -1.
+ */
+public record JitCompilation(long compileMillis, int c1Methods, int c2Methods) {
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+
+    public static JitCompilation snapshot() {
+        var compilation = ManagementFactory.getCompilationMXBean();
+        var compileMillis = compilation != null && compilation.isCompilationTimeMonitoringSupported()
+                ? compilation.getTotalCompilationTime()
+                : -1;
+        try {
+            var codelist = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName(DIAGNOSTIC_COMMAND), "compilerCodelist", new Object[] { null },
+                    new String[] { String[].class.getName() });
+            // one "id tier state method [addresses]" line per nmethod; state 0 is in use
+            int c1 = 0;
+            int c2 = 0;
+            for (var line : codelist.split("\n")) {
+                var fields = line.split(" ", 4);
+                if (fields.length < 4 || !"0".equals(fields[2])) {
+                    continue;
+                }
+                switch (fields[1]) {
+                    case "1", "2", "3" -> c1++;
+                    case "4" -> c2++;
+                    default -> {
+                    }
+                }
+            }
+            return new JitCompilation(compileMillis, c1, c2);
+        } catch (Exception ex) {
+            return new JitCompilation(compileMillis, -1, -1);
+        }
+    }
+
+    public JitCompilation since(JitCompilation start) {
+        return new JitCompilation(this.compileMillis - start.compileMillis, this.c1Methods - start.c1Methods,
+                this.c2Methods - start.c2Methods);
+    }
+}
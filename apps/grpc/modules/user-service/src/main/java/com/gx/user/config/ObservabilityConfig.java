@@ -0,0 +1,50 @@
+package com.gx.user.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gx.observability.interceptor.GrpcServerMetricsInterceptor;
+import com.gx.observability.jfr.JfrRecordingEndpoint;
+import com.gx.observability.tracing.TraceController;
+import com.gx.observability.tracing.Tracer;
+import com.gx.user.jfr.EntityMappingEvent;
+import com.gx.user.jfr.TradeLookupEvent;
+import com.gx.user.jfr.TradePersistEvent;
+import com.gx.user.jfr.TradeValidateEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Beans from grpc-observability, which is shared with aggregator-service and
+ * not component-scanned: the interceptors carry their own global
+ * registration and order.
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    public GrpcServerMetricsInterceptor grpcServerMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new GrpcServerMetricsInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public JfrRecordingEndpoint jfrRecordingEndpoint(@Value("${user.jfr.max-age:30m}") Duration maxAge) {
+        return new JfrRecordingEndpoint("user-service", maxAge, List.of(TradeLookupEvent.class,
+                TradeValidateEvent.class, TradePersistEvent.class, EntityMappingEvent.class));
+    }
+
+    @Bean
+    public Tracer tracer(@Value("${user.tracing.target-per-second:50}") double targetPerSecond,
+            @Value("${user.tracing.ring-size:1024}") int ringSize) {
+        return new Tracer(targetPerSecond, ringSize);
+    }
+
+    @Bean
+    public TraceController traceController(Tracer tracer) {
+        return new TraceController(tracer);
+    }
+}
@@ -0,0 +1,56 @@
+package com.gx.user.data;
+
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces the data.sql seed with a generated data set before the gRPC
+ * server starts taking calls. A database that already holds exactly
+ * user.data.generate.users customers (a file database kept from an earlier
+ * run, with spring.sql.init.mode=never) is left as it is, so such restarts
+ * skip the load.
+ *
+ * Nothing else asks for this bean, so it opts out of the fast-start
+ * profile's lazy initialization with @Lazy(false). In an AOT build the
+ * condition on user.data.generate.enabled is decided at build time (see
+ * "Fast start" in the README): unless the service was built with it set to
+ * true, the bean is not registered at all and the annotation has nothing
+ * to act on.
+ */
+@Component
+@ConditionalOnProperty(name = "user.data.generate.enabled", havingValue = "true")
+@DependsOnDatabaseInitialization
+@Lazy(false)
+public class GeneratedDataInitializer implements InitializingBean {
+    private static final Logger logger = Logger.getLogger(GeneratedDataInitializer.class.getName());
+
+    private final DataSource dataSource;
+    private final UserDataGenerator generator;
+
+    public GeneratedDataInitializer(DataSource dataSource,
+            @Value("${user.data.generate.users:100000}") int users,
+            @Value("${user.data.generate.holdings-per-user:2.5}") double holdingsPerUser,
+            @Value("${user.data.generate.seed:42}") long seed) {
+        this.dataSource = dataSource;
+        this.generator = new UserDataGenerator(users, holdingsPerUser, seed);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (BulkLoader.customerCount(this.dataSource) == this.generator.users()) {
+            logger.info("Database already holds " + this.generator.users() + " customers; not regenerating");
+            return;
+        }
+        var result = BulkLoader.load(this.dataSource, this.generator);
+        logger.info(String.format("Loaded %d customers and %d portfolio items (generated in %d ms, loaded in %d ms)",
+                result.customers(), result.portfolioItems(), result.generateMillis(), result.loadMillis()));
+    }
+}
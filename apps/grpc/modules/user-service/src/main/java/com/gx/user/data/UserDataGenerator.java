@@ -0,0 +1,126 @@
+package com.gx.user.data;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.SplittableRandom;
+
+import com.gx.common.Ticker;
+
+/**
+ * Deterministic scale-test data: the same arguments always produce the same
+ * customers and holdings, so runs on different machines compare.
+ *
+ * <ul>
+ * <li>customer ids run from 1 to users; balances are log-normal around a
+ * median of 10,000</li>
+ * <li>each customer holds each ticker at most once, holdingsPerUser on
+ * average (at most the four tickers); popular tickers are held more
+ * often</li>
+ * <li>quantities are Pareto distributed: mostly a few shares, a long tail
+ * of large positions</li>
+ * </ul>
+ */
+public final class UserDataGenerator {
+    static final Ticker[] TICKERS = { Ticker.APPLE, Ticker.GOOGLE, Ticker.AMAZON, Ticker.MICROSOFT };
+    // share of all holdings per ticker, in TICKERS order
+    private static final double[] POPULARITY = { 0.35, 0.27, 0.22, 0.16 };
+    private static final double MEDIAN_BALANCE = 10_000;
+    private static final double BALANCE_SIGMA = 1.0;
+    private static final double QUANTITY_SHAPE = 1.3;
+    private static final int MAX_QUANTITY = 1_000_000;
+
+    private final int users;
+    private final double holdingsPerUser;
+    private final long seed;
+    private final double[] holdProbability;
+
+    public UserDataGenerator(int users, double holdingsPerUser, long seed) {
+        if (users < 1) {
+            throw new IllegalArgumentException("users must be positive: " + users);
+        }
+        if (holdingsPerUser < 0 || holdingsPerUser > TICKERS.length) {
+            throw new IllegalArgumentException(
+                    "holdingsPerUser must be within [0, " + TICKERS.length + "]: " + holdingsPerUser);
+        }
+        this.users = users;
+        this.holdingsPerUser = holdingsPerUser;
+        this.seed = seed;
+        this.holdProbability = holdProbabilities(holdingsPerUser);
+    }
+
+    public int users() {
+        return this.users;
+    }
+
+    public double holdingsPerUser() {
+        return this.holdingsPerUser;
+    }
+
+    /**
+     * Writes both tables as headerless CSV: customer rows "id,name,balance"
+     * and portfolio_item rows "id,customer_id,ticker,quantity".
+     *
+     * @return number of portfolio_item rows written
+     */
+    public long write(Writer customers, Writer portfolioItems) throws IOException {
+        var random = new SplittableRandom(this.seed);
+        var line = new StringBuilder(64);
+        long itemId = 0;
+        for (var userId = 1; userId <= this.users; userId++) {
+            var balance = Math.min(Integer.MAX_VALUE,
+                    Math.round(MEDIAN_BALANCE * Math.exp(BALANCE_SIGMA * gaussian(random))));
+            line.setLength(0);
+            line.append(userId).append(",user-").append(userId).append(',').append(balance).append('\n');
+            customers.append(line);
+            for (var t = 0; t < TICKERS.length; t++) {
+                if (random.nextDouble() >= this.holdProbability[t]) {
+                    continue;
+                }
+                var quantity = (int) Math.min(MAX_QUANTITY,
+                        Math.pow(1 - random.nextDouble(), -1 / QUANTITY_SHAPE));
+                line.setLength(0);
+                line.append(++itemId).append(',').append(userId).append(',').append(TICKERS[t].name())
+                        .append(',').append(quantity).append('\n');
+                portfolioItems.append(line);
+            }
+        }
+        return itemId;
+    }
+
+    /*
+     * Chance of holding each ticker: holdingsPerUser split by popularity.
+     * A share above 1 is capped and the excess spread over the others, so
+     * the chances still add up to holdingsPerUser.
+     */
+    private static double[] holdProbabilities(double holdingsPerUser) {
+        var probabilities = new double[TICKERS.length];
+        var capped = new boolean[TICKERS.length];
+        var remaining = holdingsPerUser;
+        for (var changed = true; changed;) {
+            changed = false;
+            var weight = 0.0;
+            for (var t = 0; t < TICKERS.length; t++) {
+                weight += capped[t] ? 0 : POPULARITY[t];
+            }
+            for (var t = 0; t < TICKERS.length; t++) {
+                if (!capped[t]) {
+                    probabilities[t] = remaining * POPULARITY[t] / weight;
+                }
+            }
+            for (var t = 0; t < TICKERS.length; t++) {
+                if (!capped[t] && probabilities[t] >= 1) {
+                    probabilities[t] = 1;
+                    capped[t] = true;
+                    remaining -= 1;
+                    changed = true;
+                }
+            }
+        }
+        return probabilities;
+    }
+
+    // Box-Muller; one of the pair is enough here
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+}
@@ -0,0 +1,72 @@
+package com.gx.user.interceptor;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.gx.user.util.CancellationCheck;
+
+import io.grpc.Context;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.StatusRuntimeException;
+
+/**
+ * Drops a unary call whose caller gave up while it waited for an executor
+ * thread: if the call's context is already cancelled (the deadline passed,
+ * or the client cancelled) the handler never runs. gRPC has already ended
+ * the call with that status, so nothing is sent back. gRPC itself stops
+ * delivering the half-close once the context is cancelled, so such calls
+ * are counted when their cancellation arrives instead; the check in
+ * onHalfClose covers a cancellation racing with it. The same goes for a
+ * handler that stopped at a {@link CancellationCheck} checkpoint: its
+ * exception is swallowed here rather than logged as a failure.
+ */
+@Component
+@GlobalServerInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class GrpcDeadlineInterceptor implements ServerInterceptor {
+    private final CancellationCheck cancellationCheck;
+
+    public GrpcDeadlineInterceptor(CancellationCheck cancellationCheck) {
+        this.cancellationCheck = cancellationCheck;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        var clientSendsOneMessage = call.getMethodDescriptor().getType().clientSendsOneMessage();
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+            private boolean handlerStarted;
+
+            @Override
+            public void onHalfClose() {
+                this.handlerStarted = true;
+                // unary handlers run here, under the call's context
+                if (GrpcDeadlineInterceptor.this.cancellationCheck.cancelledStatus("queued") != null) {
+                    return;
+                }
+                try {
+                    super.onHalfClose();
+                } catch (StatusRuntimeException ex) {
+                    if (!Context.current().isCancelled()) {
+                        throw ex;
+                    }
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                // a streaming client may cancel before half-closing; that skips no work
+                if (clientSendsOneMessage && !this.handlerStarted) {
+                    GrpcDeadlineInterceptor.this.cancellationCheck.cancelledStatus("queued");
+                }
+                super.onCancel();
+            }
+        };
+    }
+}
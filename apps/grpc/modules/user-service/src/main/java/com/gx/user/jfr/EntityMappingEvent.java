@@ -0,0 +1,25 @@
+package com.gx.user.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gx.user.EntityMapping")
+@Label("Entity Mapping")
+@Category({ "GX", "User Service", "Mapping" })
+@Description("Conversion between JPA entities and protobuf messages in EntityMapper")
+@StackTrace(false)
+public class EntityMappingEvent extends Event {
+    @Label("Method")
+    public String method;
+
+    @Label("Holdings")
+    public int holdings;
+
+    public EntityMappingEvent(String method) {
+        this.method = method;
+    }
+}
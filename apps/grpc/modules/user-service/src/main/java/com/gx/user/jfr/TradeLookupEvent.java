@@ -0,0 +1,44 @@
+package com.gx.user.jfr;
+
+import com.gx.user.StockTradeRequest;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gx.user.TradeLookup")
+@Label("Trade Lookup")
+@Category({ "GX", "User Service", "Trade" })
+@Description("Repository lookup made while handling a trade")
+@StackTrace(false)
+public class TradeLookupEvent extends Event {
+    @Label("User Id")
+    public int userId;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Ticker")
+    public String ticker;
+
+    @Label("Target")
+    @Description("customer or portfolio_item")
+    public String target;
+
+    public TradeLookupEvent(String target) {
+        this.target = target;
+    }
+
+    // fields are only filled in when a recording will keep the event
+    public void end(StockTradeRequest request) {
+        if (this.shouldCommit()) {
+            this.userId = request.getUserId();
+            this.action = request.getAction().name();
+            this.ticker = request.getTicker().name();
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.gx.user.jfr;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gx.user.StockTradeRequest;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gx.user.TradePersist")
+@Label("Trade Persist")
+@Category({ "GX", "User Service", "Trade" })
+@Description("JPA flush and commit of a trade's transaction")
+@StackTrace(false)
+public class TradePersistEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(TradePersistEvent.class);
+
+    @Label("User Id")
+    public int userId;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Committed")
+    public boolean committed;
+
+    public TradePersistEvent(StockTradeRequest request) {
+        this.userId = request.getUserId();
+        this.action = request.getAction().name();
+    }
+
+    /**
+     * Times the current transaction from before commit (where Hibernate
+     * flushes) to completion. Does nothing unless a recording has this event
+     * enabled.
+     */
+    public static void recordCommit(StockTradeRequest request) {
+        if (!TYPE.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        var event = new TradePersistEvent(request);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                event.begin();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                event.committed = status == STATUS_COMMITTED;
+                event.commit();
+            }
+        });
+    }
+}
@@ -0,0 +1,45 @@
+package com.gx.user.jfr;
+
+import com.gx.user.StockTradeRequest;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.gx.user.TradeValidate")
+@Label("Trade Validate")
+@Category({ "GX", "User Service", "Trade" })
+@Description("Business validation of a trade")
+@StackTrace(false)
+public class TradeValidateEvent extends Event {
+    @Label("User Id")
+    public int userId;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Check")
+    @Description("ticker, balance or holdings")
+    public String check;
+
+    @Label("Passed")
+    public boolean passed;
+
+    public TradeValidateEvent(String check) {
+        this.check = check;
+    }
+
+    // fields are only filled in when a recording will keep the event
+    public boolean end(StockTradeRequest request, boolean passed) {
+        if (this.shouldCommit()) {
+            this.userId = request.getUserId();
+            this.action = request.getAction().name();
+            this.passed = passed;
+            this.commit();
+        }
+        return passed;
+    }
+}
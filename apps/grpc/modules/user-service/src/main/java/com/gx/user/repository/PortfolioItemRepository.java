@@ -1,5 +1,6 @@
 package com.gx.user.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,5 +13,7 @@ import com.gx.user.entity.PortfolioItem;
 public interface PortfolioItemRepository extends CrudRepository<PortfolioItem, Integer> {
    List<PortfolioItem> findAllByUserId(Integer userId);
 
+   List<PortfolioItem> findAllByUserIdIn(Collection<Integer> userIds);
+
    Optional<PortfolioItem> findByUserIdAndTicker(Integer userId, String ticker);
 }
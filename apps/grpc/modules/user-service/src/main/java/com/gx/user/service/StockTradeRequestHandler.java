@@ -1,15 +1,26 @@
 package com.gx.user.service;
 
+import java.util.Optional;
+
 import org.springframework.stereotype.Service;
 
 import com.gx.common.Ticker;
+import com.gx.user.SettleTradeRequest;
+import com.gx.user.SettleTradeResponse;
 import com.gx.user.StockTradeRequest;
 import com.gx.user.StockTradeResponse;
+import com.gx.user.TradeAction;
+import com.gx.user.entity.PortfolioItem;
+import com.gx.user.entity.User;
 import com.gx.user.exceptions.InsufficientBalanceException;
 import com.gx.user.exceptions.UnkownTickerException;
 import com.gx.user.exceptions.UnkownUserException;
+import com.gx.user.jfr.TradeLookupEvent;
+import com.gx.user.jfr.TradePersistEvent;
+import com.gx.user.jfr.TradeValidateEvent;
 import com.gx.user.repository.PortfolioItemRepository;
 import com.gx.user.repository.UserRepository;
+import com.gx.user.util.CancellationCheck;
 import com.gx.user.util.EntityMapper;
 
 import jakarta.transaction.Transactional;
@@ -21,35 +32,37 @@ public class StockTradeRequestHandler {
     private final UserRepository userRepository;
     private final PortfolioItemRepository portfolioItemRepository;
     private final EntityMapper entityMapper;
+    private final CancellationCheck cancellationCheck;
 
     @Transactional
     public StockTradeResponse buyStock(StockTradeRequest request) {
-        this.validateTickerInPortfolio(request.getTicker());
-        var user = this.userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new UnkownUserException(request.getUserId()));
+        TradePersistEvent.recordCommit(request);
+        this.validateTickerInPortfolio(request);
+        var user = this.findUser(request);
         var totalPrice = request.getQuantity() * request.getPrice();
-        this.validateUserBalance(request.getUserId(), user.getBalance(), totalPrice);
+        this.validateUserBalance(request, user.getBalance(), totalPrice);
+        var portfolioItem = this.findPortfolioItem(request);
+        // the caller may have given up during the lookups; write nothing then
+        this.cancellationCheck.throwIfCancelled("trade.persist");
 
         user.setBalance(user.getBalance() - totalPrice);
 
-        this.portfolioItemRepository.findByUserIdAndTicker(request.getUserId(), request.getTicker().name())
-                .ifPresentOrElse(item -> item.setQuantity(item.getQuantity() + request.getQuantity()), () -> {
-                    var newItem = this.entityMapper.toPortfolioItem(request);
-                    this.portfolioItemRepository.save(newItem);
-                });
+        portfolioItem.ifPresentOrElse(item -> item.setQuantity(item.getQuantity() + request.getQuantity()), () -> {
+            var newItem = this.entityMapper.toPortfolioItem(request);
+            this.portfolioItemRepository.save(newItem);
+        });
         return this.entityMapper.toStockTradeResponse(request, user.getBalance());
     }
 
     @Transactional
     public StockTradeResponse sellStock(StockTradeRequest request) {
-        this.validateTickerInPortfolio(request.getTicker());
-        var user = this.userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new UnkownUserException(request.getUserId()));
+        TradePersistEvent.recordCommit(request);
+        this.validateTickerInPortfolio(request);
+        var user = this.findUser(request);
 
-        var portfolioItem = this.portfolioItemRepository
-                .findByUserIdAndTicker(request.getUserId(), request.getTicker().name())
-                .filter(item -> item.getQuantity() >= request.getQuantity())
+        var portfolioItem = this.validateHoldings(request, this.findPortfolioItem(request))
                 .orElseThrow(() -> new InsufficientBalanceException(user.getId()));
+        this.cancellationCheck.throwIfCancelled("trade.persist");
 
         var totalPrice = request.getQuantity() * request.getPrice();
         user.setBalance(user.getBalance() + totalPrice);
@@ -57,15 +70,63 @@ public class StockTradeRequestHandler {
         return this.entityMapper.toStockTradeResponse(request, user.getBalance());
     }
 
-    private void validateTickerInPortfolio(Ticker ticker) {
-        if (Ticker.UNKNOWN.equals(ticker)) {
-            throw new UnkownTickerException(ticker.name());
+    /**
+     * Buys for the buyer and sells for the seller in one transaction, so a
+     * leg that fails (unknown user, insufficient balance or shares) rolls
+     * the other one back.
+     */
+    @Transactional
+    public SettleTradeResponse settleTrade(SettleTradeRequest request) {
+        var trade = StockTradeRequest.newBuilder()
+                .setTicker(request.getTicker())
+                .setPrice(request.getPrice())
+                .setQuantity(request.getQuantity());
+        var buy = this.buyStock(trade.setUserId(request.getBuyerUserId()).setAction(TradeAction.BUY).build());
+        var sell = this.sellStock(trade.setUserId(request.getSellerUserId()).setAction(TradeAction.SELL).build());
+        return SettleTradeResponse.newBuilder()
+                .setBuy(buy)
+                .setSell(sell)
+                .build();
+    }
+
+    private User findUser(StockTradeRequest request) {
+        var event = new TradeLookupEvent("customer");
+        event.begin();
+        var user = this.userRepository.findById(request.getUserId());
+        event.end(request);
+        return user.orElseThrow(() -> new UnkownUserException(request.getUserId()));
+    }
+
+    private Optional<PortfolioItem> findPortfolioItem(StockTradeRequest request) {
+        var event = new TradeLookupEvent("portfolio_item");
+        event.begin();
+        var item = this.portfolioItemRepository.findByUserIdAndTicker(request.getUserId(),
+                request.getTicker().name());
+        event.end(request);
+        return item;
+    }
+
+    private void validateTickerInPortfolio(StockTradeRequest request) {
+        var event = new TradeValidateEvent("ticker");
+        event.begin();
+        if (!event.end(request, !Ticker.UNKNOWN.equals(request.getTicker()))) {
+            throw new UnkownTickerException(request.getTicker().name());
         }
     }
 
-    private void validateUserBalance(Integer userId, Integer userBalance, Integer totalPrice) {
-        if (userBalance < totalPrice) {
-            throw new InsufficientBalanceException(userId);
+    private void validateUserBalance(StockTradeRequest request, Integer userBalance, Integer totalPrice) {
+        var event = new TradeValidateEvent("balance");
+        event.begin();
+        if (!event.end(request, userBalance >= totalPrice)) {
+            throw new InsufficientBalanceException(request.getUserId());
         }
     }
+
+    private Optional<PortfolioItem> validateHoldings(StockTradeRequest request, Optional<PortfolioItem> item) {
+        var event = new TradeValidateEvent("holdings");
+        event.begin();
+        var sufficient = item.filter(it -> it.getQuantity() >= request.getQuantity());
+        event.end(request, sufficient.isPresent());
+        return sufficient;
+    }
 }
@@ -1,12 +1,20 @@
 package com.gx.user.service;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.springframework.stereotype.Service;
 
 import com.gx.user.UserInformation;
 import com.gx.user.UserInformationRequest;
+import com.gx.user.UsersInformationRequest;
+import com.gx.user.UsersInformationResponse;
+import com.gx.user.entity.PortfolioItem;
 import com.gx.user.exceptions.UnkownUserException;
 import com.gx.user.repository.PortfolioItemRepository;
 import com.gx.user.repository.UserRepository;
+import com.gx.user.util.CancellationCheck;
 import com.gx.user.util.EntityMapper;
 
 import lombok.RequiredArgsConstructor;
@@ -17,11 +25,28 @@ public class UserInformationRequestHandler {
     private final UserRepository userRepository;
     private final PortfolioItemRepository portfolioItemRepository;
     private final EntityMapper entityMapper;
+    private final CancellationCheck cancellationCheck;
 
     public UserInformation getUserInformation(UserInformationRequest request) {
         var user = this.userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new UnkownUserException(request.getUserId()));
+        this.cancellationCheck.throwIfCancelled("user.portfolio");
         var portfolioItems = this.portfolioItemRepository.findAllByUserId(request.getUserId());
         return this.entityMapper.toUserInformation(user, portfolioItems);
     }
+
+    /**
+     * Loads many users with one IN query for customers and one for their
+     * portfolio items. Unknown ids are skipped rather than failing the batch.
+     */
+    public UsersInformationResponse getUsersInformation(UsersInformationRequest request) {
+        var userIds = new LinkedHashSet<>(request.getUserIdsList());
+        var portfolioItems = this.portfolioItemRepository.findAllByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(PortfolioItem::getUserId));
+        this.cancellationCheck.throwIfCancelled("users.customers");
+        var response = UsersInformationResponse.newBuilder();
+        this.userRepository.findAllById(userIds).forEach(user -> response.addUsers(
+                this.entityMapper.toUserInformation(user, portfolioItems.getOrDefault(user.getId(), List.of()))));
+        return response.build();
+    }
 }
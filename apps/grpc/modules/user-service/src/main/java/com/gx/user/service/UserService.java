@@ -7,9 +7,13 @@ import lombok.RequiredArgsConstructor;
 
 import com.gx.user.UserInformationRequest;
 import com.gx.user.UserInformation;
+import com.gx.user.UsersInformationRequest;
+import com.gx.user.UsersInformationResponse;
 import com.gx.user.StockTradeRequest;
 import com.gx.user.StockTradeResponse;
 import com.gx.user.TradeAction;
+import com.gx.user.SettleTradeRequest;
+import com.gx.user.SettleTradeResponse;
 
 @GrpcService
 @RequiredArgsConstructor
@@ -24,6 +28,14 @@ public class UserService extends UserServiceGrpc.UserServiceImplBase {
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void getUsersInformation(UsersInformationRequest request,
+            StreamObserver<UsersInformationResponse> responseObserver) {
+        var response = userInformationRequestHandler.getUsersInformation(request);
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
     @Override
     public void tradeStock(StockTradeRequest request, StreamObserver<StockTradeResponse> responseObserver) {
         var response = switch (request.getAction()) {
@@ -35,4 +47,11 @@ public class UserService extends UserServiceGrpc.UserServiceImplBase {
         responseObserver.onNext(response);
         responseObserver.onCompleted();
     }
+
+    @Override
+    public void settleTrade(SettleTradeRequest request, StreamObserver<SettleTradeResponse> responseObserver) {
+        var response = stockTradeRequestHandler.settleTrade(request);
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
 }
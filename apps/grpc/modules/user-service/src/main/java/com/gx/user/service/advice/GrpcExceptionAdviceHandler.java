@@ -1,5 +1,8 @@
 package com.gx.user.service.advice;
 
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.server.GlobalServerInterceptor;
 import org.springframework.stereotype.Component;
 
 import com.gx.user.exceptions.InsufficientBalanceException;
@@ -13,7 +16,10 @@ import io.grpc.ServerCallHandler;
 import io.grpc.ServerInterceptor;
 import io.grpc.Status;
 
+// outside GrpcDeadlineInterceptor, which swallows the exceptions of calls that are already over
 @Component
+@GlobalServerInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
 public class GrpcExceptionAdviceHandler implements ServerInterceptor {
 
     @Override
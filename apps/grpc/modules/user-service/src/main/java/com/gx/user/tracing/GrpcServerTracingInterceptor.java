@@ -0,0 +1,95 @@
+package com.gx.user.tracing;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+import com.gx.observability.tracing.Tracer;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Root span of every sampled incoming call. A trace-id header means the
+ * caller sampled the request: the call is always traced under that id and
+ * its spans go back in the trace-spans trailer. The trace is bound to the
+ * thread running each listener callback, where the service code runs.
+ */
+@Component
+@GlobalServerInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class GrpcServerTracingInterceptor implements ServerInterceptor {
+    static final Metadata.Key<String> TRACE_ID = Metadata.Key.of("trace-id", Metadata.ASCII_STRING_MARSHALLER);
+    static final Metadata.Key<String> TRACE_SPANS = Metadata.Key.of("trace-spans", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final Tracer tracer;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+            ServerCallHandler<ReqT, RespT> next) {
+        var name = "grpc.server " + call.getMethodDescriptor().getFullMethodName();
+        var callerTraceId = headers.get(TRACE_ID);
+        var trace = callerTraceId != null
+                ? this.tracer.continueTrace(callerTraceId, name)
+                : this.tracer.startTrace(name);
+        if (trace == null) {
+            return next.startCall(call, headers);
+        }
+        var tracedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (GrpcServerTracingInterceptor.this.tracer.finish(trace, status.getCode().name())
+                        && callerTraceId != null) {
+                    trailers.put(TRACE_SPANS, trace.encode());
+                }
+                super.close(status, trailers);
+            }
+        };
+        var previous = Tracer.attach(trace);
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(tracedCall, headers);
+        } finally {
+            Tracer.restore(previous);
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                var previous = Tracer.attach(trace);
+                try {
+                    super.onMessage(message);
+                } finally {
+                    Tracer.restore(previous);
+                }
+            }
+
+            @Override
+            public void onHalfClose() {
+                var previous = Tracer.attach(trace);
+                try {
+                    super.onHalfClose();
+                } catch (RuntimeException ex) {
+                    // gRPC closes the stream itself for an escaped exception, bypassing tracedCall.close
+                    GrpcServerTracingInterceptor.this.tracer.finish(trace, Status.fromThrowable(ex).getCode().name());
+                    throw ex;
+                } finally {
+                    Tracer.restore(previous);
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                GrpcServerTracingInterceptor.this.tracer.finish(trace, Status.Code.CANCELLED.name());
+                super.onCancel();
+            }
+        };
+    }
+}
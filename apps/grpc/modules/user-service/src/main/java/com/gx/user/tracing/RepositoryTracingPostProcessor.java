@@ -0,0 +1,83 @@
+package com.gx.user.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gx.observability.tracing.Span;
+import com.gx.observability.tracing.Trace;
+import com.gx.observability.tracing.Tracer;
+
+/**
+ * Adds a span per repository call made while a trace is bound, plus one for
+ * the commit of its transaction, where Hibernate flushes. The advice goes
+ * into Spring Data's own repository proxies, so an untraced call costs one
+ * thread-local read.
+ */
+@Component
+public class RepositoryTracingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, repository) -> proxyFactory.addAdvice(
+                            new TracingAdvice(repository.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private static final class TracingAdvice implements MethodInterceptor {
+        private final String repository;
+
+        TracingAdvice(String repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            var trace = Tracer.current();
+            if (trace == null) {
+                return invocation.proceed();
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive() && trace.trackCommit()) {
+                TransactionSynchronizationManager.registerSynchronization(new CommitSpan(trace));
+            }
+            var span = trace.startSpan("db " + this.repository + "." + invocation.getMethod().getName());
+            try {
+                var result = invocation.proceed();
+                span.end(null);
+                return result;
+            } catch (Throwable ex) {
+                span.end(ex.getClass().getSimpleName());
+                throw ex;
+            }
+        }
+    }
+
+    private static final class CommitSpan implements TransactionSynchronization {
+        private final Trace trace;
+        private Span span;
+
+        CommitSpan(Trace trace) {
+            this.trace = trace;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            this.span = this.trace.startSpan("db commit");
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (this.span != null) {
+                this.span.end(status == STATUS_COMMITTED ? null : "ROLLED_BACK");
+            }
+            this.trace.commitTracked();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.gx.user.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import io.grpc.Context;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Checkpoints where work for a gRPC call stops once nobody waits for the
+ * result any more: the caller cancelled, or its deadline passed. Counts
+ * the skipped work under user.grpc.work.skipped{stage,reason}.
+ *
+ * Outside a gRPC call (tests, benchmarks) the current context is the root
+ * one, which is never cancelled.
+ */
+@Component
+public class CancellationCheck {
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> skipped = new ConcurrentHashMap<>();
+
+    public CancellationCheck(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return DEADLINE_EXCEEDED or CANCELLED if the current call is over,
+     *         otherwise null
+     */
+    public Status cancelledStatus(String stage) {
+        var context = Context.current();
+        if (!context.isCancelled()) {
+            return null;
+        }
+        var deadline = context.getDeadline();
+        var expired = deadline != null && deadline.isExpired();
+        var reason = expired ? "deadline" : "cancelled";
+        this.skipped.computeIfAbsent(stage + ':' + reason, key -> Counter.builder("user.grpc.work.skipped")
+                .description("Work skipped because the caller's deadline passed or it cancelled")
+                .tag("stage", stage)
+                .tag("reason", reason)
+                .register(this.meterRegistry))
+                .increment();
+        return (expired ? Status.DEADLINE_EXCEEDED : Status.CANCELLED).withDescription("Stopped before " + stage);
+    }
+
+    /**
+     * Throws before the given stage if the current call is over; inside a
+     * transaction this rolls it back.
+     */
+    public void throwIfCancelled(String stage) {
+        var status = this.cancelledStatus(stage);
+        if (status != null) {
+            throw status.asRuntimeException();
+        }
+    }
+}
@@ -11,11 +11,14 @@ import com.gx.user.StockTradeRequest;
 import com.gx.user.StockTradeResponse;
 import com.gx.user.entity.PortfolioItem;
 import com.gx.user.entity.User;
+import com.gx.user.jfr.EntityMappingEvent;
 import com.gx.user.UserInformation;
 
 @Service
 public class EntityMapper {
     public UserInformation toUserInformation(User user, List<PortfolioItem> portfolioItems) {
+        var event = new EntityMappingEvent("toUserInformation");
+        event.begin();
         var holdings = portfolioItems.stream()
                 .map(item -> Holding.newBuilder()
                         .setTicker(Ticker.valueOf(item.getTicker()))
@@ -23,24 +26,33 @@ public class EntityMapper {
                         .build())
                 .collect(Collectors.toList());
         // Assuming UserInformation has a builder and a method to set holdings
-        return UserInformation.newBuilder()
+        var userInformation = UserInformation.newBuilder()
                 .setUserId(user.getId())
                 .setName(user.getName())
                 .setBalance(user.getBalance())
                 .addAllHoldings(holdings)
                 .build();
+        event.holdings = holdings.size();
+        event.commit();
+        return userInformation;
     }
 
     public PortfolioItem toPortfolioItem(StockTradeRequest request) {
-        return PortfolioItem.builder()
+        var event = new EntityMappingEvent("toPortfolioItem");
+        event.begin();
+        var item = PortfolioItem.builder()
                 .userId(request.getUserId())
                 .ticker(request.getTicker().name())
                 .quantity(request.getQuantity())
                 .build();
+        event.commit();
+        return item;
     }
 
     public StockTradeResponse toStockTradeResponse(StockTradeRequest request, int newBalance) {
-        return StockTradeResponse.newBuilder()
+        var event = new EntityMappingEvent("toStockTradeResponse");
+        event.begin();
+        var response = StockTradeResponse.newBuilder()
                 .setUserId(request.getUserId())
                 .setTicker(request.getTicker())
                 .setQuantity(request.getQuantity())
@@ -49,5 +61,7 @@ public class EntityMapper {
                 .setBalance(newBalance)
                 .setAction(request.getAction())
                 .build();
+        event.commit();
+        return response;
     }
 }
@@ -0,0 +1,274 @@
+package com.gx.user.warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.grpc.server.lifecycle.GrpcServerStartedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gx.common.Ticker;
+import com.gx.observability.warmup.JitCompilation;
+import com.gx.user.StockTradeRequest;
+import com.gx.user.TradeAction;
+import com.gx.user.UserInformationRequest;
+import com.gx.user.UserServiceGrpc;
+import com.gx.user.UsersInformationRequest;
+import com.gx.user.entity.User;
+import com.gx.user.repository.UserRepository;
+import com.gx.user.service.UserService;
+
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Warms the JIT up before the service reports ready. Spring Boot only
+ * moves readiness to ACCEPTING_TRAFFIC once the application runners have
+ * returned, so /actuator/health/readiness stays down while this runs.
+ *
+ * The gRPC port already accepts calls at that point, so the warm-up writes
+ * nothing another caller could see. Each round has two halves:
+ * <ul>
+ * <li>Lookups and buys for a user id that no customer has, sent through
+ * the service's own gRPC port. They compile the Netty transport, the
+ * protobuf codecs, the interceptors and the exception advice, and are
+ * answered NOT_FOUND (or an empty batch) before any row is touched.</li>
+ * <li>Lookups and buy/sell pairs for a scratch customer, handed straight to
+ * {@link UserService} inside one transaction that is always rolled back.
+ * They compile the successful paths of the request handlers, Hibernate and
+ * the entity mapping. Requests and responses still round-trip through the
+ * method's marshallers.</li>
+ * </ul>
+ * Warm-up stops once the JIT spent less than settle-ratio of a round
+ * compiling, two rounds in a row, or after max-duration.
+ *
+ * The outcome is logged and kept as user.warmup.duration and
+ * user.warmup.compiled.methods{tier}.
+ */
+@Component
+public class JitWarmup implements ApplicationRunner {
+    private static final Logger logger = Logger.getLogger(JitWarmup.class.getName());
+    private static final int SETTLED_ROUNDS = 2;
+    // no customer has it: user ids come from an identity column
+    private static final int UNKNOWN_USER_ID = -1;
+    private static final int SCRATCH_BALANCE = 1_000_000;
+    private static final int PRICE = 100;
+    private static final Ticker[] TICKERS = { Ticker.APPLE, Ticker.GOOGLE, Ticker.AMAZON, Ticker.MICROSOFT };
+
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final TransactionTemplate rolledBack;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration maxDuration;
+    private final int roundRequests;
+    private final double settleRatio;
+    private volatile int grpcPort = -1;
+
+    public JitWarmup(UserService userService, UserRepository userRepository,
+            PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+            @Value("${user.warmup.enabled:true}") boolean enabled,
+            @Value("${user.warmup.max-duration:60s}") Duration maxDuration,
+            @Value("${user.warmup.round-requests:200}") int roundRequests,
+            @Value("${user.warmup.settle-ratio:0.05}") double settleRatio) {
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.rolledBack = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.maxDuration = maxDuration;
+        this.roundRequests = roundRequests;
+        this.settleRatio = settleRatio;
+    }
+
+    @EventListener
+    public void onGrpcServerStarted(GrpcServerStartedEvent event) {
+        // the in-process server, if any, has no port
+        if (event.getPort() > 0) {
+            this.grpcPort = event.getPort();
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!this.enabled) {
+            return;
+        }
+        if (this.grpcPort <= 0) {
+            logger.warning("No gRPC port to warm up against; skipping JIT warm-up");
+            return;
+        }
+        var channel = ManagedChannelBuilder.forAddress("localhost", this.grpcPort).usePlaintext().build();
+        try {
+            this.warmUp(UserServiceGrpc.newBlockingStub(channel));
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    private void warmUp(UserServiceGrpc.UserServiceBlockingStub stub) {
+        var startedAt = System.nanoTime();
+        var deadline = startedAt + this.maxDuration.toNanos();
+        var start = JitCompilation.snapshot();
+        var previous = start;
+        var rounds = 0;
+        var settled = 0;
+        var failures = 0L;
+        while (settled < SETTLED_ROUNDS && System.nanoTime() < deadline) {
+            var roundStartedAt = System.nanoTime();
+            failures += this.overTheWire(stub) + this.inRolledBackTransaction();
+            rounds++;
+            var current = JitCompilation.snapshot();
+            var roundMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - roundStartedAt);
+            var compileMillis = current.compileMillis() - previous.compileMillis();
+            settled = compileMillis < this.settleRatio * roundMillis ? settled + 1 : 0;
+            var round = rounds;
+            logger.fine(() -> String.format("JIT warm-up round %d: %d ms, %d ms compiling", round, roundMillis,
+                    compileMillis));
+            previous = current;
+        }
+        var duration = Duration.ofNanos(System.nanoTime() - startedAt);
+        var compiled = previous.since(start);
+        logger.info(String.format(
+                "JIT warm-up %s after %d rounds in %d ms (%d failed calls): %d ms compiling, %+d C1 / %+d C2 methods,"
+                        + " %d C1 / %d C2 in the code cache",
+                settled >= SETTLED_ROUNDS ? "settled" : "hit max-duration", rounds, duration.toMillis(), failures,
+                compiled.compileMillis(), compiled.c1Methods(), compiled.c2Methods(), previous.c1Methods(),
+                previous.c2Methods()));
+        this.register(duration, previous);
+    }
+
+    /**
+     * Calls for the unknown user over the gRPC port. They read, never write.
+     *
+     * @return calls that did not get the expected answer
+     */
+    private long overTheWire(UserServiceGrpc.UserServiceBlockingStub stub) {
+        var failures = 0L;
+        var lookup = UserInformationRequest.newBuilder().setUserId(UNKNOWN_USER_ID).build();
+        var batchLookup = UsersInformationRequest.newBuilder().addAllUserIds(List.of(UNKNOWN_USER_ID)).build();
+        for (var i = 0; i < this.roundRequests; i++) {
+            var buy = trade(UNKNOWN_USER_ID, i, TradeAction.BUY);
+            try {
+                if (stub.getUsersInformation(batchLookup).getUsersCount() != 0) {
+                    failures++;
+                }
+                failures += notFound(() -> stub.getUserInformation(lookup)) ? 0 : 1;
+                failures += notFound(() -> stub.tradeStock(buy)) ? 0 : 1;
+            } catch (RuntimeException ex) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Trades for a scratch customer through {@link UserService}, in a
+     * transaction that is rolled back, so neither the customer nor its
+     * trades are ever committed.
+     *
+     * @return calls that failed
+     */
+    private long inRolledBackTransaction() {
+        return this.rolledBack.execute(transaction -> {
+            transaction.setRollbackOnly();
+            var scratch = new User();
+            scratch.setName("jit-warmup");
+            scratch.setBalance(SCRATCH_BALANCE);
+            var userId = this.userRepository.save(scratch).getId();
+            var lookup = UserInformationRequest.newBuilder().setUserId(userId).build();
+            var batchLookup = UsersInformationRequest.newBuilder().addAllUserIds(List.of(userId)).build();
+            var failures = 0L;
+            for (var i = 0; i < this.roundRequests; i++) {
+                try {
+                    call(UserServiceGrpc.getGetUserInformationMethod(), lookup, this.userService::getUserInformation);
+                    call(UserServiceGrpc.getGetUsersInformationMethod(), batchLookup,
+                            this.userService::getUsersInformation);
+                    call(UserServiceGrpc.getTradeStockMethod(), trade(userId, i, TradeAction.BUY),
+                            this.userService::tradeStock);
+                    call(UserServiceGrpc.getTradeStockMethod(), trade(userId, i, TradeAction.SELL),
+                            this.userService::tradeStock);
+                } catch (RuntimeException ex) {
+                    failures++;
+                }
+            }
+            return failures;
+        });
+    }
+
+    private static StockTradeRequest trade(int userId, int i, TradeAction action) {
+        return StockTradeRequest.newBuilder()
+                .setUserId(userId)
+                .setTicker(TICKERS[i % TICKERS.length])
+                .setPrice(PRICE)
+                .setQuantity(1)
+                .setAction(action)
+                .build();
+    }
+
+    private static boolean notFound(Runnable call) {
+        try {
+            call.run();
+            return false;
+        } catch (StatusRuntimeException ex) {
+            return ex.getStatus().getCode() == Status.Code.NOT_FOUND;
+        }
+    }
+
+    /**
+     * Hands the request to the service method, passing it and the response
+     * through the method's marshallers as the transport would.
+     */
+    private static <ReqT, RespT> RespT call(MethodDescriptor<ReqT, RespT> method, ReqT request,
+            BiConsumer<ReqT, StreamObserver<RespT>> handler) {
+        var observer = new UnaryObserver<RespT>();
+        handler.accept(method.parseRequest(method.streamRequest(request)), observer);
+        return method.parseResponse(method.streamResponse(observer.response));
+    }
+
+    private void register(Duration duration, JitCompilation compilation) {
+        TimeGauge.builder("user.warmup.duration", () -> duration.toMillis(), TimeUnit.MILLISECONDS)
+                .description("Time the JIT warm-up ran before the service reported ready")
+                .register(this.meterRegistry);
+        Gauge.builder("user.warmup.compiled.methods", compilation, JitCompilation::c1Methods)
+                .description("Compiled methods in the code cache when the warm-up finished")
+                .tag("tier", "c1")
+                .register(this.meterRegistry);
+        Gauge.builder("user.warmup.compiled.methods", compilation, JitCompilation::c2Methods)
+                .description("Compiled methods in the code cache when the warm-up finished")
+                .tag("tier", "c2")
+                .register(this.meterRegistry);
+    }
+
+    private static final class UnaryObserver<T> implements StreamObserver<T> {
+        private T response;
+
+        @Override
+        public void onNext(T value) {
+            this.response = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new IllegalStateException(t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
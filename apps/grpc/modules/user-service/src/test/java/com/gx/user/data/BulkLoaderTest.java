@@ -0,0 +1,108 @@
+package com.gx.user.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Generates and loads a small population into a private in-memory H2
+ * database.
+ */
+class BulkLoaderTest {
+    private static final int USERS = 2_000;
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:bulk-loader-test;DB_CLOSE_DELAY=-1");
+    private final JdbcTemplate jdbc = new JdbcTemplate(this.dataSource);
+
+    @AfterEach
+    void tearDown() {
+        this.jdbc.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void sameSeedWritesTheSameRows() throws Exception {
+        var first = csv(new UserDataGenerator(USERS, 2.5, 42));
+        var second = csv(new UserDataGenerator(USERS, 2.5, 42));
+        var otherSeed = csv(new UserDataGenerator(USERS, 2.5, 7));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(otherSeed[1]).isNotEqualTo(first[1]);
+        assertThat(first[0].lines().toList()).hasSize(USERS)
+                .satisfies(lines -> assertThat(lines.getFirst()).startsWith("1,user-1,"))
+                .satisfies(lines -> assertThat(lines.getLast()).startsWith(USERS + ",user-" + USERS + ","));
+    }
+
+    @Test
+    void loadsEveryRowWithValidReferences() throws Exception {
+        var result = BulkLoader.load(this.dataSource, new UserDataGenerator(USERS, 2.5, 42));
+
+        assertThat(result.customers()).isEqualTo(USERS);
+        assertThat(this.count("SELECT COUNT(*) FROM customer")).isEqualTo(USERS);
+        assertThat(this.count("SELECT COUNT(*) FROM portfolio_item")).isEqualTo(result.portfolioItems());
+        assertThat(this.count("SELECT MIN(id) FROM customer")).isEqualTo(1);
+        assertThat(this.count("SELECT MAX(id) FROM customer")).isEqualTo(USERS);
+        assertThat(this.count("SELECT MAX(id) FROM portfolio_item")).isEqualTo(result.portfolioItems());
+        // about holdingsPerUser per customer, each ticker at most once
+        assertThat((double) result.portfolioItems() / USERS).isBetween(2.3, 2.7);
+        assertThat(this.count("SELECT COUNT(*) FROM (SELECT customer_id, ticker FROM portfolio_item"
+                + " GROUP BY customer_id, ticker HAVING COUNT(*) > 1)")).isZero();
+        assertThat(this.count("SELECT COUNT(*) FROM portfolio_item p LEFT JOIN customer c ON c.id = p.customer_id"
+                + " WHERE c.id IS NULL")).isZero();
+        assertThat(BulkLoader.customerCount(this.dataSource)).isEqualTo(USERS);
+    }
+
+    @Test
+    void foreignKeyHoldsForNewRows() throws Exception {
+        BulkLoader.load(this.dataSource, new UserDataGenerator(USERS, 2.5, 42));
+
+        assertThatThrownBy(() -> this.jdbc.update(
+                "INSERT INTO portfolio_item (customer_id, ticker, quantity) VALUES (?, 'APPLE', 1)", USERS + 1))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void newRowsGetIdsPastTheGeneratedOnes() throws Exception {
+        var result = BulkLoader.load(this.dataSource, new UserDataGenerator(USERS, 2.5, 42));
+
+        this.jdbc.update("INSERT INTO customer (name, balance) VALUES ('scratch', 100)");
+        this.jdbc.update("INSERT INTO portfolio_item (customer_id, ticker, quantity) VALUES (?, 'APPLE', 1)",
+                USERS + 1);
+
+        assertThat(this.count("SELECT id FROM customer WHERE name = 'scratch'")).isEqualTo(USERS + 1);
+        assertThat(this.count("SELECT MAX(id) FROM portfolio_item")).isEqualTo(result.portfolioItems() + 1);
+    }
+
+    @Test
+    void reloadReplacesTheTables() throws Exception {
+        BulkLoader.load(this.dataSource, new UserDataGenerator(USERS, 2.5, 42));
+        var result = BulkLoader.load(this.dataSource, new UserDataGenerator(USERS / 2, 1, 42));
+
+        assertThat(this.count("SELECT COUNT(*) FROM customer")).isEqualTo(USERS / 2);
+        assertThat(this.count("SELECT COUNT(*) FROM portfolio_item")).isEqualTo(result.portfolioItems());
+    }
+
+    @Test
+    void customerCountWithoutTableIsNegative() throws Exception {
+        assertThat(BulkLoader.customerCount(this.dataSource)).isEqualTo(-1);
+    }
+
+    private long count(String sql) {
+        return this.jdbc.queryForObject(sql, Long.class);
+    }
+
+    private static String[] csv(UserDataGenerator generator) throws Exception {
+        var customers = new StringWriter();
+        var portfolioItems = new StringWriter();
+        var written = generator.write(customers, portfolioItems);
+        assertThat(portfolioItems.toString().lines()).hasSize((int) written);
+        return new String[] { customers.toString(), portfolioItems.toString() };
+    }
+}
@@ -0,0 +1,222 @@
+package com.gx.user.interceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.UserServiceGrpc;
+import com.gx.user.util.CancellationCheck;
+
+import io.grpc.Context;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the interceptor in an in-process server. An outer interceptor can
+ * stall a call between its request message and its half-close, as a busy
+ * executor would, so that its deadline passes before the handler runs.
+ */
+class GrpcDeadlineInterceptorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CancellationCheck cancellationCheck = new CancellationCheck(this.meterRegistry);
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicBoolean handled = new AtomicBoolean();
+    // what escaped the interceptor's onHalfClose, seen from an outer interceptor
+    private final AtomicReference<RuntimeException> escaped = new AtomicReference<>();
+    // the server side of the call ended
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile boolean stallRequest;
+    private volatile boolean waitForCancellation;
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        var service = new UserServiceGrpc.UserServiceImplBase() {
+            @Override
+            public void tradeStock(StockTradeRequest request, StreamObserver<StockTradeResponse> observer) {
+                GrpcDeadlineInterceptorTest.this.handled.set(true);
+                if (GrpcDeadlineInterceptorTest.this.waitForCancellation) {
+                    var cancelled = new CountDownLatch(1);
+                    Context.current().addListener(context -> cancelled.countDown(), Runnable::run);
+                    await(cancelled);
+                    GrpcDeadlineInterceptorTest.this.cancellationCheck.throwIfCancelled("persist");
+                }
+                observer.onNext(StockTradeResponse.getDefaultInstance());
+                observer.onCompleted();
+            }
+        };
+        this.server = InProcessServerBuilder.forName(name)
+                .executor(this.executor)
+                .addService(ServerInterceptors.intercept(service, new GrpcDeadlineInterceptor(this.cancellationCheck),
+                        new EscapeRecorder()))
+                .build()
+                .start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void callWhoseDeadlinePassesBeforeTheHandlerIsSkipped() throws Exception {
+        this.stallRequest = true;
+        var stub = UserServiceGrpc.newBlockingStub(this.channel).withDeadlineAfter(500, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> stub.tradeStock(StockTradeRequest.getDefaultInstance()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+        assertThat(this.finished.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(this.handled).isFalse();
+        assertThat(this.escaped).hasNullValue();
+        assertThat(this.skipped("queued", "deadline")).isEqualTo(1);
+    }
+
+    @Test
+    void callInTimeIsHandled() throws Exception {
+        var response = UserServiceGrpc.newBlockingStub(this.channel)
+                .withDeadlineAfter(5, TimeUnit.SECONDS)
+                .tradeStock(StockTradeRequest.getDefaultInstance());
+
+        assertThat(response).isEqualTo(StockTradeResponse.getDefaultInstance());
+        assertThat(this.handled).isTrue();
+        assertThat(this.meterRegistry.find("user.grpc.work.skipped").counters()).isEmpty();
+    }
+
+    @Test
+    void checkpointAfterTheDeadlineStopsTheHandlerQuietly() throws Exception {
+        this.waitForCancellation = true;
+        var stub = UserServiceGrpc.newBlockingStub(this.channel).withDeadlineAfter(500, TimeUnit.MILLISECONDS);
+
+        assertThatThrownBy(() -> stub.tradeStock(StockTradeRequest.getDefaultInstance()))
+                .isInstanceOfSatisfying(StatusRuntimeException.class,
+                        ex -> assertThat(ex.getStatus().getCode()).isEqualTo(Status.Code.DEADLINE_EXCEEDED));
+        assertThat(this.finished.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(this.handled).isTrue();
+        assertThat(this.escaped).hasNullValue();
+        assertThat(this.skipped("persist", "deadline")).isEqualTo(1);
+    }
+
+    @Test
+    void clientCancellationIsCountedAsCancelled() throws Exception {
+        this.waitForCancellation = true;
+        var cancellable = Context.current().withCancellation();
+        var response = new AtomicReference<Status>();
+        cancellable.run(() -> UserServiceGrpc.newStub(this.channel)
+                .tradeStock(StockTradeRequest.getDefaultInstance(), new StreamObserver<>() {
+                    @Override
+                    public void onNext(StockTradeResponse value) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        response.set(Status.fromThrowable(t));
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                }));
+        while (!this.handled.get()) {
+            Thread.onSpinWait();
+        }
+        cancellable.cancel(null);
+
+        assertThat(this.finished.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(response.get().getCode()).isEqualTo(Status.Code.CANCELLED);
+        assertThat(this.escaped).hasNullValue();
+        assertThat(this.skipped("persist", "cancelled")).isEqualTo(1);
+    }
+
+    private double skipped(String stage, String reason) {
+        var counter = this.meterRegistry.find("user.grpc.work.skipped")
+                .tag("stage", stage)
+                .tag("reason", reason)
+                .counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Outermost interceptor: optionally holds the request message until the
+     * call's context is cancelled, records whatever the handler chain throws
+     * and signals the end of the call.
+     */
+    private final class EscapeRecorder implements ServerInterceptor {
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                ServerCallHandler<ReqT, RespT> next) {
+            return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+                @Override
+                public void onMessage(ReqT message) {
+                    if (GrpcDeadlineInterceptorTest.this.stallRequest) {
+                        var cancelled = new CountDownLatch(1);
+                        Context.current().addListener(context -> cancelled.countDown(), Runnable::run);
+                        await(cancelled);
+                    }
+                    super.onMessage(message);
+                }
+
+                @Override
+                public void onHalfClose() {
+                    try {
+                        super.onHalfClose();
+                    } catch (RuntimeException ex) {
+                        GrpcDeadlineInterceptorTest.this.escaped.set(ex);
+                        throw ex;
+                    }
+                }
+
+                @Override
+                public void onCancel() {
+                    super.onCancel();
+                    GrpcDeadlineInterceptorTest.this.finished.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    super.onComplete();
+                    GrpcDeadlineInterceptorTest.this.finished.countDown();
+                }
+            };
+        }
+    }
+}
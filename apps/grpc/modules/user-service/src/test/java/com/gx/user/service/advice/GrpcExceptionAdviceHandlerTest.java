@@ -0,0 +1,125 @@
+package com.gx.user.service.advice;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+
+import com.gx.user.StockTradeRequest;
+import com.gx.user.StockTradeResponse;
+import com.gx.user.UserServiceGrpc;
+import com.gx.user.exceptions.InsufficientBalanceException;
+import com.gx.user.exceptions.UnkownTickerException;
+import com.gx.user.exceptions.UnkownUserException;
+import com.gx.user.interceptor.GrpcDeadlineInterceptor;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Runs the advice in front of an in-process service whose TradeStock throws
+ * the exception picked by the request's user id.
+ */
+class GrpcExceptionAdviceHandlerTest {
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var name = InProcessServerBuilder.generateName();
+        var service = new UserServiceGrpc.UserServiceImplBase() {
+            @Override
+            public void tradeStock(StockTradeRequest request, StreamObserver<StockTradeResponse> observer) {
+                throw switch (request.getUserId()) {
+                    case 1 -> new UnkownUserException(1);
+                    case 2 -> new UnkownTickerException("APPLE");
+                    case 3 -> new InsufficientBalanceException(3);
+                    case 4 -> new IllegalArgumentException("Quantity must be positive");
+                    default -> new IllegalStateException("boom");
+                };
+            }
+        };
+        this.server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(ServerInterceptors.intercept(service, new GrpcExceptionAdviceHandler()))
+                .build()
+                .start();
+        this.channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        this.channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        this.server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void unknownUserIsNotFound() {
+        var status = this.trade(1);
+
+        assertThat(status.getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        assertThat(status.getDescription()).isEqualTo(new UnkownUserException(1).getMessage());
+    }
+
+    @Test
+    void unknownTickerIsNotFound() {
+        var status = this.trade(2);
+
+        assertThat(status.getCode()).isEqualTo(Status.Code.NOT_FOUND);
+        assertThat(status.getDescription()).isEqualTo("Ticker APPLE not found in user's portfolio.");
+    }
+
+    @Test
+    void insufficientBalanceIsFailedPrecondition() {
+        var status = this.trade(3);
+
+        assertThat(status.getCode()).isEqualTo(Status.Code.FAILED_PRECONDITION);
+        assertThat(status.getDescription()).isEqualTo("Insufficient balance for user with ID: 3");
+    }
+
+    @Test
+    void illegalArgumentIsInvalidArgument() {
+        var status = this.trade(4);
+
+        assertThat(status.getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        assertThat(status.getDescription()).isEqualTo("Quantity must be positive");
+    }
+
+    @Test
+    void anythingElseIsInternal() {
+        var status = this.trade(5);
+
+        assertThat(status.getCode()).isEqualTo(Status.Code.INTERNAL);
+        assertThat(status.getDescription()).isEqualTo("Error: boom");
+    }
+
+    @Test
+    void isAGlobalInterceptorOutsideTheDeadlineInterceptor() {
+        assertThat(AnnotationUtils.findAnnotation(GrpcExceptionAdviceHandler.class, GlobalServerInterceptor.class))
+                .isNotNull();
+        // a lower order is further out
+        assertThat(OrderUtils.getOrder(GrpcExceptionAdviceHandler.class))
+                .isLessThan(OrderUtils.getOrder(GrpcDeadlineInterceptor.class));
+    }
+
+    private Status trade(int userId) {
+        var thrown = catchThrowableOfType(StatusRuntimeException.class, () -> UserServiceGrpc
+                .newBlockingStub(this.channel)
+                .tradeStock(StockTradeRequest.newBuilder().setUserId(userId).build()));
+        assertThat(thrown).isNotNull();
+        return thrown.getStatus();
+    }
+}
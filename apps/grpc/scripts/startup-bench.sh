@@ -0,0 +1,169 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark for user-service + aggregator-service.
+#
+# Builds both services with the fast-start Maven profile, records a class
+# cache from a training run that drives lookups and trades, then starts the
+# pair RUNS times in each mode and reports the time from launch to the first
+# successful GET /user/1 (an HTTP call into the aggregator that makes a gRPC
+# call to user-service), next to each service's own "Started ... in" time.
+#
+# Modes:
+#   default   the executable jars as built
+#   aot       + Spring AOT bean definitions and the fast-start profile
+#   aot-cds   + the extracted jars and the class cache from the training run
+#             (-XX:AOTCache on JDK 25+, an AppCDS archive before that)
+#
+# Usage: scripts/startup-bench.sh [--no-build] [--runs=N] [--training-requests=N]
+# Environment: JAVA_HOME selects the JDK, MVN the Maven command (default mvn).
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+ROOT=$(pwd)
+MODULES="$ROOT/modules"
+WORK="$ROOT/target/startup-bench"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+MVN="${MVN:-mvn}"
+
+BUILD=true
+RUNS=3
+TRAINING_REQUESTS=200
+for arg in "$@"; do
+    case "$arg" in
+        --no-build) BUILD=false ;;
+        --runs=*) RUNS="${arg#*=}" ;;
+        --training-requests=*) TRAINING_REQUESTS="${arg#*=}" ;;
+        *) echo "Unknown argument: $arg" >&2; exit 2 ;;
+    esac
+done
+
+USER_JAR=user-service-0.0.1-SNAPSHOT-exec.jar
+AGGREGATOR_JAR=aggregator-service-0.0.1-SNAPSHOT-exec.jar
+AGGREGATOR_URL=http://localhost:3001
+FAST_START="-Dspring.aot.enabled=true -Dspring.profiles.active=fast-start"
+
+# JDK 25 replaced AppCDS dumps with the AOT cache (JEP 483/514)
+if "$JAVA" -XX:+UnlockDiagnosticVMOptions -XX:+PrintFlagsFinal -version 2>/dev/null | grep -q ' AOTCacheOutput '; then
+    CACHE_EXT=aot
+    record_flag() { echo "-XX:AOTCacheOutput=$1"; }
+    use_flag() { echo "-XX:AOTCache=$1"; }
+else
+    CACHE_EXT=jsa
+    record_flag() { echo "-XX:ArchiveClassesAtExit=$1"; }
+    use_flag() { echo "-XX:SharedArchiveFile=$1"; }
+fi
+
+USER_PID=
+AGGREGATOR_PID=
+
+stop_services() {
+    for pid in $AGGREGATOR_PID $USER_PID; do
+        kill "$pid" 2>/dev/null || true
+    done
+    # a training run writes its cache on exit, so wait for both to finish
+    for pid in $AGGREGATOR_PID $USER_PID; do
+        wait "$pid" 2>/dev/null || true
+    done
+    USER_PID=
+    AGGREGATOR_PID=
+}
+trap stop_services EXIT
+
+# start_services <user jar> <aggregator jar> <log prefix> <user jvm flags> <aggregator jvm flags>
+# The JIT warm-ups are off: their traffic would compete with the measured
+# startup, and readiness is not what this measures
+start_services() {
+    # shellcheck disable=SC2086
+    "$JAVA" $4 -Duser.warmup.enabled=false -jar "$1" > "$3-user.log" 2>&1 &
+    USER_PID=$!
+    # shellcheck disable=SC2086
+    "$JAVA" $5 -Daggregator.warmup.enabled=false -jar "$2" > "$3-aggregator.log" 2>&1 &
+    AGGREGATOR_PID=$!
+}
+
+now_millis() {
+    date +%s%3N
+}
+
+# Waits for the first 200 from GET /user/1; the first calls may still fail
+# while user-service starts or a cold call runs past its deadline
+wait_for_first_rpc() {
+    local deadline=$(( $(now_millis) + 300000 ))
+    until curl -sf -o /dev/null "$AGGREGATOR_URL/user/1"; do
+        if (( $(now_millis) > deadline )); then
+            echo "No successful call within 5 minutes; see $WORK/*.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+}
+
+started_seconds() {
+    sed -n 's/.*Started [A-Za-z]* in \([0-9.]*\) seconds.*/\1/p' "$1" | head -1
+}
+
+train() {
+    echo "Training run: $TRAINING_REQUESTS lookups and trades"
+    start_services "$WORK/user-service/$USER_JAR" "$WORK/aggregator-service/$AGGREGATOR_JAR" "$WORK/training" \
+        "$FAST_START $(record_flag "$WORK/user-service.$CACHE_EXT")" \
+        "$FAST_START $(record_flag "$WORK/aggregator-service.$CACHE_EXT")"
+    wait_for_first_rpc
+    local tickers=(APPLE GOOGLE AMAZON MICROSOFT)
+    for (( i = 0; i < TRAINING_REQUESTS; i++ )); do
+        local user=$(( i % 3 + 1 ))
+        local ticker=${tickers[$(( i % 4 ))]}
+        curl -s -o /dev/null "$AGGREGATOR_URL/user/$user"
+        for action in BUY SELL; do
+            curl -s -o /dev/null -X POST "$AGGREGATOR_URL/trade" -H 'Content-Type: application/json' \
+                -d "{\"userId\":$user,\"ticker\":\"$ticker\",\"price\":0,\"quantity\":1,\"action\":\"$action\"}"
+        done
+    done
+    stop_services
+}
+
+measure() {
+    local mode=$1 run=$2 user_flags=$3 aggregator_flags=$4 user_jar=$5 aggregator_jar=$6
+    local log="$WORK/$mode-$run"
+    local started_at
+    started_at=$(now_millis)
+    start_services "$user_jar" "$aggregator_jar" "$log" "$user_flags" "$aggregator_flags"
+    wait_for_first_rpc
+    local first_rpc=$(( $(now_millis) - started_at ))
+    stop_services
+    printf '%-8s %4d %12d %14s %16s\n' "$mode" "$run" "$first_rpc" \
+        "$(started_seconds "$log-user.log")" "$(started_seconds "$log-aggregator.log")"
+    echo "$mode $first_rpc" >> "$WORK/results"
+}
+
+if [[ "$BUILD" == true ]]; then
+    "$MVN" -q -B -Pfast-start -DskipTests install
+fi
+
+rm -rf "$WORK"
+mkdir -p "$WORK"
+for module in user-service aggregator-service; do
+    jar="$MODULES/$module/target/$module-0.0.1-SNAPSHOT-exec.jar"
+    # a class cache needs plain jars on the class path, not nested ones
+    "$JAVA" -Djarmode=tools -jar "$jar" extract --destination "$WORK/$module" > /dev/null
+done
+
+train
+
+printf '%-8s %4s %12s %14s %16s\n' mode run first-rpc-ms user-started-s aggregator-started-s
+for (( run = 1; run <= RUNS; run++ )); do
+    measure default "$run" "" "" "$MODULES/user-service/target/$USER_JAR" \
+        "$MODULES/aggregator-service/target/$AGGREGATOR_JAR"
+    measure aot "$run" "$FAST_START" "$FAST_START" "$MODULES/user-service/target/$USER_JAR" \
+        "$MODULES/aggregator-service/target/$AGGREGATOR_JAR"
+    measure aot-cds "$run" "$FAST_START $(use_flag "$WORK/user-service.$CACHE_EXT")" \
+        "$FAST_START $(use_flag "$WORK/aggregator-service.$CACHE_EXT")" \
+        "$WORK/user-service/$USER_JAR" "$WORK/aggregator-service/$AGGREGATOR_JAR"
+done
+
+echo
+echo "Median time to first successful RPC"
+for mode in default aot aot-cds; do
+    awk -v mode="$mode" '$1 == mode { print $2 }' "$WORK/results" | sort -n |
+        awk -v mode="$mode" '{ v[NR] = $1 } END { printf "%-8s %8d ms\n", mode, v[int((NR + 1) / 2)] }'
+done
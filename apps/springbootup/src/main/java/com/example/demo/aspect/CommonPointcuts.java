@@ -19,7 +19,9 @@ public class CommonPointcuts {
   // Write operations pointcuts
   @Pointcut("execution(* com.example.demo.services..*.save*(..)) || " +
       "execution(* com.example.demo.services..*.update*(..)) || " +
-      "execution(* com.example.demo.services..*.delete*(..))")
+      "execution(* com.example.demo.services..*.delete*(..)) || " +
+      "execution(* com.example.demo.services..*.deactivate*(..)) || " +
+      "execution(* com.example.demo.services..*.reassign*(..))")
   public void writeOperations() {
   }
 
@@ -17,7 +17,7 @@ public class GlobalExceptionAspect {
   private static final String RED = "\u001B[31m";
   private static final String RESET = "\u001B[0m";
 
-  @AfterThrowing(pointcut = "com.example.demo.aspects.CommonPointcuts.serviceLayer()", throwing = "error")
+  @AfterThrowing(pointcut = "com.example.demo.aspect.CommonPointcuts.serviceLayer()", throwing = "error")
   public void logException(JoinPoint joinPoint, Throwable error) {
     String className = joinPoint.getTarget().getClass().getSimpleName();
     String methodName = joinPoint.getSignature().getName();
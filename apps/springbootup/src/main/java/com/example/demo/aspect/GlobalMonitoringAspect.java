@@ -1,46 +1,68 @@
 package com.example.demo.aspect;
 
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Times every service call into {@link ServiceCallMetrics}. Only calls
+ * slower than monitoring.slow-call-threshold are logged, plus a
+ * monitoring.log-sample-rate fraction of the rest.
+ */
 @Aspect
 @Component
 @Order(1) // Highest priority
 @Slf4j
 public class GlobalMonitoringAspect {
 
-  private static final String CYAN = "\u001B[36m";
   private static final String GREEN = "\u001B[32m";
+  private static final String YELLOW = "\u001B[33m";
   private static final String RED = "\u001B[31m";
   private static final String RESET = "\u001B[0m";
 
-  @Around("com.example.demo.aspects.CommonPointcuts.serviceLayer()")
-  public Object monitorServicePerformance(ProceedingJoinPoint joinPoint) throws Throwable {
-    long startTime = System.currentTimeMillis();
-    String methodName = joinPoint.getSignature().getName();
-    String className = joinPoint.getTarget().getClass().getSimpleName();
+  private final ServiceCallMetrics metrics;
+  private final long slowCallNanos;
+  private final double logSampleRate;
 
-    try {
-      log.info("{}⇒ Executing {}.{}(){}",
-          CYAN, className, methodName, RESET);
+  public GlobalMonitoringAspect(ServiceCallMetrics metrics,
+      @Value("${monitoring.slow-call-threshold:500ms}") Duration slowCallThreshold,
+      @Value("${monitoring.log-sample-rate:0}") double logSampleRate) {
+    this.metrics = metrics;
+    this.slowCallNanos = slowCallThreshold.toNanos();
+    this.logSampleRate = logSampleRate;
+  }
 
+  @Around("com.example.demo.aspect.CommonPointcuts.serviceLayer()")
+  public Object monitorServicePerformance(ProceedingJoinPoint joinPoint) throws Throwable {
+    long startTime = System.nanoTime();
+    boolean failed = true;
+    try {
       Object result = joinPoint.proceed();
-
-      long duration = System.currentTimeMillis() - startTime;
-      log.info("{}✓ {}.{} completed in {}ms{}",
-          GREEN, className, methodName, duration, RESET);
-
+      failed = false;
       return result;
-    } catch (Throwable e) {
-      log.error("{}✗ {}.{} failed in {}ms{}",
-          RED, className, methodName,
-          (System.currentTimeMillis() - startTime), RESET);
-      throw e;
+    } finally {
+      long nanos = System.nanoTime() - startTime;
+      Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+      metrics.record(method, nanos, failed);
+      if (nanos >= slowCallNanos) {
+        log.warn("{}⏱ Slow call {}.{} {} in {}ms{}",
+            YELLOW, method.getDeclaringClass().getSimpleName(), method.getName(),
+            failed ? "failed" : "completed", nanos / 1_000_000, RESET);
+      } else if (logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate) {
+        log.info("{}✓ {}.{} {} in {}µs{}",
+            failed ? RED : GREEN, method.getDeclaringClass().getSimpleName(), method.getName(),
+            failed ? "failed" : "completed", nanos / 1_000, RESET);
+      }
     }
   }
 }
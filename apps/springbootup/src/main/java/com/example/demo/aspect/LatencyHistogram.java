@@ -0,0 +1,65 @@
+package com.example.demo.aspect;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Nanosecond latency histogram with a wait-free, allocation-free record
+ * path. Calls record into an HdrHistogram {@link Recorder}; readers (metric
+ * scrapes) drain it into a ring of interval histograms rotated every
+ * {@link #ROTATION_NANOS}, so percentiles cover roughly the last minute.
+ */
+final class LatencyHistogram {
+  private static final int SIGNIFICANT_DIGITS = 2;
+  private static final int WINDOWS = 3;
+  private static final long ROTATION_NANOS = TimeUnit.SECONDS.toNanos(20);
+
+  private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+
+  // guarded by this
+  private final Histogram[] windows = new Histogram[WINDOWS];
+  private final Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+  private Histogram interval;
+  private int current;
+  private long rotatedAt = System.nanoTime();
+
+  LatencyHistogram() {
+    for (int i = 0; i < WINDOWS; i++) {
+      windows[i] = new Histogram(SIGNIFICANT_DIGITS);
+    }
+  }
+
+  void record(long nanos) {
+    recorder.recordValue(Math.max(nanos, 0));
+  }
+
+  /**
+   * @param percentile in [0, 1]
+   */
+  synchronized double percentileNanos(double percentile) {
+    drain();
+    return merged.getTotalCount() == 0 ? 0 : merged.getValueAtPercentile(percentile * 100);
+  }
+
+  synchronized long maxNanos() {
+    drain();
+    return merged.getTotalCount() == 0 ? 0 : merged.getMaxValue();
+  }
+
+  private void drain() {
+    long now = System.nanoTime();
+    interval = recorder.getIntervalHistogram(interval);
+    windows[current].add(interval);
+    if (now - rotatedAt >= ROTATION_NANOS) {
+      current = (current + 1) % WINDOWS;
+      windows[current].reset();
+      rotatedAt = now;
+    }
+    merged.reset();
+    for (Histogram window : windows) {
+      merged.add(window);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.example.demo.aspect;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-method call counts and latencies of the advised service methods. The
+ * record path is a map lookup on the method, three {@link LongAdder}
+ * increments and a {@link LatencyHistogram} record; the Micrometer meters
+ * only read them when scraped, at /actuator/metrics. Overloads of a method
+ * share its meters:
+ *
+ * <ul>
+ * <li>service.calls{class,method}: call count and total time</li>
+ * <li>service.calls.failed{class,method}: calls that threw</li>
+ * <li>service.calls.percentile{class,method,phi}: p50/p99/p999 over the
+ * last minute</li>
+ * <li>service.calls.max{class,method}: slowest call over the last minute</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceCallMetrics {
+  private static final double[] PERCENTILES = { 0.5, 0.99, 0.999 };
+
+  private final MeterRegistry meterRegistry;
+  private final Map<Method, MethodStats> methods = new ConcurrentHashMap<>();
+  private final Map<String, MethodStats> byName = new ConcurrentHashMap<>();
+
+  public void record(Method method, long nanos, boolean failed) {
+    MethodStats stats = methods.get(method);
+    if (stats == null) {
+      stats = methods.computeIfAbsent(method, this::register);
+    }
+    stats.calls.increment();
+    stats.totalNanos.add(nanos);
+    if (failed) {
+      stats.failures.increment();
+    }
+    stats.latency.record(nanos);
+  }
+
+  private MethodStats register(Method method) {
+    String className = method.getDeclaringClass().getSimpleName();
+    String methodName = method.getName();
+    return byName.computeIfAbsent(className + "." + methodName, name -> register(className, methodName));
+  }
+
+  private MethodStats register(String className, String methodName) {
+    MethodStats stats = new MethodStats();
+    FunctionTimer.builder("service.calls", stats, s -> s.calls.sum(), s -> s.totalNanos.sum(),
+        TimeUnit.NANOSECONDS)
+        .description("Service method calls")
+        .tag("class", className)
+        .tag("method", methodName)
+        .register(meterRegistry);
+    FunctionCounter.builder("service.calls.failed", stats, s -> s.failures.sum())
+        .description("Service method calls that threw")
+        .tag("class", className)
+        .tag("method", methodName)
+        .register(meterRegistry);
+    for (double percentile : PERCENTILES) {
+      Gauge.builder("service.calls.percentile", stats, s -> s.latency.percentileNanos(percentile) / 1e9)
+          .description("Service method latency percentile over the last minute")
+          .baseUnit("seconds")
+          .tag("class", className)
+          .tag("method", methodName)
+          .tag("phi", Double.toString(percentile))
+          .register(meterRegistry);
+    }
+    TimeGauge.builder("service.calls.max", stats, TimeUnit.NANOSECONDS, s -> s.latency.maxNanos())
+        .description("Slowest service method call over the last minute")
+        .tag("class", className)
+        .tag("method", methodName)
+        .register(meterRegistry);
+    return stats;
+  }
+
+  private static final class MethodStats {
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+  }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.audit;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Renders audited arguments without calling their toString: values
+ * (numbers, booleans, enums, dates, short strings) as they are, beans as
+ * their type and id (Employee#42), containers as their type and size
+ * (ArrayList[3]). None of it loads a lazy association, and it is short
+ * enough to take on the request thread.
+ */
+final class ArgumentSnapshot {
+
+  // the audit_log.arguments column
+  private static final int MAX_LENGTH = 2000;
+  private static final int MAX_STRING_LENGTH = 64;
+
+  // getId() of a bean type, or null without one
+  private static final ClassValue<Method> ID_GETTERS = new ClassValue<>() {
+    @Override
+    protected Method computeValue(Class<?> type) {
+      Method getter = ReflectionUtils.findMethod(type, "getId");
+      if (getter == null || getter.getReturnType() == void.class) {
+        return null;
+      }
+      ReflectionUtils.makeAccessible(getter);
+      return getter;
+    }
+  };
+
+  private ArgumentSnapshot() {
+  }
+
+  static String render(Object[] arguments) {
+    StringBuilder text = new StringBuilder("[");
+    for (int i = 0; i < arguments.length && text.length() < MAX_LENGTH; i++) {
+      if (i > 0) {
+        text.append(", ");
+      }
+      append(text, arguments[i]);
+    }
+    text.append(']');
+    return text.length() > MAX_LENGTH ? text.substring(0, MAX_LENGTH) : text.toString();
+  }
+
+  private static void append(StringBuilder text, Object argument) {
+    if (argument == null) {
+      text.append("null");
+    } else if (argument instanceof CharSequence chars) {
+      text.append('"').append(chars, 0, Math.min(chars.length(), MAX_STRING_LENGTH));
+      text.append(chars.length() > MAX_STRING_LENGTH ? "...\"" : "\"");
+    } else if (argument instanceof Number || argument instanceof Boolean || argument instanceof Character
+        || argument instanceof Enum<?> || argument instanceof TemporalAccessor || argument instanceof UUID) {
+      text.append(argument);
+    } else if (argument instanceof HibernateProxy proxy) {
+      text.append(proxy.getHibernateLazyInitializer().getPersistentClass().getSimpleName())
+          .append('#').append(proxy.getHibernateLazyInitializer().getIdentifier());
+    } else if (argument instanceof Collection<?> collection) {
+      sized(text, argument, Hibernate.isInitialized(collection) ? collection.size() : -1);
+    } else if (argument instanceof Map<?, ?> map) {
+      sized(text, argument, Hibernate.isInitialized(map) ? map.size() : -1);
+    } else if (argument.getClass().isArray()) {
+      text.append(argument.getClass().getComponentType().getSimpleName())
+          .append('[').append(Array.getLength(argument)).append(']');
+    } else {
+      text.append(argument.getClass().getSimpleName());
+      Method idGetter = ID_GETTERS.get(argument.getClass());
+      if (idGetter != null) {
+        try {
+          Object id = ReflectionUtils.invokeMethod(idGetter, argument);
+          text.append('#').append(id);
+        } catch (RuntimeException ex) {
+          // the type alone will do
+        }
+      }
+    }
+  }
+
+  private static void sized(StringBuilder text, Object container, int size) {
+    text.append(container.getClass().getSimpleName()).append('[').append(size < 0 ? "?" : size).append(']');
+  }
+}
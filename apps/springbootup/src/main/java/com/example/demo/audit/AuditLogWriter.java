@@ -0,0 +1,182 @@
+package com.example.demo.audit;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Appends audit records to the audit_log table off the request thread.
+ *
+ * {@link #offer} puts the record, its arguments already reduced to a short
+ * snapshot, on a lock-free queue, bounded at
+ * audit.queue-capacity by a counter, and returns. A writer thread inserts
+ * the queue in JDBC batches of up to audit.flush-size: as soon as that many
+ * are waiting, or every audit.flush-interval otherwise. When the queue is
+ * full the new record is dropped rather than slowing the write down; drops
+ * are counted and logged by the writer. A batch that fails to insert is
+ * counted and logged, and the writer carries on with the next one. On
+ * shutdown, which comes after the web server has stopped, the writer drains
+ * what is left.
+ *
+ * Meters: audit.queue.depth, and audit.records{result=written|dropped|failed}.
+ */
+@Component
+@Slf4j
+public class AuditLogWriter implements SmartLifecycle {
+
+  private static final String INSERT = "INSERT INTO audit_log (occurred_at, operation, arguments) VALUES (?, ?, ?)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final int capacity;
+  private final int flushSize;
+  private final long flushIntervalNanos;
+  private final Queue<AuditRecord> queue = new ConcurrentLinkedQueue<>();
+  // records offered and not yet written; bounds the queue
+  private final AtomicInteger depth = new AtomicInteger();
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private volatile Thread writer;
+  private volatile boolean running;
+  private long droppedReported;
+
+  public AuditLogWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+      @Value("${audit.queue-capacity:10000}") int capacity,
+      @Value("${audit.flush-size:500}") int flushSize,
+      @Value("${audit.flush-interval:1s}") Duration flushInterval) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.capacity = capacity;
+    this.flushSize = flushSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+    Gauge.builder("audit.queue.depth", depth, AtomicInteger::get)
+        .description("Audit records waiting to be written")
+        .register(meterRegistry);
+    registerCounter(meterRegistry, "written", written);
+    registerCounter(meterRegistry, "dropped", dropped);
+    registerCounter(meterRegistry, "failed", failed);
+  }
+
+  private static void registerCounter(MeterRegistry meterRegistry, String result, LongAdder count) {
+    FunctionCounter.builder("audit.records", count, LongAdder::sum)
+        .description("Audit records by what became of them")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return false if the queue was full and the record was dropped
+   */
+  public boolean offer(AuditRecord record) {
+    int waiting = depth.incrementAndGet();
+    if (waiting > capacity) {
+      depth.decrementAndGet();
+      dropped.increment();
+      return false;
+    }
+    queue.offer(record);
+    if (waiting == flushSize) {
+      LockSupport.unpark(writer);
+    }
+    return true;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    writer = Thread.ofPlatform().name("audit-log-writer").daemon().start(this::writeLoop);
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    Thread thread = writer;
+    LockSupport.unpark(thread);
+    try {
+      thread.join(TimeUnit.SECONDS.toMillis(10));
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    // stop after the web server, so writes still in flight are audited
+    return SmartLifecycle.DEFAULT_PHASE - 4096;
+  }
+
+  private void writeLoop() {
+    List<AuditRecord> batch = new ArrayList<>(flushSize);
+    boolean draining = false;
+    while (!draining) {
+      // read before draining, so stop() is followed by one more full pass
+      draining = !running;
+      if (!draining && depth.get() < flushSize) {
+        LockSupport.parkNanos(this, flushIntervalNanos);
+      }
+      try {
+        AuditRecord record;
+        while ((record = queue.poll()) != null) {
+          batch.add(record);
+          if (batch.size() == flushSize) {
+            flush(batch);
+          }
+        }
+        if (!batch.isEmpty()) {
+          flush(batch);
+        }
+        reportDropped();
+      } catch (Throwable ex) {
+        // an Error out of the JDBC driver, say; the thread must outlive it or the queue only fills up
+        log.error("Audit log writer pass failed", ex);
+      }
+    }
+  }
+
+  private void flush(List<AuditRecord> batch) {
+    boolean stored = false;
+    try {
+      jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, record) -> {
+        statement.setTimestamp(1, new Timestamp(record.occurredAtMillis()));
+        statement.setString(2, record.operation());
+        statement.setString(3, record.arguments());
+      });
+      stored = true;
+    } catch (RuntimeException ex) {
+      log.error("Could not write {} audit records", batch.size(), ex);
+    } finally {
+      (stored ? written : failed).add(batch.size());
+      depth.addAndGet(-batch.size());
+      batch.clear();
+    }
+  }
+
+  private void reportDropped() {
+    long total = dropped.sum();
+    if (total > droppedReported) {
+      log.warn("Audit queue full: dropped {} records ({} in total)", total - droppedReported, total);
+      droppedReported = total;
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.audit;
+
+import java.lang.reflect.Method;
+
+/**
+ * One audited write, as the request thread hands it over: the operation,
+ * a compact snapshot of its arguments and the wall-clock time. The
+ * snapshot is taken when the record is made, so the queue holds short
+ * strings rather than the live arguments, which could change or hold on
+ * to a closed session before the writer gets to them.
+ */
+public record AuditRecord(long occurredAtMillis, String operation, String arguments) {
+
+  public static AuditRecord of(Method method, Object[] arguments) {
+    return new AuditRecord(System.currentTimeMillis(),
+        method.getDeclaringClass().getSimpleName() + "." + method.getName(), ArgumentSnapshot.render(arguments));
+  }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.common;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.BeanUtils;
+
+/**
+ * A mapping from one class to another, made of lambdas that LambdaMetafactory
+ * spins over the getters, setters and no-arg constructor, so a copy costs a
+ * few interface calls instead of ModelMapper's reflective matching.
+ *
+ * It covers what EntityDtoMapper's ModelMapper configuration does for plain
+ * beans: each target property is set from the source property of the same
+ * name, null values are skipped, and a bean-typed property is mapped onto a
+ * new instance of the target property's type. {@link #compile} returns null
+ * for anything else (conversions, collections, flattened names such as
+ * departmentName from department.name) so the caller can keep ModelMapper.
+ */
+final class CompiledMapping implements Function<Object, Object> {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private final Supplier<Object> constructor;
+  private final PropertyCopy[] properties;
+
+  private CompiledMapping(Supplier<Object> constructor, List<PropertyCopy> properties) {
+    this.constructor = constructor;
+    this.properties = properties.toArray(PropertyCopy[]::new);
+  }
+
+  @Override
+  public Object apply(Object source) {
+    Object target = constructor.get();
+    for (PropertyCopy property : properties) {
+      property.copy(source, target);
+    }
+    return target;
+  }
+
+  /**
+   * @param nested resolves the mapping of a bean-typed property, on first use
+   * @return the mapping, or null if it needs something only ModelMapper does
+   */
+  static CompiledMapping compile(Class<?> sourceType, Class<?> targetType,
+      BiFunction<Class<?>, Class<?>, Function<Object, Object>> nested) throws Throwable {
+    if (!isBean(sourceType) || !isBean(targetType)) {
+      return null;
+    }
+    Map<String, PropertyDescriptor> sourceProperties = new HashMap<>();
+    for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(sourceType)) {
+      if (property.getReadMethod() != null && !"class".equals(property.getName())) {
+        sourceProperties.put(property.getName(), property);
+      }
+    }
+    List<PropertyCopy> copies = new ArrayList<>();
+    for (PropertyDescriptor target : BeanUtils.getPropertyDescriptors(targetType)) {
+      if (target.getWriteMethod() == null) {
+        continue;
+      }
+      PropertyDescriptor source = sourceProperties.get(target.getName());
+      if (source == null) {
+        if (flattened(target.getName(), sourceProperties)) {
+          return null;
+        }
+        continue;
+      }
+      Class<?> from = source.getPropertyType();
+      Class<?> to = target.getPropertyType();
+      Function<Object, Object> getter = getter(source.getReadMethod());
+      BiConsumer<Object, Object> setter = setter(target.getWriteMethod());
+      if (isValue(from) && wrap(from) == wrap(to)) {
+        copies.add(new PropertyCopy(getter, setter, null, null, null));
+      } else if (isBean(from) && isBean(to)) {
+        copies.add(new PropertyCopy(getter, setter, from, to, nested));
+      } else {
+        return null;
+      }
+    }
+    return new CompiledMapping(constructor(targetType), copies);
+  }
+
+  /**
+   * Whether ModelMapper could match the target property to a nested path,
+   * departmentName to department.name say, which a same-name copy would miss.
+   */
+  private static boolean flattened(String name, Map<String, PropertyDescriptor> sourceProperties) {
+    String lowerName = name.toLowerCase(Locale.ROOT);
+    return sourceProperties.values().stream()
+        .anyMatch(source -> isBean(source.getPropertyType())
+            && lowerName.startsWith(source.getName().toLowerCase(Locale.ROOT)));
+  }
+
+  /** Primitives, enums and java.* types other than containers, copied by reference. */
+  private static boolean isValue(Class<?> type) {
+    return type.isPrimitive() || type.isEnum()
+        || (type.getName().startsWith("java.") && !type.isArray()
+            && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type));
+  }
+
+  /** Application classes that can be instantiated and mapped property by property. */
+  private static boolean isBean(Class<?> type) {
+    if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()
+        || Modifier.isAbstract(type.getModifiers()) || type.getName().startsWith("java.")) {
+      return false;
+    }
+    try {
+      return Modifier.isPublic(type.getConstructor().getModifiers());
+    } catch (NoSuchMethodException ex) {
+      return false;
+    }
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Supplier<Object> constructor(Class<?> type) throws Throwable {
+    MethodHandle handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+    return (Supplier<Object>) LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+        MethodType.methodType(Object.class), handle, MethodType.methodType(type)).getTarget().invokeExact();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> getter(Method method) throws Throwable {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    return (Function<Object, Object>) LambdaMetafactory.metafactory(LOOKUP, "apply",
+        MethodType.methodType(Function.class), MethodType.methodType(Object.class, Object.class), handle,
+        MethodType.methodType(wrap(method.getReturnType()), method.getDeclaringClass()))
+        .getTarget().invokeExact();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static BiConsumer<Object, Object> setter(Method method) throws Throwable {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    return (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(LOOKUP, "accept",
+        MethodType.methodType(BiConsumer.class), MethodType.methodType(void.class, Object.class, Object.class),
+        handle, MethodType.methodType(void.class, method.getDeclaringClass(), wrap(method.getParameterTypes()[0])))
+        .getTarget().invokeExact();
+  }
+
+  private static final class PropertyCopy {
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+    private final Class<?> sourceType;
+    private final Class<?> targetType;
+    private final BiFunction<Class<?>, Class<?>, Function<Object, Object>> resolver;
+    // resolved on first use, so mappings that refer to each other can be compiled; a race only
+    // looks the same mapping up twice
+    private Function<Object, Object> nested;
+
+    private PropertyCopy(Function<Object, Object> getter, BiConsumer<Object, Object> setter, Class<?> sourceType,
+        Class<?> targetType, BiFunction<Class<?>, Class<?>, Function<Object, Object>> resolver) {
+      this.getter = getter;
+      this.setter = setter;
+      this.sourceType = sourceType;
+      this.targetType = targetType;
+      this.resolver = resolver;
+    }
+
+    private void copy(Object source, Object target) {
+      Object value = getter.apply(source);
+      if (value == null) {
+        return;
+      }
+      if (resolver != null) {
+        if (nested == null) {
+          nested = resolver.apply(sourceType, targetType);
+        }
+        value = nested.apply(value);
+      }
+      setter.accept(target, value);
+    }
+  }
+}
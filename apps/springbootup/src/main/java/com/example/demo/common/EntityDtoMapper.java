@@ -1,17 +1,40 @@
 package com.example.demo.common;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.hibernate.proxy.HibernateProxy;
 import org.modelmapper.Conditions;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import com.example.demo.dto.DepartmentDto;
+import com.example.demo.dto.EmployeeDto;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Employee;
 
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maps entities to DTOs and back. Each (source, target) pair gets a
+ * {@link CompiledMapping}, built once and cached; the entity/DTO pairs are
+ * built here at startup. Pairs that need more than same-name property
+ * copies keep going through ModelMapper, configured as before.
+ */
 @Component
+@Slf4j
 public class EntityDtoMapper {
   private final ModelMapper modelMapper;
+  private final Map<MappingKey, Function<Object, Object>> mappings = new ConcurrentHashMap<>();
 
   public EntityDtoMapper() {
     this.modelMapper = new ModelMapper();
     configureMapper();
+    precompile(Employee.class, EmployeeDto.class);
+    precompile(Department.class, DepartmentDto.class);
   }
 
   private void configureMapper() {
@@ -20,11 +43,46 @@ public class EntityDtoMapper {
         .setPropertyCondition(Conditions.isNotNull());
   }
 
+  private void precompile(Class<?> entityClass, Class<?> dtoClass) {
+    mappingFor(entityClass, dtoClass);
+    mappingFor(dtoClass, entityClass);
+  }
+
   public <D, T> D convertToDto(T entity, Class<D> dtoClass) {
-    return modelMapper.map(entity, dtoClass);
+    return dtoClass.cast(map(entity, dtoClass));
   }
 
   public <D, T> T convertToEntity(D dto, Class<T> entityClass) {
-    return modelMapper.map(dto, entityClass);
+    return entityClass.cast(map(dto, entityClass));
+  }
+
+  private Object map(Object source, Class<?> targetType) {
+    Assert.notNull(source, "source cannot be null");
+    // an uninitialized lazy association is a subclass; map it as the entity it stands for
+    Class<?> sourceType = source instanceof HibernateProxy proxy
+        ? proxy.getHibernateLazyInitializer().getPersistentClass()
+        : source.getClass();
+    return mappingFor(sourceType, targetType).apply(source);
+  }
+
+  private Function<Object, Object> mappingFor(Class<?> sourceType, Class<?> targetType) {
+    return mappings.computeIfAbsent(new MappingKey(sourceType, targetType), this::compile);
+  }
+
+  private Function<Object, Object> compile(MappingKey key) {
+    try {
+      CompiledMapping mapping = CompiledMapping.compile(key.source(), key.target(), this::mappingFor);
+      if (mapping != null) {
+        return mapping;
+      }
+      log.debug("Mapping {} to {} through ModelMapper", key.source().getName(), key.target().getName());
+    } catch (Throwable ex) {
+      log.warn("Could not compile the mapping from {} to {}, using ModelMapper", key.source().getName(),
+          key.target().getName(), ex);
+    }
+    return source -> modelMapper.map(source, key.target());
+  }
+
+  private record MappingKey(Class<?> source, Class<?> target) {
   }
 }
@@ -0,0 +1,28 @@
+package com.example.demo.common;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs a bulk statement over a long id list a chunk at a time, so no IN
+ * list outgrows what the database takes (MySQL allows 65535 bind
+ * parameters per statement).
+ */
+public final class IdChunks {
+
+  public static final int MAX_IDS_PER_STATEMENT = 1000;
+
+  private IdChunks() {
+  }
+
+  /**
+   * @return the sum of the row counts {@code statement} returned
+   */
+  public static int sum(List<Integer> ids, ToIntFunction<List<Integer>> statement) {
+    int rows = 0;
+    for (int from = 0; from < ids.size(); from += MAX_IDS_PER_STATEMENT) {
+      rows += statement.applyAsInt(ids.subList(from, Math.min(ids.size(), from + MAX_IDS_PER_STATEMENT)));
+    }
+    return rows;
+  }
+}
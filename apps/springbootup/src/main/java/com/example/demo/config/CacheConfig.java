@@ -0,0 +1,67 @@
+package com.example.demo.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.cache.metrics.CacheMeterBinderProvider;
+import org.springframework.boot.cache.metrics.CaffeineCacheMeterBinderProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine caches for the employee and department lookups, sized and timed
+ * by cache.spec (a Caffeine spec; keep recordStats for the cache.gets hit
+ * and miss metrics on /actuator/metrics). Evictions made inside a
+ * transaction only apply once it commits. That alone doesn't stop a lookup
+ * that read the old row before the commit from caching it after the
+ * eviction, so each cache is an {@link EvictionGuardedCache}, which drops
+ * the put of any lookup that missed before the latest eviction.
+ * cache.enabled=false swaps in a no-op cache manager, every lookup going to
+ * the database.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  /** EmployeeDto by employee id */
+  public static final String EMPLOYEES = "employees";
+  /** DepartmentDto by department id */
+  public static final String DEPARTMENTS = "departments";
+  /** EmployeeSummary list by department id */
+  public static final String DEPARTMENT_EMPLOYEES = "departmentEmployees";
+
+  @Bean
+  public CacheManager cacheManager(@Value("${cache.enabled:true}") boolean enabled,
+      @Value("${cache.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String spec) {
+    if (!enabled) {
+      return new NoOpCacheManager();
+    }
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+      @Override
+      protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        return new EvictionGuardedCache(super.adaptCaffeineCache(name, cache));
+      }
+    };
+    cacheManager.setCacheSpecification(spec);
+    // fixed names, so the caches exist (and have meters) from startup
+    cacheManager.setCacheNames(List.of(EMPLOYEES, DEPARTMENTS, DEPARTMENT_EMPLOYEES));
+    cacheManager.setAllowNullValues(false);
+    return new TransactionAwareCacheManagerProxy(cacheManager);
+  }
+
+  /** The cache.gets meters of the Caffeine cache behind each guard. */
+  @Bean
+  public CacheMeterBinderProvider<Cache> evictionGuardedCacheMeterBinderProvider() {
+    CaffeineCacheMeterBinderProvider caffeine = new CaffeineCacheMeterBinderProvider();
+    return (cache, tags) -> cache instanceof EvictionGuardedCache guarded
+        && guarded.getDelegate() instanceof CaffeineCache caffeineCache
+        ? caffeine.getMeterBinder(caffeineCache, tags) : null;
+  }
+}
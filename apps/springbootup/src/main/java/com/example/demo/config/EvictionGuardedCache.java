@@ -0,0 +1,146 @@
+package com.example.demo.config;
+
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache that drops a put made by a lookup that missed before the cache
+ * was last evicted or cleared. Such a lookup may have read the row the
+ * eviction's write replaced; caching that would keep it until expiry.
+ *
+ * The check is per cache, not per key: any eviction since the miss drops
+ * the put, which costs a later miss, never a stale hit. An eviction landing
+ * between the check and the put evicts the key again afterwards. A put the
+ * calling thread didn't miss on first (a @CachePut, say) is dropped too.
+ */
+class EvictionGuardedCache implements Cache {
+
+  private record Miss(Object key, long evictions) {
+  }
+
+  private final Cache delegate;
+  private final AtomicLong evictions = new AtomicLong();
+  // the last miss of the calling thread
+  private final ThreadLocal<Miss> lastMiss = new ThreadLocal<>();
+
+  EvictionGuardedCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  Cache getDelegate() {
+    return delegate;
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return delegate.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    // read the count first: an eviction racing the lookup then drops the put
+    long seen = evictions.get();
+    ValueWrapper value = delegate.get(key);
+    if (value == null) {
+      lastMiss.set(new Miss(key, seen));
+    }
+    return value;
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    long seen = evictions.get();
+    T value = delegate.get(key, type);
+    if (value == null) {
+      lastMiss.set(new Miss(key, seen));
+    }
+    return value;
+  }
+
+  @Override
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    // Caffeine loads under the key's lock, which an eviction waits for
+    return delegate.get(key, valueLoader);
+  }
+
+  @Override
+  public CompletableFuture<?> retrieve(Object key) {
+    return delegate.retrieve(key);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+    return delegate.retrieve(key, valueLoader);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    Miss miss = takeMiss(key);
+    if (miss != null) {
+      delegate.put(key, value);
+      undoIfEvicted(key, miss);
+    }
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    Miss miss = takeMiss(key);
+    if (miss == null) {
+      return delegate.get(key);
+    }
+    ValueWrapper existing = delegate.putIfAbsent(key, value);
+    undoIfEvicted(key, miss);
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    evictions.incrementAndGet();
+    delegate.evict(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    evictions.incrementAndGet();
+    return delegate.evictIfPresent(key);
+  }
+
+  @Override
+  public void clear() {
+    evictions.incrementAndGet();
+    delegate.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    evictions.incrementAndGet();
+    return delegate.invalidate();
+  }
+
+  // the calling thread's miss on key, or null if there was none or an eviction came after it
+  private Miss takeMiss(Object key) {
+    Miss miss = lastMiss.get();
+    lastMiss.remove();
+    if (miss == null || !Objects.equals(miss.key(), key) || miss.evictions() != evictions.get()) {
+      return null;
+    }
+    return miss;
+  }
+
+  // an eviction between the check and the put may have run before it
+  private void undoIfEvicted(Object key, Miss miss) {
+    if (miss.evictions() != evictions.get()) {
+      delegate.evict(key);
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package com.example.demo.controllers;
 
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -10,13 +12,24 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.dto.BulkResult;
 import com.example.demo.dto.DepartmentDto;
+import com.example.demo.dto.DepartmentSelection;
+import com.example.demo.dto.DepartmentSummary;
+import com.example.demo.dto.ImportResult;
+import com.example.demo.dto.KeysetPage;
 import com.example.demo.entity.Department;
+import com.example.demo.services.bulk.BulkExportService;
+import com.example.demo.services.bulk.BulkImportService;
 import com.example.demo.services.department.DepartmentService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 @RestController
@@ -24,9 +37,14 @@ import jakarta.validation.Valid;
 public class DepartmentController {
 
   private DepartmentService departmentService;
+  private BulkImportService bulkImportService;
+  private BulkExportService bulkExportService;
 
-  public DepartmentController(DepartmentService theDepartmentService) {
+  public DepartmentController(DepartmentService theDepartmentService, BulkImportService theBulkImportService,
+      BulkExportService theBulkExportService) {
     departmentService = theDepartmentService;
+    bulkImportService = theBulkImportService;
+    bulkExportService = theBulkExportService;
   }
 
   @GetMapping("/list")
@@ -34,12 +52,49 @@ public class DepartmentController {
     return departmentService.getAllDepartments();
   }
 
+  /**
+   * Departments in id order, one page at a time: start without
+   * {@code after}, then pass the previous page's {@code next}.
+   */
+  @GetMapping("/page")
+  public KeysetPage<DepartmentSummary> pageDepartments(
+      @RequestParam(name = "after", defaultValue = "0") int after,
+      @RequestParam(name = "size", defaultValue = "100") int size) {
+    return departmentService.listDepartments(after, size);
+  }
+
   @GetMapping("/get/{id}")
   public ResponseEntity<DepartmentDto> getDepartment(@PathVariable("id") int id) {
     DepartmentDto department = departmentService.getDepartment(id);
     return ResponseEntity.ok(department);
   }
 
+  /**
+   * Inserts departments from an NDJSON body, or CSV with a header row. Invalid
+   * rows are skipped and reported in the result; the others are imported.
+   */
+  @PostMapping(path = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkImportService.TEXT_CSV_VALUE })
+  public ImportResult importDepartments(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      InputStream body) {
+    return bulkImportService.importDepartments(body, contentType);
+  }
+
+  /**
+   * Every department as NDJSON, or as CSV with a header row when the Accept
+   * header asks for text/csv. Rows are written as they are read, so the
+   * response starts at once and memory use doesn't depend on the table size.
+   */
+  @GetMapping(path = "/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkImportService.TEXT_CSV_VALUE })
+  public ResponseEntity<StreamingResponseBody> exportDepartments(
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept, HttpServletRequest request) {
+    MediaType format = BulkExportService.format(accept);
+    bulkExportService.allowExportTime(request);
+    return ResponseEntity
+        .ok()
+        .contentType(format)
+        .body(out -> bulkExportService.exportDepartments(out, format));
+  }
+
   @PostMapping("/save")
   public ResponseEntity<Department> saveDepartment(@Valid @RequestBody Department theDepartment) {
     if (theDepartment.getDepartmentCode().length() > 10) {
@@ -54,33 +109,36 @@ public class DepartmentController {
 
   @DeleteMapping("/delete/{id}")
   public ResponseEntity<String> delete(@PathVariable("id") int id) {
-    Department department = departmentService.findById(id);
-
-    // Check if department exists before attempting to delete
-    if (department == null) {
+    if (!departmentService.deleteById(id)) {
       return ResponseEntity
           .status(HttpStatus.NOT_FOUND)
           .body("Department with ID " + id + " not found");
     }
+    return ResponseEntity
+        .ok()
+        .body("Department with ID " + id + " deleted successfully");
+  }
 
-    // Perform deletion
-    departmentService.deleteById(id);
-
-    // Verify deletion
-    if (departmentService.findById(id) == null) {
+  /**
+   * Marks departments inactive in bulk: those with the given ids,
+   * {@code {"ids": [1, 2]}}, or those at a location,
+   * {@code {"location": "Floor 3"}}.
+   */
+  @PostMapping("/deactivate")
+  public ResponseEntity<BulkResult> deactivate(@RequestBody DepartmentSelection selection) {
+    if (!selection.isValid()) {
       return ResponseEntity
-          .ok()
-          .body("Department with ID " + id + " deleted successfully");
-    } else {
-      return ResponseEntity
-          .status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body("Failed to delete department with ID " + id);
+          .status(HttpStatus.BAD_REQUEST)
+          .body(null);
     }
+    return ResponseEntity.ok(BulkResult.timed(() -> selection.ids() != null
+        ? departmentService.deactivateDepartments(selection.ids())
+        : departmentService.deactivateDepartmentsAt(selection.location())));
   }
 
   @DeleteMapping("/deleteAll")
   public ResponseEntity<String> deleteAll() {
-    departmentService.deleteAll();
-    return ResponseEntity.ok("All departments deleted successfully");
+    int deleted = departmentService.deleteAll();
+    return ResponseEntity.ok("All " + deleted + " departments deleted successfully");
   }
 }
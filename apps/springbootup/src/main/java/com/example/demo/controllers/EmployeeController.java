@@ -1,29 +1,49 @@
 package com.example.demo.controllers;
 
+import java.io.InputStream;
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.dto.BulkResult;
 import com.example.demo.dto.EmployeeDto;
+import com.example.demo.dto.EmployeeReassignment;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.ImportResult;
+import com.example.demo.dto.KeysetPage;
 import com.example.demo.entity.Employee;
+import com.example.demo.services.bulk.BulkExportService;
+import com.example.demo.services.bulk.BulkImportService;
 import com.example.demo.services.employee.EmployeeService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping(path = "/employees", produces = MediaType.APPLICATION_JSON_VALUE)
 public class EmployeeController {
 
   private EmployeeService employeeService;
+  private BulkImportService bulkImportService;
+  private BulkExportService bulkExportService;
 
-  public EmployeeController(EmployeeService theEmployeeService) {
+  public EmployeeController(EmployeeService theEmployeeService, BulkImportService theBulkImportService,
+      BulkExportService theBulkExportService) {
     employeeService = theEmployeeService;
+    bulkImportService = theBulkImportService;
+    bulkExportService = theBulkExportService;
   }
 
   @GetMapping("/list")
@@ -31,12 +51,96 @@ public class EmployeeController {
     return employeeService.findAll();
   }
 
+  /**
+   * Employees in id order, one page at a time: start without {@code after},
+   * then pass the previous page's {@code next}.
+   */
+  @GetMapping("/page")
+  public KeysetPage<EmployeeSummary> pageEmployees(
+      @RequestParam(name = "after", defaultValue = "0") int after,
+      @RequestParam(name = "size", defaultValue = "100") int size) {
+    return employeeService.listEmployees(after, size);
+  }
+
+  /**
+   * Employees with a word in their first name, last name or email starting
+   * with each word of {@code q}, best matches first.
+   */
+  @GetMapping("/search")
+  public ResponseEntity<List<EmployeeSummary>> searchEmployees(@RequestParam("q") String q,
+      @RequestParam(name = "limit", defaultValue = "10") int limit) {
+    if (q.isBlank()) {
+      return ResponseEntity
+          .status(HttpStatus.BAD_REQUEST)
+          .body(null);
+    }
+    return ResponseEntity.ok(employeeService.searchEmployees(q, limit));
+  }
+
+  @GetMapping("/department/{departmentId}")
+  public List<EmployeeSummary> listDepartmentEmployees(@PathVariable("departmentId") int departmentId) {
+    return employeeService.getEmployeesInDepartment(departmentId);
+  }
+
+  /**
+   * Deletes every employee of the department in bulk. Departments they
+   * managed are left without a manager.
+   */
+  @DeleteMapping("/department/{departmentId}")
+  public BulkResult deleteDepartmentEmployees(@PathVariable("departmentId") int departmentId) {
+    return BulkResult.timed(() -> employeeService.deleteEmployeesInDepartment(departmentId));
+  }
+
+  /**
+   * Moves employees to another department in bulk: every employee of one
+   * department, {@code {"fromDepartmentId": 1, "toDepartmentId": 2}}, or
+   * the listed ones, {@code {"employeeIds": [1, 2], "toDepartmentId": 2}}.
+   * Without toDepartmentId they are taken out of any department.
+   */
+  @PostMapping("/reassign")
+  public ResponseEntity<BulkResult> reassign(@RequestBody EmployeeReassignment reassignment) {
+    if (!reassignment.isValid()) {
+      return ResponseEntity
+          .status(HttpStatus.BAD_REQUEST)
+          .body(null);
+    }
+    return ResponseEntity.ok(BulkResult.timed(() -> reassignment.employeeIds() != null
+        ? employeeService.reassignEmployees(reassignment.employeeIds(), reassignment.toDepartmentId())
+        : employeeService.reassignDepartment(reassignment.fromDepartmentId(), reassignment.toDepartmentId())));
+  }
+
   @GetMapping("/get/{id}")
   public ResponseEntity<EmployeeDto> getEmployee(@PathVariable("id") int theId) {
     EmployeeDto savedEmployee = employeeService.getEmployee(theId);
     return ResponseEntity.ok(savedEmployee);
   }
 
+  /**
+   * Inserts employees from an NDJSON body, or CSV with a header row. Invalid
+   * rows are skipped and reported in the result; the others are imported.
+   */
+  @PostMapping(path = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, BulkImportService.TEXT_CSV_VALUE })
+  public ImportResult importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      InputStream body) {
+    return bulkImportService.importEmployees(body, contentType);
+  }
+
+  /**
+   * Every employee as NDJSON, or as CSV with a header row when the Accept
+   * header asks for text/csv. Rows are written as they are read, so the
+   * response starts at once and memory use doesn't depend on the table size.
+   */
+  @GetMapping(path = "/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, BulkImportService.TEXT_CSV_VALUE })
+  public ResponseEntity<StreamingResponseBody> exportEmployees(
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept, HttpServletRequest request) {
+    MediaType format = BulkExportService.format(accept);
+    bulkExportService.allowExportTime(request);
+    return ResponseEntity
+        .ok()
+        .contentType(format)
+        .body(out -> bulkExportService.exportEmployees(out, format));
+  }
+
   @PostMapping("/save")
   public ResponseEntity<Employee> saveEmployee(@RequestBody Employee theEmployee) {
     Employee savedEmployee = employeeService.save(theEmployee);
@@ -45,27 +149,13 @@ public class EmployeeController {
 
   @GetMapping("/delete/{id}")
   public ResponseEntity<String> delete(@PathVariable("id") int theId) {
-    Employee employee = employeeService.findById(theId);
-
-    // Check if employee exists before attempting to delete
-    if (employee == null) {
+    if (!employeeService.deleteById(theId)) {
       return ResponseEntity
           .status(HttpStatus.NOT_FOUND)
           .body("Employee with ID " + theId + " not found");
     }
-
-    // Perform deletion
-    employeeService.deleteById(theId);
-
-    // Verify deletion
-    if (employeeService.findById(theId) == null) {
-      return ResponseEntity
-          .ok()
-          .body("Employee with ID " + theId + " deleted successfully");
-    } else {
-      return ResponseEntity
-          .status(HttpStatus.INTERNAL_SERVER_ERROR)
-          .body("Failed to delete employee with ID " + theId);
-    }
+    return ResponseEntity
+        .ok()
+        .body("Employee with ID " + theId + " deleted successfully");
   }
 }
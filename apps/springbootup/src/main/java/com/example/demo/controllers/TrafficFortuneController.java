@@ -0,0 +1,36 @@
+package com.example.demo.controllers;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.services.trafficfortune.TrafficFortuneService;
+
+@RestController
+@RequestMapping(path = "/fortune", produces = MediaType.TEXT_PLAIN_VALUE)
+public class TrafficFortuneController {
+
+  private TrafficFortuneService trafficFortuneService;
+
+  public TrafficFortuneController(TrafficFortuneService theTrafficFortuneService) {
+    trafficFortuneService = theTrafficFortuneService;
+  }
+
+  /** Holds a request thread for the whole upstream call. */
+  @GetMapping
+  public String getFortune() {
+    return trafficFortuneService.getFortune();
+  }
+
+  /**
+   * Releases the request thread while the fortune is fetched, and answers
+   * from the cache once there is one.
+   */
+  @GetMapping("/async")
+  public CompletableFuture<String> getFortuneAsync() {
+    return trafficFortuneService.getFortuneAsync();
+  }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Outcome of a set-based update or delete: the rows it changed and how long
+ * it took.
+ */
+public record BulkResult(int rows, long millis) {
+
+  /** Runs {@code operation}, which returns the rows it changed, and times it. */
+  public static BulkResult timed(IntSupplier operation) {
+    long startedAt = System.nanoTime();
+    int rows = operation.getAsInt();
+    return new BulkResult(rows, (System.nanoTime() - startedAt) / 1_000_000);
+  }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Department;
+
+/**
+ * One department of a bulk import, as an NDJSON object or a CSV row with
+ * these column names. Departments are active unless {@code active} is
+ * false; managerId is optional.
+ */
+public record DepartmentImportRow(String departmentCode, String departmentName, String location, Integer managerId,
+    Boolean active) {
+
+  public boolean isActive() {
+    return active == null || active;
+  }
+
+  /** The department to validate the row against. */
+  public Department toEntity() {
+    return Department.builder()
+        .departmentCode(departmentCode)
+        .departmentName(departmentName)
+        .location(location)
+        .active(isActive())
+        .build();
+  }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * The departments a bulk operation applies to: either those with the given
+ * ids or those at the given location.
+ */
+public record DepartmentSelection(List<Integer> ids, String location) {
+
+  /** Exactly one of ids and location is given. */
+  public boolean isValid() {
+    return (ids == null) != (location == null);
+  }
+}
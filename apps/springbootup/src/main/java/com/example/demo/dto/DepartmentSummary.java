@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+/**
+ * Read-only department row for listings, filled by a JPQL constructor
+ * expression together with its manager; the manager fields are null for a
+ * department without one.
+ */
+public record DepartmentSummary(
+    int id,
+    String departmentCode,
+    String departmentName,
+    String location,
+    boolean active,
+    Integer managerId,
+    String managerFirstName,
+    String managerLastName) {
+}
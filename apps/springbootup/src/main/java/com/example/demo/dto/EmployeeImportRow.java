@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Employee;
+
+/**
+ * One employee of a bulk import, as an NDJSON object or a CSV row with
+ * these column names. No departmentId leaves the employee without one.
+ */
+public record EmployeeImportRow(String firstName, String lastName, String email, Integer departmentId) {
+
+  /** The employee to validate the row against. */
+  public Employee toEntity() {
+    return Employee.builder()
+        .firstName(firstName)
+        .lastName(lastName)
+        .email(email)
+        .build();
+  }
+}
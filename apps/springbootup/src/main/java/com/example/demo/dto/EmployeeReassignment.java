@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Moves either every employee of {@code fromDepartmentId} or the employees
+ * with the given ids to {@code toDepartmentId}; no toDepartmentId takes
+ * them out of any department.
+ */
+public record EmployeeReassignment(Integer fromDepartmentId, List<Integer> employeeIds, Integer toDepartmentId) {
+
+  /** Exactly one of fromDepartmentId and employeeIds is given. */
+  public boolean isValid() {
+    return (fromDepartmentId == null) != (employeeIds == null);
+  }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+/**
+ * Read-only employee row for listings, filled by a JPQL constructor
+ * expression together with its department; the department fields are null
+ * for an employee without one.
+ */
+public record EmployeeSummary(
+    int id,
+    String firstName,
+    String lastName,
+    String email,
+    Integer departmentId,
+    String departmentCode,
+    String departmentName) {
+}
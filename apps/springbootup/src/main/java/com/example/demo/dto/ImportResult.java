@@ -0,0 +1,19 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: rows read, imported and rejected, how long it
+ * took, and why rows were rejected. {@code errors} holds the first rejected
+ * rows only; there are more when it is shorter than {@code failed}.
+ */
+public record ImportResult(long rows, long imported, long failed, long millis, long rowsPerSecond,
+    List<RowError> errors) {
+
+  /**
+   * @param line line of the body the row starts on, from 1 (a CSV header is
+   *             line 1)
+   */
+  public record RowError(long line, String message) {
+  }
+}
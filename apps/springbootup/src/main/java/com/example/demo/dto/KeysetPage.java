@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code next} back as
+ * {@code after} to get the following page; it is null on the last page.
+ */
+public record KeysetPage<T>(List<T> items, Integer next) {
+
+  public static <T> KeysetPage<T> of(List<T> items, int size, ToIntFunction<T> id) {
+    Integer next = items.size() < size ? null : id.applyAsInt(items.get(items.size() - 1));
+    return new KeysetPage<>(items, next);
+  }
+}
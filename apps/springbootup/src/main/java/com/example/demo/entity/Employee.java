@@ -9,6 +9,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -26,12 +28,18 @@ public class Employee {
   @Column(name = "ID")
   private int id;
 
+  @NotBlank(message = "First name is required")
+  @Size(max = 255, message = "First name must not exceed 255 characters")
   @Column(name = "first_name")
   private String firstName;
 
+  @NotBlank(message = "Last name is required")
+  @Size(max = 255, message = "Last name must not exceed 255 characters")
   @Column(name = "last_name")
   private String lastName;
 
+  @NotBlank(message = "Email is required")
+  @Size(max = 255, message = "Email must not exceed 255 characters")
   @Column(name = "email")
   private String email;
 
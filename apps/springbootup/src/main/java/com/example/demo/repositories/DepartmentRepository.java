@@ -1,11 +1,103 @@
 package com.example.demo.repositories;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.DepartmentSummary;
 import com.example.demo.entity.Department;
 
-import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface DepartmentRepository extends JpaRepository<Department, Integer> {
+
+  /**
+   * Departments with an id above {@code after}, in id order, with their
+   * manager in the same query.
+   */
+  @Query("""
+      select new com.example.demo.dto.DepartmentSummary(
+          d.id, d.departmentCode, d.departmentName, d.location, d.active, m.id, m.firstName, m.lastName)
+      from Department d left join d.manager m
+      where d.id > :after
+      order by d.id""")
+  List<DepartmentSummary> findSummariesAfter(@Param("after") int after, Limit limit);
+
+  /**
+   * Every department, in id order, with its manager, fetched from the
+   * database 1000 rows at a time. The stream must be read and closed
+   * within a transaction.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("""
+      select new com.example.demo.dto.DepartmentSummary(
+          d.id, d.departmentCode, d.departmentName, d.location, d.active, m.id, m.firstName, m.lastName)
+      from Department d left join d.manager m
+      order by d.id""")
+  Stream<DepartmentSummary> streamAllSummaries();
+
+  /**
+   * Marks the active departments among {@code ids} inactive, in one
+   * statement.
+   *
+   * @return how many were active
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Department d set d.active = false, d.modifiedDate = :now
+      where d.id in :ids and d.active = true""")
+  int deactivateByIdIn(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now);
+
+  /**
+   * Marks the active departments at {@code location} inactive, in one
+   * statement.
+   *
+   * @return how many were active
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Department d set d.active = false, d.modifiedDate = :now
+      where d.location = :location and d.active = true""")
+  int deactivateByLocation(@Param("location") String location, @Param("now") LocalDateTime now);
+
+  /**
+   * Leaves the departments managed by employee {@code employeeId} without a
+   * manager, so the employee can be deleted.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Department d set d.manager = null where d.manager.id = :employeeId")
+  int clearManager(@Param("employeeId") int employeeId);
+
+  /**
+   * Leaves the departments managed by an employee of department
+   * {@code departmentId} without a manager, so those employees can be
+   * deleted.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("""
+      update Department d set d.manager = null
+      where d.manager.id in (select e.id from Employee e where e.department.id = :departmentId)""")
+  int clearManagersFromDepartment(@Param("departmentId") int departmentId);
+
+  /**
+   * Deletes every department in one statement. Employees must have been
+   * taken out of them first. Plain SQL: the MySQL dialect renders JPQL
+   * deletes as {@code delete d from department d}, which H2 rejects.
+   *
+   * @return how many were deleted
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "DELETE FROM department", nativeQuery = true)
+  int deleteAllInBulk();
 }
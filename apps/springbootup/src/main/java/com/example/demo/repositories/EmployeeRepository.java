@@ -1,10 +1,110 @@
 package com.example.demo.repositories;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.entity.Department;
 import com.example.demo.entity.Employee;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+
+  /**
+   * Employees with an id above {@code after}, in id order, with their
+   * department in the same query. Seeking past the last id seen reads only
+   * the rows returned, however deep the page.
+   */
+  @Query("""
+      select new com.example.demo.dto.EmployeeSummary(
+          e.id, e.firstName, e.lastName, e.email, d.id, d.departmentCode, d.departmentName)
+      from Employee e left join e.department d
+      where e.id > :after
+      order by e.id""")
+  List<EmployeeSummary> findSummariesAfter(@Param("after") int after, Limit limit);
+
+  /**
+   * Every employee, in id order, with their department, fetched from the
+   * database 1000 rows at a time. The stream must be read and closed
+   * within a transaction.
+   */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+  @Query("""
+      select new com.example.demo.dto.EmployeeSummary(
+          e.id, e.firstName, e.lastName, e.email, d.id, d.departmentCode, d.departmentName)
+      from Employee e left join e.department d
+      order by e.id""")
+  Stream<EmployeeSummary> streamAllSummaries();
+
+  /**
+   * The employees of one department, in id order, with the department in
+   * the same query.
+   */
+  @Query("""
+      select new com.example.demo.dto.EmployeeSummary(
+          e.id, e.firstName, e.lastName, e.email, d.id, d.departmentCode, d.departmentName)
+      from Employee e join e.department d
+      where d.id = :departmentId
+      order by e.id""")
+  List<EmployeeSummary> findSummariesByDepartment(@Param("departmentId") int departmentId);
+
+  /**
+   * The employees with the given ids, with their department, in id order.
+   */
+  @Query("""
+      select new com.example.demo.dto.EmployeeSummary(
+          e.id, e.firstName, e.lastName, e.email, d.id, d.departmentCode, d.departmentName)
+      from Employee e left join e.department d
+      where e.id in :ids
+      order by e.id""")
+  List<EmployeeSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+  @Query("select e.id from Employee e where e.department.id = :departmentId")
+  List<Integer> findIdsByDepartment(@Param("departmentId") int departmentId);
+
+  /**
+   * Moves the employees of department {@code fromDepartmentId} to
+   * {@code to}, or out of any department if it is null, in one statement.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Employee e set e.department = :to where e.department.id = :fromDepartmentId")
+  int reassignDepartment(@Param("fromDepartmentId") int fromDepartmentId, @Param("to") Department to);
+
+  /**
+   * Moves the employees with the given ids to {@code to}, or out of any
+   * department if it is null, in one statement.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Employee e set e.department = :to where e.id in :ids")
+  int reassignByIdIn(@Param("ids") Collection<Integer> ids, @Param("to") Department to);
+
+  /**
+   * Takes every employee out of their department, so departments can be
+   * deleted.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query("update Employee e set e.department = null where e.department is not null")
+  int clearAllDepartments();
+
+  /**
+   * Deletes the employees of department {@code departmentId} in one
+   * statement. Departments they manage must have been given up first.
+   * Plain SQL for the same reason as
+   * {@link DepartmentRepository#deleteAllInBulk()}.
+   */
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(value = "DELETE FROM employee WHERE department_id = :departmentId", nativeQuery = true)
+  int deleteByDepartment(@Param("departmentId") int departmentId);
 }
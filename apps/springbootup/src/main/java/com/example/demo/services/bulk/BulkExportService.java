@@ -0,0 +1,139 @@
+package com.example.demo.services.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import com.example.demo.dto.DepartmentSummary;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.repositories.DepartmentRepository;
+import com.example.demo.repositories.EmployeeRepository;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.csv.CsvMapper;
+
+/**
+ * Writes all employees or departments as NDJSON or CSV, one row at a time.
+ *
+ * Rows come from a streamed query, fetched 1000 at a time, and each is
+ * written to the output as soon as it is read, so memory use doesn't grow
+ * with the table. The query selects summary records rather than entities,
+ * so nothing accumulates in the persistence context while it runs. The
+ * whole export reads in one read-only transaction, which gives a
+ * consistent snapshot where the database supports it.
+ *
+ * Exports are written as async requests, and a large one outlasts the
+ * global spring.mvc.async.request-timeout, so each export request gets
+ * exports.timeout instead.
+ */
+@Service
+@Slf4j
+public class BulkExportService {
+
+  private static final MediaType TEXT_CSV_UTF8 = new MediaType(BulkImportService.TEXT_CSV, StandardCharsets.UTF_8);
+
+  private final EmployeeRepository employeeRepository;
+  private final DepartmentRepository departmentRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final JsonMapper jsonMapper;
+  private final CsvMapper csvMapper = CsvMapper.builder().build();
+  private final Duration timeout;
+
+  public BulkExportService(EmployeeRepository employeeRepository, DepartmentRepository departmentRepository,
+      PlatformTransactionManager transactionManager, JsonMapper jsonMapper,
+      @Value("${exports.timeout:1h}") Duration timeout) {
+    this.employeeRepository = employeeRepository;
+    this.departmentRepository = departmentRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+    this.jsonMapper = jsonMapper;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Gives the export about to be written on {@code request} exports.timeout
+   * to finish, in place of the global async request timeout. Call it from
+   * the handler method, before it returns the StreamingResponseBody.
+   */
+  public void allowExportTime(HttpServletRequest request) {
+    WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(timeout.toMillis());
+  }
+
+  /**
+   * The format an Accept header asks for: CSV when it names text/csv,
+   * NDJSON otherwise.
+   */
+  public static MediaType format(String accept) {
+    boolean csv = accept != null && MediaType.parseMediaTypes(accept).stream()
+        .anyMatch(BulkImportService.TEXT_CSV::equalsTypeAndSubtype);
+    return csv ? TEXT_CSV_UTF8 : MediaType.APPLICATION_NDJSON;
+  }
+
+  /**
+   * @return the number of employees written
+   */
+  public long exportEmployees(OutputStream out, MediaType format) {
+    return run("employees", EmployeeSummary.class, employeeRepository::streamAllSummaries, out, format);
+  }
+
+  /**
+   * @return the number of departments written
+   */
+  public long exportDepartments(OutputStream out, MediaType format) {
+    return run("departments", DepartmentSummary.class, departmentRepository::streamAllSummaries, out, format);
+  }
+
+  private <T> long run(String name, Class<T> rowType, Supplier<Stream<T>> query, OutputStream out,
+      MediaType format) {
+    long startedAt = System.nanoTime();
+    boolean csv = BulkImportService.TEXT_CSV.isCompatibleWith(format);
+    long rows = transactionTemplate.execute(status -> {
+      long written = 0;
+      try (Stream<T> stream = query.get();
+          SequenceWriter writer = writer(rowType, csv).writeValues(out)) {
+        for (Iterator<T> it = stream.iterator(); it.hasNext();) {
+          writer.write(it.next());
+          written++;
+        }
+      }
+      return written;
+    });
+    if (!csv && rows > 0) {
+      // the separator only goes between rows; end the last line too
+      try {
+        out.write('\n');
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+    long millis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+    log.info("Exported {} {} in {} ms ({} rows/s)", rows, name, millis, rows * 1000 / millis);
+    return rows;
+  }
+
+  /** Leaves the output open; the caller owns it. */
+  private ObjectWriter writer(Class<?> rowType, boolean csv) {
+    ObjectWriter writer = csv
+        ? csvMapper.writerFor(rowType).with(csvMapper.schemaFor(rowType).withHeader())
+        : jsonMapper.writerFor(rowType).withRootValueSeparator("\n");
+    return writer.without(StreamWriteFeature.AUTO_CLOSE_TARGET);
+  }
+}
@@ -0,0 +1,282 @@
+package com.example.demo.services.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.dto.DepartmentImportRow;
+import com.example.demo.dto.EmployeeImportRow;
+import com.example.demo.dto.ImportResult;
+import com.example.demo.services.search.EmployeeSearchIndex;
+
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.TokenStreamLocation;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.csv.CsvMapper;
+import tools.jackson.dataformat.csv.CsvReadFeature;
+import tools.jackson.dataformat.csv.CsvSchema;
+
+/**
+ * Loads employees and departments from NDJSON or CSV request bodies.
+ *
+ * The body is parsed one row at a time and inserted with JdbcTemplate in
+ * batches of imports.batch-size, each batch in its own transaction, so
+ * memory use doesn't grow with the body. Each row is first checked against
+ * the entity's validation constraints. When the database refuses a batch,
+ * its rows are inserted one by one to find the ones at fault. Rejected rows
+ * are reported (the first imports.max-reported-errors of them) and the rest
+ * are imported.
+ *
+ * Ids come from the identity columns. Hibernate can't batch IDENTITY
+ * inserts because it needs each id back, but a JDBC batch doesn't.
+ */
+@Service
+@Slf4j
+public class BulkImportService {
+
+  public static final String TEXT_CSV_VALUE = "text/csv";
+  public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+  private static final Table<EmployeeImportRow> EMPLOYEES = new Table<>("employees", EmployeeImportRow.class,
+      EmployeeImportRow::toEntity,
+      "INSERT INTO employee (first_name, last_name, email, department_id) VALUES (?, ?, ?, ?)",
+      (statement, row) -> {
+        statement.setString(1, row.firstName());
+        statement.setString(2, row.lastName());
+        statement.setString(3, row.email());
+        statement.setObject(4, row.departmentId(), Types.INTEGER);
+      });
+
+  private static final Table<DepartmentImportRow> DEPARTMENTS = new Table<>("departments", DepartmentImportRow.class,
+      DepartmentImportRow::toEntity,
+      "INSERT INTO department (department_code, department_name, location, manager_id, active, created_date)"
+          + " VALUES (?, ?, ?, ?, ?, CURRENT_TIMESTAMP)",
+      (statement, row) -> {
+        statement.setString(1, row.departmentCode());
+        statement.setString(2, row.departmentName());
+        statement.setString(3, row.location());
+        statement.setObject(4, row.managerId(), Types.INTEGER);
+        statement.setBoolean(5, row.isActive());
+      });
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
+  private final EmployeeSearchIndex employeeSearchIndex;
+  private final JsonMapper jsonMapper;
+  private final CsvMapper csvMapper = CsvMapper.builder()
+      .enable(CsvReadFeature.EMPTY_STRING_AS_NULL)
+      .build();
+  private final int batchSize;
+  private final int maxReportedErrors;
+
+  public BulkImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+      Validator validator, EmployeeSearchIndex employeeSearchIndex, JsonMapper jsonMapper,
+      @Value("${imports.batch-size:500}") int batchSize,
+      @Value("${imports.max-reported-errors:1000}") int maxReportedErrors) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.validator = validator;
+    this.employeeSearchIndex = employeeSearchIndex;
+    this.jsonMapper = jsonMapper;
+    this.batchSize = batchSize;
+    this.maxReportedErrors = maxReportedErrors;
+  }
+
+  @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, allEntries = true)
+  public ImportResult importEmployees(InputStream body, MediaType format) {
+    // every id the import is given is above this one
+    int lastIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM employee", Integer.class);
+    try {
+      return run(EMPLOYEES, body, format);
+    } finally {
+      // the rows went in without EmployeeService
+      employeeSearchIndex.catchUp(lastIdBefore);
+    }
+  }
+
+  public ImportResult importDepartments(InputStream body, MediaType format) {
+    return run(DEPARTMENTS, body, format);
+  }
+
+  private <R> ImportResult run(Table<R> table, InputStream body, MediaType format) {
+    long startedAt = System.nanoTime();
+    Import<R> load = new Import<>(table);
+    Charset charset = format.getCharset() != null ? format.getCharset() : StandardCharsets.UTF_8;
+    try (Reader reader = new InputStreamReader(body, charset)) {
+      if (TEXT_CSV.isCompatibleWith(format)) {
+        readCsv(reader, table, load);
+      } else {
+        readNdjson(reader, table, load);
+      }
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } finally {
+      load.flush();
+    }
+    long millis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+    long rowsPerSecond = load.rows * 1000 / millis;
+    log.info("Imported {} of {} {} in {} ms ({} rows/s)", load.imported, load.rows, table.name(), millis,
+        rowsPerSecond);
+    load.errors.sort(Comparator.comparingLong(ImportResult.RowError::line));
+    return new ImportResult(load.rows, load.imported, load.failed, millis, rowsPerSecond, load.errors);
+  }
+
+  private <R> void readNdjson(Reader reader, Table<R> table, Import<R> load) throws IOException {
+    ObjectReader rowReader = jsonMapper.readerFor(table.rowType());
+    BufferedReader lines = new BufferedReader(reader);
+    long lineNumber = 0;
+    String line;
+    while ((line = lines.readLine()) != null) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      R row;
+      try {
+        row = rowReader.readValue(line);
+      } catch (JacksonException ex) {
+        load.reject(lineNumber, ex.getOriginalMessage());
+        continue;
+      }
+      if (row == null) {
+        load.reject(lineNumber, "Not a JSON object");
+      } else {
+        load.accept(lineNumber, row);
+      }
+    }
+  }
+
+  private <R> void readCsv(Reader reader, Table<R> table, Import<R> load) {
+    ObjectReader rowReader = csvMapper.readerFor(table.rowType()).with(CsvSchema.emptySchema().withHeader());
+    try (MappingIterator<R> rows = rowReader.readValues(reader)) {
+      long failedAt = -1;
+      while (true) {
+        try {
+          if (!rows.hasNextValue()) {
+            return;
+          }
+          load.accept(rows.currentLocation().getLineNr(), rows.nextValue());
+        } catch (JacksonException ex) {
+          // the parser carries on from the next line, so a bad row can fail twice; it counts once
+          TokenStreamLocation location = rows.currentLocation();
+          load.reject(location.getLineNr(), ex.getOriginalMessage());
+          if (location.getCharOffset() == failedAt) {
+            return;
+          }
+          failedAt = location.getCharOffset();
+        }
+      }
+    }
+  }
+
+  /** How rows of one type are validated and inserted. */
+  private record Table<R>(String name, Class<R> rowType, Function<R, Object> toEntity, String insertSql,
+      ParameterizedPreparedStatementSetter<R> setter) {
+  }
+
+  private record PendingRow<R>(long line, R row) {
+  }
+
+  /** The state of one import: the batch being filled and the counts so far. */
+  private final class Import<R> {
+
+    private final Table<R> table;
+    private final List<PendingRow<R>> batch = new ArrayList<>(batchSize);
+    private final List<ImportResult.RowError> errors = new ArrayList<>();
+    private long rows;
+    private long imported;
+    private long failed;
+    private long lastRejected;
+
+    private Import(Table<R> table) {
+      this.table = table;
+    }
+
+    void accept(long line, R row) {
+      rows++;
+      var violations = validator.validate(table.toEntity().apply(row));
+      if (!violations.isEmpty()) {
+        failed(line, violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; ")));
+        return;
+      }
+      batch.add(new PendingRow<>(line, row));
+      if (batch.size() == batchSize) {
+        flush();
+      }
+    }
+
+    /** A row that could not be parsed. */
+    void reject(long line, String message) {
+      if (line != lastRejected) {
+        rows++;
+        failed(line, message);
+      }
+    }
+
+    private void failed(long line, String message) {
+      lastRejected = line;
+      failed++;
+      if (errors.size() < maxReportedErrors) {
+        errors.add(new ImportResult.RowError(line, message));
+      }
+    }
+
+    void flush() {
+      if (batch.isEmpty()) {
+        return;
+      }
+      try {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(table.insertSql(), batch,
+            batch.size(), (statement, pending) -> table.setter().setValues(statement, pending.row())));
+        imported += batch.size();
+      } catch (DataAccessException ex) {
+        // rolled back; insert the rows one by one to find the ones the database refuses
+        for (PendingRow<R> pending : batch) {
+          try {
+            jdbcTemplate.update(table.insertSql(), statement -> table.setter().setValues(statement, pending.row()));
+            imported++;
+          } catch (DataAccessException rowEx) {
+            failed(pending.line(), databaseMessage(rowEx));
+          }
+        }
+      }
+      batch.clear();
+    }
+  }
+
+  /** The driver's message without the statement, which the caller knows. */
+  private static String databaseMessage(DataAccessException ex) {
+    String message = ex.getMostSpecificCause().getMessage().lines().findFirst().orElse("");
+    return message.replaceFirst(";? SQL statement:$", "");
+  }
+}
@@ -1,14 +1,24 @@
 package com.example.demo.services.department;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.common.EntityDtoMapper;
+import com.example.demo.common.IdChunks;
+import com.example.demo.config.CacheConfig;
 import com.example.demo.dto.DepartmentDto;
+import com.example.demo.dto.DepartmentSummary;
+import com.example.demo.dto.KeysetPage;
 import com.example.demo.entity.Department;
 import com.example.demo.repositories.DepartmentRepository;
+import com.example.demo.repositories.EmployeeRepository;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -19,9 +29,13 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class DepartmentService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+
   private final DepartmentRepository departmentRepository;
+  private final EmployeeRepository employeeRepository;
   private final EntityDtoMapper mapper;
 
+  @Cacheable(cacheNames = CacheConfig.DEPARTMENTS)
   public DepartmentDto getDepartment(int id) {
     Department department = departmentRepository.findById(id)
         .orElseThrow(() -> new EntityNotFoundException("Department not found"));
@@ -34,6 +48,16 @@ public class DepartmentService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * The page of departments after id {@code after} (0 for the first page),
+   * at most {@link #MAX_PAGE_SIZE} long, in one query with their managers.
+   */
+  public KeysetPage<DepartmentSummary> listDepartments(int after, int size) {
+    int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+    return KeysetPage.of(departmentRepository.findSummariesAfter(after, Limit.of(limit)), limit,
+        DepartmentSummary::id);
+  }
+
   public List<Department> findAll() {
     return departmentRepository.findAll();
   }
@@ -42,17 +66,68 @@ public class DepartmentService {
     return departmentRepository.findById(theId).orElse(null);
   }
 
+  // cached employees carry their department's code and name
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#result.id"),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, key = "#result.id"),
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true) })
   public Department save(Department theDepartment) {
     Department savedDepartment = departmentRepository.save(theDepartment);
     return savedDepartment;
   }
 
-  public void deleteById(int theId) {
+  /**
+   * Its employees are left without a department.
+   *
+   * @return false if there was no such department
+   */
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENTS, key = "#theId"),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, key = "#theId"),
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true) })
+  public boolean deleteById(int theId) {
+    if (!departmentRepository.existsById(theId)) {
+      return false;
+    }
+    employeeRepository.reassignDepartment(theId, null);
     departmentRepository.deleteById(theId);
+    return true;
+  }
+
+  /**
+   * Deletes every department in two statements: one taking all employees out
+   * of their department, one deleting the departments.
+   *
+   * @return how many departments were deleted
+   */
+  @CacheEvict(cacheNames = { CacheConfig.DEPARTMENTS, CacheConfig.DEPARTMENT_EMPLOYEES, CacheConfig.EMPLOYEES },
+      allEntries = true)
+  public int deleteAll() {
+    employeeRepository.clearAllDepartments();
+    return departmentRepository.deleteAllInBulk();
+  }
+
+  /**
+   * Marks the departments with the given ids inactive, in statements of up to
+   * {@link IdChunks#MAX_IDS_PER_STATEMENT} ids.
+   *
+   * @return how many of them were active
+   */
+  // cached employees carry their department's active flag
+  @CacheEvict(cacheNames = { CacheConfig.DEPARTMENTS, CacheConfig.EMPLOYEES }, allEntries = true)
+  public int deactivateDepartments(List<Integer> ids) {
+    LocalDateTime now = LocalDateTime.now();
+    return IdChunks.sum(ids, chunk -> departmentRepository.deactivateByIdIn(chunk, now));
   }
 
-  public void deleteAll() {
-    departmentRepository.deleteAll();
+  /**
+   * Marks the departments at {@code location} inactive in one statement.
+   *
+   * @return how many of them were active
+   */
+  @CacheEvict(cacheNames = { CacheConfig.DEPARTMENTS, CacheConfig.EMPLOYEES }, allEntries = true)
+  public int deactivateDepartmentsAt(String location) {
+    return departmentRepository.deactivateByLocation(location, LocalDateTime.now());
   }
 
 }
@@ -1,14 +1,28 @@
 package com.example.demo.services.employee;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import com.example.demo.common.EntityDtoMapper;
+import com.example.demo.common.IdChunks;
+import com.example.demo.config.CacheConfig;
 import com.example.demo.dto.EmployeeDto;
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.dto.KeysetPage;
+import com.example.demo.entity.Department;
 import com.example.demo.entity.Employee;
+import com.example.demo.repositories.DepartmentRepository;
 import com.example.demo.repositories.EmployeeRepository;
+import com.example.demo.services.search.EmployeeSearchIndex;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -19,9 +33,15 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class EmployeeService {
 
+  public static final int MAX_PAGE_SIZE = 1000;
+  public static final int MAX_SEARCH_RESULTS = 100;
+
   private final EmployeeRepository employeeRepository;
+  private final DepartmentRepository departmentRepository;
   private final EntityDtoMapper mapper;
+  private final EmployeeSearchIndex searchIndex;
 
+  @Cacheable(cacheNames = CacheConfig.EMPLOYEES)
   public EmployeeDto getEmployee(int id) {
     Employee employee = employeeRepository.findById(id)
         .orElseThrow(() -> new EntityNotFoundException("Employee not found"));
@@ -34,6 +54,40 @@ public class EmployeeService {
         .collect(Collectors.toList());
   }
 
+  /**
+   * The page of employees after id {@code after} (0 for the first page), at
+   * most {@link #MAX_PAGE_SIZE} long, in one query with their departments.
+   */
+  public KeysetPage<EmployeeSummary> listEmployees(int after, int size) {
+    int limit = Math.clamp(size, 1, MAX_PAGE_SIZE);
+    return KeysetPage.of(employeeRepository.findSummariesAfter(after, Limit.of(limit)), limit, EmployeeSummary::id);
+  }
+
+  /**
+   * The employees of department {@code departmentId}, in id order; empty if
+   * it has none or doesn't exist.
+   */
+  @Cacheable(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES)
+  public List<EmployeeSummary> getEmployeesInDepartment(int departmentId) {
+    return employeeRepository.findSummariesByDepartment(departmentId);
+  }
+
+  /**
+   * The employees best matching {@code query}, at most {@code limit} (up to
+   * {@link #MAX_SEARCH_RESULTS}), best first. See
+   * {@link EmployeeSearchIndex} for what matches and how it ranks.
+   */
+  public List<EmployeeSummary> searchEmployees(String query, int limit) {
+    List<Integer> ids = searchIndex.search(query, Math.clamp(limit, 1, MAX_SEARCH_RESULTS));
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    Map<Integer, EmployeeSummary> found = employeeRepository.findSummariesByIdIn(ids).stream()
+        .collect(Collectors.toMap(EmployeeSummary::id, Function.identity()));
+    // deleted since the search, if missing
+    return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+  }
+
   public List<Employee> findAll() {
     return employeeRepository.findAll();
   }
@@ -42,13 +96,91 @@ public class EmployeeService {
     return employeeRepository.findById(theId).orElse(null);
   }
 
+  // the employee may have moved department, so every department's list goes
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#result.id"),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, allEntries = true) })
   public Employee save(Employee theEmployee) {
     Employee savedEmployee = employeeRepository.save(theEmployee);
+    searchIndex.put(savedEmployee);
     return savedEmployee;
   }
 
-  public void deleteById(int theId) {
+  /**
+   * Departments the employee managed are left without a manager.
+   *
+   * @return false if there was no such employee
+   */
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, key = "#theId"),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, allEntries = true) })
+  public boolean deleteById(int theId) {
+    if (!employeeRepository.existsById(theId)) {
+      return false;
+    }
+    departmentRepository.clearManager(theId);
     employeeRepository.deleteById(theId);
+    searchIndex.removeAll(List.of(theId));
+    return true;
+  }
+
+  /**
+   * Deletes the employees of department {@code departmentId} in two
+   * statements: one leaving the departments they manage without a manager,
+   * one deleting them. Their ids are read first, for the search index.
+   *
+   * @return how many were deleted
+   */
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, key = "#departmentId") })
+  public int deleteEmployeesInDepartment(int departmentId) {
+    searchIndex.removeAll(employeeRepository.findIdsByDepartment(departmentId));
+    departmentRepository.clearManagersFromDepartment(departmentId);
+    return employeeRepository.deleteByDepartment(departmentId);
+  }
+
+  /**
+   * Moves every employee of {@code fromDepartmentId} to
+   * {@code toDepartmentId}, or out of any department if it is null, in one
+   * statement.
+   *
+   * @return how many were moved
+   * @throws EntityNotFoundException if there is no department
+   *                                 {@code toDepartmentId}
+   */
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, allEntries = true) })
+  public int reassignDepartment(int fromDepartmentId, Integer toDepartmentId) {
+    return employeeRepository.reassignDepartment(fromDepartmentId, department(toDepartmentId));
+  }
+
+  /**
+   * Moves the employees with the given ids to {@code toDepartmentId}, or out
+   * of any department if it is null, in statements of up to
+   * {@link IdChunks#MAX_IDS_PER_STATEMENT} ids.
+   *
+   * @return how many were moved
+   * @throws EntityNotFoundException if there is no department
+   *                                 {@code toDepartmentId}
+   */
+  @Caching(evict = {
+      @CacheEvict(cacheNames = CacheConfig.EMPLOYEES, allEntries = true),
+      @CacheEvict(cacheNames = CacheConfig.DEPARTMENT_EMPLOYEES, allEntries = true) })
+  public int reassignEmployees(List<Integer> employeeIds, Integer toDepartmentId) {
+    Department to = department(toDepartmentId);
+    return IdChunks.sum(employeeIds, chunk -> employeeRepository.reassignByIdIn(chunk, to));
+  }
+
+  private Department department(Integer id) {
+    if (id == null) {
+      return null;
+    }
+    if (!departmentRepository.existsById(id)) {
+      throw new EntityNotFoundException("Department not found");
+    }
+    return departmentRepository.getReferenceById(id);
   }
 
 }
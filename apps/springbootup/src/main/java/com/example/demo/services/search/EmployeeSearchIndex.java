@@ -0,0 +1,420 @@
+package com.example.demo.services.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.EmployeeSummary;
+import com.example.demo.entity.Employee;
+import com.example.demo.repositories.EmployeeRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory index over the first name, last name and email of every
+ * employee, behind GET /employees/search.
+ *
+ * Each field is split into lowercase words of letters and digits, so
+ * "mary-ann.smith2@example.com" gives mary, ann, smith2, example and com.
+ * Two sorted maps, one for name words and one for email words, take each
+ * word to its posting list: the ids of the employees that have it, as a
+ * sorted int array. The words starting with a query term are one range of a
+ * map. A query matches the employees that have a word starting with each of
+ * its terms.
+ *
+ * For each term an employee scores its best match: 4 for a whole name word,
+ * 2 for the start of a name word or a whole email word, 1 for the start of
+ * an email word. The scores are added up, and the best results by score,
+ * then by id, are returned. Candidates are read from the postings of the
+ * term with the fewest, best match first, and checked against the other
+ * terms using the words kept for each employee. Reading stops once no
+ * candidate left could make the results, so a common word costs little
+ * more than a rare one.
+ *
+ * The index is built when the application starts. EmployeeService updates
+ * it once its transactions commit, and imports call {@link #catchUp(int)}
+ * with the highest id from before they started.
+ * Searches share a read lock; updates take the write lock.
+ */
+@Component
+@Slf4j
+public class EmployeeSearchIndex implements SmartInitializingSingleton {
+
+  private static final int CATCH_UP_PAGE_SIZE = 1000;
+  private static final int BEST_SCORE = 4;
+
+  private final EmployeeRepository employeeRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final NavigableMap<String, Postings> nameWords = new TreeMap<>();
+  private final NavigableMap<String, Postings> emailWords = new TreeMap<>();
+  // indexed by employee id
+  private Document[] documents = new Document[1024];
+  private int documentCount;
+
+  public EmployeeSearchIndex(EmployeeRepository employeeRepository, PlatformTransactionManager transactionManager) {
+    this.employeeRepository = employeeRepository;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setReadOnly(true);
+  }
+
+  /** Indexes every employee before the application takes requests. */
+  @Override
+  public void afterSingletonsInstantiated() {
+    long startedAt = System.nanoTime();
+    transactionTemplate.executeWithoutResult(status -> {
+      try (Stream<EmployeeSummary> employees = employeeRepository.streamAllSummaries()) {
+        employees.forEach(this::index);
+      }
+    });
+    log.info("Indexed {} employees ({} words) for search in {} ms", size(), wordCount(),
+        (System.nanoTime() - startedAt) / 1_000_000);
+  }
+
+  /**
+   * The ids of the best {@code limit} matches for {@code query}, best
+   * first; empty if it has no words.
+   */
+  public List<Integer> search(String query, int limit) {
+    List<String> terms = List.copyOf(words(query));
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+    TopHits top = new TopHits(limit);
+    lock.readLock().lock();
+    try {
+      String driver = fewestPostings(terms);
+      // the other terms add up to BEST_SCORE each
+      int others = BEST_SCORE * (terms.size() - 1);
+      collect(top, nameWords.get(driver), 4 + others, terms);
+      collect(top, emailWords.get(driver), 2 + others, terms);
+      for (Postings postings : longerWords(nameWords, driver).values()) {
+        if (top.beats(2 + others, 0)) {
+          break;
+        }
+        collect(top, postings, 2 + others, terms);
+      }
+      for (Postings postings : longerWords(emailWords, driver).values()) {
+        if (top.beats(1 + others, 0)) {
+          break;
+        }
+        collect(top, postings, 1 + others, terms);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return top.ids();
+  }
+
+  /** Indexes the employee, or indexes it again, once the current transaction commits. */
+  public void put(Employee employee) {
+    EmployeeSummary summary = new EmployeeSummary(employee.getId(), employee.getFirstName(), employee.getLastName(),
+        employee.getEmail(), null, null, null);
+    afterCommit(() -> index(summary));
+  }
+
+  /** Drops the employees once the current transaction commits. */
+  public void removeAll(Collection<Integer> ids) {
+    List<Integer> removed = List.copyOf(ids);
+    afterCommit(() -> {
+      lock.writeLock().lock();
+      try {
+        removed.forEach(this::unindex);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    });
+  }
+
+  /**
+   * Indexes, or indexes again, the employees with an id above
+   * {@code after}, for rows inserted without going through EmployeeService.
+   * Ids interleave with those of concurrent saves, so the caller passes the
+   * highest id from before its inserts rather than relying on what the
+   * index has seen.
+   *
+   * @return how many were indexed
+   */
+  public int catchUp(int after) {
+    int indexed = 0;
+    List<EmployeeSummary> page;
+    do {
+      page = employeeRepository.findSummariesAfter(after, Limit.of(CATCH_UP_PAGE_SIZE));
+      page.forEach(this::index);
+      indexed += page.size();
+      if (!page.isEmpty()) {
+        after = page.getLast().id();
+      }
+    } while (page.size() == CATCH_UP_PAGE_SIZE);
+    return indexed;
+  }
+
+  /** The number of employees indexed. */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documentCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** The number of distinct name and email words indexed. */
+  public int wordCount() {
+    lock.readLock().lock();
+    try {
+      return nameWords.size() + emailWords.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Offers the employees of {@code postings}, who score {@code bound} at
+   * most, in id order until none of the rest could make the results.
+   */
+  private void collect(TopHits top, Postings postings, int bound, List<String> terms) {
+    if (postings == null) {
+      return;
+    }
+    for (int i = 0; i < postings.size && !top.beats(bound, postings.ids[i]); i++) {
+      top.offer(postings.ids[i], score(documents[postings.ids[i]], terms));
+    }
+  }
+
+  /** The term with the fewest postings over the words starting with it. */
+  String fewestPostings(List<String> terms) {
+    if (terms.size() == 1) {
+      return terms.getFirst();
+    }
+    String fewest = null;
+    long fewestCount = Long.MAX_VALUE;
+    for (String term : terms) {
+      long count = 0;
+      for (var words : List.of(nameWords, emailWords)) {
+        for (Postings postings : words.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+          count += postings.size;
+          if (count >= fewestCount) {
+            break;
+          }
+        }
+      }
+      if (count < fewestCount) {
+        fewest = term;
+        fewestCount = count;
+      }
+    }
+    return fewest;
+  }
+
+  /** The words that start with {@code term} and are longer. */
+  private static NavigableMap<String, Postings> longerWords(NavigableMap<String, Postings> words, String term) {
+    return words.subMap(term, false, term + Character.MAX_VALUE, false);
+  }
+
+  /** The document's score for the query; 0 unless every term matches. */
+  private static int score(Document document, List<String> terms) {
+    int total = 0;
+    for (String term : terms) {
+      int best = 0;
+      for (int i = 0; i < document.words.length && best < BEST_SCORE; i++) {
+        String word = document.words[i];
+        if (word.startsWith(term)) {
+          int score = (word.length() == term.length() ? 2 : 1) * (i < document.nameWords ? 2 : 1);
+          best = Math.max(best, score);
+        }
+      }
+      if (best == 0) {
+        return 0;
+      }
+      total += best;
+    }
+    return total;
+  }
+
+  private void index(EmployeeSummary employee) {
+    Set<String> names = words(employee.firstName() + " " + employee.lastName());
+    Set<String> email = words(employee.email());
+    lock.writeLock().lock();
+    try {
+      unindex(employee.id());
+      String[] documentWords = new String[names.size() + email.size()];
+      int i = 0;
+      for (String word : names) {
+        documentWords[i++] = add(nameWords, word, employee.id());
+      }
+      for (String word : email) {
+        documentWords[i++] = add(emailWords, word, employee.id());
+      }
+      if (employee.id() >= documents.length) {
+        documents = Arrays.copyOf(documents, Math.max(employee.id() + 1, documents.length * 3 / 2));
+      }
+      documents[employee.id()] = new Document(documentWords, names.size());
+      documentCount++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Adds the id to the word's postings; returns the map's copy of the word. */
+  private static String add(NavigableMap<String, Postings> words, String word, int id) {
+    Postings postings = words.computeIfAbsent(word, Postings::new);
+    postings.add(id);
+    return postings.word;
+  }
+
+  private void unindex(int id) {
+    Document document = id < documents.length ? documents[id] : null;
+    if (document == null) {
+      return;
+    }
+    for (int i = 0; i < document.words.length; i++) {
+      var words = i < document.nameWords ? nameWords : emailWords;
+      Postings postings = words.get(document.words[i]);
+      if (postings != null && postings.remove(id) && postings.size == 0) {
+        words.remove(postings.word);
+      }
+    }
+    documents[id] = null;
+    documentCount--;
+  }
+
+  /** Lowercase runs of letters and digits, in order, without repeats. */
+  static Set<String> words(String text) {
+    Set<String> words = new LinkedHashSet<>();
+    if (text == null) {
+      return words;
+    }
+    String lower = text.toLowerCase(Locale.ROOT);
+    int start = -1;
+    for (int i = 0; i <= lower.length(); i++) {
+      boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        words.add(lower.substring(start, i));
+        start = -1;
+      }
+    }
+    return words;
+  }
+
+  private static void afterCommit(Runnable update) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      update.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        update.run();
+      }
+    });
+  }
+
+  /** The words of one employee, name words first. */
+  private record Document(String[] words, int nameWords) {
+  }
+
+  /** The best hits so far, best first, by score and then id. */
+  static final class TopHits {
+
+    private final int[] ids;
+    private final int[] scores;
+    private int size;
+
+    TopHits(int limit) {
+      ids = new int[limit];
+      scores = new int[limit];
+    }
+
+    /**
+     * Whether the results are full and their last ranks above a hit with
+     * this score and id.
+     */
+    boolean beats(int score, int id) {
+      return size == ids.length && (scores[size - 1] > score || scores[size - 1] == score && ids[size - 1] < id);
+    }
+
+    void offer(int id, int score) {
+      if (score == 0 || beats(score, id)) {
+        return;
+      }
+      for (int i = 0; i < size; i++) {
+        if (ids[i] == id) {
+          return;
+        }
+      }
+      int at = size == ids.length ? size - 1 : size++;
+      for (; at > 0 && (scores[at - 1] < score || scores[at - 1] == score && ids[at - 1] > id); at--) {
+        ids[at] = ids[at - 1];
+        scores[at] = scores[at - 1];
+      }
+      ids[at] = id;
+      scores[at] = score;
+    }
+
+    List<Integer> ids() {
+      List<Integer> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        result.add(ids[i]);
+      }
+      return result;
+    }
+  }
+
+  /** The ids of the employees with a word, sorted, in an array with room to grow. */
+  private static final class Postings {
+
+    private final String word;
+    private int[] ids = new int[1];
+    private int size;
+
+    private Postings(String word) {
+      this.word = word;
+    }
+
+    void add(int id) {
+      // new employees have the highest ids, so this is nearly always the end
+      int at = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+      if (at < 0) {
+        at = -at - 1;
+      } else if (at < size) {
+        return;
+      }
+      if (size == ids.length) {
+        ids = Arrays.copyOf(ids, size + Math.max(1, size / 2));
+      }
+      System.arraycopy(ids, at, ids, at + 1, size - at);
+      ids[at] = id;
+      size++;
+    }
+
+    boolean remove(int id) {
+      int at = Arrays.binarySearch(ids, 0, size, id);
+      if (at < 0) {
+        return false;
+      }
+      System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+      size--;
+      return true;
+    }
+  }
+}
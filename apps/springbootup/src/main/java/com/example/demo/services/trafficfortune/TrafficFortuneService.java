@@ -1,7 +1,16 @@
 package com.example.demo.services.trafficfortune;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface TrafficFortuneService {
   String getFortune();
 
   String getFortune(boolean tripWire);
+
+  /**
+   * The fortune without holding the calling thread: from a cache that
+   * reloads it in the background, or the fallback if it can't be had within
+   * fortune.timeout.
+   */
+  CompletableFuture<String> getFortuneAsync();
 }
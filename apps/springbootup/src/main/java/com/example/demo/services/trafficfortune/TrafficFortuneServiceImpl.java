@@ -1,12 +1,69 @@
 package com.example.demo.services.trafficfortune;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link #getFortune()} stands in for a slow upstream call and holds the
+ * calling thread for 5 seconds.
+ *
+ * {@link #getFortuneAsync()} serves it from a one-entry Caffeine cache
+ * instead. The first read after fortune.refresh-after reloads it in the
+ * background while the cached fortune is still served; it is only dropped
+ * after fortune.expire-after without a read. Callers that miss share one
+ * upstream call, run on a virtual thread. A caller waits fortune.timeout at
+ * most, then gets fortune.fallback; the upstream call carries on and fills
+ * the cache. A failed call isn't cached, and its callers get the fallback.
+ *
+ * Meters: cache.gets, cache.load and the rest for cache=fortune, and
+ * fortune.fallbacks.
+ */
 @Service
+@Slf4j
 public class TrafficFortuneServiceImpl implements TrafficFortuneService {
 
+  private static final String KEY = "fortune";
+
+  private final AsyncLoadingCache<String, String> fortunes;
+  private final Duration timeout;
+  private final String fallback;
+  private final LongAdder fallbacks = new LongAdder();
+
+  public TrafficFortuneServiceImpl(MeterRegistry meterRegistry,
+      @Value("${fortune.timeout:1s}") Duration timeout,
+      @Value("${fortune.refresh-after:50s}") Duration refreshAfter,
+      @Value("${fortune.expire-after:10m}") Duration expireAfter,
+      @Value("${fortune.fallback:No traffic news right now}") String fallback) {
+    this.timeout = timeout;
+    this.fallback = fallback;
+    Executor upstream = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fortune-", 0).factory());
+    this.fortunes = Caffeine.newBuilder()
+        .refreshAfterWrite(refreshAfter)
+        .expireAfterWrite(expireAfter)
+        .executor(upstream)
+        .recordStats()
+        .buildAsync(key -> getFortune());
+    CaffeineCacheMetrics.monitor(meterRegistry, fortunes, KEY);
+    FunctionCounter.builder("fortune.fallbacks", fallbacks, LongAdder::sum)
+        .description("Async fortunes answered with the fallback")
+        .register(meterRegistry);
+  }
+
   @Override
   public String getFortune() {
     // simulate a delay
@@ -27,4 +84,17 @@ public class TrafficFortuneServiceImpl implements TrafficFortuneService {
     return getFortune();
   }
 
+  @Override
+  public CompletableFuture<String> getFortuneAsync() {
+    // a copy, so the timeout doesn't complete the shared load
+    return fortunes.get(KEY)
+        .copy()
+        .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+        .exceptionally(ex -> {
+          fallbacks.increment();
+          log.debug("Fortune fallback: {}", ex.toString());
+          return fallback;
+        });
+  }
+
 }
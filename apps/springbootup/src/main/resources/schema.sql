@@ -27,3 +27,11 @@ ALTER TABLE department
 ADD CONSTRAINT fk_department_manager
     FOREIGN KEY (manager_id)
     REFERENCES employee(id);
+
+-- Write operations, appended in batches by AuditLogWriter
+CREATE TABLE IF NOT EXISTS audit_log (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    occurred_at TIMESTAMP NOT NULL,
+    operation VARCHAR(200) NOT NULL,
+    arguments VARCHAR(2000)
+);
@@ -0,0 +1,169 @@
+package com.example.demo.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Employee;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the writer against a private in-memory audit_log table.
+ */
+class AuditLogWriterTest {
+
+  private static final Duration NEVER = Duration.ofHours(1);
+  private static final long WAIT_MILLIS = 5_000;
+
+  private final JdbcTemplate jdbcTemplate = new JdbcTemplate(
+      new DriverManagerDataSource("jdbc:h2:mem:audit-log-writer-test;DB_CLOSE_DELAY=-1"));
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private AuditLogWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate.execute("CREATE TABLE audit_log (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,"
+        + " occurred_at TIMESTAMP NOT NULL, operation VARCHAR(200) NOT NULL, arguments VARCHAR(2000))");
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (writer != null && writer.isRunning()) {
+      writer.stop();
+    }
+    jdbcTemplate.execute("DROP ALL OBJECTS");
+  }
+
+  @Test
+  void fullBatchIsWrittenWithoutWaitingForTheInterval() throws Exception {
+    writer = start(100, 10, NEVER);
+
+    offer(10);
+
+    awaitRows(10);
+    assertThat(records("written")).isEqualTo(10);
+    assertThat(depth()).isZero();
+  }
+
+  @Test
+  void partialBatchIsWrittenAfterTheInterval() throws Exception {
+    writer = start(100, 10, Duration.ofMillis(100));
+
+    offer(3);
+
+    awaitRows(3);
+    assertThat(records("written")).isEqualTo(3);
+  }
+
+  @Test
+  void recordsBeyondTheCapacityAreDropped() {
+    // not started, so nothing leaves the queue
+    writer = new AuditLogWriter(jdbcTemplate, meterRegistry, 5, 10, NEVER);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat(writer.offer(record(i))).isTrue();
+    }
+    assertThat(writer.offer(record(5))).isFalse();
+
+    assertThat(records("dropped")).isEqualTo(1);
+    assertThat(depth()).isEqualTo(5);
+  }
+
+  @Test
+  void stopDrainsTheQueue() {
+    writer = start(100, 50, NEVER);
+    offer(7);
+
+    writer.stop();
+
+    assertThat(rows()).isEqualTo(7);
+    assertThat(writer.isRunning()).isFalse();
+  }
+
+  @Test
+  void failedBatchIsCountedAndTheWriterCarriesOn() throws Exception {
+    writer = start(100, 5, NEVER);
+    jdbcTemplate.execute("ALTER TABLE audit_log RENAME TO audit_log_moved");
+    offer(5);
+    awaitMeter("failed", 5);
+
+    jdbcTemplate.execute("ALTER TABLE audit_log_moved RENAME TO audit_log");
+    offer(5);
+
+    awaitRows(5);
+    assertThat(records("failed")).isEqualTo(5);
+    assertThat(depth()).isZero();
+  }
+
+  @Test
+  void argumentsAreSnapshotWhenOffered() throws Exception {
+    Department department = Department.builder().id(7).departmentName("Engineering").build();
+    Employee employee = new Employee(42, "Ada", "Lovelace", "ada@example.com", department);
+    Method method = AuditLogWriterTest.class.getDeclaredMethod("record", int.class);
+    writer = start(100, 1, NEVER);
+
+    writer.offer(AuditRecord.of(method, new Object[] { employee, new ArrayList<>(List.of(1, 2, 3)), 5, "x", null }));
+    employee.setId(43);
+
+    awaitRows(1);
+    assertThat(jdbcTemplate.queryForObject("SELECT operation FROM audit_log", String.class))
+        .isEqualTo("AuditLogWriterTest.record");
+    assertThat(jdbcTemplate.queryForObject("SELECT arguments FROM audit_log", String.class))
+        .isEqualTo("[Employee#42, ArrayList[3], 5, \"x\", null]");
+  }
+
+  private AuditLogWriter start(int capacity, int flushSize, Duration flushInterval) {
+    AuditLogWriter started = new AuditLogWriter(jdbcTemplate, meterRegistry, capacity, flushSize, flushInterval);
+    started.start();
+    return started;
+  }
+
+  private void offer(int count) {
+    for (int i = 0; i < count; i++) {
+      assertThat(writer.offer(record(i))).isTrue();
+    }
+  }
+
+  private static AuditRecord record(int i) {
+    return new AuditRecord(System.currentTimeMillis(), "AuditLogWriterTest.record", "[" + i + "]");
+  }
+
+  private void awaitRows(long expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+    while (rows() < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(rows()).isEqualTo(expected);
+  }
+
+  private void awaitMeter(String result, double expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+    while (records(result) < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(records(result)).isEqualTo(expected);
+  }
+
+  private long rows() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_log", Long.class);
+  }
+
+  private double records(String result) {
+    return meterRegistry.get("audit.records").tag("result", result).functionCounter().count();
+  }
+
+  private double depth() {
+    return meterRegistry.get("audit.queue.depth").gauge().value();
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.bench;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * What the benchmarks share: an HTTP client for the application on one
+ * port, the SQL that seeds employees and departments, and the peak heap.
+ */
+final class BenchSupport {
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final int port;
+
+  BenchSupport(int port) {
+    this.port = port;
+  }
+
+  URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  /** The body of GET {@code path}, which has to answer 200. */
+  String get(String path) {
+    return send(HttpRequest.newBuilder(uri(path)).build());
+  }
+
+  /** The body of the response, which has to be 200. */
+  String send(HttpRequest request) {
+    try {
+      var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      if (response.statusCode() != 200) {
+        throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+      }
+      return response.body();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /** The response, whatever its status. */
+  <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> body)
+      throws IOException, InterruptedException {
+    return client.send(request, body);
+  }
+
+  /**
+   * Inserts employee X, named First{X} Last{X} with email
+   * employee{X}@example.com, for X from {@code first} to {@code last}.
+   */
+  static void insertEmployees(JdbcTemplate jdbcTemplate, long first, long last) {
+    jdbcTemplate.update("INSERT INTO employee (first_name, last_name, email)"
+        + " SELECT 'First' || X, 'Last' || X, 'employee' || X || '@example.com' FROM SYSTEM_RANGE(?, ?)",
+        first, last);
+  }
+
+  /**
+   * Inserts {@code count} active departments, D1 to D{count}, over 20
+   * floors, managed by the employees from {@code firstManager} on.
+   *
+   * @return the lowest department id
+   */
+  static int insertDepartments(JdbcTemplate jdbcTemplate, int count, int firstManager) {
+    jdbcTemplate.update("INSERT INTO department (department_code, department_name, location, manager_id, active,"
+        + " created_date) SELECT 'D' || X, 'Department ' || X, 'Floor ' || MOD(X, 20), ? + X - 1, TRUE,"
+        + " CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?)", firstManager, count);
+    return jdbcTemplate.queryForObject("SELECT MIN(id) FROM department", Integer.class);
+  }
+
+  /** Puts each employee in one of the {@code departments} from {@code firstDepartment} on, by id. */
+  static void spreadEmployees(JdbcTemplate jdbcTemplate, int firstDepartment, int departments) {
+    jdbcTemplate.update("UPDATE employee SET department_id = ? + MOD(id, ?)", firstDepartment, departments);
+  }
+
+  static int firstEmployee(JdbcTemplate jdbcTemplate) {
+    return jdbcTemplate.queryForObject("SELECT MIN(id) FROM employee", Integer.class);
+  }
+
+  /** Collects garbage and restarts the peak of every heap pool from there. */
+  static void resetPeakHeap() {
+    System.gc();
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  /** The peak heap since {@link #resetPeakHeap()}, summed over the pools. */
+  static long peakHeap() {
+    return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .toList();
+  }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.bench;
+
+import static com.example.demo.bench.BenchSupport.peakHeap;
+import static com.example.demo.bench.BenchSupport.resetPeakHeap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Loads bench.employees employees (1M by default) through POST
+ * /employees/import, once as NDJSON and once as CSV, with one invalid row
+ * in every {@value #INVALID_EVERY}. The body is generated while it is sent,
+ * so the client holds no more than a chunk of it. Reports rows per second
+ * and peak heap, next to POST /employees/save called once per row for
+ * bench.saves rows. The database is an H2 file under target, so the heap
+ * figures don't include the imported rows.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=BulkImportBenchmarkTest}.
+ */
+@Tag("bench")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/bench/import",
+    "logging.level.root=WARN",
+    "logging.level.org.springframework=WARN" })
+class BulkImportBenchmarkTest {
+
+  private static final int EMPLOYEES = Integer.getInteger("bench.employees", 1_000_000);
+  private static final int SAVES = Integer.getInteger("bench.saves", 5_000);
+  private static final int INVALID_EVERY = 100_000;
+  private static final int CHUNK_ROWS = 1000;
+
+  static {
+    // start from an empty database
+    FileSystemUtils.deleteRecursively(new File("target/bench"));
+  }
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private final List<String> report = new ArrayList<>();
+  private BenchSupport bench;
+
+  @BeforeEach
+  void connect() {
+    bench = new BenchSupport(port);
+  }
+
+  @Test
+  void compareImportWithSave() throws Exception {
+    report.add(String.format("%-32s %10s %10s %10s %12s", "load", "rows", "ms", "rows/s", "peak heap MB"));
+    importRows("NDJSON", "application/x-ndjson", null,
+        row -> row % INVALID_EVERY == 0
+            ? "{\"firstName\":\"\",\"lastName\":\"Last\",\"email\":\"invalid@example.com\"}\n"
+            : "{\"firstName\":\"First" + row + "\",\"lastName\":\"Last" + row + "\",\"email\":\"ndjson" + row
+                + "@example.com\"}\n");
+    importRows("CSV", "text/csv", "firstName,lastName,email,departmentId\n",
+        row -> row % INVALID_EVERY == 0
+            ? "First,Last,invalid@example.com,not-a-number\n"
+            : "First" + row + ",Last" + row + ",csv" + row + "@example.com,\n");
+    saveRows();
+    report.forEach(System.out::println);
+  }
+
+  private void importRows(String name, String contentType, String header, IntFunction<String> row)
+      throws Exception {
+    long before = count();
+    resetPeakHeap();
+    long startedAt = System.nanoTime();
+    HttpResponse<String> response = bench.send(HttpRequest.newBuilder(bench.uri("/employees/import"))
+        .header("Content-Type", contentType)
+        .POST(HttpRequest.BodyPublishers.ofInputStream(() -> generate(header, row)))
+        .build(), HttpResponse.BodyHandlers.ofString());
+    long millis = (System.nanoTime() - startedAt) / 1_000_000;
+    assertEquals(200, response.statusCode(), response.body());
+    JsonNode result = jsonMapper.readTree(response.body());
+    long invalid = EMPLOYEES / INVALID_EVERY;
+    assertEquals(EMPLOYEES, result.get("rows").asLong());
+    assertEquals(invalid, result.get("failed").asLong());
+    assertEquals(EMPLOYEES - invalid, count() - before);
+    report.add(String.format("%-32s %10d %10d %10d %12d", "POST /employees/import " + name, EMPLOYEES, millis,
+        EMPLOYEES * 1000L / millis, peakHeap() >> 20));
+  }
+
+  private void saveRows() throws Exception {
+    resetPeakHeap();
+    long startedAt = System.nanoTime();
+    for (int row = 1; row <= SAVES; row++) {
+      HttpResponse<String> response = bench.send(HttpRequest.newBuilder(bench.uri("/employees/save"))
+          .header("Content-Type", "application/json")
+          .POST(HttpRequest.BodyPublishers.ofString("{\"id\":0,\"firstName\":\"First" + row + "\",\"lastName\":\"Last"
+              + row + "\",\"email\":\"save" + row + "@example.com\"}"))
+          .build(), HttpResponse.BodyHandlers.ofString());
+      assertEquals(200, response.statusCode(), response.body());
+    }
+    long millis = (System.nanoTime() - startedAt) / 1_000_000;
+    report.add(String.format("%-32s %10d %10d %10d %12d", "POST /employees/save per row", SAVES, millis,
+        SAVES * 1000L / millis, peakHeap() >> 20));
+  }
+
+  /** The body, rows 1 to EMPLOYEES, rendered a chunk at a time as it is read. */
+  private static InputStream generate(String header, IntFunction<String> row) {
+    Enumeration<InputStream> chunks = new Enumeration<>() {
+      private int next = header == null ? 1 : 0;
+
+      @Override
+      public boolean hasMoreElements() {
+        return next <= EMPLOYEES;
+      }
+
+      @Override
+      public InputStream nextElement() {
+        StringBuilder chunk = new StringBuilder();
+        if (next == 0) {
+          chunk.append(header);
+          next = 1;
+        }
+        int last = Math.min(EMPLOYEES, next + CHUNK_ROWS - 1);
+        for (; next <= last; next++) {
+          chunk.append(row.apply(next));
+        }
+        return new ByteArrayInputStream(chunk.toString().getBytes(StandardCharsets.UTF_8));
+      }
+    };
+    return new SequenceInputStream(chunks);
+  }
+
+  private long count() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Long.class);
+  }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.bench;
+
+import static com.example.demo.bench.BenchSupport.firstEmployee;
+import static com.example.demo.bench.BenchSupport.insertDepartments;
+import static com.example.demo.bench.BenchSupport.insertEmployees;
+import static com.example.demo.bench.BenchSupport.spreadEmployees;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Employee;
+import com.example.demo.repositories.DepartmentRepository;
+import com.example.demo.repositories.EmployeeRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Times the set-based bulk endpoints on bench.rows employees and as many
+ * departments (100k by default), each department managed by its own
+ * employee and the employees spread over the first 1000 departments. Where
+ * there was a way to do the same before, it is timed too: loading the
+ * entities and changing or deleting them one by one through JPA, with
+ * Hibernate's JDBC batching. Reports time, rows and SQL statements
+ * prepared; a JDBC batch is one statement.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=BulkOperationsBenchmarkTest}.
+ */
+@Tag("bench")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:bulk",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.root=WARN",
+    "logging.level.org.springframework=WARN" })
+class BulkOperationsBenchmarkTest {
+
+  private static final int ROWS = Integer.getInteger("bench.rows", 100_000);
+  private static final int POPULATED_DEPARTMENTS = 1000;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private DepartmentRepository departmentRepository;
+
+  @Autowired
+  private EmployeeRepository employeeRepository;
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private final List<String> report = new ArrayList<>();
+  private BenchSupport bench;
+
+  @BeforeEach
+  void connect() {
+    bench = new BenchSupport(port);
+  }
+
+  @Test
+  void compareBulkWithEntityByEntity() {
+    report.add(String.format("%-52s %8s %8s %10s", "operation", "rows", "ms", "statements"));
+    int firstEmployee = seedEmployees();
+    int firstDepartment = seedDepartments(firstEmployee);
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+    measure("deactivate all departments, entity by entity", () -> transaction.execute(status -> {
+      List<Department> departments = departmentRepository.findAll();
+      departments.forEach(department -> department.setActive(false));
+      return departments.size();
+    }));
+    jdbcTemplate.update("UPDATE department SET active = TRUE");
+    measure("POST /departments/deactivate (all ids)",
+        () -> post("/departments/deactivate", "{\"ids\":" + ids(firstDepartment) + "}"));
+    jdbcTemplate.update("UPDATE department SET active = TRUE");
+    measure("POST /departments/deactivate (location)",
+        () -> post("/departments/deactivate", "{\"location\":\"Floor 7\"}"));
+
+    measure("reassign all employees, entity by entity", () -> transaction.execute(status -> {
+      Department to = departmentRepository.getReferenceById(firstDepartment);
+      List<Employee> employees = employeeRepository.findAll();
+      employees.forEach(employee -> employee.setDepartment(to));
+      return employees.size();
+    }));
+    measure("POST /employees/reassign (all ids)", () -> post("/employees/reassign",
+        "{\"employeeIds\":" + ids(firstEmployee) + ",\"toDepartmentId\":" + (firstDepartment + 1) + "}"));
+    measure("POST /employees/reassign (fromDepartmentId)", () -> post("/employees/reassign",
+        "{\"fromDepartmentId\":" + (firstDepartment + 1) + ",\"toDepartmentId\":" + (firstDepartment + 2) + "}"));
+
+    // before, employees had to be taken out of their departments some other way
+    jdbcTemplate.update("UPDATE employee SET department_id = NULL");
+    measure("delete all departments, entity by entity", () -> transaction.execute(status -> {
+      long departments = departmentRepository.count();
+      departmentRepository.deleteAll();
+      return (int) departments;
+    }));
+    int secondDepartment = seedDepartments(firstEmployee);
+    measure("DELETE /departments/deleteAll", () -> {
+      String message = delete("/departments/deleteAll");
+      return Integer.parseInt(message.split(" ")[1]);
+    });
+
+    int thirdDepartment = seedDepartments(firstEmployee);
+    jdbcTemplate.update("UPDATE employee SET department_id = ?", thirdDepartment);
+    measure("DELETE /employees/department/{id}", () -> rows(delete("/employees/department/" + thirdDepartment)));
+    assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Integer.class));
+    assertEquals(secondDepartment + ROWS, thirdDepartment);
+    report.forEach(System.out::println);
+  }
+
+  private void measure(String name, IntSupplier operation) {
+    var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    long statementsBefore = statistics.getPrepareStatementCount();
+    long startedAt = System.nanoTime();
+    int rows = operation.getAsInt();
+    long millis = (System.nanoTime() - startedAt) / 1_000_000;
+    report.add(String.format("%-52s %8d %8d %10d", name, rows, millis,
+        statistics.getPrepareStatementCount() - statementsBefore));
+  }
+
+  /**
+   * @return the first employee id
+   */
+  private int seedEmployees() {
+    jdbcTemplate.update("DELETE FROM employee");
+    insertEmployees(jdbcTemplate, 1, ROWS);
+    return firstEmployee(jdbcTemplate);
+  }
+
+  /**
+   * Adds ROWS departments, managed by employees from {@code firstEmployee}
+   * on, and spreads the employees over the first POPULATED_DEPARTMENTS.
+   *
+   * @return the first department id
+   */
+  private int seedDepartments(int firstEmployee) {
+    int firstDepartment = insertDepartments(jdbcTemplate, ROWS, firstEmployee);
+    spreadEmployees(jdbcTemplate, firstDepartment, POPULATED_DEPARTMENTS);
+    return firstDepartment;
+  }
+
+  private static String ids(int first) {
+    return IntStream.range(first, first + ROWS)
+        .mapToObj(Integer::toString)
+        .collect(Collectors.joining(",", "[", "]"));
+  }
+
+  private int post(String path, String json) {
+    return rows(bench.send(HttpRequest.newBuilder(bench.uri(path))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(json))
+        .build()));
+  }
+
+  private String delete(String path) {
+    return bench.send(HttpRequest.newBuilder(bench.uri(path)).DELETE().build());
+  }
+
+  private int rows(String bulkResult) {
+    return jsonMapper.readTree(bulkResult).get("rows").asInt();
+  }
+}
@@ -0,0 +1,203 @@
+package com.example.demo.bench;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.services.search.EmployeeSearchIndex;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Searches bench.employees employees (1M by default) with names drawn from
+ * a few dozen first names and a couple of hundred last names, and emails
+ * made of both and the row number. Reports the time
+ * and heap it takes to index them, then the latency of the top-10 search
+ * for a few kinds of query, in the index and through GET /employees/search
+ * (after a warm-up).
+ * For comparison, one GET /employees/list filtered on the client, as search
+ * is done without the endpoint.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=EmployeeSearchBenchmarkTest}.
+ */
+@Tag("bench")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:search",
+    "logging.level.root=WARN",
+    "logging.level.org.springframework=WARN" })
+class EmployeeSearchBenchmarkTest {
+
+  private static final int EMPLOYEES = Integer.getInteger("bench.employees", 1_000_000);
+  private static final int ITERATIONS = 2_000;
+  private static final int HTTP_ITERATIONS = 200;
+  private static final String[] FIRST_NAMES = { "James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+      "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+      "Thomas", "Sarah", "Charles", "Karen", "Christopher", "Nancy", "Daniel", "Lisa", "Matthew", "Betty",
+      "Anthony", "Margaret", "Mark", "Sandra", "Donald", "Ashley", "Steven", "Kimberly", "Paul", "Emily",
+      "Andrew", "Donna", "Joshua", "Michelle", "Kenneth", "Dorothy", "Kevin", "Carol", "Brian", "Amanda",
+      "George", "Melissa", "Edward", "Deborah", "Maria", "Jose", "Ana", "Luis", "Carmen", "Juan", "Wei", "Yan",
+      "Hiroshi", "Aiko", "Olga", "Ivan", "Fatima", "Omar", "Priya", "Arjun", "Ingrid", "Lars", "Chloe",
+      "Lucas" };
+  private static final String[] LAST_NAMES = { "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+      "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+      "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+      "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen",
+      "Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter",
+      "Roberts", "Gomez", "Phillips", "Evans", "Turner", "Diaz", "Parker", "Cruz", "Edwards", "Collins", "Reyes",
+      "Stewart", "Morris", "Morales", "Murphy", "Cook", "Rogers", "Gutierrez", "Ortiz", "Morgan", "Cooper",
+      "Peterson", "Bailey", "Reed", "Kelly", "Howard", "Ramos", "Kim", "Cox", "Ward", "Richardson", "Watson",
+      "Brooks", "Chavez", "Wood", "James", "Bennett", "Gray", "Mendoza", "Ruiz", "Hughes", "Price", "Alvarez",
+      "Castillo", "Sanders", "Patel", "Myers", "Long", "Ross", "Foster", "Jimenez", "Wang", "Li", "Zhang", "Chen",
+      "Liu", "Yamamoto", "Tanaka", "Ivanov", "Petrov", "Kowalski", "Nowak", "Muller", "Schmidt", "Schneider",
+      "Fischer", "Weber", "Meyer", "Wagner", "Becker", "Hoffmann", "Rossi", "Russo", "Ferrari", "Esposito",
+      "Bianchi", "Romano", "Dubois", "Durand", "Leroy", "Moreau", "Laurent", "Simon", "Michel", "Lefebvre",
+      "Andersson", "Johansson", "Karlsson", "Nilsson", "Eriksson", "Larsson", "Olsen", "Hansen", "Jensen",
+      "Nielsen", "Kumar", "Singh", "Sharma", "Gupta", "Khan", "Ali", "Hassan", "Ahmed", "Ibrahim", "Mohamed",
+      "Silva", "Santos", "Oliveira", "Souza", "Pereira", "Costa", "Carvalho", "Almeida", "Ferreira", "Ribeiro",
+      "Okafor", "Adeyemi", "Mensah", "Kariuki", "Otieno", "Nkosi", "Dlamini", "Murray", "Walsh", "Byrne",
+      "Ryan", "Obrien", "Doyle", "Kennedy", "Lynch", "Quinn", "Fraser", "Campbell", "Stewart", "Robertson",
+      "Macdonald", "Reid", "Ross", "Young", "Hamilton", "Graham", "Kerr", "Grant" };
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EmployeeSearchIndex searchIndex;
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private final List<String> report = new ArrayList<>();
+
+  @Test
+  void searchMillionEmployees() throws Exception {
+    seed();
+    long heapBefore = usedHeapAfterGc();
+    long startedAt = System.nanoTime();
+    int indexed = searchIndex.catchUp(0);
+    long indexMillis = (System.nanoTime() - startedAt) / 1_000_000;
+    long indexHeap = usedHeapAfterGc() - heapBefore;
+    report.add(String.format("indexed %d employees, %d words, in %d ms, %d MB of heap", indexed,
+        searchIndex.wordCount(), indexMillis, indexHeap >> 20));
+
+    Map<String, String> queries = new LinkedHashMap<>();
+    queries.put("last name", "garcia");
+    queries.put("3-letter prefix", "gar");
+    queries.put("first name and prefix", "maria gar");
+    queries.put("full name", "maria garcia");
+    queries.put("email prefix", "maria.garcia12");
+    queries.put("common email word", "example");
+    queries.put("1-letter prefix", "m");
+    queries.put("no match", "zzz");
+    // warm up the request path
+    List<String> qs = List.copyOf(queries.values());
+    for (int i = 0; i < 2_000; i++) {
+      get("/employees/search?q=" + qs.get(i % qs.size()).replace(" ", "+"));
+    }
+    report.add(String.format("%-24s %-16s %8s %10s %10s %10s %10s", "query", "q", "results", "index p50",
+        "index p99", "http p50", "http p99"));
+    for (var query : queries.entrySet()) {
+      measure(query.getKey(), query.getValue());
+    }
+    checkRanking();
+    listAndFilter("garcia");
+    report.forEach(System.out::println);
+  }
+
+  private void measure(String name, String q) throws Exception {
+    Histogram index = new Histogram(2);
+    int results = 0;
+    for (int i = 0; i < ITERATIONS; i++) {
+      long startedAt = System.nanoTime();
+      results = searchIndex.search(q, 10).size();
+      index.recordValue(System.nanoTime() - startedAt);
+    }
+    // the second half, after warm-up
+    index.reset();
+    for (int i = 0; i < ITERATIONS; i++) {
+      long startedAt = System.nanoTime();
+      searchIndex.search(q, 10);
+      index.recordValue(System.nanoTime() - startedAt);
+    }
+    Histogram http = new Histogram(2);
+    for (int i = 0; i < HTTP_ITERATIONS; i++) {
+      long startedAt = System.nanoTime();
+      HttpResponse<String> response = get("/employees/search?q=" + q.replace(" ", "+"));
+      http.recordValue(System.nanoTime() - startedAt);
+      assertEquals(200, response.statusCode());
+    }
+    report.add(String.format("%-24s %-16s %8d %8.3fms %8.3fms %8.3fms %8.3fms", name, q, results,
+        index.getValueAtPercentile(50) / 1e6, index.getValueAtPercentile(99) / 1e6,
+        http.getValueAtPercentile(50) / 1e6, http.getValueAtPercentile(99) / 1e6));
+  }
+
+  /** Whole words rank above prefixes, and every hit matches every term. */
+  private void checkRanking() throws Exception {
+    JsonNode hits = jsonMapper.readTree(get("/employees/search?q=maria+gar&limit=100").body());
+    int expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee"
+        + " WHERE first_name = 'Maria' AND LOWER(last_name) LIKE 'gar%'", Integer.class);
+    assertEquals(Math.min(100, expected), hits.size());
+    for (JsonNode hit : hits) {
+      assertEquals("Maria", hit.get("firstName").asString());
+      assertTrue(hit.get("lastName").asString().toLowerCase(Locale.ROOT).startsWith("gar"), hit.toString());
+    }
+    JsonNode best = jsonMapper.readTree(get("/employees/search?q=ali").body()).get(0);
+    assertEquals("Ali", best.get("lastName").asString(), best.toString());
+  }
+
+  private void listAndFilter(String q) throws Exception {
+    long startedAt = System.nanoTime();
+    HttpResponse<String> response = get("/employees/list");
+    JsonNode employees = jsonMapper.readTree(response.body());
+    int matches = 0;
+    for (JsonNode employee : employees) {
+      if (employee.get("lastName").asString().toLowerCase(Locale.ROOT).startsWith(q)) {
+        matches++;
+      }
+    }
+    long millis = (System.nanoTime() - startedAt) / 1_000_000;
+    report.add(String.format("GET /employees/list and filter on \"%s\" in the client: %d matches in %d ms", q,
+        matches, millis));
+  }
+
+  private void seed() {
+    jdbcTemplate.update("INSERT INTO employee (first_name, last_name, email)"
+        + " SELECT F, L, LOWER(F) || '.' || LOWER(L) || X || '@example.com' FROM ("
+        + " SELECT X, ARRAY_GET(CAST(? AS VARCHAR ARRAY), MOD(X, ?) + 1) F,"
+        + " ARRAY_GET(CAST(? AS VARCHAR ARRAY), MOD(X / ?, ?) + 1) L"
+        + " FROM SYSTEM_RANGE(1, ?))",
+        FIRST_NAMES, FIRST_NAMES.length, LAST_NAMES, FIRST_NAMES.length, LAST_NAMES.length, EMPLOYEES);
+  }
+
+  private HttpResponse<String> get(String path) throws Exception {
+    return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static long usedHeapAfterGc() {
+    System.gc();
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,133 @@
+package com.example.demo.bench;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.Conditions;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.example.demo.common.EntityDtoMapper;
+import com.example.demo.dto.DepartmentDto;
+import com.example.demo.dto.EmployeeDto;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Employee;
+
+/**
+ * EntityDtoMapper's compiled mappings against ModelMapper configured the
+ * way EntityDtoMapper used it, on one employee with its department (a
+ * nested mapping), one department, and a 1000-employee list as the list
+ * endpoints map it. Setup checks that both produce the same DTOs.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=EntityDtoMapperBenchmark}; add
+ * {@code -Djmh.args="-prof gc"} or any other JMH options.
+ */
+@Tag("bench")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityDtoMapperBenchmark {
+
+  private EntityDtoMapper entityDtoMapper;
+  private ModelMapper modelMapper;
+  private Employee employee;
+  private Department department;
+  private List<Employee> employees;
+
+  @Setup
+  public void setUp() {
+    entityDtoMapper = new EntityDtoMapper();
+    modelMapper = new ModelMapper();
+    modelMapper.getConfiguration()
+        .setMatchingStrategy(MatchingStrategies.STRICT)
+        .setPropertyCondition(Conditions.isNotNull());
+    department = Department.builder()
+        .id(7)
+        .departmentCode("ENG")
+        .departmentName("Engineering")
+        .location("Floor 3")
+        .active(true)
+        .createdDate(LocalDateTime.now())
+        .build();
+    employee = new Employee(42, "Ada", "Lovelace", "ada@example.com", department);
+    employees = IntStream.range(0, 1000)
+        .mapToObj(i -> new Employee(i, "First" + i, "Last" + i, i % 10 == 0 ? null : "e" + i + "@example.com",
+            i % 5 == 0 ? null : department))
+        .toList();
+    for (Employee e : employees) {
+      check(entityDtoMapper.convertToDto(e, EmployeeDto.class), modelMapper.map(e, EmployeeDto.class));
+    }
+    check(entityDtoMapper.convertToDto(department, DepartmentDto.class),
+        modelMapper.map(department, DepartmentDto.class));
+    EmployeeDto dto = modelMapper.map(employee, EmployeeDto.class);
+    check(entityDtoMapper.convertToEntity(dto, Employee.class), modelMapper.map(dto, Employee.class));
+  }
+
+  private static void check(Object compiled, Object reflective) {
+    if (!compiled.equals(reflective)) {
+      throw new IllegalStateException("Mappings differ: " + compiled + " vs " + reflective);
+    }
+  }
+
+  @Benchmark
+  public EmployeeDto employeeCompiled() {
+    return entityDtoMapper.convertToDto(employee, EmployeeDto.class);
+  }
+
+  @Benchmark
+  public EmployeeDto employeeModelMapper() {
+    return modelMapper.map(employee, EmployeeDto.class);
+  }
+
+  @Benchmark
+  public DepartmentDto departmentCompiled() {
+    return entityDtoMapper.convertToDto(department, DepartmentDto.class);
+  }
+
+  @Benchmark
+  public DepartmentDto departmentModelMapper() {
+    return modelMapper.map(department, DepartmentDto.class);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<EmployeeDto> listCompiled() {
+    return employees.stream().map(e -> entityDtoMapper.convertToDto(e, EmployeeDto.class)).toList();
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public List<EmployeeDto> listModelMapper() {
+    return employees.stream().map(e -> modelMapper.map(e, EmployeeDto.class)).toList();
+  }
+
+  @Test
+  void run() throws Exception {
+    String args = System.getProperty("jmh.args", "").trim();
+    new Runner(new OptionsBuilder()
+        .parent(new CommandLineOptions(args.isEmpty() ? new String[0] : args.split("\\s+")))
+        .include(EntityDtoMapperBenchmark.class.getName())
+        .build())
+        .run();
+  }
+}
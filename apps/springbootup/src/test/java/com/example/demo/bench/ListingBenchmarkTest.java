@@ -0,0 +1,124 @@
+package com.example.demo.bench;
+
+import static com.example.demo.bench.BenchSupport.firstEmployee;
+import static com.example.demo.bench.BenchSupport.insertDepartments;
+import static com.example.demo.bench.BenchSupport.insertEmployees;
+import static com.example.demo.bench.BenchSupport.peakHeap;
+import static com.example.demo.bench.BenchSupport.resetPeakHeap;
+import static com.example.demo.bench.BenchSupport.spreadEmployees;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Compares the whole-table /list endpoints with the keyset-paginated /page
+ * endpoints on bench.employees employees (1M by default) spread over
+ * bench.departments departments, each with a manager. Reports latency,
+ * SQL statements (Hibernate statistics), bytes allocated and peak heap
+ * for each. Run with {@code mvn test -Pbench}; the default build skips it.
+ */
+@Tag("bench")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:bench",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "logging.level.root=WARN",
+    "logging.level.org.springframework=WARN" })
+class ListingBenchmarkTest {
+
+  private static final int EMPLOYEES = Integer.getInteger("bench.employees", 1_000_000);
+  private static final int DEPARTMENTS = Integer.getInteger("bench.departments", 1_000);
+  private static final int PAGE_SIZE = 1000;
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private final JsonMapper jsonMapper = JsonMapper.builder().build();
+  private final List<String> report = new ArrayList<>();
+  private BenchSupport bench;
+
+  @BeforeAll
+  void seed() {
+    bench = new BenchSupport(port);
+    long startedAt = System.nanoTime();
+    insertEmployees(jdbcTemplate, 1, EMPLOYEES);
+    int firstDepartment = insertDepartments(jdbcTemplate, DEPARTMENTS, firstEmployee(jdbcTemplate) + 1);
+    spreadEmployees(jdbcTemplate, firstDepartment, DEPARTMENTS);
+    System.out.printf("Seeded %d employees and %d departments in %d ms%n", EMPLOYEES, DEPARTMENTS,
+        (System.nanoTime() - startedAt) / 1_000_000);
+  }
+
+  @Test
+  void compareListings() throws Exception {
+    report.add(String.format("%-40s %10s %10s %12s %12s", "endpoint", "ms", "statements", "allocated MB",
+        "peak heap MB"));
+    measure("GET /departments/list", () -> bench.get("/departments/list").length());
+    measure("GET /departments/page (all pages)", () -> walk("/departments/page"));
+    measure("GET /employees/page (first page)", () -> bench.get("/employees/page?size=" + PAGE_SIZE).length());
+    measure("GET /employees/page (after 90%)",
+        () -> bench.get("/employees/page?size=" + PAGE_SIZE + "&after=" + (EMPLOYEES * 9 / 10)).length());
+    measure("GET /employees/page (all pages)", () -> walk("/employees/page"));
+    measure("GET /employees/list", () -> bench.get("/employees/list").length());
+    report.forEach(System.out::println);
+  }
+
+  private void measure(String name, IntSupplier call) {
+    try {
+      call.getAsInt(); // warm-up pass
+    } catch (IllegalStateException ex) {
+      // /employees/list serializes lazy department proxies and fails once employees have departments
+      report.add(String.format("%-40s failed: %s", name, ex.getMessage().lines().findFirst().orElse("")));
+      return;
+    }
+    var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    resetPeakHeap();
+    long statementsBefore = statistics.getPrepareStatementCount();
+    long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+    long startedAt = System.nanoTime();
+    call.getAsInt();
+    long millis = (System.nanoTime() - startedAt) / 1_000_000;
+    long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+    long statements = statistics.getPrepareStatementCount() - statementsBefore;
+    report.add(String.format("%-40s %10d %10d %12d %12d", name, millis, statements, allocated >> 20,
+        peakHeap() >> 20));
+  }
+
+  /**
+   * Follows {@code next} from the first page to the last.
+   *
+   * @return number of pages
+   */
+  private int walk(String path) {
+    int pages = 0;
+    String after = "0";
+    while (after != null) {
+      var page = jsonMapper.readTree(bench.get(path + "?size=" + PAGE_SIZE + "&after=" + after));
+      var next = page.get("next");
+      after = next == null || next.isNull() ? null : next.asString();
+      pages++;
+    }
+    return pages;
+  }
+}
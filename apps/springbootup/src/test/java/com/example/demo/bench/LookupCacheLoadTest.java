@@ -0,0 +1,221 @@
+package com.example.demo.bench;
+
+import static com.example.demo.bench.BenchSupport.firstEmployee;
+import static com.example.demo.bench.BenchSupport.insertDepartments;
+import static com.example.demo.bench.BenchSupport.insertEmployees;
+import static com.example.demo.bench.BenchSupport.spreadEmployees;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.server.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.SpringbootupApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Read-heavy load against the lookup endpoints, once with cache.enabled=false
+ * and once with the caches on, each in its own application on its own
+ * in-memory database of bench.employees employees over bench.departments
+ * departments.
+ *
+ * bench.threads clients send requests back to back for bench.seconds after a
+ * warm-up: {@value #WRITE_PERCENT}% employee updates, the rest split between
+ * GET /employees/get/{id}, /departments/get/{id} and
+ * /employees/department/{id}. Ids are skewed towards the low end, as lookups
+ * of popular records would be. Reports throughput, read and write latency,
+ * SQL statements per request and the cache hit ratio from the cache.gets
+ * metrics, then checks that an update is visible to the next read. Updates
+ * take the employee out of its department (see {@link #update}), so the
+ * department lists thin out a little over the run.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=LookupCacheLoadTest}.
+ */
+@Tag("bench")
+class LookupCacheLoadTest {
+
+  private static final int EMPLOYEES = Integer.getInteger("bench.employees", 100_000);
+  private static final int DEPARTMENTS = Integer.getInteger("bench.departments", 1_000);
+  private static final int THREADS = Integer.getInteger("bench.threads", 8);
+  private static final int SECONDS = Integer.getInteger("bench.seconds", 20);
+  private static final int WARMUP_SECONDS = 5;
+  private static final int WRITE_PERCENT = 2;
+
+  @Test
+  void compareUncachedAndCached() throws Exception {
+    List<String> report = new ArrayList<>();
+    report.add(String.format("%-9s %9s %10s %10s %10s %12s %10s %7s", "caches", "req/s", "read p50", "read p99",
+        "write p99", "stmts/req", "hit ratio", "errors"));
+    report.add(run(false));
+    report.add(run(true));
+    report.forEach(System.out::println);
+  }
+
+  private String run(boolean cached) throws Exception {
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringbootupApplication.class).run(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:lookup-" + cached,
+        "--cache.enabled=" + cached,
+        "--spring.jpa.properties.hibernate.generate_statistics=true",
+        "--logging.level.root=WARN",
+        "--logging.level.org.springframework=WARN",
+        "--logging.level.org.hibernate.type=WARN",
+        "--logging.level.com.example.demo.aspect=WARN")) {
+      Seed seed = seed(context.getBean(JdbcTemplate.class));
+      var bench = new BenchSupport(((WebServerApplicationContext) context).getWebServer().getPort());
+      Load load = new Load(bench, seed);
+      load.run(WARMUP_SECONDS);
+      var statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+      MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+      long statementsBefore = statistics.getPrepareStatementCount();
+      double hitsBefore = cacheGets(meterRegistry, "hit");
+      double missesBefore = cacheGets(meterRegistry, "miss");
+      load = new Load(bench, seed);
+      load.run(SECONDS);
+      long requests = load.requests.sum();
+      long statements = statistics.getPrepareStatementCount() - statementsBefore;
+      double hits = cacheGets(meterRegistry, "hit") - hitsBefore;
+      double misses = cacheGets(meterRegistry, "miss") - missesBefore;
+      checkUpdateIsVisible(bench, seed);
+      assertEquals(0, load.errors.sum(), "failed requests");
+      Histogram reads = load.reads.getIntervalHistogram();
+      Histogram writes = load.writes.getIntervalHistogram();
+      return String.format("%-9s %9d %8.2fms %8.2fms %8.2fms %12.2f %10s %7d", cached ? "on" : "off",
+          requests / SECONDS, reads.getValueAtPercentile(50) / 1e6, reads.getValueAtPercentile(99) / 1e6,
+          writes.getValueAtPercentile(99) / 1e6, (double) statements / requests,
+          cached ? String.format("%.1f%%", 100 * hits / (hits + misses)) : "-", load.errors.sum());
+    }
+  }
+
+  private static double cacheGets(MeterRegistry meterRegistry, String result) {
+    return meterRegistry.find("cache.gets").tag("result", result).functionCounters().stream()
+        .mapToDouble(counter -> counter.count())
+        .sum();
+  }
+
+  private record Seed(int firstEmployee, int firstDepartment) {
+
+    /** The department the seed put the employee in. */
+    int departmentOf(int employeeId) {
+      return firstDepartment + employeeId % DEPARTMENTS;
+    }
+  }
+
+  private static Seed seed(JdbcTemplate jdbcTemplate) {
+    insertEmployees(jdbcTemplate, 1, EMPLOYEES);
+    int firstEmployee = firstEmployee(jdbcTemplate);
+    int firstDepartment = insertDepartments(jdbcTemplate, DEPARTMENTS, firstEmployee + 1);
+    spreadEmployees(jdbcTemplate, firstDepartment, DEPARTMENTS);
+    return new Seed(firstEmployee, firstDepartment);
+  }
+
+  private static void checkUpdateIsVisible(BenchSupport bench, Seed seed) {
+    int id = seed.firstEmployee();
+    int departmentId = seed.departmentOf(id);
+    // both cached by now when the caches are on
+    bench.get("/employees/get/" + id);
+    bench.get("/employees/department/" + departmentId);
+    bench.send(update(bench, id, "checked@example.com"));
+    String employee = bench.get("/employees/get/" + id);
+    assertTrue(employee.contains("\"email\":\"checked@example.com\""), employee);
+    String members = bench.get("/employees/department/" + departmentId);
+    assertFalse(members.contains("\"id\":" + id + ","), "department list is stale");
+  }
+
+  /**
+   * Saves the employee with no department: the save endpoint answers 500 when
+   * it has one, serializing the uninitialized department after the commit.
+   */
+  private static HttpRequest update(BenchSupport bench, int id, String email) {
+    String body = "{\"id\":" + id + ",\"firstName\":\"First\",\"lastName\":\"Last\",\"email\":\"" + email + "\"}";
+    return HttpRequest.newBuilder(bench.uri("/employees/save"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private final class Load {
+    private final BenchSupport bench;
+    private final Seed seed;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Recorder reads = new Recorder(2);
+    private final Recorder writes = new Recorder(2);
+
+    private Load(BenchSupport bench, Seed seed) {
+      this.bench = bench;
+      this.seed = seed;
+    }
+
+    private void run(int seconds) throws InterruptedException {
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+      try (ExecutorService clients = Executors.newFixedThreadPool(THREADS)) {
+        for (int i = 0; i < THREADS; i++) {
+          clients.execute(() -> {
+            while (System.nanoTime() < deadline) {
+              request();
+            }
+          });
+        }
+      }
+    }
+
+    private void request() {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      int employeeId = seed.firstEmployee() + skewed(random, EMPLOYEES);
+      int departmentId = seed.firstDepartment() + skewed(random, DEPARTMENTS);
+      int operation = random.nextInt(100);
+      HttpRequest request;
+      boolean write = operation < WRITE_PERCENT;
+      if (write) {
+        request = update(bench, employeeId, "e" + random.nextInt(1000) + "@example.com");
+      } else if (operation < 70) {
+        request = HttpRequest.newBuilder(bench.uri("/employees/get/" + employeeId)).build();
+      } else if (operation < 90) {
+        request = HttpRequest.newBuilder(bench.uri("/departments/get/" + departmentId)).build();
+      } else {
+        request = HttpRequest.newBuilder(bench.uri("/employees/department/" + departmentId)).build();
+      }
+      long startedAt = System.nanoTime();
+      try {
+        HttpResponse<Void> response = bench.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+          errors.increment();
+        }
+      } catch (IOException ex) {
+        errors.increment();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      (write ? writes : reads).recordValue(System.nanoTime() - startedAt);
+      requests.increment();
+    }
+
+    /** 0 to bound - 1, about half of them under bound / 10 */
+    private static int skewed(ThreadLocalRandom random, int bound) {
+      return (int) (bound * Math.pow(random.nextDouble(), 3));
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package com.example.demo.bench;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.example.demo.aspect.GlobalMonitoringAspect;
+import com.example.demo.aspect.ServiceCallMetrics;
+import com.example.demo.services.bench.BenchService;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of the monitoring advice per service call: a plain call, the same
+ * call through a proxy with an empty around advice (the Spring AOP floor),
+ * with GlobalMonitoringAspect recording into ServiceCallMetrics, and with
+ * the aspect as it was (two INFO lines per call). Logback formats into a
+ * discarding stream with the console pattern, so the logging case is a
+ * lower bound: no terminal or file I/O.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=MonitoringAspectBenchmark}; add
+ * {@code -Djmh.args="-prof gc"} or any other JMH options.
+ */
+@Tag("bench")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonitoringAspectBenchmark {
+
+  private BenchService direct;
+  private BenchService empty;
+  private BenchService metrics;
+  private BenchService logging;
+  private int value;
+
+  @Setup
+  public void setUp() {
+    discardLogs();
+    direct = new BenchService();
+    empty = proxy(new EmptyAspect());
+    metrics = proxy(new GlobalMonitoringAspect(new ServiceCallMetrics(new SimpleMeterRegistry()),
+        Duration.ofMillis(500), 0));
+    logging = proxy(new LoggingMonitoringAspect());
+  }
+
+  private static BenchService proxy(Object aspect) {
+    AspectJProxyFactory factory = new AspectJProxyFactory(new BenchService());
+    factory.setProxyTargetClass(true);
+    factory.addAspect(aspect);
+    return factory.getProxy();
+  }
+
+  private static void discardLogs() {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p %pid --- [%t] %-40.40logger{39} : %m%n");
+    encoder.start();
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(OutputStream.nullOutputStream());
+    appender.start();
+    ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+    root.detachAndStopAllAppenders();
+    root.addAppender(appender);
+    root.setLevel(Level.INFO);
+  }
+
+  @Benchmark
+  public int direct() {
+    return direct.getValue(value++);
+  }
+
+  @Benchmark
+  public int emptyAspect() {
+    return empty.getValue(value++);
+  }
+
+  @Benchmark
+  public int metricsAspect() {
+    return metrics.getValue(value++);
+  }
+
+  @Benchmark
+  public int loggingAspect() {
+    return logging.getValue(value++);
+  }
+
+  @Test
+  void run() throws Exception {
+    String args = System.getProperty("jmh.args", "").trim();
+    new Runner(new OptionsBuilder()
+        .parent(new CommandLineOptions(args.isEmpty() ? new String[0] : args.split("\\s+")))
+        .include(MonitoringAspectBenchmark.class.getName())
+        .build())
+        .run();
+  }
+
+  @Aspect
+  static class EmptyAspect {
+
+    @Around("com.example.demo.aspect.CommonPointcuts.serviceLayer()")
+    public Object proceed(ProceedingJoinPoint joinPoint) throws Throwable {
+      return joinPoint.proceed();
+    }
+  }
+
+  /** GlobalMonitoringAspect before it recorded into ServiceCallMetrics. */
+  @Aspect
+  static class LoggingMonitoringAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingMonitoringAspect.class);
+    private static final String CYAN = "\u001B[36m";
+    private static final String GREEN = "\u001B[32m";
+    private static final String RED = "\u001B[31m";
+    private static final String RESET = "\u001B[0m";
+
+    @Around("com.example.demo.aspect.CommonPointcuts.serviceLayer()")
+    public Object monitorServicePerformance(ProceedingJoinPoint joinPoint) throws Throwable {
+      long startTime = System.currentTimeMillis();
+      String methodName = joinPoint.getSignature().getName();
+      String className = joinPoint.getTarget().getClass().getSimpleName();
+
+      try {
+        log.info("{}⇒ Executing {}.{}(){}",
+            CYAN, className, methodName, RESET);
+
+        Object result = joinPoint.proceed();
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("{}✓ {}.{} completed in {}ms{}",
+            GREEN, className, methodName, duration, RESET);
+
+        return result;
+      } catch (Throwable e) {
+        log.error("{}✗ {}.{} failed in {}ms{}",
+            RED, className, methodName,
+            (System.currentTimeMillis() - startTime), RESET);
+        throw e;
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.bench;
+
+import static com.example.demo.bench.BenchSupport.insertEmployees;
+import static com.example.demo.bench.BenchSupport.peakHeap;
+import static com.example.demo.bench.BenchSupport.resetPeakHeap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Reads every employee through GET /employees/export, as NDJSON and as CSV,
+ * and through GET /employees/list, first with bench.employees / 10 employees
+ * and then with bench.employees (1M by default). Reports time, rows, bytes
+ * and peak heap. The client counts lines as they arrive and keeps none of
+ * the body. The employees have no department, which the list endpoint can't
+ * serialize. The database is an H2 file under target, so the heap figures
+ * don't include the table.
+ *
+ * Peak heap counts garbage not yet collected, so it rises with a long run
+ * even when little stays live. What the export holds doesn't depend on the
+ * table size: the application started with -Xmx128m exports 1M employees,
+ * where /employees/list runs out of memory.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=StreamingExportBenchmarkTest}.
+ */
+@Tag("bench")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:file:./target/bench/export",
+    "logging.level.root=WARN",
+    "logging.level.org.springframework=WARN" })
+class StreamingExportBenchmarkTest {
+
+  private static final int EMPLOYEES = Integer.getInteger("bench.employees", 1_000_000);
+
+  static {
+    // start from an empty database
+    FileSystemUtils.deleteRecursively(new File("target/bench"));
+  }
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<String> report = new ArrayList<>();
+  private BenchSupport bench;
+
+  @BeforeEach
+  void connect() {
+    bench = new BenchSupport(port);
+  }
+
+  @Test
+  void compareExportWithList() throws Exception {
+    report.add(String.format("%-36s %10s %10s %10s %12s", "read", "rows", "ms", "MB", "peak heap MB"));
+    for (int employees : new int[] { EMPLOYEES / 10, EMPLOYEES }) {
+      seed(employees);
+      read("GET /employees/export NDJSON", "/employees/export", "application/x-ndjson", employees);
+      read("GET /employees/export CSV", "/employees/export", "text/csv", employees + 1);
+      read("GET /employees/list", "/employees/list", "application/json", 1);
+    }
+    report.forEach(System.out::println);
+  }
+
+  private void read(String name, String path, String accept, long expectedLines) throws Exception {
+    resetPeakHeap();
+    long startedAt = System.nanoTime();
+    HttpResponse<InputStream> response = bench.send(HttpRequest.newBuilder(bench.uri(path))
+        .header("Accept", accept)
+        .build(), HttpResponse.BodyHandlers.ofInputStream());
+    assertEquals(200, response.statusCode());
+    long lines = 0;
+    long bytes = 0;
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream body = response.body()) {
+      for (int read; (read = body.read(buffer)) != -1; bytes += read) {
+        for (int i = 0; i < read; i++) {
+          if (buffer[i] == '\n') {
+            lines++;
+          }
+        }
+      }
+    }
+    long millis = (System.nanoTime() - startedAt) / 1_000_000;
+    if (!path.endsWith("/list")) {
+      assertEquals(expectedLines, lines);
+    }
+    report.add(String.format("%-36s %10d %10d %10d %12d", name, count(), millis, bytes >> 20, peakHeap() >> 20));
+  }
+
+  /** Tops the table up to {@code employees} rows. */
+  private void seed(int employees) {
+    insertEmployees(jdbcTemplate, count() + 1, employees);
+  }
+
+  private long count() {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM employee", Long.class);
+  }
+}
@@ -0,0 +1,146 @@
+package com.example.demo.bench;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Recorder;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * bench.callers concurrent clients (1,000 by default), each sending requests
+ * back to back for bench.seconds: first to the blocking GET /fortune, then
+ * to GET /fortune/async starting from an empty cache. Reports completed
+ * requests per second, latency, fallback answers and upstream calls. The
+ * fortune is refreshed every {@value #REFRESH_SECONDS} s, so the async run
+ * includes background reloads. Requests still running at the end are
+ * waited for and counted.
+ *
+ * Run with {@code mvn test -Pbench -Dtest=TrafficFortuneLoadTest}.
+ */
+@Tag("bench")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "fortune.refresh-after=" + TrafficFortuneLoadTest.REFRESH_SECONDS + "s",
+    "logging.level.root=WARN",
+    "logging.level.org.springframework=WARN",
+    "logging.level.com.example.demo.aspect=ERROR" })
+class TrafficFortuneLoadTest {
+
+  static final int REFRESH_SECONDS = 5;
+  private static final int CALLERS = Integer.getInteger("bench.callers", 1_000);
+  private static final int SECONDS = Integer.getInteger("bench.seconds", 20);
+  private static final String FALLBACK = "No traffic news right now";
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+  @Test
+  void compareBlockingAndAsync() throws Exception {
+    List<String> report = new ArrayList<>();
+    report.add(String.format("%-20s %9s %9s %10s %10s %10s %10s %9s %9s", "endpoint", "requests", "req/s",
+        "p50", "p99", "max", "fallbacks", "upstream", "errors"));
+    Run blocking = new Run("/fortune");
+    blocking.run();
+    report.add(blocking.line(blocking.requests.sum()));
+
+    double loadsBefore = loads();
+    Run async = new Run("/fortune/async");
+    async.run();
+    long upstream = (long) (loads() - loadsBefore);
+    report.add(async.line(upstream));
+    report.forEach(System.out::println);
+
+    assertEquals(0, blocking.errors.sum(), "failed blocking requests");
+    assertEquals(0, async.errors.sum(), "failed async requests");
+    // the first load, one per refresh interval, one refresh that may still be running
+    assertTrue(upstream <= 2 + SECONDS / REFRESH_SECONDS, upstream + " upstream calls");
+  }
+
+  private double loads() {
+    return meterRegistry.find("cache.load").tag("cache", "fortune").functionCounters().stream()
+        .mapToDouble(counter -> counter.count())
+        .sum();
+  }
+
+  private final class Run {
+    private final String path;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Recorder latency = new Recorder(2);
+    private long millis;
+
+    private Run(String path) {
+      this.path = path;
+    }
+
+    private void run() {
+      HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+      long startedAt = System.nanoTime();
+      long deadline = startedAt + TimeUnit.SECONDS.toNanos(SECONDS);
+      try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int i = 0; i < CALLERS; i++) {
+          callers.execute(() -> {
+            while (System.nanoTime() < deadline) {
+              send(request);
+            }
+          });
+        }
+      }
+      millis = (System.nanoTime() - startedAt) / 1_000_000;
+    }
+
+    private void send(HttpRequest request) {
+      long startedAt = System.nanoTime();
+      try {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+          errors.increment();
+          return;
+        }
+        if (FALLBACK.equals(response.body())) {
+          fallbacks.increment();
+        }
+      } catch (IOException ex) {
+        errors.increment();
+        return;
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      latency.recordValue(System.nanoTime() - startedAt);
+      requests.increment();
+    }
+
+    private String line(long upstream) {
+      Histogram histogram = latency.getIntervalHistogram();
+      return String.format("%-20s %9d %9d %8.1fms %8.1fms %8.1fms %10d %9d %9d", "GET " + path, requests.sum(),
+          requests.sum() * 1000 / millis, histogram.getValueAtPercentile(50) / 1e6,
+          histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6, fallbacks.sum(), upstream,
+          errors.sum());
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.Hibernate;
+import org.hibernate.proxy.HibernateProxy;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.Conditions;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dto.DepartmentDto;
+import com.example.demo.dto.EmployeeDto;
+import com.example.demo.entity.Department;
+import com.example.demo.entity.Employee;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * EntityDtoMapper's compiled mappings give the same objects as ModelMapper
+ * configured the way EntityDtoMapper used it (strict matching, nulls
+ * skipped), in both directions. The proxy case needs a persistence context,
+ * hence the application context.
+ */
+@SpringBootTest
+class EntityDtoMapperTest {
+
+  @Autowired
+  private EntityDtoMapper entityDtoMapper;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  private final ModelMapper modelMapper = modelMapper();
+
+  @Test
+  void employeeWithDepartmentToDto() {
+    Employee employee = new Employee(42, "Ada", "Lovelace", "ada@example.com", department(true));
+
+    EmployeeDto dto = entityDtoMapper.convertToDto(employee, EmployeeDto.class);
+
+    assertThat(dto).isEqualTo(modelMapper.map(employee, EmployeeDto.class));
+    assertThat(dto.getDepartment().getDepartmentName()).isEqualTo("Engineering");
+    assertThat(dto.getDepartment().getActive()).isTrue();
+  }
+
+  @Test
+  void nullPropertiesStayUnset() {
+    Employee employee = new Employee(43, "Grace", null, null, null);
+
+    EmployeeDto dto = entityDtoMapper.convertToDto(employee, EmployeeDto.class);
+
+    assertThat(dto).isEqualTo(modelMapper.map(employee, EmployeeDto.class));
+    assertThat(dto.getLastName()).isNull();
+    assertThat(dto.getDepartment()).isNull();
+  }
+
+  @Test
+  void primitiveBooleanToWrapper() {
+    Department inactive = department(false);
+
+    DepartmentDto dto = entityDtoMapper.convertToDto(inactive, DepartmentDto.class);
+
+    assertThat(dto).isEqualTo(modelMapper.map(inactive, DepartmentDto.class));
+    assertThat(dto.getActive()).isFalse();
+  }
+
+  @Test
+  void dtoWithDepartmentToEmployee() {
+    EmployeeDto dto = modelMapper.map(new Employee(42, "Ada", "Lovelace", "ada@example.com", department(true)),
+        EmployeeDto.class);
+
+    Employee employee = entityDtoMapper.convertToEntity(dto, Employee.class);
+
+    assertThat(employee).isEqualTo(modelMapper.map(dto, Employee.class));
+    assertThat(employee.getDepartment().isActive()).isTrue();
+    // not on the DTO
+    assertThat(employee.getDepartment().getCreatedDate()).isNull();
+  }
+
+  @Test
+  void wrapperBooleanToPrimitive() {
+    DepartmentDto active = new DepartmentDto();
+    active.setActive(Boolean.TRUE);
+    DepartmentDto unset = new DepartmentDto();
+    unset.setDepartmentCode("OPS");
+
+    Department fromActive = entityDtoMapper.convertToEntity(active, Department.class);
+    Department fromUnset = entityDtoMapper.convertToEntity(unset, Department.class);
+
+    assertThat(fromActive).isEqualTo(modelMapper.map(active, Department.class));
+    assertThat(fromActive.isActive()).isTrue();
+    // a null Boolean is skipped, leaving the primitive's default
+    assertThat(fromUnset).isEqualTo(modelMapper.map(unset, Department.class));
+    assertThat(fromUnset.isActive()).isFalse();
+    assertThat(fromUnset.getDepartmentName()).isNull();
+  }
+
+  @Test
+  void hibernateProxySource() {
+    transactionTemplate.executeWithoutResult(status -> {
+      Department department = department(true);
+      department.setId(0);
+      entityManager.persist(department);
+      Employee employee = new Employee(0, "Ada", "Lovelace", "ada@example.com", department);
+      entityManager.persist(employee);
+      entityManager.flush();
+      entityManager.clear();
+
+      Employee loaded = entityManager.find(Employee.class, employee.getId());
+      assertThat(loaded.getDepartment()).isInstanceOf(HibernateProxy.class);
+      EmployeeDto expected = modelMapper.map(loaded, EmployeeDto.class);
+      expected.setDepartment(modelMapper.map(Hibernate.unproxy(loaded.getDepartment()), DepartmentDto.class));
+      assertThat(entityDtoMapper.convertToDto(loaded, EmployeeDto.class)).isEqualTo(expected);
+
+      entityManager.clear();
+      Department reference = entityManager.getReference(Department.class, department.getId());
+      assertThat(reference).isInstanceOf(HibernateProxy.class);
+      assertThat(entityDtoMapper.convertToDto(reference, DepartmentDto.class))
+          .isEqualTo(modelMapper.map(Hibernate.unproxy(reference), DepartmentDto.class));
+
+      status.setRollbackOnly();
+    });
+  }
+
+  private static Department department(boolean active) {
+    return Department.builder()
+        .id(7)
+        .departmentCode("ENG")
+        .departmentName("Engineering")
+        .location("Floor 3")
+        .active(active)
+        .createdDate(LocalDateTime.now())
+        .build();
+  }
+
+  private static ModelMapper modelMapper() {
+    ModelMapper mapper = new ModelMapper();
+    mapper.getConfiguration()
+        .setMatchingStrategy(MatchingStrategies.STRICT)
+        .setPropertyCondition(Conditions.isNotNull());
+    return mapper;
+  }
+}
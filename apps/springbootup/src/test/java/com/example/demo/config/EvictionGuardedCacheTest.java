@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.cache.metrics.CacheMetricsRegistrar;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Plays a lookup and an eviction from another thread against a guarded
+ * Caffeine cache, in the orders a racing write can produce.
+ */
+class EvictionGuardedCacheTest {
+
+  private final EvictionGuardedCache cache = new EvictionGuardedCache(
+      new CaffeineCache("employees", Caffeine.newBuilder().recordStats().build(), false));
+
+  @Test
+  void lookupWithoutEvictionIsCached() {
+    assertThat(cache.get(1)).isNull();
+    cache.put(1, "old");
+
+    assertThat(cache.get(1, String.class)).isEqualTo("old");
+  }
+
+  @Test
+  void lookupThatMissedBeforeAnEvictionIsNotCached() {
+    assertThat(cache.get(1)).isNull();
+    // the write commits and evicts while the lookup reads the old row
+    CompletableFuture.runAsync(() -> cache.evict(1)).join();
+    cache.put(1, "old");
+
+    assertThat(cache.get(1)).isNull();
+    cache.put(1, "new");
+    assertThat(cache.get(1, String.class)).isEqualTo("new");
+  }
+
+  @Test
+  void clearDropsLookupsOfEveryKey() {
+    assertThat(cache.get(2)).isNull();
+    CompletableFuture.runAsync(cache::clear).join();
+    cache.putIfAbsent(2, "old");
+
+    assertThat(cache.get(2)).isNull();
+  }
+
+  @Test
+  void putWithoutAMissOnThatKeyIsDropped() {
+    cache.put(1, "unasked");
+    assertThat(cache.get(2)).isNull();
+    cache.put(1, "other key");
+
+    assertThat(cache.get(1)).isNull();
+  }
+
+  @Test
+  void missesAreTrackedPerThread() {
+    assertThat(cache.get(1)).isNull();
+    CompletableFuture.runAsync(() -> {
+      assertThat(cache.get(1)).isNull();
+      cache.put(1, "theirs");
+    }).join();
+    cache.put(1, "ours");
+
+    assertThat(cache.get(1, String.class)).isEqualTo("ours");
+  }
+
+  @Test
+  void metersBindToTheCaffeineCache() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    CacheMetricsRegistrar registrar = new CacheMetricsRegistrar(meterRegistry,
+        List.of(new CacheConfig().evictionGuardedCacheMeterBinderProvider()));
+
+    assertThat(registrar.bindCacheToRegistry(cache)).isTrue();
+    cache.get(1);
+    assertThat(meterRegistry.get("cache.gets").tag("cache", "employees").tag("result", "miss")
+        .functionCounter().count()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * The async timeout of export requests, against the global one, as
+ * application.properties sets them.
+ */
+@SpringBootTest
+class ExportTimeoutTest {
+
+  @Autowired
+  private WebApplicationContext context;
+  @Value("${spring.mvc.async.request-timeout}")
+  private Duration requestTimeout;
+  @Value("${exports.timeout}")
+  private Duration exportTimeout;
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+  }
+
+  @Test
+  void exportsGetTheExportTimeout() throws Exception {
+    assertThat(exportTimeout).isGreaterThan(requestTimeout);
+    for (String path : new String[] { "/employees/export", "/departments/export" }) {
+      MvcResult result = mockMvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn();
+
+      assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(exportTimeout.toMillis());
+      mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+  }
+
+  @Test
+  void otherAsyncRequestsKeepTheGlobalTimeout() throws Exception {
+    MvcResult result = mockMvc.perform(get("/fortune/async")).andExpect(request().asyncStarted()).andReturn();
+
+    assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(requestTimeout.toMillis());
+  }
+}
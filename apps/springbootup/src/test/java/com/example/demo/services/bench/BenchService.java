@@ -0,0 +1,13 @@
+package com.example.demo.services.bench;
+
+/**
+ * A service-layer class for MonitoringAspectBenchmark to advise: it sits
+ * under com.example.demo.services, so CommonPointcuts.serviceLayer() matches
+ * it, and does next to no work, so the benchmark measures the advice.
+ */
+public class BenchService {
+
+  public int getValue(int value) {
+    return value + 1;
+  }
+}
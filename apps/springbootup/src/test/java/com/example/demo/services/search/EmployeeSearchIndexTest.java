@@ -0,0 +1,74 @@
+package com.example.demo.services.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entity.Employee;
+
+/**
+ * Catching up after rows inserted without EmployeeService, with a save
+ * indexed in between, as when an import runs next to the API.
+ */
+@SpringBootTest
+class EmployeeSearchIndexTest {
+
+  @Autowired
+  private EmployeeSearchIndex searchIndex;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void tearDown() {
+    List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM employee WHERE last_name LIKE 'Catchup%'",
+        Integer.class);
+    jdbcTemplate.update("DELETE FROM employee WHERE last_name LIKE 'Catchup%'");
+    searchIndex.removeAll(ids);
+  }
+
+  @Test
+  void catchUpIndexesRowsBelowAConcurrentSave() {
+    int lastIdBefore = maxId();
+    // an imported row, then a save through the service, which is indexed at once
+    int imported = insert("Imported", "CatchupImported");
+    int saved = insert("Saved", "CatchupSaved");
+    searchIndex.put(new Employee(saved, "Saved", "CatchupSaved", "saved@example.com", null));
+    assertThat(searchIndex.search("catchupimported", 10)).isEmpty();
+
+    assertThat(searchIndex.catchUp(lastIdBefore)).isEqualTo(2);
+
+    assertThat(searchIndex.search("catchupimported", 10)).containsExactly(imported);
+    assertThat(searchIndex.search("catchupsaved", 10)).containsExactly(saved);
+  }
+
+  @Test
+  void catchUpPagesThroughEveryRow() {
+    int lastIdBefore = maxId();
+    int count = 2_500;
+    jdbcTemplate.batchUpdate("INSERT INTO employee (first_name, last_name, email) VALUES (?, 'CatchupPaged', ?)",
+        IntStream.range(0, count)
+            .mapToObj(i -> new Object[] { "Paged" + i, "paged" + i + "@example.com" })
+            .toList());
+
+    assertThat(searchIndex.catchUp(lastIdBefore)).isEqualTo(count);
+    assertThat(searchIndex.search("catchuppaged", 3_000)).hasSize(count);
+  }
+
+  private int maxId() {
+    return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM employee", Integer.class);
+  }
+
+  private int insert(String firstName, String lastName) {
+    jdbcTemplate.update("INSERT INTO employee (first_name, last_name, email) VALUES (?, ?, ?)", firstName, lastName,
+        firstName.toLowerCase() + "@example.com");
+    return maxId();
+  }
+}
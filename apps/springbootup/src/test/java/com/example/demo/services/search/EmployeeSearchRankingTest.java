@@ -0,0 +1,256 @@
+package com.example.demo.services.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.Employee;
+
+/**
+ * Ranking of an index filled through {@link EmployeeSearchIndex#put}, which
+ * applies at once outside a transaction. Only startup and catch-up read the
+ * database, so the index gets neither a repository nor a transaction
+ * manager.
+ */
+class EmployeeSearchRankingTest {
+
+  private static final String[] NAMES = { "ann", "anna", "annabel", "bob", "bobby", "rob", "robert", "roberta",
+      "mary", "maryann", "smith", "smithers", "jo", "joe", "john", "johnson" };
+  private static final String[] DOMAINS = { "example.com", "annex.org", "bobcat.io", "jo.net" };
+  private static final String[] TERMS = { "a", "an", "ann", "anna", "b", "bob", "rob", "robert", "mary", "smith",
+      "jo", "john", "ex", "example", "com", "annex", "org", "cat", "net", "zzz" };
+
+  private final EmployeeSearchIndex index = new EmployeeSearchIndex(null, null);
+
+  @Test
+  void topHitsMatchABruteForceRankingOfRandomEmployees() {
+    Random random = new Random(42);
+    Map<Integer, Employee> employees = new HashMap<>();
+    // ids out of order, with gaps, so postings insert in the middle
+    List<Integer> ids = new ArrayList<>(IntStream.rangeClosed(1, 600).filter(id -> id % 3 != 0).boxed().toList());
+    Collections.shuffle(ids, random);
+    for (int id : ids) {
+      String first = pick(random, NAMES);
+      String last = pick(random, NAMES);
+      String local = random.nextBoolean() ? first + "." + last : pick(random, NAMES) + random.nextInt(3);
+      employees.put(id, put(id, capitalize(first), capitalize(last), local + "@" + pick(random, DOMAINS)));
+    }
+
+    for (int q = 0; q < 300; q++) {
+      int termCount = 1 + random.nextInt(3);
+      StringBuilder query = new StringBuilder();
+      for (int t = 0; t < termCount; t++) {
+        query.append(t == 0 ? "" : " ").append(pick(random, TERMS));
+      }
+      int limit = List.of(1, 3, 10, 1_000).get(random.nextInt(4));
+
+      assertThat(index.search(query.toString(), limit))
+          .as("%s, limit %d", query, limit)
+          .isEqualTo(bruteForce(employees.values(), query.toString(), limit));
+    }
+  }
+
+  @Test
+  void scoresAWholeNameWordAboveAPrefixOrAnEmailWord() {
+    put(1, "Annabel", "Jones", "x1@example.com"); // name prefix: 2
+    put(2, "Zoe", "Jones", "x2@ann.org"); // whole email word: 2
+    put(3, "Zoe", "Jones", "annie@example.com"); // email prefix: 1
+    put(4, "Ann", "Jones", "x4@example.com"); // whole name word: 4
+
+    assertThat(index.search("ann", 10)).containsExactly(4, 1, 2, 3);
+  }
+
+  @Test
+  void tiesGoToTheLowerIdAcrossLists() {
+    // the email word is read before the longer name word, but ties on score
+    put(5, "Zoe", "Jones", "ann@example.com");
+    put(3, "Annabel", "Jones", "x3@example.com");
+
+    assertThat(index.search("ann", 1)).containsExactly(3);
+    assertThat(index.search("ann", 2)).containsExactly(3, 5);
+  }
+
+  @Test
+  void fullResultsStopReadingWordsThatCannotScoreHigher() {
+    put(9, "Ann", "Jones", "x9@example.com");
+    put(1, "Annabel", "Jones", "x1@example.com");
+    put(2, "Zoe", "Jones", "annie@example.com");
+
+    // a whole-word hit outranks the lower ids that only match a prefix
+    assertThat(index.search("ann", 1)).containsExactly(9);
+    assertThat(index.search("ann", 2)).containsExactly(9, 1);
+  }
+
+  @Test
+  void multiWordQueriesMatchEveryTermAndAddUpTheScores() {
+    put(1, "Mary", "Smith", "m1@example.com"); // 4 + 4
+    put(2, "Mary", "Smithers", "m2@example.com"); // 4 + 2
+    put(3, "Maryann", "Smith", "m3@example.com"); // 2 + 4
+    put(4, "Mary", "Jones", "m4@example.com"); // no smith
+    put(5, "Bob", "Jones", "mary.smith@example.com"); // 2 + 2
+
+    assertThat(index.search("smith mary", 10)).containsExactly(1, 2, 3, 5);
+    assertThat(index.search("Mary, SMITH!", 10)).containsExactly(1, 2, 3, 5);
+    assertThat(index.search("mary smith zed", 10)).isEmpty();
+  }
+
+  @Test
+  void emailOnlyMatchesAreFound() {
+    put(1, "Zoe", "Jones", "zoe.jones@acme.example");
+    put(2, "Al", "Brown", "al@widgets.example");
+
+    assertThat(index.search("acme", 10)).containsExactly(1);
+    assertThat(index.search("wid", 10)).containsExactly(2);
+    assertThat(index.search("example", 10)).containsExactly(1, 2);
+  }
+
+  @Test
+  void anEmployeeMatchingSeveralWordsIsReturnedOnce() {
+    // in the name and email postings of the term, and of a longer word
+    put(1, "Ann", "Annabel", "ann.annabel@annex.org");
+    put(2, "Ann", "Jones", "x2@example.com");
+
+    assertThat(index.search("ann", 10)).containsExactly(1, 2);
+    assertThat(index.search("an", 10)).containsExactly(1, 2);
+  }
+
+  @Test
+  void removedEmployeesAreNotFound() {
+    put(1, "Ann", "Jones", "ann@example.com");
+    put(2, "Ann", "Smith", "ann.smith@example.com");
+    int words = index.wordCount();
+
+    index.removeAll(List.of(1, 99));
+
+    assertThat(index.search("ann", 10)).containsExactly(2);
+    assertThat(index.search("jones", 10)).isEmpty();
+    assertThat(index.size()).isEqualTo(1);
+    // jones was only used by the removed employee
+    assertThat(index.wordCount()).isEqualTo(words - 1);
+  }
+
+  @Test
+  void reindexingReplacesTheOldWords() {
+    put(1, "Ann", "Jones", "ann@example.com");
+    put(1, "Ann", "Smith", "ann.smith@example.com");
+
+    assertThat(index.search("jones", 10)).isEmpty();
+    assertThat(index.search("smith", 10)).containsExactly(1);
+    assertThat(index.search("ann", 10)).containsExactly(1);
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  @Test
+  void queriesWithoutWordsFindNothing() {
+    put(1, "Ann", "Jones", "ann@example.com");
+
+    assertThat(index.search(" -.@ ", 10)).isEmpty();
+    assertThat(index.search("", 10)).isEmpty();
+  }
+
+  @Test
+  void driverIsTheTermWithTheFewestPostingsOverItsLongerWords() {
+    for (int id = 1; id <= 5; id++) {
+      put(id, "Smith", "Jones" + id, "s" + id + "@example.com");
+    }
+    put(6, "Zed", "Smith", "zed@example.com");
+    put(7, "Zeno", "Smith", "zeno@example.com");
+    put(8, "Bo", "Smith", "bob@example.com");
+
+    assertThat(index.fewestPostings(List.of("smith", "zed"))).isEqualTo("zed");
+    // zed counts its name and email postings: 2, ze adds zeno's: 4
+    assertThat(index.fewestPostings(List.of("ze", "bo"))).isEqualTo("bo");
+    assertThat(index.fewestPostings(List.of("jones", "ze"))).isEqualTo("ze");
+    // on a tie, the first term
+    assertThat(index.fewestPostings(List.of("zed", "bo"))).isEqualTo("zed");
+    assertThat(index.fewestPostings(List.of("bo", "zed"))).isEqualTo("bo");
+  }
+
+  @Test
+  void topHitsKeepTheBestByScoreThenId() {
+    EmployeeSearchIndex.TopHits top = new EmployeeSearchIndex.TopHits(3);
+    top.offer(7, 2);
+    top.offer(3, 2);
+    top.offer(9, 4);
+    top.offer(5, 0);
+    top.offer(3, 2);
+
+    assertThat(top.ids()).containsExactly(9, 3, 7);
+
+    top.offer(1, 1);
+    top.offer(4, 2);
+    assertThat(top.ids()).containsExactly(9, 3, 4);
+  }
+
+  @Test
+  void topHitsBeatOnlyWhenFullAndRankedAbove() {
+    EmployeeSearchIndex.TopHits top = new EmployeeSearchIndex.TopHits(2);
+    top.offer(5, 4);
+    assertThat(top.beats(0, Integer.MAX_VALUE)).isFalse();
+
+    top.offer(8, 2);
+    // last kept: score 2, id 8
+    assertThat(top.beats(1, 0)).isTrue();
+    assertThat(top.beats(2, 9)).isTrue();
+    assertThat(top.beats(2, 8)).isFalse();
+    assertThat(top.beats(2, 7)).isFalse();
+    assertThat(top.beats(3, Integer.MAX_VALUE)).isFalse();
+  }
+
+  private Employee put(int id, String firstName, String lastName, String email) {
+    Employee employee = new Employee(id, firstName, lastName, email, null);
+    index.put(employee);
+    return employee;
+  }
+
+  /** Scores every employee from scratch and sorts them all. */
+  private static List<Integer> bruteForce(Iterable<Employee> employees, String query, int limit) {
+    Set<String> terms = EmployeeSearchIndex.words(query);
+    List<int[]> hits = new ArrayList<>();
+    for (Employee employee : employees) {
+      Set<String> names = EmployeeSearchIndex.words(employee.getFirstName() + " " + employee.getLastName());
+      Set<String> email = EmployeeSearchIndex.words(employee.getEmail());
+      int total = 0;
+      for (String term : terms) {
+        int best = 0;
+        for (String word : names) {
+          best = Math.max(best, word.equals(term) ? 4 : word.startsWith(term) ? 2 : 0);
+        }
+        for (String word : email) {
+          best = Math.max(best, word.equals(term) ? 2 : word.startsWith(term) ? 1 : 0);
+        }
+        if (best == 0) {
+          total = 0;
+          break;
+        }
+        total += best;
+      }
+      if (total > 0) {
+        hits.add(new int[] { employee.getId(), total });
+      }
+    }
+    return hits.stream()
+        .sorted(Comparator.<int[]>comparingInt(hit -> -hit[1]).thenComparingInt(hit -> hit[0]))
+        .limit(limit)
+        .map(hit -> hit[0])
+        .toList();
+  }
+
+  private static String pick(Random random, String[] values) {
+    return values[random.nextInt(values.length)];
+  }
+
+  private static String capitalize(String word) {
+    return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+  }
+}